@@ -0,0 +1,144 @@
+package Benchmarks;
+
+import IotDomain.*;
+import org.jxmapviewer.viewer.GeoPosition;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Compares the reception cost of the {@link CollisionIndex} with a full scan over all received transmissions,
+ * which is how {@link NetworkEntity#receiveTransmission(LoraTransmission)} checked for collisions before.
+ * For every size the receiver is first filled through the index, after which the last {@code SAMPLE_SIZE}
+ * receptions are replayed with both strategies and their collision flags are compared.
+ * The total cost of a full scan is extrapolated from the sample, since scanning a million receptions takes hours.
+ * Run with a large heap, e.g. {@code java -Xmx4g -cp out/classes:lib/* Benchmarks.CollisionIndexBenchmark}.
+ */
+public class CollisionIndexBenchmark {
+
+    /**
+     * The number of receptions that is replayed with both strategies.
+     */
+    private static final int SAMPLE_SIZE = 500;
+
+    /**
+     * The mean time in milliseconds between two receptions.
+     */
+    private static final int MEAN_INTERVAL_MILLIS = 60;
+
+    public static void main(String[] args) {
+        int[] sizes = args.length > 0 ? parseSizes(args) : new int[]{10_000, 100_000, 1_000_000};
+        System.out.printf("%10s %18s %18s %22s %10s%n", "receptions", "index ns/reception", "scan ns/reception",
+                "scan total (estimate)", "flags");
+        for (int size : sizes) {
+            run(size);
+        }
+    }
+
+    private static int[] parseSizes(String[] args) {
+        int[] sizes = new int[args.length];
+        for (int i = 0; i < args.length; i++) {
+            sizes[i] = Integer.parseInt(args[i]);
+        }
+        return sizes;
+    }
+
+    private static void run(int size) {
+        Random random = new Random(size);
+        Characteristic[][] map = new Characteristic[10][10];
+        for (Characteristic[] row : map) {
+            Arrays.fill(row, Characteristic.Plain);
+        }
+        Environment environment = new Environment(map, new GeoPosition(50.853718, 4.673155), new LinkedHashSet<>());
+        Gateway receiver = new Gateway(random.nextLong(), 5, 5, environment, 14, 12);
+        List<Mote> senders = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            senders.add(new Mote(random.nextLong(), i % 10, i / 10, environment, 2 + random.nextInt(13),
+                    7 + random.nextInt(6), new LinkedList<>(), 0, new LinkedList<>(), 10, 0.5));
+        }
+
+        List<LoraTransmission> transmissions = new ArrayList<>(size);
+        LoraWanPacket packet = new LoraWanPacket(0L, 1L, new Byte[0], new LinkedList<>());
+        for (int i = 0; i < size; i++) {
+            environment.tick(random.nextInt(2 * MEAN_INTERVAL_MILLIS));
+            Mote sender = senders.get(random.nextInt(senders.size()));
+            transmissions.add(new LoraTransmission(sender, receiver, sender.getTransmissionPower(), 125,
+                    7 + random.nextInt(6), packet));
+        }
+
+        int sampleStart = Math.max(0, size - SAMPLE_SIZE);
+        LinkedHashMap<LoraTransmission, Boolean> indexed = new LinkedHashMap<>();
+        CollisionIndex index = new CollisionIndex();
+        long indexStart = System.nanoTime();
+        for (int i = 0; i < sampleStart; i++) {
+            receiveIndexed(receiver, transmissions.get(i), indexed, index);
+        }
+        long indexPrefillNanos = System.nanoTime() - indexStart;
+
+        LinkedHashMap<LoraTransmission, Boolean> scanned = new LinkedHashMap<>(indexed);
+        long scanStart = System.nanoTime();
+        for (int i = sampleStart; i < size; i++) {
+            receiveScanned(receiver, transmissions.get(i), scanned);
+        }
+        long scanSampleNanos = System.nanoTime() - scanStart;
+
+        indexStart = System.nanoTime();
+        for (int i = sampleStart; i < size; i++) {
+            receiveIndexed(receiver, transmissions.get(i), indexed, index);
+        }
+        long indexSampleNanos = System.nanoTime() - indexStart;
+
+        int sampleSize = size - sampleStart;
+        double scanPerReception = (double) scanSampleNanos / sampleSize;
+        // The scan cost grows linearly with the number of receptions, so the sample at the tail costs about twice the mean.
+        double scanTotalSeconds = scanPerReception * size / 2 / 1e9;
+        System.out.printf("%10d %18.0f %18.0f %20.1f s %10s%n", size,
+                (double) (indexPrefillNanos + indexSampleNanos) / size, scanPerReception, scanTotalSeconds,
+                sameFlags(indexed, scanned) ? "equal" : "DIFFERENT");
+    }
+
+    private static void receiveScanned(NetworkEntity receiver, LoraTransmission transmission,
+                                       LinkedHashMap<LoraTransmission, Boolean> received) {
+        boolean collision = false;
+        for (LoraTransmission receivedTransmission : received.keySet()) {
+            if (receiver.collision(transmission, receivedTransmission)) {
+                received.put(receivedTransmission, true);
+                collision = true;
+            }
+        }
+        received.put(transmission, collision);
+    }
+
+    private static void receiveIndexed(NetworkEntity receiver, LoraTransmission transmission,
+                                       LinkedHashMap<LoraTransmission, Boolean> received, CollisionIndex index) {
+        boolean collision = false;
+        ArrayList<LoraTransmission> candidates = new ArrayList<>();
+        index.collectCandidates(transmission, candidates);
+        for (LoraTransmission receivedTransmission : candidates) {
+            if (receiver.collision(transmission, receivedTransmission)) {
+                received.put(receivedTransmission, true);
+                collision = true;
+            }
+        }
+        received.put(transmission, collision);
+        index.add(transmission);
+    }
+
+    private static boolean sameFlags(Map<LoraTransmission, Boolean> first, Map<LoraTransmission, Boolean> second) {
+        if (first.size() != second.size()) {
+            return false;
+        }
+        for (Map.Entry<LoraTransmission, Boolean> entry : first.entrySet()) {
+            if (!entry.getValue().equals(second.get(entry.getKey()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,98 @@
+package Benchmarks;
+
+import IotDomain.*;
+import org.w3c.dom.Element;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Runs the runs of an input profile in copies of the environment with an increasing number of threads, on the bundled
+ * configurations and the activity probabilities and number of runs of the first bundled input profile.
+ * Every number of threads runs with the same base seed, after which the sent and received transmissions of all runs
+ * are compared with the ones of a single thread.
+ * Run from the project directory, e.g. {@code java -cp out/classes:lib/* Benchmarks.ParallelRunsBenchmark}.
+ */
+public class ParallelRunsBenchmark {
+
+    private static final String[] CONFIGURATIONS = {
+            "DingNetExe/user/configurations/testConfig3.xml",
+            "DingNetExe/user/configurations/testConfigScale.xml"
+    };
+
+    private static final String INPUT_PROFILES = "DingNetExe/inputProfiles/inputProfile.xml";
+
+    private static final int[] THREADS = {1, 2, 4, 8};
+
+    private static final long SEED = 42;
+
+    public static void main(String[] args) throws Exception {
+        String[] configurations = args.length > 0 ? args : CONFIGURATIONS;
+        Element profileElement = (Element) DocumentBuilderFactory.newInstance().newDocumentBuilder()
+                .parse(new File(INPUT_PROFILES)).getDocumentElement().getElementsByTagName("inputProfile").item(0);
+        int numberOfRuns = Integer.valueOf(profileElement.getElementsByTagName("numberOfRuns").item(0).getTextContent());
+        HashMap<Integer, Double> moteProbabilities = new HashMap<>();
+        for (int i = 0; i < profileElement.getElementsByTagName("mote").getLength(); i++) {
+            Element moteElement = (Element) profileElement.getElementsByTagName("mote").item(i);
+            moteProbabilities.put(Integer.valueOf(moteElement.getElementsByTagName("moteNumber").item(0).getTextContent()) - 1,
+                    Double.parseDouble(moteElement.getElementsByTagName("activityProbability").item(0).getTextContent()));
+        }
+        InputProfile inputProfile = new InputProfile("benchmark", new QualityOfService(new HashMap<>()), numberOfRuns,
+                moteProbabilities, new HashMap<>(), new HashMap<>(), profileElement, null);
+
+        System.out.printf("%-22s %6s %6s %8s %12s %10s %9s%n", "configuration", "motes", "runs", "threads", "ms",
+                "speedup", "results");
+        for (String configuration : configurations) {
+            Environment environment = ConfigurationLoader.load(new File(configuration));
+            Simulation simulation = new Simulation(inputProfile, environment, null, null);
+            simulation.setBaseSeed(SEED);
+            // Warms up the code paths before the first measurement.
+            simulation.setRunThreads(THREADS[0]);
+            simulation.run();
+
+            long singleThreadNanos = 0;
+            long singleThreadDigest = 0;
+            for (int threads : THREADS) {
+                simulation.setRunThreads(threads);
+                environment.resetClock();
+                long start = System.nanoTime();
+                simulation.run();
+                long nanos = System.nanoTime() - start;
+                long digest = digest(environment);
+                if (threads == THREADS[0]) {
+                    singleThreadNanos = nanos;
+                    singleThreadDigest = digest;
+                }
+                System.out.printf("%-22s %6d %6d %8d %12.1f %9.1fx %9s%n", new File(configuration).getName(),
+                        environment.getMotes().size(), numberOfRuns, threads, nanos / 1e6,
+                        (double) singleThreadNanos / nanos, digest == singleThreadDigest ? "equal" : "DIFFERENT");
+            }
+        }
+    }
+
+    private static long digest(Environment environment) {
+        long digest = 17;
+        for (int run = 0; run < environment.getNumberOfRuns(); run++) {
+            for (Mote mote : environment.getMotes()) {
+                SentLog log = mote.getSentLog(run);
+                for (int row = log.getFirstRow(); row < log.getEndRow(); row++) {
+                    digest = 31 * digest + log.getDepartureTimeNanos(row);
+                    digest = 31 * digest + log.getSpreadingFactor(row);
+                    digest = 31 * digest + Double.hashCode(log.getTimeOnAir(row));
+                }
+                digest = 31 * digest + Double.hashCode(mote.getTotalUsedEnergy(run));
+            }
+            for (Gateway gateway : environment.getGateways()) {
+                for (Map.Entry<LoraTransmission, Boolean> entry : gateway.getAllReceivedTransmissions(run).entrySet()) {
+                    digest = 31 * digest + entry.getKey().getSender().getId();
+                    digest = 31 * digest + entry.getKey().getDepartureTimeNanos();
+                    digest = 31 * digest + Double.hashCode(entry.getKey().getTransmissionPower());
+                    digest = 31 * digest + (entry.getValue() ? 1 : 0);
+                }
+            }
+        }
+        return digest;
+    }
+}
@@ -0,0 +1,141 @@
+package Benchmarks;
+
+import IotDomain.Characteristic;
+import IotDomain.Environment;
+import IotDomain.PathLoss;
+import org.jxmapviewer.viewer.GeoPosition;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Random;
+
+/**
+ * Compares the closed form {@link PathLoss} with the stepping model of {@code LoraTransmission} on a map made of
+ * rectangular zones. Reports the time per path of both and the largest difference between them, which has to stay
+ * below {@link PathLoss#TOLERANCE}.
+ * Run with {@code java -cp out/classes:lib/* Benchmarks.PathLossBenchmark [mapSize] [paths]}.
+ */
+public class PathLossBenchmark {
+
+    public static void main(String[] args) {
+        int mapSize = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int paths = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+        Random random = new Random(42);
+        Environment environment = new Environment(zonedMap(mapSize, random), new GeoPosition(50.853718, 4.673155),
+                new LinkedHashSet<>());
+
+        int[][] positions = new int[paths][4];
+        for (int[] position : positions) {
+            for (int i = 0; i < 4; i++) {
+                position[i] = random.nextInt(mapSize);
+            }
+            // Also cover paths along an axis, along a diagonal and between neighbours.
+            switch (random.nextInt(8)) {
+                case 0: position[2] = position[0]; break;
+                case 1: position[3] = position[1]; break;
+                case 2:
+                    int d = Math.min(mapSize - 1 - position[0], mapSize - 1 - position[1]);
+                    position[2] = position[0] + d / 2;
+                    position[3] = position[1] + d / 2;
+                    break;
+                case 3:
+                    position[2] = Math.min(mapSize - 1, position[0] + random.nextInt(3));
+                    position[3] = Math.min(mapSize - 1, position[1] + random.nextInt(3));
+                    break;
+                default:
+            }
+        }
+
+        double[] stepped = new double[paths];
+        double[] closed = new double[paths];
+        // Warm up both implementations before timing them.
+        for (int i = 0; i < Math.min(paths, 2000); i++) {
+            stepped[i] = steppedPathLoss(environment, positions[i]);
+            closed[i] = PathLoss.getPathLoss(environment, positions[i][0], positions[i][1], positions[i][2], positions[i][3]);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < paths; i++) {
+            stepped[i] = steppedPathLoss(environment, positions[i]);
+        }
+        long steppedNanos = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (int i = 0; i < paths; i++) {
+            closed[i] = PathLoss.getPathLoss(environment, positions[i][0], positions[i][1], positions[i][2], positions[i][3]);
+        }
+        long closedNanos = System.nanoTime() - start;
+
+        double maxDifference = 0;
+        for (int i = 0; i < paths; i++) {
+            maxDifference = Math.max(maxDifference, Math.abs(stepped[i] - closed[i]));
+        }
+        System.out.printf("map %dx%d, %d paths%n", mapSize, mapSize, paths);
+        System.out.printf("stepping    %10.0f ns/path%n", (double) steppedNanos / paths);
+        System.out.printf("closed form %10.0f ns/path%n", (double) closedNanos / paths);
+        System.out.printf("max difference %.3e dB (tolerance %.0e dB) %s%n", maxDifference, PathLoss.TOLERANCE,
+                maxDifference <= PathLoss.TOLERANCE ? "OK" : "EXCEEDED");
+    }
+
+    /**
+     * Builds a map of the given size covered by random rectangular zones.
+     */
+    private static Characteristic[][] zonedMap(int size, Random random) {
+        Characteristic[][] map = new Characteristic[size][size];
+        Characteristic[] values = Characteristic.values();
+        for (Characteristic[] row : map) {
+            Arrays.fill(row, Characteristic.Plain);
+        }
+        for (int zone = 0; zone < 60; zone++) {
+            int x = random.nextInt(size);
+            int y = random.nextInt(size);
+            int width = 50 + random.nextInt(size / 4);
+            int height = 50 + random.nextInt(size / 4);
+            Characteristic characteristic = values[random.nextInt(values.length)];
+            for (int i = x; i < Math.min(size, x + width); i++) {
+                for (int j = y; j < Math.min(size, y + height); j++) {
+                    map[i][j] = characteristic;
+                }
+            }
+        }
+        return map;
+    }
+
+    /**
+     * The deterministic part of the stepping model of {@code LoraTransmission}, walking from the receiver back to
+     * the sender.
+     */
+    private static double steppedPathLoss(Environment environment, int[] position) {
+        int senderX = position[0];
+        int senderY = position[1];
+        int xPos = position[2];
+        int yPos = position[3];
+        double loss = 0;
+        int xDist = Math.abs(xPos - senderX);
+        int yDist = Math.abs(yPos - senderY);
+        while (xDist + yDist > 0) {
+            int xDir = Integer.signum(xPos - senderX);
+            int yDir = Integer.signum(yPos - senderY);
+            Characteristic characteristic = environment.getCharacteristic(xPos, yPos);
+            if (xDist + yDist > 1) {
+                if (xDist > 2 * yDist || yDist > 2 * xDist) {
+                    loss += 10 * characteristic.getPathLossExponent() * (Math.log10(xDist + yDist) - Math.log10(xDist + yDist - 1));
+                    if (xDist > 2 * yDist) {
+                        xPos = xPos - xDir;
+                    } else {
+                        yPos = yPos - yDir;
+                    }
+                } else {
+                    loss += 10 * characteristic.getPathLossExponent() * (Math.log10(xDist + yDist) - Math.log10(xDist + yDist - Math.sqrt(2)));
+                    xPos = xPos - xDir;
+                    yPos = yPos - yDir;
+                }
+            } else if (xDist > yDist) {
+                xPos = xPos - xDir;
+            } else {
+                yPos = yPos - yDir;
+            }
+            xDist = Math.abs(xPos - senderX);
+            yDist = Math.abs(yPos - senderY);
+        }
+        return loss;
+    }
+}
@@ -0,0 +1,97 @@
+package Benchmarks;
+
+import IotDomain.Characteristic;
+import IotDomain.Environment;
+import IotDomain.Gateway;
+import IotDomain.LoraTransmission;
+import IotDomain.Mote;
+import IotDomain.NetworkEntity;
+import org.jxmapviewer.viewer.GeoPosition;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Measures the heap used per received transmission by the transmission logs of the entities, by sending messages
+ * from a set of motes to a set of gateways and comparing the used heap before and after.
+ * Also checks that the views returned by the getters of {@link NetworkEntity} agree with each other.
+ * Run with {@code java -cp out/classes:lib/* Benchmarks.ReceptionLogBenchmark [motes] [messages]}.
+ */
+public class ReceptionLogBenchmark {
+
+    private static final int GATEWAYS = 4;
+
+    public static void main(String[] args) {
+        int motes = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+        int messages = args.length > 1 ? Integer.parseInt(args[1]) : 200_000;
+        Random random = new Random(42);
+        Characteristic[][] map = new Characteristic[1000][1000];
+        for (Characteristic[] row : map) {
+            Arrays.fill(row, Characteristic.Plain);
+        }
+        Environment environment = new Environment(map, new GeoPosition(50.853718, 4.673155), new LinkedHashSet<>());
+        for (int i = 0; i < GATEWAYS; i++) {
+            new Gateway(random.nextLong(), random.nextInt(1000), random.nextInt(1000), environment, 14, 12);
+        }
+        for (int i = 0; i < motes; i++) {
+            new Mote(random.nextLong(), random.nextInt(1000), random.nextInt(1000), environment, 14,
+                    7 + random.nextInt(6), new LinkedList<>(), 0, new LinkedList<>(), 10, 0.5);
+        }
+
+        long heapBefore = usedHeap();
+        for (int i = 0; i < messages; i++) {
+            environment.tick(1 + random.nextInt(100));
+            environment.getMotes().get(random.nextInt(motes)).sendToGateWay(new Byte[0], new HashMap<>());
+        }
+        long heapAfter = usedHeap();
+
+        List<NetworkEntity> entities = new ArrayList<>(environment.getGateways());
+        entities.addAll(environment.getMotes());
+        long receptions = 0;
+        long logBytes = 0;
+        for (NetworkEntity entity : entities) {
+            receptions += entity.getReceptionLog(0).size();
+            logBytes += (long) entity.getReceptionLog(0).size() * entity.getReceptionLog(0).getBytesPerRow()
+                    + (long) entity.getSentLog(0).size() * entity.getSentLog(0).getBytesPerRow();
+        }
+        System.out.printf("%d motes, %d gateways, %d messages, %d receptions%n", motes, GATEWAYS, messages, receptions);
+        System.out.printf("heap       %8.1f bytes/reception%n", (double) (heapAfter - heapBefore) / receptions);
+        System.out.printf("log rows   %8.1f bytes/reception%n", (double) logBytes / receptions);
+        System.out.printf("views      %s%n", viewsAgree(environment) ? "consistent" : "INCONSISTENT");
+    }
+
+    /**
+     * Checks that every sent transmission of the first mote is found in the reception log of its receiver,
+     * and that the received transmissions are the uncollided ones.
+     */
+    private static boolean viewsAgree(Environment environment) {
+        Mote mote = environment.getMotes().get(0);
+        for (LoraTransmission transmission : mote.getSentTransmissions(0)) {
+            if (!transmission.getReceiver().getAllReceivedTransmissions(0).containsKey(transmission)) {
+                return false;
+            }
+        }
+        Gateway gateway = environment.getGateways().get(0);
+        int uncollided = 0;
+        for (Map.Entry<LoraTransmission, Boolean> reception : gateway.getAllReceivedTransmissions(0).entrySet()) {
+            if (!reception.getValue()) {
+                uncollided++;
+            }
+        }
+        return uncollided == gateway.getReceivedTransmissions(0).size();
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
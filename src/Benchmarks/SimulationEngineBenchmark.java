@@ -0,0 +1,111 @@
+package Benchmarks;
+
+import IotDomain.*;
+import org.w3c.dom.Element;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Compares the event-driven {@link Simulation#run()} with the engine which advances the clock one
+ * millisecond at a time, on the bundled configurations and the number of runs of the first bundled input profile.
+ * Both engines run the same environment with the same seed, after which the sent and received transmissions of all
+ * runs and the final clock are compared.
+ * Every mote is enabled, since the activity probabilities of an input profile are drawn from {@link Math#random()}.
+ * Run from the project directory, e.g. {@code java -cp out/classes:lib/* Benchmarks.SimulationEngineBenchmark}.
+ */
+public class SimulationEngineBenchmark {
+
+    private static final String[] CONFIGURATIONS = {
+            "DingNetExe/user/configurations/testConfig.xml",
+            "DingNetExe/user/configurations/testConfig3.xml",
+            "DingNetExe/user/configurations/testConfigScale.xml"
+    };
+
+    private static final String INPUT_PROFILES = "DingNetExe/inputProfiles/inputProfile.xml";
+
+    private static final long SEED = 42;
+
+    public static void main(String[] args) throws Exception {
+        String[] configurations = args.length > 0 ? args : CONFIGURATIONS;
+        Element profileElement = (Element) DocumentBuilderFactory.newInstance().newDocumentBuilder()
+                .parse(new File(INPUT_PROFILES)).getDocumentElement().getElementsByTagName("inputProfile").item(0);
+        int numberOfRuns = Integer.valueOf(profileElement.getElementsByTagName("numberOfRuns").item(0).getTextContent());
+        InputProfile inputProfile = new InputProfile("benchmark", new QualityOfService(new HashMap<>()), numberOfRuns,
+                new HashMap<>(), new HashMap<>(), new HashMap<>(), profileElement, null);
+
+        System.out.printf("%-22s %6s %6s %12s %12s %10s %8s %9s%n", "configuration", "motes", "runs", "ticks ms",
+                "events ms", "speedup", "sent", "results");
+        for (String configuration : configurations) {
+            Environment environment = ConfigurationLoader.load(new File(configuration));
+            Simulation simulation = new Simulation(inputProfile, environment, null, null);
+
+            simulation.setTickDriven(true);
+            long tickNanos = run(simulation);
+            long tickDigest = digest(environment);
+            long tickClock = environment.getTimeNanos();
+            int sent = countSent(environment);
+
+            simulation.setTickDriven(false);
+            long eventNanos = run(simulation);
+            long eventDigest = digest(environment);
+            long eventClock = environment.getTimeNanos();
+
+            System.out.printf("%-22s %6d %6d %12.1f %12.1f %9.1fx %8d %9s%n", new File(configuration).getName(),
+                    environment.getMotes().size(), numberOfRuns, tickNanos / 1e6, eventNanos / 1e6,
+                    (double) tickNanos / eventNanos, sent,
+                    tickDigest == eventDigest && tickClock == eventClock ? "equal" : "DIFFERENT");
+        }
+    }
+
+    /**
+     * Runs a simulation from a fresh clock and seed, returning the elapsed wall clock time in nanoseconds.
+     */
+    private static long run(Simulation simulation) {
+        Environment environment = simulation.getEnvironment();
+        environment.resetClock();
+        environment.getRandom().setSeed(SEED);
+        for (Mote mote : environment.getMotes()) {
+            // Restarts the sampling of the mote.
+            mote.setSamplingRate(mote.getSamplingRate());
+        }
+        long start = System.nanoTime();
+        simulation.run();
+        return System.nanoTime() - start;
+    }
+
+    private static long digest(Environment environment) {
+        long digest = 17;
+        for (int run = 0; run < environment.getNumberOfRuns(); run++) {
+            for (Mote mote : environment.getMotes()) {
+                SentLog log = mote.getSentLog(run);
+                for (int row = log.getFirstRow(); row < log.getEndRow(); row++) {
+                    digest = 31 * digest + log.getDepartureTimeNanos(row);
+                    digest = 31 * digest + log.getSpreadingFactor(row);
+                    digest = 31 * digest + Double.hashCode(log.getTimeOnAir(row));
+                }
+            }
+            for (Gateway gateway : environment.getGateways()) {
+                for (Map.Entry<LoraTransmission, Boolean> entry : gateway.getAllReceivedTransmissions(run).entrySet()) {
+                    digest = 31 * digest + entry.getKey().getSender().getId();
+                    digest = 31 * digest + entry.getKey().getDepartureTimeNanos();
+                    digest = 31 * digest + Double.hashCode(entry.getKey().getTransmissionPower());
+                    digest = 31 * digest + (entry.getValue() ? 1 : 0);
+                }
+            }
+        }
+        return digest;
+    }
+
+    private static int countSent(Environment environment) {
+        int sent = 0;
+        for (int run = 0; run < environment.getNumberOfRuns(); run++) {
+            for (Mote mote : environment.getMotes()) {
+                sent += mote.getSentLog(run).size();
+            }
+        }
+        return sent;
+    }
+}
@@ -0,0 +1,79 @@
+package Benchmarks;
+
+import IotDomain.TimingWheel;
+
+import java.util.Random;
+
+/**
+ * Compares the send timers of a {@link TimingWheel} with a countdown counter per mote which is decremented in every
+ * iteration, which is how {@code MainSimulation} kept the timers of its motes before.
+ * Every mote has a fixed sampling rate, and both strategies must find the same motes due in every iteration.
+ */
+public class TimingWheelBenchmark {
+
+    private static final int ITERATIONS = 20_000;
+
+    public static void main(String[] args) {
+        int[] sizes = args.length > 0 ? parseSizes(args) : new int[]{1_000, 10_000, 100_000};
+        System.out.printf("%8s %16s %16s %10s %10s%n", "motes", "counters ms", "wheel ms", "sends", "due motes");
+        for (int size : sizes) {
+            run(size);
+        }
+    }
+
+    private static int[] parseSizes(String[] args) {
+        int[] sizes = new int[args.length];
+        for (int i = 0; i < args.length; i++) {
+            sizes[i] = Integer.parseInt(args[i]);
+        }
+        return sizes;
+    }
+
+    private static void run(int size) {
+        Random random = new Random(size);
+        int[] samplingRates = new int[size];
+        for (int i = 0; i < size; i++) {
+            samplingRates[i] = 10 + random.nextInt(1000);
+        }
+
+        long countersStart = System.nanoTime();
+        int[] counters = new int[size];
+        for (int i = 0; i < size; i++) {
+            counters[i] = samplingRates[i] - 1;
+        }
+        long countersDigest = 0;
+        int countersSends = 0;
+        for (int iteration = 0; iteration < ITERATIONS; iteration++) {
+            for (int i = 0; i < size; i++) {
+                if (counters[i] == 0) {
+                    countersDigest = 31 * countersDigest + (long) iteration * size + i;
+                    countersSends++;
+                    counters[i] = samplingRates[i] - 1;
+                } else {
+                    counters[i]--;
+                }
+            }
+        }
+        long countersNanos = System.nanoTime() - countersStart;
+
+        long wheelStart = System.nanoTime();
+        TimingWheel wheel = new TimingWheel(0);
+        for (int i = 0; i < size; i++) {
+            wheel.schedule(i, samplingRates[i] - 1);
+        }
+        long[] wheelDigest = {0};
+        int[] wheelSends = {0};
+        for (int iteration = 0; iteration < ITERATIONS; iteration++) {
+            long now = wheel.getNow();
+            wheel.advance(i -> {
+                wheelDigest[0] = 31 * wheelDigest[0] + now * size + i;
+                wheelSends[0]++;
+                wheel.schedule(i, now + samplingRates[i]);
+            });
+        }
+        long wheelNanos = System.nanoTime() - wheelStart;
+
+        System.out.printf("%8d %16.1f %16.1f %10d %10s%n", size, countersNanos / 1e6, wheelNanos / 1e6, wheelSends[0],
+                countersDigest == wheelDigest[0] && countersSends == wheelSends[0] ? "equal" : "DIFFERENT");
+    }
+}
@@ -0,0 +1,232 @@
+package Distributed;
+
+import IotDomain.LoraTransmission;
+import IotDomain.LoraWanPacket;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import models.GatewayState;
+import models.MonitorModel;
+import models.MoteState;
+import models.PathLossCacheState;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The coordinator of a partitioned simulation, which assigns a strip of the map to every worker and synchronizes them
+ * conservatively. Every window starts at the earliest time at which a worker has an event and lasts the lookahead:
+ * the shortest time on air of a message. The receivers receive the transmissions of a window at its end, in the order
+ * of their departure whatever strip they come from, so they detect the same collisions as if the map were simulated
+ * as a whole. A transmission has not ended before the end of its window, so no outcome is known later than it would
+ * be otherwise. The coordinator also merges the monitored values of the workers in between two windows, in the form
+ * of {@code /monitor}.
+ */
+public class Coordinator implements AutoCloseable {
+
+    /**
+     * The commands of the coordinator to a worker.
+     */
+    static final byte ADVANCE = 1;
+    static final byte MONITOR = 2;
+    static final byte STOP = 3;
+
+    private final Socket[] workers;
+    private final DataInputStream[] inputs;
+    private final DataOutputStream[] outputs;
+
+    /**
+     * The time of the next event of every worker.
+     */
+    private final long[] nextEventTimes;
+
+    private final long lookaheadNanos;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * Guards the connections to the workers, which run a window or write their monitored values at a time.
+     */
+    private final ReentrantLock lock = new ReentrantLock(true);
+
+    private long windows = 0;
+
+    /**
+     * Accepts the connections of the workers, assigns their strips and waits until they are connected to each other.
+     * @param server The socket the workers connect to.
+     * @param numberOfWorkers The number of workers, and of strips.
+     * @param layout The layout of the environment of every worker.
+     * @throws IOException If a worker cannot be reached.
+     */
+    public Coordinator(ServerSocket server, int numberOfWorkers, RegionScenario.Layout layout) throws IOException {
+        workers = new Socket[numberOfWorkers];
+        inputs = new DataInputStream[numberOfWorkers];
+        outputs = new DataOutputStream[numberOfWorkers];
+        nextEventTimes = new long[numberOfWorkers];
+        lookaheadNanos = getLookaheadNanos();
+
+        int[] peerPorts = new int[numberOfWorkers];
+        for (int i = 0; i < numberOfWorkers; i++) {
+            workers[i] = server.accept();
+            workers[i].setTcpNoDelay(true);
+            inputs[i] = new DataInputStream(new BufferedInputStream(workers[i].getInputStream()));
+            outputs[i] = new DataOutputStream(new BufferedOutputStream(workers[i].getOutputStream()));
+            peerPorts[i] = inputs[i].readInt();
+        }
+        for (int i = 0; i < numberOfWorkers; i++) {
+            outputs[i].writeInt(i);
+            outputs[i].writeInt(numberOfWorkers);
+            layout.writeState(outputs[i]);
+            for (int j = 0; j < numberOfWorkers; j++) {
+                outputs[i].writeUTF(workers[j].getInetAddress().getHostAddress());
+                outputs[i].writeInt(peerPorts[j]);
+            }
+            outputs[i].flush();
+        }
+        for (int i = 0; i < numberOfWorkers; i++) {
+            nextEventTimes[i] = inputs[i].readLong();
+        }
+    }
+
+    /**
+     * Returns the lookahead of the windows: the time on air of an empty message with the lowest spreading factor.
+     * @return The lookahead in nanoseconds.
+     */
+    public static long getLookaheadNanos() {
+        double timeOnAir = LoraTransmission.getTimeOnAir(7, 125, new LoraWanPacket(0L, 1L, new Byte[0], new LinkedList<>()));
+        return Math.max(1, (long) (timeOnAir * 1000000));
+    }
+
+    /**
+     * Returns the time up to which every worker has simulated.
+     * @return The earliest time of the next event of a worker, in nanoseconds since the start of the simulation.
+     */
+    public long getTimeNanos() {
+        lock.lock();
+        try {
+            long time = Long.MAX_VALUE;
+            for (long nextEventTime : nextEventTimes) {
+                time = Math.min(time, nextEventTime);
+            }
+            return time;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of windows the workers ran.
+     * @return The number of windows.
+     */
+    public long getWindows() {
+        lock.lock();
+        try {
+            return windows;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Lets every worker run the next window and exchange its transmissions with the others.
+     * @throws IOException If a worker cannot be reached.
+     */
+    public void advance() throws IOException {
+        lock.lock();
+        try {
+            long windowEnd = getTimeNanos() + lookaheadNanos;
+            for (DataOutputStream output : outputs) {
+                output.writeByte(ADVANCE);
+                output.writeLong(windowEnd);
+                output.flush();
+            }
+            for (int i = 0; i < inputs.length; i++) {
+                nextEventTimes[i] = inputs[i].readLong();
+            }
+            windows++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Merges the monitored values of the motes and the gateways of every worker, in between two windows.
+     * @param recentWindow The number of recent transmissions of the recent packet loss of the motes.
+     * @return The monitored values of all motes and gateways, in the order of their ids, and the summed statistics of
+     *         the path loss caches of the workers.
+     * @throws IOException If a worker cannot be reached.
+     */
+    public MonitorModel monitor(int recentWindow) throws IOException {
+        lock.lock();
+        try {
+            for (DataOutputStream output : outputs) {
+                output.writeByte(MONITOR);
+                output.writeInt(recentWindow);
+                output.flush();
+            }
+            List<MoteState> moteStates = new ArrayList<>();
+            TreeMap<Integer, GatewayState> gatewayStates = new TreeMap<>();
+            PathLossCacheState pathLossCache = new PathLossCacheState(0L, 0L, 0, 0);
+            for (DataInputStream input : inputs) {
+                int[] gatewayIds = new int[input.readInt()];
+                for (int i = 0; i < gatewayIds.length; i++) {
+                    gatewayIds[i] = input.readInt();
+                }
+                byte[] json = new byte[input.readInt()];
+                input.readFully(json);
+                MonitorModel model = objectMapper.readValue(json, MonitorModel.class);
+                if (model.getGatewayStates().size() != gatewayIds.length) {
+                    throw new StreamCorruptedException("Invalid monitored values of a worker.");
+                }
+                moteStates.addAll(model.getMoteStates());
+                for (int i = 0; i < gatewayIds.length; i++) {
+                    gatewayStates.put(gatewayIds[i], model.getGatewayStates().get(i));
+                }
+                PathLossCacheState cache = model.getPathLossCache();
+                pathLossCache.setHits(pathLossCache.getHits() + cache.getHits());
+                pathLossCache.setMisses(pathLossCache.getMisses() + cache.getMisses());
+                pathLossCache.setSize(pathLossCache.getSize() + cache.getSize());
+                pathLossCache.setCapacity(pathLossCache.getCapacity() + cache.getCapacity());
+            }
+            moteStates.sort(Comparator.comparing(MoteState::getId));
+            return MonitorModel.builder()
+                    .moteStates(moteStates)
+                    .gatewayStates(new ArrayList<>(gatewayStates.values()))
+                    .pathLossCache(pathLossCache)
+                    .build();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops the workers.
+     * @throws IOException If a worker cannot be reached.
+     */
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            for (int i = 0; i < workers.length; i++) {
+                try {
+                    outputs[i].writeByte(STOP);
+                    outputs[i].flush();
+                } finally {
+                    workers[i].close();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package Distributed;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.Socket;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * A TCP connection between two workers, over which both send frames of bytes at the same time. A thread reads the
+ * frames of the other worker as they arrive, so neither worker blocks on a full socket buffer while it writes.
+ */
+class PeerLink implements AutoCloseable {
+
+    /**
+     * The frame the reader queues when the connection ends.
+     */
+    private static final byte[] CLOSED = new byte[0];
+
+    private final Socket socket;
+    private final DataOutputStream out;
+    private final BlockingQueue<byte[]> frames = new LinkedBlockingQueue<>();
+
+    /**
+     * Starts reading the frames of a connected socket.
+     * @param socket The socket.
+     * @param region The region of the worker at the other end, for the name of the reader thread.
+     * @throws IOException If the streams of the socket cannot be opened.
+     */
+    PeerLink(Socket socket, int region) throws IOException {
+        this.socket = socket;
+        socket.setTcpNoDelay(true);
+        this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), 1 << 16));
+        DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), 1 << 16));
+        Thread reader = new Thread(() -> {
+            try {
+                while (true) {
+                    byte[] frame = new byte[in.readInt()];
+                    in.readFully(frame);
+                    frames.add(frame);
+                }
+            } catch (IOException e) {
+                frames.add(CLOSED);
+            }
+        }, "peer-" + region);
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    /**
+     * Sends a frame.
+     * @param frame The bytes of the frame, which can be empty.
+     * @throws IOException If the frame cannot be sent.
+     */
+    void send(byte[] frame) throws IOException {
+        out.writeInt(frame.length);
+        out.write(frame);
+        out.flush();
+    }
+
+    /**
+     * Waits for the next frame of the other worker.
+     * @return The bytes of the frame.
+     * @throws IOException If the connection ended before the frame arrived.
+     * @throws InterruptedException If the thread is interrupted while it waits.
+     */
+    byte[] receive() throws IOException, InterruptedException {
+        byte[] frame = frames.take();
+        if (frame == CLOSED) {
+            frames.add(CLOSED);
+            throw new EOFException("The connection to another worker ended.");
+        }
+        return frame;
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+}
@@ -0,0 +1,210 @@
+package Distributed;
+
+import IotDomain.*;
+import Simulation.Scenario;
+import org.jxmapviewer.viewer.GeoPosition;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.Random;
+
+/**
+ * The scenario a worker of a partitioned simulation runs: a square map with gateways on a grid and randomly scattered
+ * motes which do not move, of which the worker only simulates the ones in its own vertical strip of the map.
+ * Every worker creates the same environment from the same layout, so the motes and the gateways have the same ids in
+ * all of them. Every iteration lets the motes of the strip which are due send and advances the clock by 10 seconds.
+ * The send times and the shadow fading of every mote are drawn from a seed of the mote itself, so a run gives the same
+ * results whichever number of strips the map is split in.
+ */
+public class RegionScenario implements Scenario {
+
+    /**
+     * The length of an iteration in milliseconds.
+     */
+    static final long ITERATION_MILLIS = 10000;
+
+    /**
+     * The number of iterations in between the messages of a mote on average.
+     */
+    private static final int SAMPLING_RATE = 10;
+
+    /**
+     * The parameters the environment of every worker is created from.
+     */
+    public static final class Layout {
+        private final long seed;
+        private final int mapSize;
+        private final int numberOfMotes;
+        private final int gatewaySpacing;
+
+        /**
+         * Constructs a layout.
+         * @param seed The seed of the positions, the EUIs and the spreading factors.
+         * @param mapSize The width and the height of the map in meters.
+         * @param numberOfMotes The number of randomly scattered motes.
+         * @param gatewaySpacing The distance in meters in between two neighbouring gateways of the grid.
+         * @throws IllegalArgumentException If the map or the spacing is not positive or the number of motes is
+         *                                  negative.
+         */
+        public Layout(long seed, int mapSize, int numberOfMotes, int gatewaySpacing) {
+            if (mapSize <= 1 || numberOfMotes < 0 || gatewaySpacing <= 0) {
+                throw new IllegalArgumentException("Invalid layout: map size " + mapSize + ", " + numberOfMotes
+                        + " motes, gateway spacing " + gatewaySpacing);
+            }
+            this.seed = seed;
+            this.mapSize = mapSize;
+            this.numberOfMotes = numberOfMotes;
+            this.gatewaySpacing = gatewaySpacing;
+        }
+
+        public long getSeed() {
+            return seed;
+        }
+
+        void writeState(DataOutput out) throws IOException {
+            out.writeLong(seed);
+            out.writeInt(mapSize);
+            out.writeInt(numberOfMotes);
+            out.writeInt(gatewaySpacing);
+        }
+
+        static Layout readState(DataInput in) throws IOException {
+            return new Layout(in.readLong(), in.readInt(), in.readInt(), in.readInt());
+        }
+    }
+
+    private final Environment environment;
+
+    private final int region;
+
+    /**
+     * The width of the strip of every worker, the last of which can be narrower.
+     */
+    private final int regionWidth;
+
+    /**
+     * The motes of the strip send at random intervals averaging their sampling rate. Only the motes which are due are
+     * touched in an iteration.
+     */
+    private final TimingWheel sendTimers = new TimingWheel(0);
+
+    /**
+     * The seeds of the motes, derived from the seed of the layout and their ids.
+     */
+    private final long[] moteSeeds;
+
+    /**
+     * The generators of the send times of the motes by id, null for the motes of other strips.
+     */
+    private final Random[] sendRandoms;
+
+    private long iteration = 0;
+
+    /**
+     * Constructs the scenario of a worker.
+     * @param layout The layout of the environment.
+     * @param region The number of the strip of the worker, from 0 at the west of the map.
+     * @param numberOfRegions The number of strips the map is split in.
+     */
+    public RegionScenario(Layout layout, int region, int numberOfRegions) {
+        environment = createEnvironment(layout);
+        this.region = region;
+        this.regionWidth = (environment.getMaxXpos() + numberOfRegions) / numberOfRegions;
+        moteSeeds = new long[environment.getMotes().size()];
+        sendRandoms = new Random[environment.getMotes().size()];
+        for (Mote mote : environment.getMotes()) {
+            if (owns(mote)) {
+                moteSeeds[mote.getId()] = Simulation.runSeed(layout.seed, mote.getId());
+                sendRandoms[mote.getId()] = new Random(moteSeeds[mote.getId()]);
+                sendTimers.schedule(mote.getId(), nextSend(mote, -1));
+            }
+        }
+    }
+
+    /**
+     * Creates the environment of a layout, with a gateway in the middle of every square of the grid and randomly
+     * scattered motes.
+     * @param layout The layout.
+     * @return The environment, which is the same for the same layout.
+     */
+    public static Environment createEnvironment(Layout layout) {
+        Random random = new Random(layout.seed);
+        Characteristic[][] map = new Characteristic[layout.mapSize][layout.mapSize];
+        Arrays.stream(map).forEach(row -> Arrays.fill(row, Characteristic.Forest));
+        Environment environment = new Environment(map, new GeoPosition(50.853718, 4.673155), new LinkedHashSet<>());
+
+        for (int x = layout.gatewaySpacing / 2; x <= environment.getMaxXpos(); x += layout.gatewaySpacing) {
+            for (int y = layout.gatewaySpacing / 2; y <= environment.getMaxYpos(); y += layout.gatewaySpacing) {
+                new Gateway(random.nextLong(), x, y, environment, 14, 12);
+            }
+        }
+        for (int j = 0; j < layout.numberOfMotes; j++) {
+            new Mote(random.nextLong(),
+                    random.nextInt(environment.getMaxXpos()),
+                    random.nextInt(environment.getMaxYpos()),
+                    environment, 14, random.nextInt(6) + 7, new LinkedList<>(), 0, new LinkedList<>(), SAMPLING_RATE, 0.5);
+        }
+        return environment;
+    }
+
+    @Override
+    public Environment getEnvironment() {
+        return environment;
+    }
+
+    /**
+     * Returns the strip of the map an entity is in.
+     * @param entity A mote or a gateway.
+     * @return The number of the strip.
+     */
+    public int getRegion(NetworkEntity entity) {
+        return entity.getXPos() / regionWidth;
+    }
+
+    /**
+     * Checks whether an entity is in the strip of the worker.
+     * @param entity A mote or a gateway.
+     * @return True if the worker simulates the entity.
+     */
+    public boolean owns(NetworkEntity entity) {
+        return getRegion(entity) == region;
+    }
+
+    @Override
+    public void runUntil(long timeNanos) {
+        while (environment.getTimeNanos() < timeNanos) {
+            step();
+        }
+    }
+
+    /**
+     * Simulates an iteration of the scenario. The shadow fading of a message is drawn from a seed of its mote and the
+     * iteration, which does not depend on the other motes of the strip.
+     */
+    public void step() {
+        sendTimers.advance(id -> {
+            Mote mote = environment.getMotes().get(id);
+            environment.getRandom().setSeed(Simulation.runSeed(moteSeeds[id], (int) iteration));
+            mote.sendToGateWay(new Byte[0], new HashMap<>());
+            sendTimers.schedule(id, nextSend(mote, iteration));
+        });
+        environment.tick(ITERATION_MILLIS);
+        iteration++;
+    }
+
+    /**
+     * Returns the iteration in which a mote sends its next packet: the first of the iterations with a chance of one in
+     * the sampling rate to send.
+     */
+    private long nextSend(Mote mote, long lastIteration) {
+        if (mote.getSamplingRate() <= 1)
+            return lastIteration + 1;
+        double probability = 1.0 / mote.getSamplingRate();
+        return lastIteration + 1 + (long) Math.floor(Math.log(1 - sendRandoms[mote.getId()].nextDouble()) / Math.log(1 - probability));
+    }
+}
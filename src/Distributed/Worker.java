@@ -0,0 +1,278 @@
+package Distributed;
+
+import IotDomain.*;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import mappers.EnvironmentMapper;
+import models.GatewayState;
+import models.MonitorModel;
+import models.MoteState;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * A worker of a partitioned simulation, which runs in its own process and simulates a strip of the map, see
+ * {@link RegionScenario}. The worker connects to the coordinator, which assigns it a strip, and to every other
+ * worker. In every window of the coordinator, it runs the iterations of its strip before the end of the window and
+ * collects the transmissions to receivers in other strips, which it sends to their workers. It then lets its own
+ * receivers receive the transmissions of the window, in the order of their departure, and sends the outcomes of the
+ * ones from other strips back to the workers of their senders.
+ * Usage: {@code Worker <coordinator host> <coordinator port>}.
+ */
+public class Worker implements Partition {
+
+    /**
+     * The order in which the receivers of a worker receive the transmissions of a window, which does not depend on
+     * the worker the transmissions come from.
+     */
+    private static final Comparator<LoraTransmission> DEPARTURE_ORDER = Comparator
+            .comparingLong(LoraTransmission::getDepartureTimeNanos)
+            .thenComparingLong(transmission -> transmission.getSender().getEUI())
+            .thenComparingInt(LoraTransmission::getSequenceNumber)
+            .thenComparingLong(transmission -> transmission.getReceiver().getEUI());
+
+    private final RegionScenario scenario;
+    private final int region;
+
+    /**
+     * The connections to the other workers by region, null at the region of the worker.
+     */
+    private final PeerLink[] peers;
+
+    /**
+     * The transmissions of the current window to the receivers of the worker.
+     */
+    private final List<LoraTransmission> inbox = new ArrayList<>();
+
+    /**
+     * The transmissions and the outcomes of the current window for the other workers, by region.
+     */
+    private final ByteArrayOutputStream[] transmissions;
+    private final ByteArrayOutputStream[] outcomes;
+
+    private Worker(RegionScenario scenario, int region, PeerLink[] peers) {
+        this.scenario = scenario;
+        this.region = region;
+        this.peers = peers;
+        this.transmissions = new ByteArrayOutputStream[peers.length];
+        this.outcomes = new ByteArrayOutputStream[peers.length];
+        for (int i = 0; i < peers.length; i++) {
+            transmissions[i] = new ByteArrayOutputStream();
+            outcomes[i] = new ByteArrayOutputStream();
+        }
+        scenario.getEnvironment().setPartition(this);
+    }
+
+    @Override
+    public boolean owns(NetworkEntity entity) {
+        return scenario.owns(entity);
+    }
+
+    @Override
+    public void deliver(LoraTransmission transmission) {
+        int owner = scenario.getRegion(transmission.getReceiver());
+        if (owner == region) {
+            inbox.add(transmission);
+            return;
+        }
+        try {
+            transmission.writeState(new DataOutputStream(transmissions[owner]));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void forwardOutcome(NetworkEntity sender, Outcome outcome, int sequenceNumber, boolean firstReceiver) {
+        DataOutputStream out = new DataOutputStream(outcomes[scenario.getRegion(sender)]);
+        try {
+            out.writeBoolean(sender instanceof Gateway);
+            out.writeInt(sender.getId());
+            out.writeByte(outcome.ordinal());
+            out.writeInt(sequenceNumber);
+            out.writeBoolean(firstReceiver);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Runs the iterations before the end of a window and exchanges their transmissions and outcomes with the other
+     * workers.
+     * @param windowEnd The end of the window in nanoseconds since the start of the simulation.
+     * @throws IOException If the exchange with another worker fails.
+     * @throws InterruptedException If the thread is interrupted while it waits for another worker.
+     */
+    private void advance(long windowEnd) throws IOException, InterruptedException {
+        Environment environment = scenario.getEnvironment();
+        while (environment.getTimeNanos() < windowEnd) {
+            scenario.step();
+        }
+
+        for (DataInputStream in : exchange(transmissions)) {
+            while (in.available() > 0) {
+                inbox.add(LoraTransmission.readState(in, environment));
+            }
+        }
+        inbox.sort(DEPARTURE_ORDER);
+        for (LoraTransmission transmission : inbox) {
+            transmission.getReceiver().receiveTransmission(transmission);
+        }
+        inbox.clear();
+
+        for (DataInputStream in : exchange(outcomes)) {
+            while (in.available() > 0) {
+                boolean gateway = in.readBoolean();
+                int id = in.readInt();
+                int outcome = in.readUnsignedByte();
+                int sequenceNumber = in.readInt();
+                boolean firstReceiver = in.readBoolean();
+                List<? extends NetworkEntity> entities = gateway ? environment.getGateways() : environment.getMotes();
+                if (id < 0 || id >= entities.size() || outcome >= Outcome.values().length) {
+                    throw new StreamCorruptedException("Invalid outcome from another worker.");
+                }
+                entities.get(id).countOutcome(Outcome.values()[outcome], sequenceNumber, firstReceiver);
+            }
+        }
+    }
+
+    /**
+     * Sends the buffered bytes for every other worker to it, and receives the bytes every other worker buffered for
+     * this one.
+     * @param buffers The bytes for the other workers by region, which are cleared.
+     * @return The bytes of the other workers.
+     */
+    private List<DataInputStream> exchange(ByteArrayOutputStream[] buffers) throws IOException, InterruptedException {
+        for (int i = 0; i < peers.length; i++) {
+            if (peers[i] != null) {
+                peers[i].send(buffers[i].toByteArray());
+                buffers[i].reset();
+            }
+        }
+        List<DataInputStream> frames = new ArrayList<>();
+        for (PeerLink peer : peers) {
+            if (peer != null) {
+                frames.add(new DataInputStream(new ByteArrayInputStream(peer.receive())));
+            }
+        }
+        return frames;
+    }
+
+    /**
+     * Writes the monitored values of the motes and the gateways of the strip: the ids of the gateways, followed by the
+     * monitor model as JSON.
+     * @param out The output to the coordinator.
+     * @param recentWindow The number of recent transmissions of the recent packet loss of the motes.
+     * @throws IOException If the output cannot be written.
+     */
+    private void writeMonitor(DataOutputStream out, int recentWindow) throws IOException {
+        Environment environment = scenario.getEnvironment();
+        MonitorModel model = EnvironmentMapper.mapEnvironmentToMonitorModel(environment, recentWindow);
+        List<MoteState> moteStates = model.getMoteStates().stream()
+                .filter(state -> owns(environment.getMotes().get(state.getId())))
+                .collect(Collectors.toList());
+        List<Integer> gatewayIds = new ArrayList<>();
+        List<GatewayState> gatewayStates = new ArrayList<>();
+        for (Gateway gateway : environment.getGateways()) {
+            if (owns(gateway)) {
+                gatewayIds.add(gateway.getId());
+                gatewayStates.add(model.getGatewayStates().get(gateway.getId()));
+            }
+        }
+        model.setMoteStates(moteStates);
+        model.setGatewayStates(gatewayStates);
+
+        out.writeInt(gatewayIds.size());
+        for (int id : gatewayIds) {
+            out.writeInt(id);
+        }
+        byte[] json = new ObjectMapper().writeValueAsBytes(model);
+        out.writeInt(json.length);
+        out.write(json);
+    }
+
+    /**
+     * Connects to the coordinator and the other workers and runs the windows of the coordinator until it stops.
+     * @param args contains command line arguments.
+     * @throws Exception If a connection fails.
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length != 2) {
+            System.err.println("Usage: Worker <coordinator host> <coordinator port>");
+            System.exit(2);
+        }
+        try (Socket coordinator = new Socket(args[0], Integer.parseInt(args[1]));
+             ServerSocket peerServer = new ServerSocket(0, 50, coordinator.getLocalAddress())) {
+            coordinator.setTcpNoDelay(true);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(coordinator.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(coordinator.getOutputStream()));
+            out.writeInt(peerServer.getLocalPort());
+            out.flush();
+
+            int region = in.readInt();
+            int numberOfRegions = in.readInt();
+            RegionScenario.Layout layout = RegionScenario.Layout.readState(in);
+            String[] hosts = new String[numberOfRegions];
+            int[] ports = new int[numberOfRegions];
+            for (int i = 0; i < numberOfRegions; i++) {
+                hosts[i] = in.readUTF();
+                ports[i] = in.readInt();
+            }
+            RegionScenario scenario = new RegionScenario(layout, region, numberOfRegions);
+
+            // Every worker connects to the workers before it and accepts the connections of the ones after it.
+            PeerLink[] peers = new PeerLink[numberOfRegions];
+            for (int i = 0; i < region; i++) {
+                Socket socket = new Socket(hosts[i], ports[i]);
+                DataOutputStream hello = new DataOutputStream(socket.getOutputStream());
+                hello.writeInt(region);
+                hello.flush();
+                peers[i] = new PeerLink(socket, i);
+            }
+            for (int i = region + 1; i < numberOfRegions; i++) {
+                Socket socket = peerServer.accept();
+                int peer = new DataInputStream(socket.getInputStream()).readInt();
+                if (peer <= region || peer >= numberOfRegions || peers[peer] != null) {
+                    throw new StreamCorruptedException("Unexpected worker " + peer);
+                }
+                peers[peer] = new PeerLink(socket, peer);
+            }
+            Worker worker = new Worker(scenario, region, peers);
+            out.writeLong(scenario.getEnvironment().getTimeNanos());
+            out.flush();
+
+            while (true) {
+                byte command = in.readByte();
+                if (command == Coordinator.ADVANCE) {
+                    worker.advance(in.readLong());
+                    out.writeLong(scenario.getEnvironment().getTimeNanos());
+                } else if (command == Coordinator.MONITOR) {
+                    worker.writeMonitor(out, in.readInt());
+                } else if (command == Coordinator.STOP) {
+                    break;
+                } else {
+                    throw new StreamCorruptedException("Unknown command " + command);
+                }
+                out.flush();
+            }
+            for (PeerLink peer : peers) {
+                if (peer != null) {
+                    peer.close();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,125 @@
+import Distributed.Coordinator;
+import Distributed.RegionScenario;
+import Distributed.Worker;
+import HTTP.MonitorHandler;
+import com.sun.net.httpserver.HttpServer;
+import models.MonitorModel;
+import models.MoteState;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The class that runs a partitioned simulation of a large map: it starts a worker process for every vertical strip of
+ * the map on this machine, runs them for a simulated duration and writes a summary of the run. While it runs, the
+ * merged monitored values of the workers are served at {@code /monitor} if a port is given.
+ * Usage: {@code DistributedRunner <workers> <seed> <map size> <motes> <gateway spacing> <duration in seconds> [<http port>]}.
+ */
+public class DistributedRunner {
+
+    /**
+     * Starts a worker process with the class path of this one.
+     * @param port The port of the coordinator.
+     * @return The process.
+     * @throws IOException If the process cannot be started.
+     */
+    private static Process startWorker(int port) throws IOException {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        return new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"), Worker.class.getName(),
+                InetAddress.getLoopbackAddress().getHostAddress(), Integer.toString(port))
+                .inheritIO()
+                .start();
+    }
+
+    /**
+     * Runs the workers for a simulated duration and prints a summary of the run.
+     * @param args contains command line arguments.
+     * @throws Exception If a worker cannot be started or reached.
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length != 6 && args.length != 7) {
+            System.err.println("Usage: DistributedRunner <workers> <seed> <map size> <motes> <gateway spacing> <duration in seconds> [<http port>]");
+            System.exit(2);
+        }
+        int numberOfWorkers = Integer.parseInt(args[0]);
+        RegionScenario.Layout layout;
+        try {
+            if (numberOfWorkers <= 0) {
+                throw new IllegalArgumentException("Invalid number of workers " + numberOfWorkers);
+            }
+            layout = new RegionScenario.Layout(Long.parseLong(args[1]), Integer.parseInt(args[2]),
+                    Integer.parseInt(args[3]), Integer.parseInt(args[4]));
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+            return;
+        }
+        long durationNanos = Math.round(Double.parseDouble(args[5]) * 1e9);
+
+        List<Process> processes = new ArrayList<>();
+        HttpServer server = null;
+        ExecutorService executor = Executors.newCachedThreadPool();
+        boolean stopped = false;
+        try (ServerSocket coordinatorSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+            for (int i = 0; i < numberOfWorkers; i++) {
+                processes.add(startWorker(coordinatorSocket.getLocalPort()));
+            }
+            long start = System.nanoTime();
+            try (Coordinator coordinator = new Coordinator(coordinatorSocket, numberOfWorkers, layout)) {
+                if (args.length == 7) {
+                    server = HttpServer.create(new InetSocketAddress(Integer.parseInt(args[6])), 0);
+                    server.setExecutor(executor);
+                    server.createContext("/monitor", new MonitorHandler(recentWindow -> {
+                        try {
+                            MonitorModel model = coordinator.monitor(recentWindow);
+                            model.setIsRunning(coordinator.getTimeNanos() < durationNanos);
+                            return model;
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }));
+                    server.start();
+                }
+                while (coordinator.getTimeNanos() < durationNanos) {
+                    coordinator.advance();
+                }
+                long wallNanos = System.nanoTime() - start;
+
+                long sent = 0;
+                long lost = 0;
+                MonitorModel model = coordinator.monitor(1);
+                for (MoteState moteState : model.getMoteStates()) {
+                    sent += moteState.getPacketsSent();
+                    lost += moteState.getPacketsLost();
+                }
+                System.out.println(String.format(Locale.ROOT,
+                        "%d workers: %d motes, %d gateways, %.0f simulated seconds in %d windows and %.3f wall seconds, %d transmissions, packet loss %.3f",
+                        numberOfWorkers, model.getMoteStates().size(), model.getGatewayStates().size(),
+                        coordinator.getTimeNanos() / 1e9, coordinator.getWindows(), wallNanos / 1e9, sent,
+                        sent == 0 ? 0 : lost / (double) sent));
+            }
+            for (Process process : processes) {
+                process.waitFor(10, TimeUnit.SECONDS);
+            }
+            stopped = true;
+        } finally {
+            if (server != null) {
+                server.stop(0);
+            }
+            executor.shutdown();
+            if (!stopped) {
+                processes.forEach(Process::destroy);
+            }
+        }
+    }
+}
@@ -90,7 +90,7 @@ public class EditInputProfileGUI {
         if (environment != null) {
             moteNumberComboBox.removeAllItems();
             for (Mote mote : environment.getMotes()) {
-                moteNumberComboBox.addItem("Mote " + (environment.getMotes().indexOf(mote) + 1));
+                moteNumberComboBox.addItem("Mote " + (mote.getId() + 1));
             }
             moteNumberComboBox.setSelectedIndex(moteNumValue);
         } else {
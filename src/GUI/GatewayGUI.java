@@ -29,7 +29,7 @@ public class GatewayGUI extends JFrame {
     public GatewayGUI(Gateway gateway, JFrame frame) {
         this.frame = frame;
         this.gateway = gateway;
-        gatewayNumberLabel.setText(Integer.toString(gateway.getEnvironment().getGateways().indexOf(gateway) + 1));
+        gatewayNumberLabel.setText(Integer.toString(gateway.getId() + 1));
         EUIDText.setText(Long.toUnsignedString(gateway.getEUI()));
         Double latitude = gateway.getEnvironment().toLatitude(gateway.getYPos());
         Integer latitudeDegrees = (int) Math.round(Math.floor(latitude));
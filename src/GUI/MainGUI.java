@@ -210,97 +210,7 @@ public class MainGUI extends JFrame {
                     frame.setVisible(true);
 
                     try {
-                        DocumentBuilderFactory docFactory = DocumentBuilderFactory.newInstance();
-                        DocumentBuilder docBuilder = docFactory.newDocumentBuilder();
-                        Document doc = docBuilder.parse(file);
-                        Element configuration = doc.getDocumentElement();
-                        Element map = (Element) configuration.getElementsByTagName("map").item(0);
-                        Element characteristics = (Element) configuration.getElementsByTagName("characteristics").item(0);
-                        Element motes = (Element) configuration.getElementsByTagName("motes").item(0);
-                        Element gateways = (Element) configuration.getElementsByTagName("gateways").item(0);
-                        Element wayPoints = (Element) configuration.getElementsByTagName("wayPoints").item(0);
-                        Element region = (Element) map.getElementsByTagName("region").item(0);
-                        Element origin = (Element) region.getElementsByTagName("origin").item(0);
-                        GeoPosition mapOrigin = new GeoPosition(Double.valueOf(origin.getElementsByTagName("latitude").item(0).getTextContent())
-                                , Double.valueOf(origin.getElementsByTagName("longitude").item(0).getTextContent()));
-                        Integer width = Integer.valueOf(region.getElementsByTagName("width").item(0).getTextContent());
-                        Integer height = Integer.valueOf(region.getElementsByTagName("height").item(0).getTextContent());
-                        Integer numberOfZones = Integer.valueOf(((Element) characteristics.getElementsByTagName("regionProperty").item(0)).getAttribute("numberOfZones"));
-
-                        Characteristic[][] characteristicsMap = new Characteristic[width][height];
-                        for (int j = 0; j < Math.round(Math.sqrt(numberOfZones)); j++) {
-                            int i = 0;
-                            for (String characteristicName : characteristics.getElementsByTagName("row").item(j).getTextContent().split("-")) {
-                                Characteristic characteristic = Characteristic.valueOf(characteristicName);
-                                for (int x = (int) Math.round(i * ((double) width) / Math.round(Math.sqrt(numberOfZones)));
-                                     x < (int) Math.round((i + 1) * ((double) width) / Math.round(Math.sqrt(numberOfZones))); x++) {
-                                    for (int y = (int) Math.round(j * ((double) height) / Math.round(Math.sqrt(numberOfZones)));
-                                         y < (int) Math.round((j + 1) * ((double) height) / Math.round(Math.sqrt(numberOfZones))); y++) {
-                                        characteristicsMap[x][y] = characteristic;
-
-                                    }
-
-                                }
-                                i++;
-                            }
-
-                        }
-
-                        LinkedHashSet<GeoPosition> wayPointsSet = new LinkedHashSet<>();
-                        for (int i = 0; i < wayPoints.getElementsByTagName("wayPoint").getLength(); i++) {
-                            Element waypoint = (Element) wayPoints.getElementsByTagName("wayPoint").item(i);
-                            Double wayPointLatitude = Double.valueOf(waypoint.getTextContent().split(",")[0]);
-                            Double wayPointLongitude = Double.valueOf(waypoint.getTextContent().split(",")[1]);
-                            wayPointsSet.add(new GeoPosition(wayPointLatitude, wayPointLongitude));
-                        }
-
-                        simulation.setEnvironment(new Environment(characteristicsMap, mapOrigin, wayPointsSet));
-
-                        Element moteNode;
-
-                        for (int i = 0; i < motes.getElementsByTagName("mote").getLength(); i++) {
-                            moteNode = (Element) motes.getElementsByTagName("mote").item(i);
-                            Long devEUI = Long.parseUnsignedLong(moteNode.getElementsByTagName("devEUI").item(0).getTextContent());
-                            Element location = (Element) moteNode.getElementsByTagName("location").item(0);
-                            Integer xPos = Integer.valueOf(location.getElementsByTagName("xPos").item(0).getTextContent());
-                            Integer yPos = Integer.valueOf(location.getElementsByTagName("yPos").item(0).getTextContent());
-                            Integer transmissionPower = Integer.valueOf(moteNode.getElementsByTagName("transmissionPower").item(0).getTextContent());
-                            Integer spreadingFactor = Integer.valueOf(moteNode.getElementsByTagName("spreadingFactor").item(0).getTextContent());
-                            Integer energyLevel = Integer.valueOf(moteNode.getElementsByTagName("energyLevel").item(0).getTextContent());
-                            Integer samplingRate = Integer.valueOf(moteNode.getElementsByTagName("samplingRate").item(0).getTextContent());
-                            Double movementSpeed = Double.valueOf(moteNode.getElementsByTagName("movementSpeed").item(0).getTextContent());
-                            Element sensors = (Element) moteNode.getElementsByTagName("sensors").item(0);
-                            Element sensornode = (Element) sensors.getElementsByTagName("sensor").item(0);
-                            LinkedList<MoteSensor> moteSensors = new LinkedList<>();
-                            while (sensornode != null) {
-                                moteSensors.add(MoteSensor.valueOf(sensornode.getAttribute("SensorType")));
-                                sensornode = (Element) sensornode.getNextSibling();
-                            }
-                            Element pathElement = (Element) moteNode.getElementsByTagName("path").item(0);
-                            Element waypoint;
-                            LinkedList<GeoPosition> path = new LinkedList<>();
-                            for (int j = 0; j < pathElement.getElementsByTagName("wayPoint").getLength(); j++) {
-                                waypoint = (Element) pathElement.getElementsByTagName("wayPoint").item(j);
-                                Integer wayPointX = Integer.valueOf(waypoint.getTextContent().split(",")[0]);
-                                Integer wayPointY = Integer.valueOf(waypoint.getTextContent().split(",")[1]);
-                                path.add(new GeoPosition(simulation.getEnvironment().toLatitude(wayPointY), simulation.getEnvironment().toLongitude(wayPointX)));
-                            }
-                            new Mote(devEUI, xPos, yPos, simulation.getEnvironment(), transmissionPower, spreadingFactor, moteSensors, energyLevel, path, samplingRate, movementSpeed);
-                        }
-
-                        Element gatewayNode;
-
-                        for (int i = 0; i < gateways.getElementsByTagName("gateway").getLength(); i++) {
-                            gatewayNode = (Element) gateways.getElementsByTagName("gateway").item(i);
-                            Long devEUI = Long.parseUnsignedLong(gatewayNode.getElementsByTagName("devEUI").item(0).getTextContent());
-                            Element location = (Element) gatewayNode.getElementsByTagName("location").item(0);
-                            Integer xPos = Integer.valueOf(location.getElementsByTagName("xPos").item(0).getTextContent());
-                            Integer yPos = Integer.valueOf(location.getElementsByTagName("yPos").item(0).getTextContent());
-                            Integer transmissionPower = Integer.valueOf(gatewayNode.getElementsByTagName("transmissionPower").item(0).getTextContent());
-                            Integer spreadingFactor = Integer.valueOf(gatewayNode.getElementsByTagName("spreadingFactor").item(0).getTextContent());
-                            new Gateway(devEUI, xPos, yPos, simulation.getEnvironment(), transmissionPower, spreadingFactor);
-                        }
-
+                        simulation.setEnvironment(ConfigurationLoader.load(file));
 
                     } catch (ParserConfigurationException e1) {
                         e1.printStackTrace();
@@ -616,7 +526,7 @@ public class MainGUI extends JFrame {
                             for (Mote mote : simulation.getEnvironment().getMotes()) {
                                 Element moteElement = doc.createElement("mote");
                                 Element number = doc.createElement("number");
-                                number.appendChild(doc.createTextNode(((Integer) (simulation.getEnvironment().getMotes().indexOf(mote) + 1)).toString()));
+                                number.appendChild(doc.createTextNode(((Integer) (mote.getId() + 1)).toString()));
                                 moteElement.appendChild(number);
                                 Element receivedTransmissions = doc.createElement("receivedTransmissions");
                                 int j = 0;
@@ -624,9 +534,9 @@ public class MainGUI extends JFrame {
                                     Element receivedTransmissionElement = doc.createElement("receivedTransmission");
                                     Element sender = doc.createElement("sender");
                                     if (transmission.getSender().getClass() == Mote.class) {
-                                        sender.appendChild(doc.createTextNode("Mote " + simulation.getEnvironment().getMotes().indexOf((Mote) transmission.getSender())));
+                                        sender.appendChild(doc.createTextNode("Mote " + transmission.getSender().getId()));
                                     } else {
-                                        sender.appendChild(doc.createTextNode("Gateway " + simulation.getEnvironment().getGateways().indexOf((Gateway) transmission.getSender())));
+                                        sender.appendChild(doc.createTextNode("Gateway " + transmission.getSender().getId()));
                                     }
                                     Element transmissionPower = doc.createElement("transmissionPower");
                                     transmissionPower.appendChild(doc.createTextNode(Double.toString(transmission.getTransmissionPower())));
@@ -674,7 +584,7 @@ public class MainGUI extends JFrame {
                             for (Gateway gateway : simulation.getEnvironment().getGateways()) {
                                 Element gatewayElement = doc.createElement("gateway");
                                 Element number = doc.createElement("number");
-                                number.appendChild(doc.createTextNode(((Integer) (simulation.getEnvironment().getGateways().indexOf(gateway) + 1)).toString()));
+                                number.appendChild(doc.createTextNode(((Integer) (gateway.getId() + 1)).toString()));
                                 gatewayElement.appendChild(number);
                                 Element receivedTransmissions = doc.createElement("receivedTransmissions");
                                 int j = 0;
@@ -682,9 +592,9 @@ public class MainGUI extends JFrame {
                                     Element receivedTransmissionElement = doc.createElement("receivedTransmission");
                                     Element sender = doc.createElement("sender");
                                     if (transmission.getSender().getClass() == Mote.class) {
-                                        sender.appendChild(doc.createTextNode("Mote " + simulation.getEnvironment().getMotes().indexOf((Mote) transmission.getSender())));
+                                        sender.appendChild(doc.createTextNode("Mote " + transmission.getSender().getId()));
                                     } else {
-                                        sender.appendChild(doc.createTextNode("Gateway " + simulation.getEnvironment().getGateways().indexOf((Gateway) transmission.getSender())));
+                                        sender.appendChild(doc.createTextNode("Gateway " + transmission.getSender().getId()));
                                     }
                                     Element transmissionPower = doc.createElement("transmissionPower");
                                     transmissionPower.appendChild(doc.createTextNode(Double.toString(transmission.getTransmissionPower())));
@@ -813,7 +723,7 @@ public class MainGUI extends JFrame {
         JTextArea textArea;
         for (Gateway gateway : environment.getGateways()) {
             textArea = new JTextArea();
-            textArea.append("Gateway " + (environment.getGateways().indexOf(gateway) + 1) + ":\n");
+            textArea.append("Gateway " + (gateway.getId() + 1) + ":\n");
             textArea.append("EUID: " + Long.toUnsignedString(gateway.getEUI()) + "\n");
             Double latitude = environment.toLatitude(gateway.getYPos());
             Integer latitudeDegrees = (int) Math.round(Math.floor(latitude));
@@ -835,7 +745,7 @@ public class MainGUI extends JFrame {
         }
         for (Mote mote : environment.getMotes()) {
             textArea = new JTextArea();
-            textArea.append("Mote " + (environment.getMotes().indexOf(mote) + 1) + ":\n");
+            textArea.append("Mote " + (mote.getId() + 1) + ":\n");
             textArea.append("EUID: " + Long.toUnsignedString(mote.getEUI()) + "\n");
             Double latitude = environment.toLatitude(mote.getYPos());
             Integer latitudeDegrees = (int) Math.round(Math.floor(latitude));
@@ -2320,13 +2230,14 @@ public class MainGUI extends JFrame {
 
         for (Gateway gateway : mote.getEnvironment().getGateways()) {
             transmissionsMote.add(new LinkedList<>());
-            for (LoraTransmission transmission : gateway.getAllReceivedTransmissions(run).keySet()) {
+            for (Map.Entry<LoraTransmission, Boolean> reception : gateway.getAllReceivedTransmissions(run).entrySet()) {
+                LoraTransmission transmission = reception.getKey();
                 if (transmission.getSender() == mote) {
                     amountSent += 1;
-                    if (!gateway.getAllReceivedTransmissions(run).get(transmission))
-                        transmissionsMote.getLast().add(new Pair<>(transmission.getReceiver(), new Pair<>(transmission.getDepartureTime().toSecondOfDay(), transmission.getTransmissionPower())));
+                    if (!reception.getValue())
+                        transmissionsMote.getLast().add(new Pair<>(transmission.getReceiver(), new Pair<>((int) (transmission.getDepartureTimeNanos() / 1000000000L), transmission.getTransmissionPower())));
                     else {
-                        transmissionsMote.getLast().add(new Pair<>(transmission.getReceiver(), new Pair<>(transmission.getDepartureTime().toSecondOfDay(), (double) 20)));
+                        transmissionsMote.getLast().add(new Pair<>(transmission.getReceiver(), new Pair<>((int) (transmission.getDepartureTimeNanos() / 1000000000L), (double) 20)));
                         amountLost += 1;
                     }
                 }
@@ -2339,7 +2250,7 @@ public class MainGUI extends JFrame {
 
 
         for (LinkedList<Pair<NetworkEntity, Pair<Integer, Double>>> list : transmissionsMote) {
-            XYSeries series = new XYSeries("gateway " + (mote.getEnvironment().getGateways().indexOf(list.get(0).getLeft()) + 1));
+            XYSeries series = new XYSeries("gateway " + (list.get(0).getLeft().getId() + 1));
 
             for (Pair<NetworkEntity, Pair<Integer, Double>> data : list) {
                 series.add(data.getRight().getLeft(), data.getRight().getRight());
@@ -2483,7 +2394,7 @@ public class MainGUI extends JFrame {
         XYSeriesCollection dataDistanceToGateway = new XYSeriesCollection();
 
         for (LinkedList<LoraTransmission> list : transmissionsMote) {
-            XYSeries series = new XYSeries("gateway " + (mote.getEnvironment().getGateways().indexOf(list.get(0).getReceiver()) + 1));
+            XYSeries series = new XYSeries("gateway " + (list.get(0).getReceiver().getId() + 1));
             Integer i = 0;
             for (LoraTransmission transmission : list) {
                 series.add(i, (Number) Math.sqrt(Math.pow(transmission.getReceiver().getYPos() - transmission.getYPos(), 2) +
@@ -32,7 +32,7 @@ public class MoteGUI extends JFrame {
     public MoteGUI(Mote mote, JFrame frame) {
         this.frame = frame;
         this.mote = mote;
-        moteNumberLabel.setText(Integer.toString(mote.getEnvironment().getMotes().indexOf(mote) + 1));
+        moteNumberLabel.setText(Integer.toString(mote.getId() + 1));
         EUIDText.setText(Long.toUnsignedString(mote.getEUI()));
         Double latitude = mote.getEnvironment().toLatitude(mote.getYPos());
         Integer latitudeDegrees = (int) Math.round(Math.floor(latitude));
@@ -24,7 +24,7 @@ public class SelectMoteGUI extends JFrame {
         this.environment = environment;
         this.frame = frame;
         for (Mote mote : environment.getMotes()) {
-            moteSelectorComboBox.addItem("Mote " + (environment.getMotes().indexOf(mote) + 1) + " EUI " + Long.toUnsignedString(mote.getEUI()));
+            moteSelectorComboBox.addItem("Mote " + (mote.getId() + 1) + " EUI " + Long.toUnsignedString(mote.getEUI()));
         }
         for (int i = 0; i < environment.getNumberOfRuns(); i++) {
             runSelectorComboBox.addItem("Run " + (i + 1));
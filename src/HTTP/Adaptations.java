@@ -0,0 +1,151 @@
+package HTTP;
+
+import IotDomain.Mote;
+import SelfAdaptation.Instrumentation.MoteEffector;
+import models.AdaptationModel;
+import models.AdaptationOptionModel;
+import models.ExecuteModel;
+
+import java.net.HttpURLConnection;
+import java.util.List;
+
+/**
+ * This class provides the checking and applying of the adaptations in an {@code ExecuteDTO}, shared by the
+ * handlers which execute adaptations.
+ * @version 1.0
+ */
+final class Adaptations {
+
+    /**
+     * An HTTP Response message {@code OUT_OF_BOUNDS_ADAPTATION} for an adaptation value out of its range.
+     */
+    static final HTTPResponse OUT_OF_BOUNDS_ADAPTATION = new HTTPResponse(
+            HttpURLConnection.HTTP_BAD_REQUEST,
+            "Adaptation value out of range.\n"
+    );
+
+    /**
+     * An HTTP Response message {@code INVALID_MOTE_ID} for an invalid mote id.
+     */
+    static final HTTPResponse INVALID_MOTE_ID = new HTTPResponse(
+            HttpURLConnection.HTTP_BAD_REQUEST,
+            "Invalid mote ID.\n"
+    );
+
+    /**
+     * An HTTP Response message {@code INVALID_ADAPTATION} for an invalid adaptation name.
+     */
+    static final HTTPResponse INVALID_ADAPTATION = new HTTPResponse(
+            HttpURLConnection.HTTP_BAD_REQUEST,
+            "Invalid adaptation name.\n"
+    );
+
+    private Adaptations() {
+    }
+
+    /**
+     * An exception that occurs when the given adaptation name is not known.
+     */
+    static class AdaptationNotFoundException extends Exception {}
+
+    /**
+     * Checks that every adaptation can be applied, so that all of them can be applied at once.
+     * @param inputs The adaptations per mote.
+     * @param motes The motes of the environment.
+     * @return The HTTP reject response for the first adaptation which cannot be applied, or null if all of them can.
+     */
+    static HTTPResponse check(List<ExecuteModel> inputs, List<Mote> motes) {
+        for (ExecuteModel input : inputs) {
+            if (input.getId() == null || input.getId() < 0 || input.getId() >= motes.size()) {
+                return INVALID_MOTE_ID;
+            }
+            if (input.getAdaptations() == null) {
+                continue;
+            }
+            for (AdaptationModel adaptation : input.getAdaptations()) {
+                AdaptationOptionModel option = getAdaptationOptionByName(adaptation.getName());
+                if (option == null) {
+                    return INVALID_ADAPTATION;
+                }
+                Double value = adaptation.getValue();
+                if (value == null || (option.getMinValue() != null && value < option.getMinValue())
+                        || (option.getMaxValue() != null && value > option.getMaxValue())) {
+                    return OUT_OF_BOUNDS_ADAPTATION;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Applies adaptations which passed {@link #check(List, List)}.
+     * @param inputs The adaptations per mote.
+     * @param motes The motes of the environment.
+     * @return A plain text summary of the applied adaptations.
+     */
+    static String apply(List<ExecuteModel> inputs, List<Mote> motes) {
+        StringBuilder summary = new StringBuilder();
+        for (ExecuteModel input : inputs) {
+            if (input.getAdaptations() == null) {
+                continue;
+            }
+            Mote mote = motes.get(input.getId());
+            for (AdaptationModel adaptation : input.getAdaptations()) {
+                try {
+                    applyAdaptation(mote, adaptation.getName(), adaptation.getValue());
+                } catch (AdaptationNotFoundException e) {
+                    throw new IllegalArgumentException("Unchecked adaptation " + adaptation.getName());
+                }
+                summary.append(String.format("Set %s of mote %d to %f.\n",
+                        adaptation.getName(), input.getId(), adaptation.getValue()));
+            }
+        }
+        return summary.toString();
+    }
+
+    /**
+     * Executes the adaptation for a given mote with the given value.
+     * @param mote The mote.
+     * @param adaptationName The field to be adapted.
+     * @param value The value to adapt the field with.
+     * @throws AdaptationNotFoundException can occur when the given adaptationName is not known.
+     */
+    static void applyAdaptation(Mote mote, String adaptationName, Double value) throws AdaptationNotFoundException {
+        MoteEffector moteEffector = new MoteEffector();
+
+        switch (adaptationName) {
+            case "power":
+                moteEffector.setPower(mote, value.intValue());
+                break;
+            case "sampling_rate":
+                moteEffector.setSamplingRate(mote, value.intValue());
+                break;
+            case "spreading_factor":
+                moteEffector.setSpreadingFactor(mote, value.intValue());
+                break;
+            case "movement_speed":
+                moteEffector.setMovementSpeed(mote, value);
+                break;
+            case "energy_level":
+                moteEffector.setEnergyLevel(mote, value.intValue());
+                break;
+            default:
+                throw new AdaptationNotFoundException();
+        }
+    }
+
+    /**
+     * Returns the adaptation option with a given name.
+     * @param name The name of the adaptation.
+     * @return The adaptation option, or null if no option has the name.
+     */
+    static AdaptationOptionModel getAdaptationOptionByName(String name) {
+        List<AdaptationOptionModel> options = AdaptationOptionsHandler.getAdaptationOptions();
+        for (AdaptationOptionModel option : options) {
+            if (option.getName().equals(name)) {
+                return option;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,87 @@
+package HTTP;
+
+import Simulation.LockstepController;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import models.AdvanceModel;
+import models.SimulationState;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.util.Map;
+
+/**
+ * Handler that runs a number of iterations of a simulation running in lockstep and returns once they are done.
+ */
+public class AdvanceHandler implements HttpHandler {
+
+    private static final HTTPResponse INVALID_REQUEST = new HTTPResponse(
+            HttpURLConnection.HTTP_BAD_REQUEST,
+            "Invalid request.\n"
+    );
+
+    private static final HTTPResponse NOT_IN_LOCKSTEP = new HTTPResponse(
+            HttpURLConnection.HTTP_CONFLICT,
+            "Simulation is not running in lockstep.\n"
+    );
+
+    private static final HTTPResponse METHOD_NOT_ALLOWED = new HTTPResponse(
+            HttpURLConnection.HTTP_BAD_METHOD,
+            "Method not allowed.\n"
+    );
+
+    private final SimulationState simulationState;
+    private final ObjectMapper objectMapper;
+
+    public AdvanceHandler(SimulationState simulationState) {
+        this.simulationState = simulationState;
+        this.objectMapper = new ObjectMapper();
+    }
+
+    /**
+     * Runs the number of iterations in the query parameter {@code ticks} on the simulation thread.
+     * @param exchange the exchange containing the request from the
+     *      client and used to send the response
+     * @exception IOException can occur when sending the HTTP response
+     */
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        if (!"POST".equalsIgnoreCase(exchange.getRequestMethod())) {
+            exchange.getResponseHeaders().add("Allow", "POST");
+            METHOD_NOT_ALLOWED.send(exchange);
+            return;
+        }
+
+        Map<String, String> queryParameters = QueryParameters.parse(exchange.getRequestURI());
+        String ticksParameter = queryParameters.get("ticks");
+        Integer ticks = ticksParameter == null ? null : QueryParameters.parseInteger(ticksParameter);
+        if (ticks == null || ticks <= 0) {
+            INVALID_REQUEST.send(exchange);
+            return;
+        }
+
+        LockstepController.Advance advance;
+        try {
+            advance = this.simulationState.getLockstepController().advance(ticks);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e.getMessage());
+        }
+        if (advance == null) {
+            NOT_IN_LOCKSTEP.send(exchange);
+            return;
+        }
+
+        AdvanceModel model = AdvanceModel.builder()
+                .ticks(advance.getIterations())
+                .completedTicks(advance.getCompletedIterations())
+                .time(advance.getTimeNanos() / 1e9)
+                .build();
+
+        String responseBody = this.objectMapper.writeValueAsString(model);
+
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        new HTTPResponse(HttpURLConnection.HTTP_OK, responseBody).send(exchange);
+    }
+}
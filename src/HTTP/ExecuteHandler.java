@@ -1,7 +1,6 @@
 package HTTP;
 
 import IotDomain.Mote;
-import SelfAdaptation.Instrumentation.MoteEffector;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
@@ -18,10 +17,6 @@ import java.util.Scanner;
  */
 public class ExecuteHandler implements HttpHandler {
 
-    private static final HTTPResponse OUT_OF_BOUNDS_ADAPTATION = new HTTPResponse(
-            HttpURLConnection.HTTP_BAD_REQUEST,
-            "Adaptation value out of range.\n"
-    );
     /**
      * The simulation state containing information regarding the simulation.
      * @since 1.0
@@ -42,22 +37,6 @@ public class ExecuteHandler implements HttpHandler {
             "Malformed input.\n"
     );
 
-    /**
-     * An HTTP Response message {@code INVALID_MOTE_ID} for an invalid mote id.
-     */
-    private static final HTTPResponse INVALID_MOTE_ID = new HTTPResponse(
-            HttpURLConnection.HTTP_BAD_REQUEST,
-            "Invalid mote ID.\n"
-    );
-
-    /**
-     * An HTTP Response message {@code INVALID_ADAPTATION} for an invalid adaptation name.
-     */
-    private static final HTTPResponse INVALID_ADAPTATION = new HTTPResponse(
-            HttpURLConnection.HTTP_BAD_REQUEST,
-            "Invalid adaptation name.\n"
-    );
-
     /**
      * An HTTP Response message {@code NOT_RUNNING} for when the server is not running.
      */
@@ -75,37 +54,6 @@ public class ExecuteHandler implements HttpHandler {
         this.objectMapper = new ObjectMapper();
     }
 
-    /**
-     * Executes the adaptation for a given mote with the given value.
-     * @param mote The mote.
-     * @param adaptationName The field to be adapted.
-     * @param value The value to adapt the field with.
-     * @throws AdaptationNotFoundException can occur when the given adaptationName is not known.
-     */
-    private void applyAdaptation(Mote mote, String adaptationName, Double value) throws AdaptationNotFoundException {
-        MoteEffector moteEffector = new MoteEffector();
-
-        switch (adaptationName) {
-            case "power":
-                moteEffector.setPower(mote, value.intValue());
-                break;
-            case "sampling_rate":
-                moteEffector.setSamplingRate(mote, value.intValue());
-                break;
-            case "spreading_factor":
-                moteEffector.setSpreadingFactor(mote, value.intValue());
-                break;
-            case "movement_speed":
-                moteEffector.setMovementSpeed(mote, value);
-                break;
-            case "energy_level":
-                moteEffector.setEnergyLevel(mote, value.intValue());
-                break;
-            default:
-                throw new AdaptationNotFoundException();
-        }
-    }
-
     /**
      * Sends an HTTP reject response message if applicable.
      * When no HTTP reject response messages have been sent, sends a response with the HTTP Status Code {@code 200 OK}
@@ -144,7 +92,7 @@ public class ExecuteHandler implements HttpHandler {
 
         for (ExecuteModel input : inputs) {
             if (input.getId() < 0 || input.getId() >= motes.size()) {
-                INVALID_MOTE_ID.send(exchange);
+                Adaptations.INVALID_MOTE_ID.send(exchange);
                 return;
             }
         }
@@ -154,7 +102,7 @@ public class ExecuteHandler implements HttpHandler {
             for (AdaptationModel adaptation : input.getAdaptations()) {
                 Double value = adaptation.getValue();
                 // Retrieve the adaptation option model by name to check its range
-                AdaptationOptionModel option = getAdaptationOptionByName(adaptation.getName());
+                AdaptationOptionModel option = Adaptations.getAdaptationOptionByName(adaptation.getName());
                 Double minValue = option != null ? option.getMinValue() : null; // get min
                 Double maxValue = option != null ? option.getMaxValue() : null; // get max
 
@@ -162,9 +110,9 @@ public class ExecuteHandler implements HttpHandler {
                 if ((minValue == null || value >= minValue) && (maxValue == null || value <= maxValue)) {
                     try {
                         // Apply the adaptation if the value is within range
-                        this.applyAdaptation(mote, adaptation.getName(), value);
-                    } catch (AdaptationNotFoundException e) {
-                        INVALID_ADAPTATION.send(exchange); // Send error response if adaptation is not found
+                        Adaptations.applyAdaptation(mote, adaptation.getName(), value);
+                    } catch (Adaptations.AdaptationNotFoundException e) {
+                        Adaptations.INVALID_ADAPTATION.send(exchange); // Send error response if adaptation is not found
                         return;
                     }
                     // Update the response string to reflect the applied adaptation
@@ -173,7 +121,7 @@ public class ExecuteHandler implements HttpHandler {
                 } else {
                     // Handle out-of-range value
                     System.out.println("Adaptation value out of range for " + adaptation.getName() + ": " + value);
-                    OUT_OF_BOUNDS_ADAPTATION.send(exchange);  // New HTTP response for out-of-bounds value
+                    Adaptations.OUT_OF_BOUNDS_ADAPTATION.send(exchange);  // New HTTP response for out-of-bounds value
                 }
             }
         }
@@ -184,20 +132,4 @@ public class ExecuteHandler implements HttpHandler {
 
         response.send(exchange);
     }
-
-    /**
-     * An exception that occurs when the given adaptation name is not known.
-     */
-    private static class AdaptationNotFoundException extends Exception {}
-
-    private AdaptationOptionModel getAdaptationOptionByName(String name) {
-        List<AdaptationOptionModel> options = AdaptationOptionsHandler.getAdaptationOptions();
-        for (AdaptationOptionModel option : options) {
-            if (option.getName().equals(name)) {
-                return option;
-            }
-        }
-        return null;
-    }
-
 }
@@ -0,0 +1,143 @@
+package HTTP;
+
+import IotDomain.RecentOutcomes;
+import Simulation.SteppedScenario;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import mappers.EnvironmentMapper;
+import mappers.MoteStateMapper;
+import models.ExecuteDTO;
+import models.ExecuteModel;
+import models.MonitorModel;
+import models.SimulationState;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Handler that judges adaptations without applying them: it applies them to a fork of the running simulation, runs
+ * the fork a number of iterations ahead and returns the monitored state of the fork. The simulation itself does not
+ * change and keeps running while the fork runs.
+ */
+public class LookaheadHandler implements HttpHandler {
+
+    /**
+     * The largest number of iterations a fork runs ahead, since it runs on the request thread.
+     */
+    public static final int MAX_TICKS = 100000;
+
+    private static final HTTPResponse INVALID_REQUEST = new HTTPResponse(
+            HttpURLConnection.HTTP_BAD_REQUEST,
+            "Invalid request.\n"
+    );
+
+    private static final HTTPResponse INVALID_INPUT = new HTTPResponse(
+            HttpURLConnection.HTTP_BAD_REQUEST,
+            "Malformed input.\n"
+    );
+
+    private static final HTTPResponse NOT_RUNNING = new HTTPResponse(
+            HttpURLConnection.HTTP_CONFLICT,
+            "Simulation is not running.\n"
+    );
+
+    private static final HTTPResponse METHOD_NOT_ALLOWED = new HTTPResponse(
+            HttpURLConnection.HTTP_BAD_METHOD,
+            "Method not allowed.\n"
+    );
+
+    private final SimulationState simulationState;
+    private final ObjectMapper objectMapper;
+
+    public LookaheadHandler(SimulationState simulationState) {
+        this.simulationState = simulationState;
+        this.objectMapper = new ObjectMapper();
+    }
+
+    /**
+     * Applies the adaptations in the {@code ExecuteDTO} body to a fork of the simulation, all of them or none if one
+     * of them is invalid, runs the number of iterations in the query parameter {@code ticks} on the fork and returns
+     * the monitored values of the fork. The optional query parameter {@code recent_window} is the one of
+     * {@code /monitor}. An empty body applies no adaptations. The fork stops running ahead once the simulation is
+     * asked to stop.
+     * @param exchange the exchange containing the request from the
+     *      client and used to send the response
+     * @exception IOException can occur when sending the HTTP response
+     */
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        if (!"POST".equalsIgnoreCase(exchange.getRequestMethod())) {
+            exchange.getResponseHeaders().add("Allow", "POST");
+            METHOD_NOT_ALLOWED.send(exchange);
+            return;
+        }
+
+        Map<String, String> queryParameters = QueryParameters.parse(exchange.getRequestURI());
+        String ticksParameter = queryParameters.get("ticks");
+        Integer ticks = ticksParameter == null ? null : QueryParameters.parseInteger(ticksParameter);
+        if (ticks == null || ticks < 0 || ticks > MAX_TICKS) {
+            INVALID_REQUEST.send(exchange);
+            return;
+        }
+        int recentWindow = MoteStateMapper.RECENT_PACKET_WINDOW_SIZE;
+        if (queryParameters.containsKey("recent_window")) {
+            Integer value = QueryParameters.parseInteger(queryParameters.get("recent_window"));
+            if (value == null || value <= 0 || value > RecentOutcomes.MAX_WINDOW) {
+                INVALID_REQUEST.send(exchange);
+                return;
+            }
+            recentWindow = value;
+        }
+
+        List<ExecuteModel> inputs;
+        try {
+            String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            inputs = body.trim().isEmpty()
+                    ? Collections.emptyList()
+                    : objectMapper.readValue(body, ExecuteDTO.class).getItems();
+        } catch (Exception e) {
+            INVALID_INPUT.send(exchange);
+            return;
+        }
+        if (inputs == null) {
+            INVALID_INPUT.send(exchange);
+            return;
+        }
+
+        SteppedScenario fork = this.simulationState.getCheckpointController().fork();
+        if (fork == null) {
+            NOT_RUNNING.send(exchange);
+            return;
+        }
+        MonitorModel model;
+        try {
+            HTTPResponse rejection = Adaptations.check(inputs, fork.getEnvironment().getMotes());
+            if (rejection != null) {
+                rejection.send(exchange);
+                return;
+            }
+            Adaptations.apply(inputs, fork.getEnvironment().getMotes());
+            for (int i = 0; i < ticks; i++) {
+                if (this.simulationState.getShouldStop()) {
+                    NOT_RUNNING.send(exchange);
+                    return;
+                }
+                fork.step();
+            }
+            model = EnvironmentMapper.mapEnvironmentToMonitorModel(fork.getEnvironment(), recentWindow);
+        } finally {
+            // The simulation no longer copies its map before changing it for this fork.
+            fork.getEnvironment().release();
+        }
+        model.setIsRunning(this.simulationState.getIsRunning());
+        String data = this.objectMapper.writeValueAsString(model);
+
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        new HTTPResponse(HttpURLConnection.HTTP_OK, data).send(exchange);
+    }
+}
@@ -1,13 +1,18 @@
 package HTTP;
 
+import IotDomain.RecentOutcomes;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
+import mappers.MoteStateMapper;
 import mappers.SimulationStateMapper;
+import models.MonitorModel;
 import models.SimulationState;
 
 import java.io.IOException;
 import java.net.HttpURLConnection;
+import java.util.Map;
+import java.util.function.IntFunction;
 
 /**
  * This class implements the handler for an HTTP request to the monitor endpoint of DingNet.
@@ -16,10 +21,9 @@ import java.net.HttpURLConnection;
 public class MonitorHandler implements HttpHandler {
 
     /**
-     * The current state of the simulation to be monitored.
-     * @since 1.0
+     * Maps the number of recent transmissions of the recent packet loss to the monitored values.
      */
-    private final SimulationState simulationState;
+    private final IntFunction<MonitorModel> monitor;
 
     /**
      * An {@code ObjectMapper} instance to map the simulation state to a JSON string.
@@ -27,28 +31,56 @@ public class MonitorHandler implements HttpHandler {
      */
     private final ObjectMapper objectMapper;
 
+    /**
+     * An HTTP Response message {@code INVALID_REQUEST} for when the query parameters are invalid.
+     */
+    static private final HTTPResponse INVALID_REQUEST = new HTTPResponse(
+            HttpURLConnection.HTTP_BAD_REQUEST,
+            "Invalid request.\n"
+    );
+
     /**
      * Constructs a {@code MonitorHandler} object with the simulation state {@code state}.
      * @param simulationState The state of the simulation to be monitored by this monitor handler.
      * @since 1.0
      */
     public MonitorHandler(SimulationState simulationState) {
-        this.simulationState = simulationState;
+        this(recentWindow -> SimulationStateMapper.mapSimulationStateToMonitorModel(simulationState, recentWindow));
+    }
+
+    /**
+     * Constructs a {@code MonitorHandler} object with the monitored values of a simulation which does not run in a
+     * {@code SimulationState}, such as a partitioned one.
+     * @param monitor Maps the number of recent transmissions of the recent packet loss to the monitored values.
+     */
+    public MonitorHandler(IntFunction<MonitorModel> monitor) {
+        this.monitor = monitor;
         this.objectMapper = new ObjectMapper();
     }
 
     /**
      * Sends a response with the HTTP Status Code {@code 200 OK} and the monitored values of DingNet as JSON
      * to the HTTP {@code exchange}. Overrides the method {@link HttpHandler#handle(HttpExchange)}.
+     * The optional query parameter {@code recent_window} sets the number of recent transmissions of the
+     * recent packet loss of the motes.
      * @param exchange The HTTP exchange with the monitor endpoint.
      * @exception IOException can occur in {@link HTTPResponse#send(HttpExchange)}
      * @since 1.0
      */
     @Override
     public void handle(HttpExchange exchange) throws IOException {
-        String data = this.objectMapper.writeValueAsString(
-                SimulationStateMapper.mapSimulationStateToMonitorModel(this.simulationState)
-        );
+        Map<String, String> queryParameters = QueryParameters.parse(exchange.getRequestURI());
+        int recentWindow = MoteStateMapper.RECENT_PACKET_WINDOW_SIZE;
+        if (queryParameters.containsKey("recent_window")) {
+            Integer value = QueryParameters.parseInteger(queryParameters.get("recent_window"));
+            if (value == null || value <= 0 || value > RecentOutcomes.MAX_WINDOW) {
+                INVALID_REQUEST.send(exchange);
+                return;
+            }
+            recentWindow = value;
+        }
+
+        String data = this.objectMapper.writeValueAsString(this.monitor.apply(recentWindow));
         HTTPResponse response = new HTTPResponse(HttpURLConnection.HTTP_OK, data);
 
         exchange.getResponseHeaders().add("Content-Type", "application/json");
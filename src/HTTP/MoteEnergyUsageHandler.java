@@ -2,22 +2,19 @@ package HTTP;
 
 import IotDomain.Environment;
 import IotDomain.Mote;
+import IotDomain.RollupSeries;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
+import mappers.RollupStateMapper;
 import models.MoteEnergyUsageModel;
 import models.SimulationState;
 
 import java.io.IOException;
 import java.net.HttpURLConnection;
-import java.net.URI;
-import java.net.URLDecoder;
-import java.nio.charset.StandardCharsets;
-import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 
 /**
  * Handler that exposes the transmission energy usage history of a mote.
@@ -66,7 +63,7 @@ public class MoteEnergyUsageHandler implements HttpHandler {
             return;
         }
 
-        Map<String, String> queryParameters = parseQueryParameters(exchange.getRequestURI());
+        Map<String, String> queryParameters = QueryParameters.parse(exchange.getRequestURI());
 
         String euiParameter = queryParameters.get("eui");
         String idParameter = queryParameters.get("id");
@@ -79,7 +76,7 @@ public class MoteEnergyUsageHandler implements HttpHandler {
 
         Mote mote;
         if (idParameter != null) {
-            Integer moteIndex = parseInteger(idParameter);
+            Integer moteIndex = QueryParameters.parseInteger(idParameter);
             if (moteIndex == null) {
                 INVALID_REQUEST.send(exchange);
                 return;
@@ -92,13 +89,13 @@ public class MoteEnergyUsageHandler implements HttpHandler {
             }
             mote = motes.get(moteIndex);
         } else {
-            Long moteEui = parseLong(euiParameter);
+            Long moteEui = QueryParameters.parseLong(euiParameter);
             if (moteEui == null) {
                 INVALID_REQUEST.send(exchange);
                 return;
             }
 
-            mote = findMoteByEui(environment.getMotes(), moteEui).orElse(null);
+            mote = environment.getMoteByEUI(moteEui);
             if (mote == null) {
                 MOTE_NOT_FOUND.send(exchange);
                 return;
@@ -108,7 +105,7 @@ public class MoteEnergyUsageHandler implements HttpHandler {
         int numberOfRuns = environment.getNumberOfRuns();
         int runIndex = Math.max(0, numberOfRuns - 1);
         if (runParameter != null) {
-            Integer parsedRun = parseInteger(runParameter);
+            Integer parsedRun = QueryParameters.parseInteger(runParameter);
             if (parsedRun == null || parsedRun < 0 || parsedRun >= numberOfRuns) {
                 INVALID_REQUEST.send(exchange);
                 return;
@@ -125,64 +122,14 @@ public class MoteEnergyUsageHandler implements HttpHandler {
                 .transmissionEnergy(new LinkedList<>(usedEnergy))
                 .totalEnergy(totalEnergy)
                 .build();
+        RollupSeries energyRollups = mote.getRollups(runIndex).getUsedEnergy();
+        if (!energyRollups.isEmpty()) {
+            model.setEnergyRollups(RollupStateMapper.mapRollupSeriesToRollupStates(energyRollups));
+        }
 
         String responseBody = this.objectMapper.writeValueAsString(model);
 
         exchange.getResponseHeaders().add("Content-Type", "application/json");
         new HTTPResponse(HttpURLConnection.HTTP_OK, responseBody).send(exchange);
     }
-
-    private Map<String, String> parseQueryParameters(URI uri) {
-        Map<String, String> parameters = new HashMap<>();
-        if (uri == null) {
-            return parameters;
-        }
-
-        String query = uri.getQuery();
-        if (query == null || query.isEmpty()) {
-            return parameters;
-        }
-
-        String[] pairs = query.split("&");
-        for (String pair : pairs) {
-            if (pair.isEmpty()) {
-                continue;
-            }
-
-            int equalsIndex = pair.indexOf('=');
-            String key;
-            String value;
-            if (equalsIndex >= 0) {
-                key = URLDecoder.decode(pair.substring(0, equalsIndex), StandardCharsets.UTF_8);
-                value = URLDecoder.decode(pair.substring(equalsIndex + 1), StandardCharsets.UTF_8);
-            } else {
-                key = URLDecoder.decode(pair, StandardCharsets.UTF_8);
-                value = "";
-            }
-            parameters.put(key, value);
-        }
-        return parameters;
-    }
-
-    private Integer parseInteger(String value) {
-        try {
-            return Integer.parseInt(value);
-        } catch (NumberFormatException e) {
-            return null;
-        }
-    }
-
-    private Long parseLong(String value) {
-        try {
-            return Long.parseLong(value);
-        } catch (NumberFormatException e) {
-            return null;
-        }
-    }
-
-    private Optional<Mote> findMoteByEui(List<Mote> motes, Long eui) {
-        return motes.stream()
-                .filter(mote -> mote.getEUI().equals(eui))
-                .findFirst();
-    }
 }
@@ -0,0 +1,93 @@
+package HTTP;
+
+import Simulation.PacingController;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import models.PacingModel;
+import models.SimulationState;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.util.Map;
+
+/**
+ * Handler that reports and changes the ratio of simulated time to wall clock time the simulation loop is paced to.
+ */
+public class PacingHandler implements HttpHandler {
+
+    private static final HTTPResponse INVALID_REQUEST = new HTTPResponse(
+            HttpURLConnection.HTTP_BAD_REQUEST,
+            "Invalid request.\n"
+    );
+
+    private static final HTTPResponse METHOD_NOT_ALLOWED = new HTTPResponse(
+            HttpURLConnection.HTTP_BAD_METHOD,
+            "Method not allowed.\n"
+    );
+
+    private final SimulationState simulationState;
+    private final ObjectMapper objectMapper;
+
+    public PacingHandler(SimulationState simulationState) {
+        this.simulationState = simulationState;
+        this.objectMapper = new ObjectMapper();
+    }
+
+    /**
+     * Parses a target ratio, which is a positive number or {@code max} to run as fast as possible.
+     * @param value The value to parse.
+     * @return The target ratio, or null if the value is invalid.
+     */
+    static Double parseTargetRatio(String value) {
+        if (value.equalsIgnoreCase("max")) {
+            return PacingController.MAXIMUM;
+        }
+        try {
+            double ratio = Double.parseDouble(value);
+            return ratio > 0 && !Double.isInfinite(ratio) ? ratio : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the pacing of the simulation loop, after setting the target ratio to the query parameter {@code ratio}
+     * for a PUT request.
+     * @param exchange the exchange containing the request from the
+     *      client and used to send the response
+     * @exception IOException can occur when sending the HTTP response
+     */
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        PacingController pacing = this.simulationState.getPacingController();
+        if ("PUT".equalsIgnoreCase(method)) {
+            Map<String, String> queryParameters = QueryParameters.parse(exchange.getRequestURI());
+            String ratioParameter = queryParameters.get("ratio");
+            Double ratio = ratioParameter == null ? null : parseTargetRatio(ratioParameter);
+            if (ratio == null) {
+                INVALID_REQUEST.send(exchange);
+                return;
+            }
+            pacing.setTargetRatio(ratio);
+        } else if (!"GET".equalsIgnoreCase(method)) {
+            exchange.getResponseHeaders().add("Allow", "GET, PUT");
+            METHOD_NOT_ALLOWED.send(exchange);
+            return;
+        }
+
+        double achievedRatio = pacing.getAchievedRatio();
+        PacingModel model = PacingModel.builder()
+                .maximum(pacing.isMaximum())
+                .targetRatio(pacing.isMaximum() ? null : pacing.getTargetRatio())
+                .achievedRatio(Double.isNaN(achievedRatio) ? null : achievedRatio)
+                .isRunning(this.simulationState.getIsRunning())
+                .build();
+
+        String responseBody = this.objectMapper.writeValueAsString(model);
+
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        new HTTPResponse(HttpURLConnection.HTTP_OK, responseBody).send(exchange);
+    }
+}
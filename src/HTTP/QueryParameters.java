@@ -0,0 +1,87 @@
+package HTTP;
+
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * This class provides the parsing of query parameters shared by the handlers of DingNet.
+ * The parse functions for single values return {@code null} when the value is invalid.
+ * @version 1.0
+ */
+public final class QueryParameters {
+
+    private QueryParameters() {
+    }
+
+    /**
+     * Parses the query of an URI into a map from parameter names to values.
+     * A parameter without a value is mapped to an empty string.
+     * @param uri The request URI.
+     * @return The decoded query parameters.
+     */
+    public static Map<String, String> parse(URI uri) {
+        Map<String, String> parameters = new HashMap<>();
+        if (uri == null) {
+            return parameters;
+        }
+
+        String query = uri.getQuery();
+        if (query == null || query.isEmpty()) {
+            return parameters;
+        }
+
+        String[] pairs = query.split("&");
+        for (String pair : pairs) {
+            if (pair.isEmpty()) {
+                continue;
+            }
+
+            int equalsIndex = pair.indexOf('=');
+            String key;
+            String value;
+            if (equalsIndex >= 0) {
+                key = URLDecoder.decode(pair.substring(0, equalsIndex), StandardCharsets.UTF_8);
+                value = URLDecoder.decode(pair.substring(equalsIndex + 1), StandardCharsets.UTF_8);
+            } else {
+                key = URLDecoder.decode(pair, StandardCharsets.UTF_8);
+                value = "";
+            }
+            parameters.put(key, value);
+        }
+        return parameters;
+    }
+
+    public static Integer parseInteger(String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    public static Long parseLong(String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Parses a boolean, where an empty value (a parameter without value) counts as {@code true}.
+     * @param value The value to parse.
+     * @return The parsed boolean, or {@code null} if the value is not a boolean.
+     */
+    public static Boolean parseBoolean(String value) {
+        if (value.isEmpty() || value.equalsIgnoreCase("true")) {
+            return true;
+        }
+        if (value.equalsIgnoreCase("false")) {
+            return false;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,90 @@
+package HTTP;
+
+import Simulation.CheckpointController;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import models.CheckpointModel;
+import models.SimulationState;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+
+/**
+ * Handler that replaces the state of the running simulation by a snapshot taken by {@link SnapshotHandler}.
+ */
+public class RestoreHandler implements HttpHandler {
+
+    private static final HTTPResponse INVALID_SNAPSHOT = new HTTPResponse(
+            HttpURLConnection.HTTP_BAD_REQUEST,
+            "Invalid snapshot.\n"
+    );
+
+    private static final HTTPResponse NOT_RUNNING = new HTTPResponse(
+            HttpURLConnection.HTTP_CONFLICT,
+            "Simulation is not running.\n"
+    );
+
+    private static final HTTPResponse METHOD_NOT_ALLOWED = new HTTPResponse(
+            HttpURLConnection.HTTP_BAD_METHOD,
+            "Method not allowed.\n"
+    );
+
+    private final SimulationState simulationState;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * The directory of the trace files a fleet of a snapshot may replay, or null.
+     */
+    private final File traceDirectory;
+
+    public RestoreHandler(SimulationState simulationState, File traceDirectory) {
+        this.simulationState = simulationState;
+        this.objectMapper = new ObjectMapper();
+        this.traceDirectory = traceDirectory;
+    }
+
+    /**
+     * Restores the snapshot in the request body in between two iterations of the simulation, which continues from
+     * it with its next iteration.
+     * @param exchange the exchange containing the request from the
+     *      client and used to send the response
+     * @exception IOException can occur when sending the HTTP response
+     */
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        if (!"POST".equalsIgnoreCase(exchange.getRequestMethod())) {
+            exchange.getResponseHeaders().add("Allow", "POST");
+            METHOD_NOT_ALLOWED.send(exchange);
+            return;
+        }
+
+        byte[] data = exchange.getRequestBody().readAllBytes();
+        CheckpointController.Checkpoint checkpoint;
+        try {
+            checkpoint = this.simulationState.getCheckpointController().restore(data, traceDirectory, scenario -> {
+                this.simulationState.setEnvironment(scenario.getEnvironment());
+                this.simulationState.getPacingController().release();
+            });
+        } catch (IOException e) {
+            INVALID_SNAPSHOT.send(exchange);
+            return;
+        }
+        if (checkpoint == null) {
+            NOT_RUNNING.send(exchange);
+            return;
+        }
+
+        CheckpointModel model = CheckpointModel.builder()
+                .bytes(checkpoint.getData().length)
+                .millis(checkpoint.getDurationNanos() / 1e6)
+                .time(checkpoint.getTimeNanos() / 1e9)
+                .build();
+
+        String responseBody = this.objectMapper.writeValueAsString(model);
+
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        new HTTPResponse(HttpURLConnection.HTTP_OK, responseBody).send(exchange);
+    }
+}
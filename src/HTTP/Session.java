@@ -0,0 +1,102 @@
+package HTTP;
+
+import IotDomain.Environment;
+import com.sun.net.httpserver.HttpHandler;
+import models.SessionModel;
+import models.SimulationState;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A simulation session: a simulation state of its own with the endpoints which work on it.
+ * @version 1.0
+ */
+final class Session {
+
+    private final String id;
+
+    private final SimulationState simulationState = new SimulationState();
+
+    /**
+     * The time the session was created in milliseconds since the epoch.
+     */
+    private final long created = System.currentTimeMillis();
+
+    /**
+     * The number of requests the endpoints of the session handled.
+     */
+    private final AtomicLong requests = new AtomicLong();
+
+    /**
+     * The handlers of the endpoints of the session, by the name of the endpoint.
+     */
+    private final Map<String, HttpHandler> handlers = new LinkedHashMap<>();
+
+    Session(String id, File traceDirectory) {
+        this.id = id;
+        handlers.put("monitor", new MonitorHandler(simulationState));
+        handlers.put("execute", new ExecuteHandler(simulationState));
+        handlers.put("start_run", new StartRunHandler(simulationState, traceDirectory));
+        handlers.put("stop_run", new StopRunHandler(simulationState));
+        handlers.put("mote_energy_usage", new MoteEnergyUsageHandler(simulationState));
+        handlers.put("pacing", new PacingHandler(simulationState));
+        handlers.put("advance", new AdvanceHandler(simulationState));
+        handlers.put("step", new StepHandler(simulationState));
+        handlers.put("snapshot", new SnapshotHandler(simulationState));
+        handlers.put("restore", new RestoreHandler(simulationState, traceDirectory));
+        handlers.put("lookahead", new LookaheadHandler(simulationState));
+    }
+
+    String getId() {
+        return id;
+    }
+
+    /**
+     * Returns the handler of an endpoint of the session and counts the request for it. The handler adds the CPU time
+     * and the memory of the request to the resources of the session.
+     * @param endpoint The name of the endpoint.
+     * @return The handler of the endpoint, or null if the session has no such endpoint.
+     */
+    HttpHandler getHandler(String endpoint) {
+        HttpHandler handler = handlers.get(endpoint);
+        if (handler == null) {
+            return null;
+        }
+        requests.incrementAndGet();
+        return exchange -> simulationState.getResourceAccount().measure(() -> handler.handle(exchange));
+    }
+
+    /**
+     * Stops the simulation of the session, if it runs.
+     */
+    void stop() {
+        simulationState.setShouldStop(true);
+        simulationState.getPacingController().release();
+        simulationState.getLockstepController().close();
+    }
+
+    /**
+     * Maps the session to a model of its state and the resources it used.
+     * @return The model of the session.
+     */
+    SessionModel toModel() {
+        SessionModel model = SessionModel.builder()
+                .id(id)
+                .created(created)
+                .isRunning(simulationState.getIsRunning())
+                .requests(requests.get())
+                .cpuTime(simulationState.getResourceAccount().getCpuNanos() / 1e9)
+                .allocatedBytes(simulationState.getResourceAccount().getAllocatedBytes())
+                .build();
+        Environment environment = simulationState.getEnvironment();
+        if (environment != null) {
+            model.setSimulatedTime(environment.getTimeNanos() / 1e9);
+            model.setMotes(environment.getMotes().size());
+            model.setGateways(environment.getGateways().size());
+        }
+        return model;
+    }
+}
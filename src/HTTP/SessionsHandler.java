@@ -0,0 +1,183 @@
+package HTTP;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import models.SessionModel;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Handler for the simulation sessions of the server: every session has a simulation state and simulation thread of
+ * its own, and offers the endpoints which work on a simulation under {@code /sessions/{id}/}.
+ * @version 1.0
+ */
+public class SessionsHandler implements HttpHandler {
+
+    private static final String PREFIX = "/sessions";
+
+    private static final HTTPResponse NOT_FOUND = new HTTPResponse(
+            HttpURLConnection.HTTP_NOT_FOUND,
+            "Not found.\n"
+    );
+
+    private static final HTTPResponse SESSION_NOT_FOUND = new HTTPResponse(
+            HttpURLConnection.HTTP_NOT_FOUND,
+            "Session not found.\n"
+    );
+
+    private static final HTTPResponse SESSION_LIMIT_REACHED = new HTTPResponse(
+            HttpURLConnection.HTTP_UNAVAILABLE,
+            "Session limit reached.\n"
+    );
+
+    private static final HTTPResponse SESSION_CLOSED = new HTTPResponse(
+            HttpURLConnection.HTTP_OK,
+            "Session closed.\n"
+    );
+
+    private static final HTTPResponse METHOD_NOT_ALLOWED = new HTTPResponse(
+            HttpURLConnection.HTTP_BAD_METHOD,
+            "Method not allowed.\n"
+    );
+
+    /**
+     * The maximum number of sessions which exist at the same time.
+     */
+    private final int maxSessions;
+
+    /**
+     * The directory of the trace files the fleets of the sessions may replay, or null.
+     */
+    private final File traceDirectory;
+
+    /**
+     * The open sessions by their id, in the order in which they were created.
+     */
+    private final Map<String, Session> sessions = new LinkedHashMap<>();
+
+    private final ObjectMapper objectMapper;
+
+    private long lastId = 0;
+
+    /**
+     * Constructs a {@code SessionsHandler} without sessions.
+     * @param maxSessions The maximum number of sessions which exist at the same time.
+     * @param traceDirectory The directory of the trace files the fleets of the sessions may replay, or null.
+     */
+    public SessionsHandler(int maxSessions, File traceDirectory) {
+        this.maxSessions = maxSessions;
+        this.traceDirectory = traceDirectory;
+        this.objectMapper = new ObjectMapper();
+    }
+
+    /**
+     * Handles {@code /sessions}, where {@code POST} creates a session and {@code GET} lists them,
+     * {@code /sessions/{id}}, where {@code GET} describes a session and {@code DELETE} stops its simulation and
+     * closes it, and {@code /sessions/{id}/{endpoint}}, which passes the request to the endpoint of the session.
+     * @param exchange the exchange containing the request from the
+     *      client and used to send the response
+     * @exception IOException can occur when sending the HTTP response
+     */
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        String[] segments = path.length() > PREFIX.length() + 1
+                ? path.substring(PREFIX.length() + 1).split("/", -1)
+                : new String[0];
+        String method = exchange.getRequestMethod();
+
+        if (!path.startsWith(PREFIX) || (path.length() > PREFIX.length() && path.charAt(PREFIX.length()) != '/')
+                || segments.length > 2) {
+            NOT_FOUND.send(exchange);
+            return;
+        }
+
+        if (segments.length == 0) {
+            if ("POST".equalsIgnoreCase(method)) {
+                Session session = createSession();
+                if (session == null) {
+                    SESSION_LIMIT_REACHED.send(exchange);
+                    return;
+                }
+                sendModel(exchange, HttpURLConnection.HTTP_CREATED, session.toModel());
+            } else if ("GET".equalsIgnoreCase(method)) {
+                List<SessionModel> models = new ArrayList<>();
+                for (Session session : getSessions()) {
+                    models.add(session.toModel());
+                }
+                sendModel(exchange, HttpURLConnection.HTTP_OK, models);
+            } else {
+                exchange.getResponseHeaders().add("Allow", "GET, POST");
+                METHOD_NOT_ALLOWED.send(exchange);
+            }
+            return;
+        }
+
+        Session session = getSession(segments[0]);
+        if (session == null) {
+            SESSION_NOT_FOUND.send(exchange);
+            return;
+        }
+
+        if (segments.length == 1) {
+            if ("GET".equalsIgnoreCase(method)) {
+                sendModel(exchange, HttpURLConnection.HTTP_OK, session.toModel());
+            } else if ("DELETE".equalsIgnoreCase(method)) {
+                removeSession(session);
+                session.stop();
+                SESSION_CLOSED.send(exchange);
+            } else {
+                exchange.getResponseHeaders().add("Allow", "GET, DELETE");
+                METHOD_NOT_ALLOWED.send(exchange);
+            }
+            return;
+        }
+
+        HttpHandler handler = session.getHandler(segments[1]);
+        if (handler == null) {
+            NOT_FOUND.send(exchange);
+            return;
+        }
+        handler.handle(exchange);
+    }
+
+    /**
+     * Creates a session if the limit allows it.
+     * @return The new session, or null if the maximum number of sessions exist.
+     */
+    private synchronized Session createSession() {
+        if (sessions.size() >= maxSessions) {
+            return null;
+        }
+        lastId++;
+        Session session = new Session(String.valueOf(lastId), traceDirectory);
+        sessions.put(session.getId(), session);
+        return session;
+    }
+
+    private synchronized Session getSession(String id) {
+        return sessions.get(id);
+    }
+
+    private synchronized List<Session> getSessions() {
+        return new ArrayList<>(sessions.values());
+    }
+
+    private synchronized void removeSession(Session session) {
+        sessions.remove(session.getId());
+    }
+
+    private void sendModel(HttpExchange exchange, int status, Object model) throws IOException {
+        String data = this.objectMapper.writeValueAsString(model);
+
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        new HTTPResponse(status, data).send(exchange);
+    }
+}
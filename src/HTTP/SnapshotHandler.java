@@ -0,0 +1,67 @@
+package HTTP;
+
+import Simulation.CheckpointController;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import models.SimulationState;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+
+/**
+ * Handler that returns a binary snapshot of the running simulation, which {@link RestoreHandler} restores.
+ */
+public class SnapshotHandler implements HttpHandler {
+
+    private static final HTTPResponse NOT_RUNNING = new HTTPResponse(
+            HttpURLConnection.HTTP_CONFLICT,
+            "Simulation is not running.\n"
+    );
+
+    private static final HTTPResponse METHOD_NOT_ALLOWED = new HTTPResponse(
+            HttpURLConnection.HTTP_BAD_METHOD,
+            "Method not allowed.\n"
+    );
+
+    private final SimulationState simulationState;
+
+    public SnapshotHandler(SimulationState simulationState) {
+        this.simulationState = simulationState;
+    }
+
+    /**
+     * Sends a snapshot taken in between two iterations of the simulation, with the time it took to write it and
+     * the time of the simulation in the headers {@code X-Snapshot-Millis} and {@code X-Simulation-Time}.
+     * @param exchange the exchange containing the request from the
+     *      client and used to send the response
+     * @exception IOException can occur when sending the HTTP response
+     */
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        if (!"GET".equalsIgnoreCase(exchange.getRequestMethod())) {
+            exchange.getResponseHeaders().add("Allow", "GET");
+            METHOD_NOT_ALLOWED.send(exchange);
+            return;
+        }
+
+        CheckpointController.Checkpoint checkpoint = this.simulationState.getCheckpointController().snapshot();
+        if (checkpoint == null) {
+            NOT_RUNNING.send(exchange);
+            return;
+        }
+
+        byte[] data = checkpoint.getData();
+        exchange.getResponseHeaders().add("Content-Type", "application/octet-stream");
+        exchange.getResponseHeaders().add("X-Snapshot-Millis", Double.toString(checkpoint.getDurationNanos() / 1e6));
+        exchange.getResponseHeaders().add("X-Simulation-Time", Double.toString(checkpoint.getTimeNanos() / 1e9));
+        exchange.sendResponseHeaders(HttpURLConnection.HTTP_OK, data.length);
+
+        OutputStream os = exchange.getResponseBody();
+        os.write(data);
+        os.flush();
+        os.close();
+
+        exchange.close();
+    }
+}
@@ -1,12 +1,20 @@
 package HTTP;
 
+import IotDomain.RetentionPolicy;
+import Simulation.FleetScenario;
 import Simulation.MainSimulation;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
+import mappers.FleetMapper;
+import models.FleetModel;
 import models.SimulationState;
 
+import java.io.File;
 import java.io.IOException;
 import java.net.HttpURLConnection;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
 
 /**
  * This class implements the handler for starting a run in DingNet.
@@ -35,32 +43,149 @@ public class StartRunHandler implements HttpHandler {
             "Simulation started.\n"
     );
 
+    /**
+     * An HTTP Response message {@code INVALID_REQUEST} for when the query parameters are invalid.
+     */
+    static private final HTTPResponse INVALID_REQUEST = new HTTPResponse(
+            HttpURLConnection.HTTP_BAD_REQUEST,
+            "Invalid request.\n"
+    );
+
+    /**
+     * An HTTP Response message {@code INVALID_FLEET} for when the body is not a valid fleet.
+     */
+    static private final HTTPResponse INVALID_FLEET = new HTTPResponse(
+            HttpURLConnection.HTTP_BAD_REQUEST,
+            "Invalid fleet.\n"
+    );
+
+    /**
+     * An {@code ObjectMapper} instance to map the body to a fleet.
+     */
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * The directory of the binary trace files a fleet may replay, or null if fleets cannot replay traces.
+     */
+    private final File traceDirectory;
+
     /**
      * Constructs an {@code StartRunHandler} object with the simulation state {@code simulationState}.
      * @param simulationState The state of the simulation to be started.
+     * @param traceDirectory The directory of the binary trace files a fleet may replay, or null.
      * @since 1.0
      */
-    public StartRunHandler(SimulationState simulationState) {
+    public StartRunHandler(SimulationState simulationState, File traceDirectory) {
         this.simulationState = simulationState;
+        this.traceDirectory = traceDirectory;
     }
 
     /**
      * Starts the simulation of DingNet (if it wasn't running already).
      * The function also resets the SimulationState.
+     * The optional query parameter {@code coverage_rasters} precomputes the path loss to every gateway and
+     * {@code gateway_only} drops the reception of transmissions by other motes.
+     * The optional query parameters {@code retention_window} (in seconds) and {@code retention_count} bound the
+     * histories every entity keeps, folding older samples into rollups.
+     * The optional query parameter {@code pace} sets the target ratio of simulated time to wall clock time, a
+     * positive number or {@code max}. The optional query parameter {@code lockstep} only runs the iterations asked
+     * for through {@code /advance}. The optional query parameter {@code seed} makes the run reproducible.
+     * A JSON body with the parameters of a fleet, see {@link FleetModel}, runs a generated fleet instead of the three
+     * motes and four gateways of the main scenario.
      * @param exchange the exchange containing the request from the
      *      client and used to send the response
      * @exception IOException can occur when sending the HTTP response
      */
     @Override
     public void handle(HttpExchange exchange) throws IOException {
-        boolean isRunning = this.simulationState.getIsRunning();
+        Map<String, String> queryParameters = QueryParameters.parse(exchange.getRequestURI());
+        Boolean coverageRasters = parseFlag(queryParameters, "coverage_rasters");
+        Boolean gatewayOnlyReception = parseFlag(queryParameters, "gateway_only");
+        Boolean lockstep = parseFlag(queryParameters, "lockstep");
+        RetentionPolicy retentionPolicy = parseRetentionPolicy(queryParameters);
+        String paceParameter = queryParameters.get("pace");
+        Double targetRatio = paceParameter == null ? null : PacingHandler.parseTargetRatio(paceParameter);
+        String seedParameter = queryParameters.get("seed");
+        Long seed = seedParameter == null ? null : QueryParameters.parseLong(seedParameter);
+        if (coverageRasters == null || gatewayOnlyReception == null || lockstep == null || retentionPolicy == null
+                || (paceParameter != null && targetRatio == null) || (seedParameter != null && seed == null)) {
+            INVALID_REQUEST.send(exchange);
+            return;
+        }
+
+        FleetScenario.Fleet fleet = null;
+        String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+        if (!body.trim().isEmpty()) {
+            try {
+                fleet = FleetMapper.mapFleetModelToFleet(objectMapper.readValue(body, FleetModel.class), traceDirectory);
+            } catch (IOException | IllegalArgumentException e) {
+                INVALID_FLEET.send(exchange);
+                return;
+            }
+        }
+
+        // Requests are handled concurrently, so two of them must not both see a simulation which is not running.
+        boolean isRunning;
+        synchronized (this.simulationState) {
+            isRunning = this.simulationState.getIsRunning();
+            this.simulationState.setIsRunning(true);
+        }
         HTTPResponse response = isRunning ? ALREADY_RUNNING : SIMULATION_STARTED;
         if (!isRunning) {
-            this.simulationState.setIsRunning(true);
             this.simulationState.setShouldStop(false);
-            new MainSimulation(this.simulationState).start();
+            if (targetRatio != null) {
+                this.simulationState.getPacingController().setTargetRatio(targetRatio);
+            }
+            MainSimulation simulation = new MainSimulation(this.simulationState);
+            simulation.setCoverageRasters(coverageRasters);
+            simulation.setGatewayOnlyReception(gatewayOnlyReception);
+            simulation.setRetentionPolicy(retentionPolicy);
+            if (lockstep) {
+                // Opened before the simulation starts, so that requests right after this response are accepted.
+                this.simulationState.getLockstepController().open();
+            }
+            simulation.setLockstep(lockstep);
+            simulation.setFleet(fleet);
+            simulation.setSeed(seed);
+            simulation.start();
         }
 
         response.send(exchange);
     }
+
+    /**
+     * Parses an optional boolean query parameter.
+     * @param queryParameters The query parameters of the request.
+     * @param name The name of the parameter.
+     * @return The value of the parameter, false if it is absent and null if it is invalid.
+     */
+    private Boolean parseFlag(Map<String, String> queryParameters, String name) {
+        String value = queryParameters.get(name);
+        return value == null ? Boolean.FALSE : QueryParameters.parseBoolean(value);
+    }
+
+    /**
+     * Parses the optional retention query parameters {@code retention_window} and {@code retention_count}.
+     * @param queryParameters The query parameters of the request.
+     * @return The retention policy, unbounded if both are absent and null if one of them is invalid.
+     */
+    private RetentionPolicy parseRetentionPolicy(Map<String, String> queryParameters) {
+        long windowSeconds = 0;
+        int count = 0;
+        if (queryParameters.containsKey("retention_window")) {
+            Long value = QueryParameters.parseLong(queryParameters.get("retention_window"));
+            if (value == null || value <= 0 || value > Long.MAX_VALUE / 1_000_000_000L) {
+                return null;
+            }
+            windowSeconds = value;
+        }
+        if (queryParameters.containsKey("retention_count")) {
+            Integer value = QueryParameters.parseInteger(queryParameters.get("retention_count"));
+            if (value == null || value <= 0) {
+                return null;
+            }
+            count = value;
+        }
+        return RetentionPolicy.of(count, windowSeconds * 1_000_000_000L);
+    }
 }
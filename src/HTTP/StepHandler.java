@@ -0,0 +1,159 @@
+package HTTP;
+
+import IotDomain.Mote;
+import IotDomain.RecentOutcomes;
+import Simulation.LockstepController;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import mappers.MoteStateMapper;
+import mappers.SimulationStateMapper;
+import models.ExecuteDTO;
+import models.ExecuteModel;
+import models.MonitorModel;
+import models.SimulationState;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Handler for a whole control cycle of a simulation running in lockstep in one request: it applies adaptations,
+ * runs a number of iterations and returns the monitored state afterwards.
+ */
+public class StepHandler implements HttpHandler {
+
+    private static final HTTPResponse INVALID_REQUEST = new HTTPResponse(
+            HttpURLConnection.HTTP_BAD_REQUEST,
+            "Invalid request.\n"
+    );
+
+    private static final HTTPResponse INVALID_INPUT = new HTTPResponse(
+            HttpURLConnection.HTTP_BAD_REQUEST,
+            "Malformed input.\n"
+    );
+
+    private static final HTTPResponse NOT_IN_LOCKSTEP = new HTTPResponse(
+            HttpURLConnection.HTTP_CONFLICT,
+            "Simulation is not running in lockstep.\n"
+    );
+
+    private static final HTTPResponse METHOD_NOT_ALLOWED = new HTTPResponse(
+            HttpURLConnection.HTTP_BAD_METHOD,
+            "Method not allowed.\n"
+    );
+
+    /**
+     * The rejection of adaptations which cannot be applied, thrown on the simulation thread.
+     */
+    private static class RejectedAdaptations extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private final HTTPResponse response;
+
+        private RejectedAdaptations(HTTPResponse response) {
+            super(response.getBody().trim());
+            this.response = response;
+        }
+    }
+
+    private final SimulationState simulationState;
+    private final ObjectMapper objectMapper;
+
+    public StepHandler(SimulationState simulationState) {
+        this.simulationState = simulationState;
+        this.objectMapper = new ObjectMapper();
+    }
+
+    /**
+     * Applies the adaptations in the {@code ExecuteDTO} body at the start of an iteration, all of them or none if one
+     * of them is invalid, runs the number of iterations in the optional query parameter {@code ticks} (1 by default)
+     * and returns the monitored values of DingNet right after them. The optional query parameter
+     * {@code recent_window} is the one of {@code /monitor}. An empty body applies no adaptations.
+     * @param exchange the exchange containing the request from the
+     *      client and used to send the response
+     * @exception IOException can occur when sending the HTTP response
+     */
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        if (!"POST".equalsIgnoreCase(exchange.getRequestMethod())) {
+            exchange.getResponseHeaders().add("Allow", "POST");
+            METHOD_NOT_ALLOWED.send(exchange);
+            return;
+        }
+
+        Map<String, String> queryParameters = QueryParameters.parse(exchange.getRequestURI());
+        int ticks = 1;
+        if (queryParameters.containsKey("ticks")) {
+            Integer value = QueryParameters.parseInteger(queryParameters.get("ticks"));
+            if (value == null || value < 0) {
+                INVALID_REQUEST.send(exchange);
+                return;
+            }
+            ticks = value;
+        }
+        int recentWindow = MoteStateMapper.RECENT_PACKET_WINDOW_SIZE;
+        if (queryParameters.containsKey("recent_window")) {
+            Integer value = QueryParameters.parseInteger(queryParameters.get("recent_window"));
+            if (value == null || value <= 0 || value > RecentOutcomes.MAX_WINDOW) {
+                INVALID_REQUEST.send(exchange);
+                return;
+            }
+            recentWindow = value;
+        }
+
+        List<ExecuteModel> inputs;
+        try {
+            String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            inputs = body.trim().isEmpty()
+                    ? Collections.emptyList()
+                    : objectMapper.readValue(body, ExecuteDTO.class).getItems();
+        } catch (Exception e) {
+            INVALID_INPUT.send(exchange);
+            return;
+        }
+        if (inputs == null) {
+            INVALID_INPUT.send(exchange);
+            return;
+        }
+
+        int window = recentWindow;
+        MonitorModel[] observation = new MonitorModel[1];
+        LockstepController.Advance advance;
+        try {
+            advance = this.simulationState.getLockstepController().advance(ticks,
+                    () -> {
+                        List<Mote> motes = this.simulationState.getEnvironment().getMotes();
+                        HTTPResponse rejection = Adaptations.check(inputs, motes);
+                        if (rejection != null) {
+                            throw new RejectedAdaptations(rejection);
+                        }
+                        Adaptations.apply(inputs, motes);
+                    },
+                    () -> observation[0] = SimulationStateMapper.mapSimulationStateToMonitorModel(
+                            this.simulationState, window));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e.getMessage());
+        } catch (IllegalStateException e) {
+            if (e.getCause() instanceof RejectedAdaptations) {
+                ((RejectedAdaptations) e.getCause()).response.send(exchange);
+                return;
+            }
+            throw e;
+        }
+        // A request which the loop did not take before the simulation stopped has no observation.
+        if (advance == null || observation[0] == null) {
+            NOT_IN_LOCKSTEP.send(exchange);
+            return;
+        }
+
+        String data = this.objectMapper.writeValueAsString(observation[0]);
+
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        new HTTPResponse(HttpURLConnection.HTTP_OK, data).send(exchange);
+    }
+}
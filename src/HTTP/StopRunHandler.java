@@ -60,6 +60,8 @@ public class StopRunHandler implements HttpHandler {
 
         if (isRunning) {
             this.simulationState.setShouldStop(true);
+            this.simulationState.getPacingController().release();
+            this.simulationState.getLockstepController().close();
         }
 
         response.send(exchange);
@@ -2,8 +2,10 @@ import HTTP.*;
 import com.sun.net.httpserver.HttpServer;
 import models.SimulationState;
 
+import java.io.File;
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.util.concurrent.Executors;
 
 /**
  * The class that implements the HTTP server.
@@ -14,6 +16,11 @@ public class HTTPServer {
      */
     static final private int DEFAULT_PORT = 8080;
 
+    /**
+     * The default maximum number of simulation sessions which exist at the same time.
+     */
+    static final private int DEFAULT_MAX_SESSIONS = 16;
+
     /**
      * Returns the port number of the HTTP server as a string.
      * @return Port number.
@@ -24,13 +31,41 @@ public class HTTPServer {
         return portString != null ? Integer.parseInt(portString) : DEFAULT_PORT;
     }
 
+    /**
+     * Returns the maximum number of simulation sessions which exist at the same time.
+     * @return Maximum number of sessions.
+     */
+    private static int getMaxSessions() {
+        String maxSessionsString = System.getenv("MAX_SESSIONS");
+
+        return maxSessionsString != null ? Integer.parseInt(maxSessionsString) : DEFAULT_MAX_SESSIONS;
+    }
+
+    /**
+     * Returns the directory of the binary trace files the fleets of {@code /start_run} and {@code /restore} may
+     * replay, which clients cannot read outside of.
+     * @return The trace directory, or null if fleets cannot replay traces.
+     */
+    private static File getTraceDirectory() {
+        String traceDirectoryString = System.getenv("TRACE_DIRECTORY");
+
+        return traceDirectoryString != null ? new File(traceDirectoryString) : null;
+    }
+
     /**
      * Creates an HTTP server and returns it.
      * @return HTTPServer.
      */
     private static HttpServer createServer()  {
+        // Sends small responses at once instead of waiting for the acknowledgement of the previous packet, which
+        // otherwise limits a client reusing its connection to a few dozen requests per second.
+        System.setProperty("sun.net.httpserver.nodelay", "true");
         try {
-            return HttpServer.create(new InetSocketAddress(getPort()), 1024);
+            HttpServer server = HttpServer.create(new InetSocketAddress(getPort()), 1024);
+            // Handles requests on their own threads, so that a request waiting for one simulation, e.g. for the
+            // iterations of an advance, does not hold up the requests for the others.
+            server.setExecutor(Executors.newCachedThreadPool());
+            return server;
         } catch (IOException e) {
             throw new RuntimeException(e.getMessage());
         }
@@ -57,11 +92,19 @@ public class HTTPServer {
         server.createContext("/adaptation_options", new AdaptationOptionsHandler());
         server.createContext("/adaptation_options_schema", new AdaptationOptionsSchemaHandler());
 
-        server.createContext("/start_run", new StartRunHandler(simulationState));
+        server.createContext("/start_run", new StartRunHandler(simulationState, getTraceDirectory()));
         server.createContext("/stop_run", new StopRunHandler(simulationState));
+        server.createContext("/pacing", new PacingHandler(simulationState));
+        server.createContext("/advance", new AdvanceHandler(simulationState));
+        server.createContext("/step", new StepHandler(simulationState));
+        server.createContext("/snapshot", new SnapshotHandler(simulationState));
+        server.createContext("/restore", new RestoreHandler(simulationState, getTraceDirectory()));
+        server.createContext("/lookahead", new LookaheadHandler(simulationState));
 
         server.createContext("/mote_energy_usage", new MoteEnergyUsageHandler(simulationState));
 
+        server.createContext("/sessions", new SessionsHandler(getMaxSessions(), getTraceDirectory()));
+
         server.start();
     }
 }
@@ -0,0 +1,89 @@
+import Simulation.ConfigurationScenario;
+import Simulation.FleetScenario;
+import Simulation.MainScenario;
+import Simulation.Scenario;
+import Simulation.ScatteredScenario;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import mappers.FleetMapper;
+import mappers.RunSummaryMapper;
+import models.FleetModel;
+import models.RunSummaryModel;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * The class that runs a scenario without user interface, as fast as possible, and writes a summary of the run.
+ * Usage: {@code HeadlessRunner <main|scattered|configuration.xml|fleet.json> <seed> <duration in seconds> <output directory>}.
+ */
+public class HeadlessRunner {
+    /**
+     * The name of the summary file in the output directory.
+     */
+    static final private String SUMMARY_FILE = "summary.json";
+
+    /**
+     * Creates the scenario with the given name, of the given configuration file or of the fleet of the given JSON file.
+     * @param name The name of a built-in scenario, the path of a configuration file or the path of a fleet file.
+     * @param seed The seed of the scenario.
+     * @return The scenario.
+     */
+    private static Scenario createScenario(String name, long seed) {
+        switch (name) {
+            case "main":
+                return new MainScenario(seed, false);
+            case "scattered":
+                return new ScatteredScenario(seed);
+            default:
+                if (name.endsWith(".json")) {
+                    try {
+                        return new FleetScenario(FleetMapper.mapFleetModelToFleet(
+                                new ObjectMapper().readValue(new File(name), FleetModel.class)), seed);
+                    } catch (IOException e) {
+                        throw new IllegalArgumentException("Cannot load the fleet " + name + ": " + e.getMessage());
+                    }
+                }
+                try {
+                    return new ConfigurationScenario(new File(name), seed);
+                } catch (Exception e) {
+                    throw new IllegalArgumentException("Cannot load the configuration " + name + ": " + e.getMessage());
+                }
+        }
+    }
+
+    /**
+     * Runs a scenario for a simulated duration and writes its summary to the output directory.
+     * @param args contains command line arguments.
+     * @throws IOException If the summary cannot be written.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 4) {
+            System.err.println("Usage: HeadlessRunner <main|scattered|configuration.xml|fleet.json> <seed> <duration in seconds> <output directory>");
+            System.exit(2);
+        }
+        String name = args[0];
+        long seed = Long.parseLong(args[1]);
+        long durationNanos = Math.round(Double.parseDouble(args[2]) * 1e9);
+        File outputDirectory = new File(args[3]);
+
+        Scenario scenario = createScenario(name, seed);
+        long start = System.nanoTime();
+        scenario.runUntil(durationNanos);
+        long wallNanos = System.nanoTime() - start;
+
+        RunSummaryModel summary = RunSummaryMapper.mapEnvironmentToRunSummaryModel(name, seed, scenario.getEnvironment(),
+                wallNanos);
+        if (!outputDirectory.isDirectory() && !outputDirectory.mkdirs()) {
+            throw new IOException("Cannot create the output directory " + outputDirectory);
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(new File(outputDirectory, SUMMARY_FILE), summary);
+
+        System.out.println(String.format(Locale.ROOT,
+                "%s: %.0f simulated seconds in %.3f wall seconds (%.1f simulated seconds per second), %d transmissions (%.1f per second), packet loss %.3f",
+                name, summary.getSimulatedSeconds(), summary.getWallSeconds(), summary.getSimulatedSecondsPerWallSecond(),
+                summary.getTransmissions(), summary.getTransmissionsPerSecond(), summary.getPacketLoss()));
+    }
+}
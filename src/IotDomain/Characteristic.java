@@ -10,7 +10,7 @@ import java.awt.*;
  */
 public enum Characteristic{
 
-    Forest(3,1000,1.5, new Color(0,102,0)), City(1,1000,2,new Color(51,153,255)),Plain(2,1000,1.5,new Color(255,153,0));
+    Forest(3,1000,1.5, 0x006600), City(1,1000,2,0x3399FF),Plain(2,1000,1.5,0xFF9900);
     /**
      * An integer representing the path loss exponent in a certain position.
      */
@@ -24,9 +24,14 @@ public enum Characteristic{
      */
     private final double shadowFading;
     /**
-     * The color of the characteristic.
+     * The RGB value of the color of the characteristic.
      */
-    private final Color color;
+    private final int rgb;
+    /**
+     * The color of the characteristic, created when it is first asked for, so that running without user interface
+     * does not load AWT.
+     */
+    private Color color;
 
     /**
      * A constructor generating a characteristic with a given mean path loss, path loss exponent, reference distance
@@ -34,16 +39,31 @@ public enum Characteristic{
      * @param pathLossExponent  The path loss exponent to set.
      * @param referenceDistance The reference distance to set.
      * @param shadowFading The shadow fading to set.
-     * @param color The color of the characteristic.
+     * @param rgb The RGB value of the color of the characteristic.
      */
-     Characteristic(double pathLossExponent, double referenceDistance, double shadowFading, Color color) {
-         this.color = color;
+     Characteristic(double pathLossExponent, double referenceDistance, double shadowFading, int rgb) {
+         this.rgb = rgb;
         this.pathLossExponent = pathLossExponent;
         this.referenceDistance = referenceDistance;
         this.shadowFading = shadowFading;
     }
 
 
+    /**
+     * Returns the characteristic with a given name, like {@link #valueOf(String)} but without its reflection, which
+     * loads the AWT classes of {@link #getColor()}.
+     * @param name The name of the characteristic.
+     * @return The characteristic with the given name.
+     * @throws IllegalArgumentException If no characteristic has the given name.
+     */
+    public static Characteristic forName(String name) {
+        for (Characteristic characteristic : values()) {
+            if (characteristic.name().equals(name))
+                return characteristic;
+        }
+        throw new IllegalArgumentException("No characteristic " + name);
+    }
+
     /**
      *  Returns the path loss exponent of this position.
      * @return The path loss exponent of this position.
@@ -77,6 +97,8 @@ public enum Characteristic{
      */
     
     public Color getColor() {
+        if (color == null)
+            color = new Color(rgb);
         return color;
     }
 }
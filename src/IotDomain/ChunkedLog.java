@@ -0,0 +1,229 @@
+package IotDomain;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * The common layout of the transmission logs of an entity: every column is a ring of fixed size chunks of
+ * primitives, so appending a row never copies earlier rows and a row costs only the bytes of its columns.
+ * Rows are numbered in the order they were added. Evicting the oldest rows frees their chunks, and the ring only
+ * grows when the retained rows do not fit in it, so a log with a bounded number of rows has a bounded size.
+ * A fork of a log shares its chunks, and both logs copy a shared chunk before they write to a row in it.
+ */
+abstract class ChunkedLog implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The base 2 logarithm of the number of rows in a chunk.
+     */
+    static final int CHUNK_SHIFT = 10;
+
+    /**
+     * The number of rows in a chunk.
+     */
+    static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+
+    /**
+     * The number of chunk slots of a new log, a power of two.
+     */
+    static final int INITIAL_CHUNKS = 4;
+
+    /**
+     * The number of the row which is added next.
+     */
+    private int endRow = 0;
+
+    /**
+     * The number of the oldest row which was not evicted.
+     */
+    private int firstRow = 0;
+
+    /**
+     * The number of the oldest chunk which was not freed.
+     */
+    private int firstChunk = 0;
+
+    /**
+     * The number of chunk slots in the ring, a power of two.
+     */
+    private int capacity = INITIAL_CHUNKS;
+
+    /**
+     * The number of the oldest chunk which is private to the log. The chunks before it are shared with a fork of
+     * the log, or with the log it was forked from.
+     */
+    private int firstOwnedChunk = 0;
+
+    /**
+     * Returns the number of the oldest row which was not evicted.
+     * @return The first retained row.
+     */
+    public int getFirstRow() {
+        return firstRow;
+    }
+
+    /**
+     * Returns the number of the row which is added next.
+     * @return The number of rows added to the log, including the evicted ones.
+     */
+    public int getEndRow() {
+        return endRow;
+    }
+
+    /**
+     * Returns the number of retained rows.
+     * @return The number of rows which were not evicted.
+     */
+    public int size() {
+        return endRow - firstRow;
+    }
+
+    /**
+     * Reserves a new row at the end of the log, adding a chunk to every column if the last one is full.
+     * @return The number of the new row.
+     */
+    protected int appendRow() {
+        if ((endRow & (CHUNK_SIZE - 1)) == 0) {
+            if ((endRow >> CHUNK_SHIFT) - firstChunk >= capacity) {
+                resizeChunks(capacity * 2);
+                capacity *= 2;
+            }
+            addChunk(slot(endRow));
+        } else {
+            own(endRow);
+        }
+        return endRow++;
+    }
+
+    /**
+     * Copies the chunk holding a row, and the later shared chunks, before the row is written.
+     * Rows are written close to the end of the log, so this rarely copies more than the last chunk.
+     * @param row The row which is written.
+     */
+    protected void own(int row) {
+        int chunk = row >> CHUNK_SHIFT;
+        if (chunk < firstOwnedChunk) {
+            for (int shared = Math.max(chunk, firstChunk); shared < firstOwnedChunk; shared++) {
+                copyChunk(shared & (capacity - 1));
+            }
+            firstOwnedChunk = chunk;
+        }
+    }
+
+    /**
+     * Lets an empty log share the rows of the log, whose chunks it refers to through copies of the rings of its
+     * columns. The chunks holding rows are shared from then on.
+     * @param fork The new log.
+     */
+    protected void shareWith(ChunkedLog fork) {
+        int endChunk = (endRow + CHUNK_SIZE - 1) >> CHUNK_SHIFT;
+        firstOwnedChunk = endChunk;
+        fork.endRow = endRow;
+        fork.firstRow = firstRow;
+        fork.firstChunk = firstChunk;
+        fork.capacity = capacity;
+        fork.firstOwnedChunk = endChunk;
+    }
+
+    /**
+     * Lets an empty log start at a given row, as if the rows before it were added and evicted.
+     * @param row The number of the first row which is added.
+     */
+    protected void startAt(int row) {
+        endRow = row;
+        firstRow = row;
+        firstChunk = row >> CHUNK_SHIFT;
+        if (offset(row) != 0) {
+            addChunk(slot(row));
+        }
+    }
+
+    /**
+     * Evicts the rows before a given row, freeing the chunks which only hold evicted rows.
+     * @param row The new first retained row.
+     */
+    protected void evictBefore(int row) {
+        firstRow = row;
+        while ((firstChunk + 1) << CHUNK_SHIFT <= firstRow) {
+            freeChunk(firstChunk & (capacity - 1));
+            firstChunk++;
+        }
+    }
+
+    /**
+     * Adds a chunk to every column.
+     * @param slot The slot of the new chunk.
+     */
+    protected abstract void addChunk(int slot);
+
+    /**
+     * Releases the chunk in a slot of every column.
+     * @param slot The slot of the chunk.
+     */
+    protected abstract void freeChunk(int slot);
+
+    /**
+     * Replaces the chunk in a slot of every column by a copy of it.
+     * @param slot The slot of the chunk.
+     */
+    protected abstract void copyChunk(int slot);
+
+    /**
+     * Moves the chunks of every column to a ring with a new number of slots, using {@link #resized(Object[], int)}.
+     * @param capacity The new number of slots.
+     */
+    protected abstract void resizeChunks(int capacity);
+
+    /**
+     * Returns the bytes used by a row of the log, without the arrays holding the chunks.
+     * @return The number of bytes of a row.
+     */
+    public abstract int getBytesPerRow();
+
+    /**
+     * Returns a ring with a new number of slots holding the allocated chunks of a column.
+     */
+    protected <T> T[] resized(T[] chunks, int newCapacity) {
+        T[] result = Arrays.copyOf(chunks, newCapacity);
+        Arrays.fill(result, null);
+        int endChunk = (endRow + CHUNK_SIZE - 1) >> CHUNK_SHIFT;
+        for (int chunk = firstChunk; chunk < endChunk; chunk++) {
+            result[chunk & (newCapacity - 1)] = chunks[chunk & (capacity - 1)];
+        }
+        return result;
+    }
+
+    /**
+     * Returns the slot of the chunk holding a row.
+     */
+    protected int slot(int row) {
+        return (row >> CHUNK_SHIFT) & (capacity - 1);
+    }
+
+    static int offset(int row) {
+        return row & (CHUNK_SIZE - 1);
+    }
+
+    /**
+     * Returns a reference to an entity which fits in an int column: the id of a mote or the complement of the id of
+     * a gateway.
+     */
+    static int reference(NetworkEntity entity) {
+        return entity instanceof Gateway ? ~entity.getId() : entity.getId();
+    }
+
+    /**
+     * Checks if a reference read from a snapshot refers to an entity of an environment.
+     */
+    static boolean isValidReference(Environment environment, int reference) {
+        return reference < 0 ? ~reference < environment.getGateways().size() : reference < environment.getMotes().size();
+    }
+
+    /**
+     * Returns the entity of a reference made by {@link #reference(NetworkEntity)}.
+     */
+    static NetworkEntity resolve(Environment environment, int reference) {
+        return reference < 0 ? environment.getGateways().get(~reference) : environment.getMotes().get(reference);
+    }
+}
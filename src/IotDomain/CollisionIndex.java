@@ -0,0 +1,276 @@
+package IotDomain;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * An interval index over the transmissions received by an entity in a single run.
+ * Transmissions are bucketed by spreading factor and by the fixed time slots their airtime covers,
+ * so only transmissions that share a spreading factor and an overlapping slot are considered as collision candidates.
+ * Transmissions are received in the order of their departure, so the slots before the departure of the latest
+ * transmission can be removed, which keeps only the transmissions that can still collide in the index.
+ */
+public class CollisionIndex implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The width of a time slot in nanoseconds.
+     */
+    public static final long SLOT_NANOS = 1_000_000_000L;
+
+    /**
+     * The highest spreading factor that can be indexed.
+     */
+    private static final int MAX_SPREADING_FACTOR = 12;
+
+    /**
+     * The time slots of every spreading factor, mapping a slot number to the transmissions whose airtime covers it.
+     */
+    private final List<HashMap<Long, ArrayList<LoraTransmission>>> slotsPerSpreadingFactor;
+
+    /**
+     * The number of transmissions in the index.
+     */
+    private int size = 0;
+
+    /**
+     * The first time slot which was not removed.
+     */
+    private long firstKeptSlot = Long.MIN_VALUE;
+
+    /**
+     * Constructs an empty collision index.
+     */
+    public CollisionIndex() {
+        slotsPerSpreadingFactor = new ArrayList<>(MAX_SPREADING_FACTOR + 1);
+        for (int i = 0; i <= MAX_SPREADING_FACTOR; i++) {
+            slotsPerSpreadingFactor.add(new HashMap<>());
+        }
+    }
+
+    /**
+     * Adds a transmission to every time slot its airtime covers.
+     * @param transmission The transmission to add.
+     */
+    public void add(LoraTransmission transmission) {
+        HashMap<Long, ArrayList<LoraTransmission>> slots = slotsPerSpreadingFactor.get(transmission.getSpreadingFactor());
+        long lastSlot = lastSlot(transmission);
+        for (long slot = firstSlot(transmission); slot <= lastSlot; slot++) {
+            slots.computeIfAbsent(slot, key -> new ArrayList<>()).add(transmission);
+        }
+        size++;
+    }
+
+    /**
+     * Collects the indexed transmissions with the same spreading factor whose airtime slots overlap the slots of
+     * the given transmission. Every candidate is reported exactly once.
+     * @param transmission The transmission to find candidates for.
+     * @param candidates The list the candidates are added to.
+     */
+    public void collectCandidates(LoraTransmission transmission, List<LoraTransmission> candidates) {
+        HashMap<Long, ArrayList<LoraTransmission>> slots = slotsPerSpreadingFactor.get(transmission.getSpreadingFactor());
+        if (slots.isEmpty()) {
+            return;
+        }
+        long firstSlot = firstSlot(transmission);
+        long lastSlot = lastSlot(transmission);
+        for (long slot = firstSlot; slot <= lastSlot; slot++) {
+            ArrayList<LoraTransmission> occupants = slots.get(slot);
+            if (occupants == null) {
+                continue;
+            }
+            for (LoraTransmission occupant : occupants) {
+                // A pair of overlapping intervals is only reported in the first slot both of them cover.
+                if (Math.max(firstSlot, firstSlot(occupant)) == slot) {
+                    candidates.add(occupant);
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes the time slots before the slot of a given time. Transmissions whose airtime ends before that slot
+     * cannot be a candidate for a transmission departing at or after the given time.
+     * @param departureTimeNanos The departure time of the next transmission, in nanoseconds.
+     */
+    public void removeBefore(long departureTimeNanos) {
+        long slot = Math.floorDiv(departureTimeNanos, SLOT_NANOS);
+        if (slot <= firstKeptSlot) {
+            return;
+        }
+        firstKeptSlot = slot;
+        for (HashMap<Long, ArrayList<LoraTransmission>> slots : slotsPerSpreadingFactor) {
+            if (!slots.isEmpty()) {
+                slots.keySet().removeIf(key -> key < slot);
+            }
+        }
+    }
+
+    /**
+     * Returns the oldest reception row of the transmissions left in the index. Every slot holds its transmissions
+     * in the order they were received, so only the first transmission of a slot has to be checked.
+     * @return The smallest reception row in the index, {@link Integer#MAX_VALUE} if the index is empty.
+     */
+    public int getFirstReceptionRow() {
+        int first = Integer.MAX_VALUE;
+        for (HashMap<Long, ArrayList<LoraTransmission>> slots : slotsPerSpreadingFactor) {
+            for (ArrayList<LoraTransmission> occupants : slots.values()) {
+                first = Math.min(first, occupants.get(0).getReceptionRow());
+            }
+        }
+        return first;
+    }
+
+    /**
+     * Writes the transmissions left in the index to a snapshot, in the order they were received.
+     * @param out The output of the snapshot.
+     * @throws IOException If the output cannot be written.
+     */
+    void writeState(DataOutput out) throws IOException {
+        List<LoraTransmission> ordered = getTransmissions();
+        out.writeInt(size);
+        out.writeLong(firstKeptSlot);
+        out.writeInt(ordered.size());
+        for (LoraTransmission transmission : ordered) {
+            out.writeInt(ChunkedLog.reference(transmission.getSender()));
+            out.writeInt(transmission.getSequenceNumber());
+            out.writeInt(transmission.getReceptionRow());
+            out.writeLong(transmission.getDepartureTimeNanos());
+            out.writeDouble(transmission.getTimeOnAir());
+            out.writeDouble(transmission.getTransmissionPower());
+            out.writeByte(transmission.getSpreadingFactor());
+            out.writeInt(transmission.getBandwidth());
+        }
+    }
+
+    /**
+     * Reads an index written by {@link #writeState(DataOutput)}. The transmissions in it have no content, which
+     * the search for collisions does not use.
+     * @param in The input of the snapshot.
+     * @param receiver The entity which received the transmissions, in an environment with their senders.
+     * @return The index.
+     * @throws IOException If the input cannot be read or refers to senders which do not exist.
+     */
+    static CollisionIndex readState(DataInput in, NetworkEntity receiver) throws IOException {
+        CollisionIndex index = new CollisionIndex();
+        int size = SnapshotIO.readCount(in);
+        long firstKeptSlot = in.readLong();
+        int count = SnapshotIO.readCount(in);
+        for (int i = 0; i < count; i++) {
+            int sender = in.readInt();
+            SnapshotIO.check(ChunkedLog.isValidReference(receiver.getEnvironment(), sender),
+                    "Unknown sender in snapshot: " + sender);
+            int sequenceNumber = in.readInt();
+            int receptionRow = in.readInt();
+            long departureTime = in.readLong();
+            double timeOnAir = in.readDouble();
+            double power = in.readDouble();
+            int spreadingFactor = in.readByte();
+            int bandwidth = in.readInt();
+            SnapshotIO.check(spreadingFactor >= 0 && spreadingFactor <= MAX_SPREADING_FACTOR,
+                    "Invalid spreading factor in snapshot: " + spreadingFactor);
+            LoraTransmission transmission = new LoraTransmission(ChunkedLog.resolve(receiver.getEnvironment(), sender),
+                    receiver, power, bandwidth, spreadingFactor, null, departureTime, timeOnAir, 0, 0, sequenceNumber);
+            transmission.setReceptionRow(receptionRow);
+            index.add(transmission);
+        }
+        index.keepFrom(size, firstKeptSlot);
+        return index;
+    }
+
+    /**
+     * Returns a copy of the index for a fork of its receiver, with copies of the transmissions in it whose senders
+     * are the forks of their senders.
+     * @param receiver The fork of the receiver, in an environment with the forks of the senders.
+     * @return The fork of the index.
+     */
+    CollisionIndex forkTo(NetworkEntity receiver) {
+        CollisionIndex index = new CollisionIndex();
+        for (LoraTransmission transmission : getTransmissions()) {
+            NetworkEntity sender = ChunkedLog.resolve(receiver.getEnvironment(),
+                    ChunkedLog.reference(transmission.getSender()));
+            LoraTransmission copy = new LoraTransmission(sender, receiver, transmission.getTransmissionPower(),
+                    transmission.getBandwidth(), transmission.getSpreadingFactor(), transmission.getContent(),
+                    transmission.getDepartureTimeNanos(), transmission.getTimeOnAir(), transmission.getXPos(),
+                    transmission.getYPos(), transmission.getSequenceNumber());
+            copy.setReceptionRow(transmission.getReceptionRow());
+            index.add(copy);
+        }
+        index.keepFrom(size, firstKeptSlot);
+        return index;
+    }
+
+    /**
+     * Returns the transmissions left in the index, in the order they were received.
+     * @return The transmissions, each one once.
+     */
+    private List<LoraTransmission> getTransmissions() {
+        Set<LoraTransmission> transmissions = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (HashMap<Long, ArrayList<LoraTransmission>> slots : slotsPerSpreadingFactor) {
+            for (ArrayList<LoraTransmission> occupants : slots.values()) {
+                transmissions.addAll(occupants);
+            }
+        }
+        List<LoraTransmission> ordered = new ArrayList<>(transmissions);
+        ordered.sort(Comparator.comparingInt(LoraTransmission::getReceptionRow));
+        return ordered;
+    }
+
+    /**
+     * Restores the size and the first kept slot of an index whose transmissions were added again, removing the
+     * slots before the first kept slot.
+     * @param size The number of transmissions added to the original index.
+     * @param firstKeptSlot The first time slot of the original index which was not removed.
+     */
+    private void keepFrom(int size, long firstKeptSlot) {
+        this.size = size;
+        this.firstKeptSlot = firstKeptSlot;
+        for (HashMap<Long, ArrayList<LoraTransmission>> slots : slotsPerSpreadingFactor) {
+            slots.keySet().removeIf(key -> key < firstKeptSlot);
+        }
+    }
+
+    /**
+     * Returns the number of transmissions added to the index, including the removed ones.
+     * @return The number of transmissions added to the index.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the first time slot covered by the airtime of a transmission.
+     * @param transmission The transmission.
+     * @return The first time slot covered by the airtime of the transmission.
+     */
+    private static long firstSlot(LoraTransmission transmission) {
+        return Math.floorDiv(startNanos(transmission), SLOT_NANOS);
+    }
+
+    /**
+     * Returns the last time slot covered by the airtime of a transmission.
+     * @param transmission The transmission.
+     * @return The last time slot covered by the airtime of the transmission.
+     */
+    private static long lastSlot(LoraTransmission transmission) {
+        return Math.floorDiv(startNanos(transmission) + 2 * halfTimeOnAirNanos(transmission), SLOT_NANOS);
+    }
+
+    private static long startNanos(LoraTransmission transmission) {
+        return transmission.getDepartureTimeNanos();
+    }
+
+    private static long halfTimeOnAirNanos(LoraTransmission transmission) {
+        return transmission.getTimeOnAir().longValue() * 1000000 / 2;
+    }
+}
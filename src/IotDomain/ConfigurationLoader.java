@@ -0,0 +1,137 @@
+package IotDomain;
+
+import org.jxmapviewer.viewer.GeoPosition;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.xml.sax.SAXException;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.Random;
+
+/**
+ * A class for loading the environment of a configuration file, as saved by the configuration editor.
+ */
+public class ConfigurationLoader {
+
+    /**
+     * Loads the environment of a configuration file, with its motes and gateways.
+     * @param file The configuration file.
+     * @return A new environment as described in the file.
+     * @throws ParserConfigurationException If no XML parser can be created.
+     * @throws SAXException If the file is not valid XML.
+     * @throws IOException If the file cannot be read.
+     */
+    public static Environment load(File file) throws ParserConfigurationException, SAXException, IOException {
+        return load(file, new Random());
+    }
+
+    /**
+     * Loads the environment of a configuration file, with its motes and gateways.
+     * @param file The configuration file.
+     * @param random The random generator drawing the start offsets of the motes.
+     * @return A new environment as described in the file.
+     * @throws ParserConfigurationException If no XML parser can be created.
+     * @throws SAXException If the file is not valid XML.
+     * @throws IOException If the file cannot be read.
+     */
+    public static Environment load(File file, Random random) throws ParserConfigurationException, SAXException, IOException {
+        DocumentBuilderFactory docFactory = DocumentBuilderFactory.newInstance();
+        DocumentBuilder docBuilder = docFactory.newDocumentBuilder();
+        Document doc = docBuilder.parse(file);
+        Element configuration = doc.getDocumentElement();
+        Element map = (Element) configuration.getElementsByTagName("map").item(0);
+        Element characteristics = (Element) configuration.getElementsByTagName("characteristics").item(0);
+        Element motes = (Element) configuration.getElementsByTagName("motes").item(0);
+        Element gateways = (Element) configuration.getElementsByTagName("gateways").item(0);
+        Element wayPoints = (Element) configuration.getElementsByTagName("wayPoints").item(0);
+        Element region = (Element) map.getElementsByTagName("region").item(0);
+        Element origin = (Element) region.getElementsByTagName("origin").item(0);
+        GeoPosition mapOrigin = new GeoPosition(Double.valueOf(origin.getElementsByTagName("latitude").item(0).getTextContent())
+                , Double.valueOf(origin.getElementsByTagName("longitude").item(0).getTextContent()));
+        Integer width = Integer.valueOf(region.getElementsByTagName("width").item(0).getTextContent());
+        Integer height = Integer.valueOf(region.getElementsByTagName("height").item(0).getTextContent());
+        Integer numberOfZones = Integer.valueOf(((Element) characteristics.getElementsByTagName("regionProperty").item(0)).getAttribute("numberOfZones"));
+
+        Characteristic[][] characteristicsMap = new Characteristic[width][height];
+        for (int j = 0; j < Math.round(Math.sqrt(numberOfZones)); j++) {
+            int i = 0;
+            for (String characteristicName : characteristics.getElementsByTagName("row").item(j).getTextContent().split("-")) {
+                Characteristic characteristic = Characteristic.forName(characteristicName);
+                for (int x = (int) Math.round(i * ((double) width) / Math.round(Math.sqrt(numberOfZones)));
+                     x < (int) Math.round((i + 1) * ((double) width) / Math.round(Math.sqrt(numberOfZones))); x++) {
+                    for (int y = (int) Math.round(j * ((double) height) / Math.round(Math.sqrt(numberOfZones)));
+                         y < (int) Math.round((j + 1) * ((double) height) / Math.round(Math.sqrt(numberOfZones))); y++) {
+                        characteristicsMap[x][y] = characteristic;
+
+                    }
+
+                }
+                i++;
+            }
+
+        }
+
+        LinkedHashSet<GeoPosition> wayPointsSet = new LinkedHashSet<>();
+        for (int i = 0; i < wayPoints.getElementsByTagName("wayPoint").getLength(); i++) {
+            Element waypoint = (Element) wayPoints.getElementsByTagName("wayPoint").item(i);
+            Double wayPointLatitude = Double.valueOf(waypoint.getTextContent().split(",")[0]);
+            Double wayPointLongitude = Double.valueOf(waypoint.getTextContent().split(",")[1]);
+            wayPointsSet.add(new GeoPosition(wayPointLatitude, wayPointLongitude));
+        }
+
+        Environment environment = new Environment(characteristicsMap, mapOrigin, wayPointsSet);
+
+        Element moteNode;
+
+        for (int i = 0; i < motes.getElementsByTagName("mote").getLength(); i++) {
+            moteNode = (Element) motes.getElementsByTagName("mote").item(i);
+            Long devEUI = Long.parseUnsignedLong(moteNode.getElementsByTagName("devEUI").item(0).getTextContent());
+            Element location = (Element) moteNode.getElementsByTagName("location").item(0);
+            Integer xPos = Integer.valueOf(location.getElementsByTagName("xPos").item(0).getTextContent());
+            Integer yPos = Integer.valueOf(location.getElementsByTagName("yPos").item(0).getTextContent());
+            Integer transmissionPower = Integer.valueOf(moteNode.getElementsByTagName("transmissionPower").item(0).getTextContent());
+            Integer spreadingFactor = Integer.valueOf(moteNode.getElementsByTagName("spreadingFactor").item(0).getTextContent());
+            Integer energyLevel = Integer.valueOf(moteNode.getElementsByTagName("energyLevel").item(0).getTextContent());
+            Integer samplingRate = Integer.valueOf(moteNode.getElementsByTagName("samplingRate").item(0).getTextContent());
+            Double movementSpeed = Double.valueOf(moteNode.getElementsByTagName("movementSpeed").item(0).getTextContent());
+            Element sensors = (Element) moteNode.getElementsByTagName("sensors").item(0);
+            Element sensornode = (Element) sensors.getElementsByTagName("sensor").item(0);
+            LinkedList<MoteSensor> moteSensors = new LinkedList<>();
+            while (sensornode != null) {
+                moteSensors.add(MoteSensor.valueOf(sensornode.getAttribute("SensorType")));
+                sensornode = (Element) sensornode.getNextSibling();
+            }
+            Element pathElement = (Element) moteNode.getElementsByTagName("path").item(0);
+            Element waypoint;
+            LinkedList<GeoPosition> path = new LinkedList<>();
+            for (int j = 0; j < pathElement.getElementsByTagName("wayPoint").getLength(); j++) {
+                waypoint = (Element) pathElement.getElementsByTagName("wayPoint").item(j);
+                Integer wayPointX = Integer.valueOf(waypoint.getTextContent().split(",")[0]);
+                Integer wayPointY = Integer.valueOf(waypoint.getTextContent().split(",")[1]);
+                path.add(new GeoPosition(environment.toLatitude(wayPointY), environment.toLongitude(wayPointX)));
+            }
+            new Mote(devEUI, xPos, yPos, environment, transmissionPower, spreadingFactor, moteSensors, energyLevel, path, samplingRate, movementSpeed,
+                    random.nextInt(5));
+        }
+
+        Element gatewayNode;
+
+        for (int i = 0; i < gateways.getElementsByTagName("gateway").getLength(); i++) {
+            gatewayNode = (Element) gateways.getElementsByTagName("gateway").item(i);
+            Long devEUI = Long.parseUnsignedLong(gatewayNode.getElementsByTagName("devEUI").item(0).getTextContent());
+            Element location = (Element) gatewayNode.getElementsByTagName("location").item(0);
+            Integer xPos = Integer.valueOf(location.getElementsByTagName("xPos").item(0).getTextContent());
+            Integer yPos = Integer.valueOf(location.getElementsByTagName("yPos").item(0).getTextContent());
+            Integer transmissionPower = Integer.valueOf(gatewayNode.getElementsByTagName("transmissionPower").item(0).getTextContent());
+            Integer spreadingFactor = Integer.valueOf(gatewayNode.getElementsByTagName("spreadingFactor").item(0).getTextContent());
+            new Gateway(devEUI, xPos, yPos, environment, transmissionPower, spreadingFactor);
+        }
+        return environment;
+    }
+}
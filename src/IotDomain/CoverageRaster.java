@@ -0,0 +1,182 @@
+package IotDomain;
+
+import java.io.Serializable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * A raster holding the deterministic path loss from every position on the map to a gateway.
+ * The raster is computed in parallel with fork-join and recomputed lazily: a change of a characteristic only marks
+ * the positions whose path to the gateway can cross the changed position, and a move of the gateway marks the whole map.
+ * Path losses are stored as floats, which keeps them within about 1e-5 dB of the closed form of {@link PathLoss}.
+ */
+public class CoverageRaster implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The number of map columns below which a fork-join task computes its columns itself.
+     */
+    private static final int COLUMNS_PER_TASK = 8;
+
+    /**
+     * The environment of the gateway.
+     */
+    private final Environment environment;
+
+    /**
+     * The gateway receiving the transmissions.
+     */
+    private final Gateway gateway;
+
+    /**
+     * The size of the map in the y direction.
+     */
+    private final int sizeY;
+
+    /**
+     * The path loss from every position to the gateway, indexed by x * sizeY + y.
+     */
+    private final float[] pathLoss;
+
+    /**
+     * The position of the gateway the raster was computed for.
+     */
+    private int gatewayX;
+    private int gatewayY;
+
+    /**
+     * The rectangle of positions which have to be recomputed, empty if minX > maxX.
+     */
+    private int dirtyMinX;
+    private int dirtyMaxX;
+    private int dirtyMinY;
+    private int dirtyMaxY;
+
+    /**
+     * Whether no position has to be recomputed, which lets lookups skip the lock. Written after the path losses, so a
+     * thread which reads true also sees them.
+     */
+    private volatile boolean upToDate;
+
+    /**
+     * Constructs a raster for a gateway, which is computed on the first lookup or call to {@link #update()}.
+     * @param environment The environment of the gateway.
+     * @param gateway The gateway receiving the transmissions.
+     */
+    public CoverageRaster(Environment environment, Gateway gateway) {
+        this.environment = environment;
+        this.gateway = gateway;
+        this.sizeY = environment.getMaxYpos() + 1;
+        this.pathLoss = new float[(environment.getMaxXpos() + 1) * sizeY];
+        this.gatewayX = gateway.getXPos();
+        this.gatewayY = gateway.getYPos();
+        markAllDirty();
+    }
+
+    /**
+     * Returns the gateway of this raster.
+     * @return The gateway of this raster.
+     */
+    public Gateway getGateway() {
+        return gateway;
+    }
+
+    /**
+     * Returns the deterministic path loss from a position to the gateway, recomputing the raster first if needed.
+     * A raster which is up to date is read without its lock, so the environments sharing it do not contend.
+     * @param xPos The x-coordinate of the sender.
+     * @param yPos The y-coordinate of the sender.
+     * @return The path loss in dB.
+     */
+    public double getPathLoss(int xPos, int yPos) {
+        if (!upToDate || gateway.getXPos() != gatewayX || gateway.getYPos() != gatewayY) {
+            update();
+        }
+        return pathLoss[xPos * sizeY + yPos];
+    }
+
+    /**
+     * Recomputes the positions which are out of date.
+     * @Post The whole map is recomputed if the gateway moved since the last computation.
+     */
+    public synchronized void update() {
+        if (gateway.getXPos() != gatewayX || gateway.getYPos() != gatewayY) {
+            gatewayX = gateway.getXPos();
+            gatewayY = gateway.getYPos();
+            markAllDirty();
+        }
+        if (dirtyMinX > dirtyMaxX || dirtyMinY > dirtyMaxY) {
+            upToDate = true;
+            return;
+        }
+        ForkJoinPool.commonPool().invoke(new ComputeTask(dirtyMinX, dirtyMaxX + 1));
+        dirtyMinX = Integer.MAX_VALUE;
+        dirtyMaxX = Integer.MIN_VALUE;
+        dirtyMinY = Integer.MAX_VALUE;
+        dirtyMaxY = Integer.MIN_VALUE;
+        upToDate = true;
+    }
+
+    /**
+     * Marks the positions whose path to the gateway can cross a position with a changed characteristic.
+     * A path only visits positions within the bounding box of the sender and the gateway, so those are the senders
+     * on the far side of the changed position as seen from the gateway.
+     * @param xPos The x-coordinate of the changed position.
+     * @param yPos The y-coordinate of the changed position.
+     */
+    public synchronized void invalidate(int xPos, int yPos) {
+        upToDate = false;
+        int maxX = pathLoss.length / sizeY - 1;
+        dirtyMinX = Math.min(dirtyMinX, xPos > gatewayX ? xPos : 0);
+        dirtyMaxX = Math.max(dirtyMaxX, xPos < gatewayX ? xPos : maxX);
+        dirtyMinY = Math.min(dirtyMinY, yPos > gatewayY ? yPos : 0);
+        dirtyMaxY = Math.max(dirtyMaxY, yPos < gatewayY ? yPos : sizeY - 1);
+    }
+
+    /**
+     * Returns the memory used by the path losses of the raster.
+     * @return The number of bytes used by the raster.
+     */
+    public long getMemoryBytes() {
+        return (long) pathLoss.length * Float.BYTES;
+    }
+
+    private void markAllDirty() {
+        upToDate = false;
+        dirtyMinX = 0;
+        dirtyMaxX = pathLoss.length / sizeY - 1;
+        dirtyMinY = 0;
+        dirtyMaxY = sizeY - 1;
+    }
+
+    /**
+     * A fork-join task computing the dirty positions in a range of columns.
+     */
+    private class ComputeTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int fromX;
+        private final int toX;
+
+        ComputeTask(int fromX, int toX) {
+            this.fromX = fromX;
+            this.toX = toX;
+        }
+
+        @Override
+        protected void compute() {
+            if (toX - fromX <= COLUMNS_PER_TASK) {
+                for (int x = fromX; x < toX; x++) {
+                    for (int y = dirtyMinY; y <= dirtyMaxY; y++) {
+                        pathLoss[x * sizeY + y] = (float) PathLoss.getPathLoss(environment, x, y, gatewayX, gatewayY);
+                    }
+                }
+            } else {
+                int middle = (fromX + toX) >>> 1;
+                invokeAll(new ComputeTask(fromX, middle), new ComputeTask(middle, toX));
+            }
+        }
+    }
+}
@@ -3,11 +3,18 @@ package IotDomain;
 
 import org.jxmapviewer.viewer.GeoPosition;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.io.Serializable;
 import java.time.LocalTime;
-import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * A class representing a map of the environment.
@@ -15,6 +22,11 @@ import java.util.LinkedList;
 public class Environment implements Serializable {
 
     private static final long serialVersionUID = 1L;
+
+    /**
+     * The number of nanoseconds in a day, used to derive the time of day from a time since the start of the simulation.
+     */
+    static final long NANOS_PER_DAY = 86_400_000_000_000L;
      /**
      * The coordinates of the point [0,0] on the map.
      */
@@ -29,14 +41,19 @@ public class Environment implements Serializable {
      */
     private final Integer maxYpos;
     /**
-     * A list containing all motes currently active on the map.
+     * A list containing all motes currently active on the map, indexed by their id.
      */
-    private LinkedList<Mote> motes = new LinkedList<>();
+    private final ArrayList<Mote> motes = new ArrayList<>();
 
     /**
-     * A list containing all gateways currently active on the map.
+     * A list containing all gateways currently active on the map, indexed by their id.
      */
-    private LinkedList<Gateway> gateways = new LinkedList<>();
+    private final ArrayList<Gateway> gateways = new ArrayList<>();
+
+    /**
+     * The motes and gateways on the map by their EUI.
+     */
+    private final HashMap<Long, NetworkEntity> entitiesByEUI = new HashMap<>();
 
     private MQTTServer MQTTServer;
 
@@ -44,10 +61,69 @@ public class Environment implements Serializable {
      * The actual map containing the characteristics of the environment.
      */
     private Characteristic[][] characteristics;
+
+    /**
+     * An index over the zones of the same characteristic in the map.
+     */
+    private ZoneIndex zoneIndex;
+
+    /**
+     * Whether path loss is computed by stepping over every position between sender and receiver,
+     * which is the reference for the closed form computation.
+     */
+    private boolean steppedPathLoss = false;
+
+    /**
+     * A cache of the deterministic path loss between sender and receiver positions.
+     */
+    private PathLossCache pathLossCache;
+
+    /**
+     * The number of environments which share the map and the structures derived from it: the environment, the forks
+     * of it which were not released and the environment it was forked from. While it is more than one, they are copied
+     * before the map changes.
+     */
+    private AtomicInteger mapSharers = new AtomicInteger(1);
+
+    /**
+     * Whether the environment was released, see {@link #release()}.
+     */
+    private boolean released = false;
+
+    /**
+     * Whether the path loss to every gateway is precomputed for every position on the map.
+     */
+    private boolean coverageRastersEnabled = false;
+
     /**
-     * A clock to represent time in the environment.
+     * The precomputed path loss rasters of the gateways, if enabled.
      */
-    private LocalTime clock;
+    private final HashMap<NetworkEntity, CoverageRaster> coverageRasters = new HashMap<>();
+
+    /**
+     * Whether only gateways receive transmissions, dropping the reception by other motes.
+     */
+    private boolean gatewayOnlyReception = false;
+
+    /**
+     * The part of a partitioned simulation the environment belongs to, or null if the environment is simulated as a
+     * whole.
+     */
+    private transient Partition partition;
+
+    /**
+     * The policy bounding the histories of the motes and the gateways in the environment.
+     */
+    private RetentionPolicy retentionPolicy = RetentionPolicy.UNBOUNDED;
+
+    /**
+     * The source of the shadow fading of all transmissions in the environment, whose state is part of a snapshot.
+     */
+    private final RestorableRandom random = new RestorableRandom();
+    /**
+     * A clock to represent time in the environment, in nanoseconds since the start of the simulation.
+     */
+    private long clock;
     /**
      * The number of zones in the configuration.
      */
@@ -84,13 +160,253 @@ public class Environment implements Serializable {
             maxYpos = 0;
             this.characteristics = new Characteristic[0][0];
         }
-        clock = LocalTime.of(0,0);
+        zoneIndex = new ZoneIndex(this.characteristics);
+        pathLossCache = new PathLossCache(PathLossCache.DEFAULT_CAPACITY);
+        clock = 0;
         this.mapOrigin = mapOrigin;
         this.MQTTServer = new MQTTServer();
         this.wayPoints = wayPoints;
         numberOfRuns = 1;
     }
 
+    /**
+     * A constructor generating an environment without motes and gateways, with the map and settings of a given one.
+     * The characteristics, the zone index, the path loss cache and the waypoints are shared with the given environment.
+     * The zone index fills its blocks lazily, but always with the same value, so it is safe to share between threads.
+     * @param source The environment to copy the map and settings of.
+     */
+    private Environment(Environment source){
+        maxXpos = source.maxXpos;
+        maxYpos = source.maxYpos;
+        characteristics = source.characteristics;
+        zoneIndex = source.zoneIndex;
+        pathLossCache = source.pathLossCache;
+        clock = source.clock;
+        mapOrigin = source.mapOrigin;
+        MQTTServer = new MQTTServer();
+        wayPoints = source.wayPoints;
+        numberOfRuns = 1;
+        numberOfZones = source.numberOfZones;
+        steppedPathLoss = source.steppedPathLoss;
+        gatewayOnlyReception = source.gatewayOnlyReception;
+        retentionPolicy = source.retentionPolicy;
+        MQTTServer.setBounded(!retentionPolicy.isUnbounded());
+    }
+
+    /**
+     * Returns a copy of the environment to run a single run in, independently of the other runs.
+     * The copy has the map and the settings of the environment and a copy of every mote and gateway with the same id,
+     * without their histories. It shares the characteristics and the structures derived from them, including the
+     * coverage rasters, which must not change while the copy is used, and has a path loss cache of its own with the
+     * entries of the cache of the environment, so the runs do not contend for its lock.
+     * @return A new environment with a single run, starting at the current time.
+     */
+    Environment copyForRun(){
+        Environment copy = new Environment(this);
+        for(Gateway gateway : gateways){
+            Gateway gatewayCopy = gateway.copyTo(copy);
+            CoverageRaster coverageRaster = coverageRasters.get(gateway);
+            if(coverageRaster != null){
+                copy.coverageRasters.put(gatewayCopy, coverageRaster);
+            }
+        }
+        copy.coverageRastersEnabled = coverageRastersEnabled;
+        copy.pathLossCache = pathLossCache.copy();
+        for(Mote mote : motes){
+            mote.copyTo(copy);
+        }
+        return copy;
+    }
+
+    /**
+     * Returns an environment with the map, the settings and a copy of every gateway of the environment, without its
+     * motes, to build another scenario on the same terrain. The characteristics, the zone index and the coverage
+     * rasters are shared and whichever of the environments changes the map first copies them, so precomputed rasters
+     * are reused by every copy. The copy has a path loss cache of its own, since it holds the positions of its motes,
+     * and a random generator which still has to be seeded.
+     * @return A new environment with the terrain of the environment, at the start of the simulation.
+     */
+    public Environment copyTerrain(){
+        Environment copy = new Environment(this);
+        shareMap(copy);
+        copy.clock = 0;
+        copy.pathLossCache = new PathLossCache(pathLossCache.getCapacity());
+        for(Gateway gateway : gateways){
+            Gateway gatewayCopy = gateway.copyTo(copy);
+            CoverageRaster coverageRaster = coverageRasters.get(gateway);
+            if(coverageRaster != null){
+                copy.coverageRasters.put(gatewayCopy, coverageRaster);
+            }
+        }
+        copy.coverageRastersEnabled = coverageRastersEnabled;
+        return copy;
+    }
+
+    /**
+     * Returns a copy-on-write fork of the environment, to simulate ahead from the current state without changing it.
+     * The fork has a copy of every mote and gateway with the same id, with their state and their histories of the
+     * current run as its only run. The map, the structures derived from it and the rows of the sent and reception
+     * logs are shared with the environment, and whichever of them changes them first copies what it writes to, so the
+     * fork and the environment can run on different threads afterwards. The other histories of the entities, which
+     * are sampled once per message, are copied. The random generator of the fork continues where the one of the
+     * environment is, its MQTT server starts empty and its path loss cache starts as a copy of the one of the
+     * environment. A fork which is no longer used is released, after which the environment stops copying the map
+     * for it.
+     * The environment must not change while it is forked, e.g. in between two iterations of a simulation loop.
+     * @return A new environment with a single run, at the current time of the environment.
+     */
+    public Environment fork(){
+        Environment fork = new Environment(this);
+        shareMap(fork);
+        // A fork runs on another thread, where lookups in a shared cache would wait for those of the environment.
+        fork.pathLossCache = pathLossCache.copy();
+        fork.random.copyFrom(random);
+        for(Gateway gateway : gateways){
+            Gateway gatewayFork = gateway.copyTo(fork);
+            CoverageRaster coverageRaster = coverageRasters.get(gateway);
+            if(coverageRaster != null){
+                fork.coverageRasters.put(gatewayFork, coverageRaster);
+            }
+        }
+        fork.coverageRastersEnabled = coverageRastersEnabled;
+        for(Mote mote : motes){
+            mote.copyTo(fork);
+        }
+        for(Gateway gateway : gateways){
+            gateway.forkStateTo(fork.gateways.get(gateway.getId()));
+        }
+        for(Mote mote : motes){
+            mote.forkStateTo(fork.motes.get(mote.getId()));
+        }
+        return fork;
+    }
+
+    /**
+     * Lets a new environment share the map and the structures derived from it with this one.
+     */
+    private void shareMap(Environment copy){
+        mapSharers.incrementAndGet();
+        copy.mapSharers = mapSharers;
+    }
+
+    /**
+     * Releases an environment which is no longer used, e.g. a fork after it ran ahead, so that the environments it
+     * shares the map with no longer copy it before they change it. The environment must not be used afterwards.
+     */
+    public void release(){
+        if(!released){
+            released = true;
+            mapSharers.decrementAndGet();
+        }
+    }
+
+    /**
+     * Copies the map and the zone index, and starts a new path loss cache and new coverage rasters, before the map
+     * changes or a gateway moves while they are shared with another environment which was not released.
+     */
+    private void ownMap(){
+        if(mapSharers.get() <= 1){
+            return;
+        }
+        mapSharers.decrementAndGet();
+        mapSharers = new AtomicInteger(1);
+        Characteristic[][] copy = new Characteristic[characteristics.length][];
+        for(int x = 0; x < characteristics.length; x++){
+            copy[x] = characteristics[x].clone();
+        }
+        characteristics = copy;
+        zoneIndex = new ZoneIndex(characteristics);
+        pathLossCache = new PathLossCache(pathLossCache.getCapacity());
+        if(coverageRastersEnabled){
+            setCoverageRastersEnabled(true);
+        }
+    }
+
+    /**
+     * Replaces the histories of a run of all entities with the histories of a copy made by {@link #copyForRun()},
+     * and adds the messages of the MQTT server of the copy.
+     * @param run The run to replace.
+     * @param copy The copy, in which the run was run.
+     */
+    void mergeRun(int run, Environment copy){
+        for(Mote mote : motes){
+            mote.mergeRun(run, copy.motes.get(mote.getId()));
+        }
+        for(Gateway gateway : gateways){
+            gateway.mergeRun(run, copy.gateways.get(gateway.getId()));
+        }
+        MQTTServer.merge(copy.MQTTServer);
+    }
+
+    /**
+     * Writes the state of the environment to a snapshot: the clock, the state of the random generator, the settings,
+     * the MQTT server and every gateway and mote with its histories. The map is not written, the environment a
+     * snapshot is read into has the same map.
+     * @param out The output of the snapshot.
+     * @throws IOException If the output cannot be written.
+     */
+    public void writeState(DataOutput out) throws IOException {
+        out.writeInt(maxXpos);
+        out.writeInt(maxYpos);
+        out.writeLong(clock);
+        random.writeState(out);
+        out.writeInt(numberOfRuns);
+        SnapshotIO.writeNullableInt(out, numberOfZones);
+        out.writeBoolean(steppedPathLoss);
+        out.writeBoolean(gatewayOnlyReception);
+        out.writeBoolean(coverageRastersEnabled);
+        retentionPolicy.writeState(out);
+        MQTTServer.writeState(out);
+        out.writeInt(gateways.size());
+        out.writeInt(motes.size());
+        for(Gateway gateway : gateways){
+            gateway.writeState(out);
+        }
+        for(Mote mote : motes){
+            mote.writeState(out);
+        }
+    }
+
+    /**
+     * Replaces the state of the environment with the one written by {@link #writeState(DataOutput)} for an
+     * environment with the same map and the same gateways and motes, e.g. one created by the same scenario with the
+     * same seed. An environment which could not be read is left in an undefined state.
+     * @param in The input of the snapshot.
+     * @throws IOException If the input cannot be read or was written for another map or other entities.
+     */
+    public void readState(DataInput in) throws IOException {
+        int snapshotMaxXpos = in.readInt();
+        int snapshotMaxYpos = in.readInt();
+        SnapshotIO.check(snapshotMaxXpos == maxXpos && snapshotMaxYpos == maxYpos,
+                "The snapshot is of a map of " + snapshotMaxXpos + " by " + snapshotMaxYpos);
+        clock = in.readLong();
+        random.readState(in);
+        int runs = SnapshotIO.readCount(in);
+        SnapshotIO.check(runs > 0, "The snapshot has no run.");
+        numberOfRuns = runs;
+        numberOfZones = SnapshotIO.readNullableInt(in);
+        steppedPathLoss = in.readBoolean();
+        gatewayOnlyReception = in.readBoolean();
+        boolean snapshotCoverageRasters = in.readBoolean();
+        retentionPolicy = RetentionPolicy.readState(in);
+        HashMap<Long,Long> euis = new HashMap<>();
+        for(Gateway gateway : gateways){
+            euis.put(gateway.getEUI(), gateway.getEUI());
+        }
+        MQTTServer.readState(in, euis);
+        int snapshotGateways = in.readInt();
+        int snapshotMotes = in.readInt();
+        SnapshotIO.check(snapshotGateways == gateways.size() && snapshotMotes == motes.size(),
+                "The snapshot has " + snapshotGateways + " gateways and " + snapshotMotes + " motes");
+        for(Gateway gateway : gateways){
+            gateway.readState(in);
+        }
+        for(Mote mote : motes){
+            mote.readState(in);
+        }
+        setCoverageRastersEnabled(snapshotCoverageRasters);
+    }
+
     /**
      * Returns the MQTT server used in this environment.
      * @return the MQTT server used in this environment.
@@ -177,10 +493,10 @@ public class Environment implements Serializable {
 
     /**
      * Returns all the gateways on the map.
-     * @return A list with all the gateways on the map.
+     * @return A list with all the gateways on the map, the index of a gateway is its id.
      */
     
-    public LinkedList<Gateway> getGateways() {
+    public List<Gateway> getGateways() {
         return gateways;
     }
 
@@ -192,19 +508,57 @@ public class Environment implements Serializable {
     
     public void addGateway(Gateway gateway) {
         if(gateway.getEnvironment() == this){
+            gateway.setId(gateways.size());
             gateways.add(gateway);
+            entitiesByEUI.putIfAbsent(gateway.getEUI(), gateway);
+            gateway.setRetentionPolicy(retentionPolicy);
+            if(coverageRastersEnabled){
+                CoverageRaster coverageRaster = new CoverageRaster(this, gateway);
+                coverageRaster.update();
+                coverageRasters.put(gateway, coverageRaster);
+            }
         }
     }
 
     /**
      *
-     * @return A list with all the motes on the map.
+     * @return A list with all the motes on the map, the index of a mote is its id.
      */
     
-    public LinkedList<Mote> getMotes() {
+    public List<Mote> getMotes() {
         return motes;
     }
 
+    /**
+     * Returns the entity on the map with a given EUI.
+     * If several entities share the EUI, the first one added is returned.
+     * @param EUI The EUI of the entity.
+     * @return The mote or gateway with the EUI, null if there is none.
+     */
+    public NetworkEntity getEntityByEUI(Long EUI) {
+        return entitiesByEUI.get(EUI);
+    }
+
+    /**
+     * Returns the mote on the map with a given EUI.
+     * @param EUI The EUI of the mote.
+     * @return The mote with the EUI, null if there is none.
+     */
+    public Mote getMoteByEUI(Long EUI) {
+        NetworkEntity entity = entitiesByEUI.get(EUI);
+        return entity instanceof Mote ? (Mote) entity : null;
+    }
+
+    /**
+     * Returns the gateway on the map with a given EUI.
+     * @param EUI The EUI of the gateway.
+     * @return The gateway with the EUI, null if there is none.
+     */
+    public Gateway getGatewayByEUI(Long EUI) {
+        NetworkEntity entity = entitiesByEUI.get(EUI);
+        return entity instanceof Gateway ? (Gateway) entity : null;
+    }
+
     /**
      * Adds a mote to the list of motes if it is located in this environment.
      * @param mote  the mote to add
@@ -213,10 +567,105 @@ public class Environment implements Serializable {
     
     public void addMote(Mote mote) {
         if(mote.getEnvironment() == this){
+            mote.setId(motes.size());
             motes.add(mote);
+            entitiesByEUI.putIfAbsent(mote.getEUI(), mote);
+            mote.setRetentionPolicy(retentionPolicy);
         }
     }
 
+    /**
+     * Notifies the environment that an entity in it moved. A gateway which moves while the coverage rasters are
+     * shared with a fork gets rasters of its own.
+     * @param entity The entity which moved.
+     */
+    void entityMoved(NetworkEntity entity) {
+        if(entity instanceof Gateway){
+            ownMap();
+        }
+    }
+
+    /**
+     * Returns the part of a partitioned simulation the environment belongs to.
+     * @return The partition, or null if the environment is simulated as a whole.
+     */
+    public Partition getPartition() {
+        return partition;
+    }
+
+    /**
+     * Lets the environment simulate only the entities a partition owns, see {@link Partition}.
+     * @param partition The partition, or null to simulate the environment as a whole.
+     */
+    public void setPartition(Partition partition) {
+        this.partition = partition;
+    }
+
+    /**
+     * Returns whether only gateways receive transmissions.
+     * @return True if motes do not receive transmissions of other motes.
+     */
+    public boolean isGatewayOnlyReception() {
+        return gatewayOnlyReception;
+    }
+
+    /**
+     * Sets whether only gateways receive transmissions.
+     * @param gatewayOnlyReception True to drop the reception of transmissions by other motes.
+     */
+    public void setGatewayOnlyReception(boolean gatewayOnlyReception) {
+        this.gatewayOnlyReception = gatewayOnlyReception;
+    }
+
+    /**
+     * Returns the entities which can receive the transmissions of a sender: first the gateways and then, unless only
+     * gateways receive, the motes, each in the order in which they were added.
+     * @param sender The sender.
+     * @return The possible receivers of the sender.
+     */
+    public List<NetworkEntity> getReceivers(NetworkEntity sender) {
+        List<NetworkEntity> receivers = new ArrayList<>(getGateways());
+        if(!gatewayOnlyReception){
+            receivers.addAll(getMotes());
+        }
+        receivers.remove(sender);
+        return receivers;
+    }
+
+    /**
+     * Returns the number of entities which can receive the transmissions of a sender.
+     * @param sender The sender.
+     * @return The number of possible receivers of the sender.
+     */
+    public int getNumberOfReceivers(NetworkEntity sender) {
+        int receivers = getGateways().size() + (gatewayOnlyReception ? 0 : getMotes().size());
+        if(sender instanceof Gateway || (sender instanceof Mote && !gatewayOnlyReception)){
+            receivers--;
+        }
+        return receivers;
+    }
+
+    /**
+     * Returns the first entity which can receive the transmissions of a sender.
+     * @param sender The sender.
+     * @return The first of {@link #getReceivers(NetworkEntity)}, null if there is none.
+     */
+    public NetworkEntity getFirstReceiver(NetworkEntity sender) {
+        for(Gateway gateway : getGateways()){
+            if(gateway != sender){
+                return gateway;
+            }
+        }
+        if(!gatewayOnlyReception){
+            for(Mote mote : getMotes()){
+                if(mote != sender){
+                    return mote;
+                }
+            }
+        }
+        return null;
+    }
+
     /**
      * Determines if a given map of characteristics is valid.
      * @param characteristics The map to check.
@@ -252,28 +701,149 @@ public class Environment implements Serializable {
      * @param characteristic the given characteristic.
      */
     public void setCharacteristics(Characteristic characteristic, Integer xPos, Integer yPos) {
+        ownMap();
         this.characteristics[xPos][yPos] = characteristic;
+        zoneIndex.invalidate(xPos, yPos);
+        pathLossCache.clear();
+        for(CoverageRaster coverageRaster : coverageRasters.values()){
+            coverageRaster.invalidate(xPos, yPos);
+        }
     }
 
     /**
-     * Returns the current time in the simulation.
-     * @return The current time in the simulation.
+     * Returns whether the path loss to every gateway is precomputed for every position on the map.
+     * @return True if coverage rasters are used for the gateways.
+     */
+    public boolean isCoverageRastersEnabled() {
+        return coverageRastersEnabled;
+    }
+
+    /**
+     * Enables or disables the precomputed path loss rasters of the gateways.
+     * @param coverageRastersEnabled True to precompute a raster for every gateway, false to remove them.
+     * @Post If enabled, a raster is computed in parallel for every gateway on the map and every gateway added later.
+     */
+    public void setCoverageRastersEnabled(boolean coverageRastersEnabled) {
+        this.coverageRastersEnabled = coverageRastersEnabled;
+        coverageRasters.clear();
+        if(coverageRastersEnabled){
+            for(Gateway gateway : getGateways()){
+                CoverageRaster coverageRaster = new CoverageRaster(this, gateway);
+                coverageRaster.update();
+                coverageRasters.put(gateway, coverageRaster);
+            }
+        }
+    }
+
+    /**
+     * Returns the precomputed path loss raster of a receiver.
+     * @param receiver The receiver.
+     * @return The coverage raster of the receiver, null if the receiver has none.
+     */
+    public CoverageRaster getCoverageRaster(NetworkEntity receiver) {
+        return coverageRasters.get(receiver);
+    }
+
+    /**
+     * Returns the cache of the deterministic path loss between sender and receiver positions.
+     * @return The cache of the deterministic path loss between sender and receiver positions.
+     */
+    public PathLossCache getPathLossCache() {
+        return pathLossCache;
+    }
+
+    /**
+     * Returns the index over the zones of the same characteristic in the map.
+     * @return The index over the zones of the same characteristic in the map.
+     */
+    public ZoneIndex getZoneIndex() {
+        return zoneIndex;
+    }
+
+    /**
+     * Returns whether path loss is computed by stepping over every position between sender and receiver.
+     * @return True if the stepping reference model is used, false if the closed form is used.
+     */
+    public boolean usesSteppedPathLoss() {
+        return steppedPathLoss;
+    }
+
+    /**
+     * Sets whether path loss is computed by stepping over every position between sender and receiver.
+     * @param steppedPathLoss True to use the stepping reference model, false to use the closed form.
+     */
+    public void setSteppedPathLoss(boolean steppedPathLoss) {
+        this.steppedPathLoss = steppedPathLoss;
+    }
+
+    /**
+     * Returns the current time of day in the simulation.
+     * This is a view on the clock for displaying purposes, it wraps around after 24 hours.
+     * @return The current time of day in the simulation.
      */
     public LocalTime getTime() {
+        return LocalTime.ofNanoOfDay(clock % NANOS_PER_DAY);
+    }
+
+    /**
+     * Returns the current time in the simulation.
+     * @return The number of nanoseconds since the start of the simulation.
+     */
+    public long getTimeNanos() {
         return clock;
     }
 
+    /**
+     * Returns the policy bounding the histories of the motes and the gateways in the environment.
+     * @return The retention policy of the environment.
+     */
+    public RetentionPolicy getRetentionPolicy() {
+        return retentionPolicy;
+    }
+
+    /**
+     * Sets the policy bounding the histories of the motes and the gateways in the environment,
+     * including the ones which are added later, and bounds the buffer of the MQTT server if the policy is bounded.
+     * @param retentionPolicy The new retention policy.
+     */
+    public void setRetentionPolicy(RetentionPolicy retentionPolicy) {
+        this.retentionPolicy = retentionPolicy;
+        for(Mote mote : motes){
+            mote.setRetentionPolicy(retentionPolicy);
+        }
+        for(Gateway gateway : gateways){
+            gateway.setRetentionPolicy(retentionPolicy);
+        }
+        MQTTServer.setBounded(!retentionPolicy.isUnbounded());
+    }
+
+    /**
+     * Returns the random generator of the environment, which draws the shadow fading of every transmission.
+     * @return The random generator of the environment.
+     */
+    public Random getRandom() {
+        return random;
+    }
+
     /**
      * Increases the time with a given amount of miliseconds.
      * @param milliSeconds
      * @Post Increases the time with a given amount of miliseconds.
      */
     public void tick(long milliSeconds) {
-        this.clock= this.clock.plus(milliSeconds, ChronoUnit.MILLIS);
+        this.clock += milliSeconds * 1_000_000L;
+    }
+
+    /**
+     * Moves the clock forward to a given time, if it is later than the current time.
+     * @param timeNanos The number of nanoseconds since the start of the simulation.
+     */
+    void advanceClockTo(long timeNanos) {
+        clock = Math.max(clock, timeNanos);
     }
 
     public void resetClock(){
-        this.clock =  LocalTime.of(0,0);
+        this.clock = 0;
     }
 
     /**
@@ -364,8 +934,17 @@ public class Environment implements Serializable {
      * @return If the node has moved.
      */
     public Boolean moveMote(Mote mote, GeoPosition position){
-        Integer xPos = toMapXCoordinate(position);
-        Integer yPos = toMapYCoordinate(position);
+        return moveMote(mote, toMapXCoordinate(position), toMapYCoordinate(position));
+    }
+
+    /**
+     * A function that moves a mote to a position on the map 1 step and returns if the note has moved.
+     * @param mote The mote to move.
+     * @param xPos The x-coordinate of the position to move towards.
+     * @param yPos The y-coordinate of the position to move towards.
+     * @return If the node has moved.
+     */
+    public Boolean moveMote(Mote mote, int xPos, int yPos){
         if(Integer.signum(xPos - mote.getXPos()) != 0 || Integer.signum(yPos - mote.getYPos()) != 0){
             if(Math.abs(mote.getXPos() - xPos) >= Math.abs(mote.getYPos() - yPos)){
                 mote.setXPos(mote.getXPos()+ Integer.signum(xPos - mote.getXPos()));
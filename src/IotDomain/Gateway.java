@@ -27,6 +27,17 @@ public class Gateway extends NetworkEntity {
         subscribedMoteProbes = new LinkedList<>();
     }
 
+    /**
+     * Creates a copy of the gateway in another environment, without its histories and subscriptions.
+     * @param environment The environment of the copy.
+     * @return The copy of the gateway.
+     */
+    Gateway copyTo(Environment environment) {
+        Gateway copy = new Gateway(getEUI(), getXPos(), getYPos(), environment, getTransmissionPower(), getSF());
+        copy.enable(isEnabled());
+        return copy;
+    }
+
     /**
      * Returns the subscribed MoteProbes.
      * @return The subscribed MoteProbes.
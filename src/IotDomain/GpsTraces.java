@@ -0,0 +1,489 @@
+package IotDomain;
+
+import org.jxmapviewer.viewer.GeoPosition;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * A file of GPS traces for motes to replay. The traces are kept in a compact binary format of 12 bytes per point,
+ * which is memory-mapped: a cursor reads the points of its trace from the page cache as the simulation reaches them,
+ * so thousands of motes replay traces of hours without their points on the heap. Only the offset and the number of
+ * points of every trace are read up front.
+ * <p>
+ * A CSV file is converted to the binary format with buffered I/O when it is opened, or ahead of time with
+ * {@link #convert(File, File)}. Every row of a CSV file holds a point: {@code trace,time,latitude,longitude}, with the
+ * time in seconds, such as a Unix time, and the position in degrees. The rows of a trace follow each other in the
+ * order of their time, and the traces are numbered in the order of their first row; their labels are not kept. Empty
+ * rows, rows starting with {@code #} and a header are skipped. The earliest point of the file is the start of the
+ * simulation, so the traces keep their times relative to each other.
+ */
+public final class GpsTraces {
+
+    /**
+     * The first bytes of a binary trace file, "DNGT".
+     */
+    private static final int MAGIC = 0x444E4754;
+
+    /**
+     * The version of the binary format.
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * The header of the binary format: the magic and the version, the time of the earliest point in milliseconds, the
+     * bounding box of the points, the number of traces and the position of the index of the traces.
+     */
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 4 * 4 + 4 + 8;
+
+    /**
+     * Every point is the time in milliseconds since the earliest point and the latitude and the longitude in units of
+     * 1e-7 degrees, which is about a centimeter.
+     */
+    private static final int POINT_BYTES = 12;
+    private static final double DEGREES_PER_UNIT = 1e-7;
+
+    /**
+     * Every trace in the index is the position of its first point and its number of points.
+     */
+    private static final int INDEX_BYTES = 12;
+
+    /**
+     * The file is mapped in regions, which overlap by a point so that no point or entry of the index crosses the end
+     * of a region.
+     */
+    private static final int REGION_BYTES = 1 << 30;
+
+    private final File file;
+    private final MappedByteBuffer[] regions;
+    private final long epochMillis;
+    private final int minLatitude;
+    private final int minLongitude;
+    private final int maxLatitude;
+    private final int maxLongitude;
+
+    /**
+     * The position of the first point and the number of points of every trace.
+     */
+    private final long[] offsets;
+    private final int[] counts;
+
+    private GpsTraces(File file, File binary) throws IOException {
+        this.file = file;
+        try (FileChannel channel = FileChannel.open(binary.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES) {
+                throw new StreamCorruptedException("Not a trace file: " + file);
+            }
+            regions = new MappedByteBuffer[(int) ((size + REGION_BYTES - 1) / REGION_BYTES)];
+            for (int i = 0; i < regions.length; i++) {
+                long start = (long) i * REGION_BYTES;
+                regions[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(size - start, REGION_BYTES + POINT_BYTES));
+            }
+            MappedByteBuffer header = regions[0];
+            if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+                throw new StreamCorruptedException("Not a trace file of version " + VERSION + ": " + file);
+            }
+            epochMillis = header.getLong(8);
+            minLatitude = header.getInt(16);
+            minLongitude = header.getInt(20);
+            maxLatitude = header.getInt(24);
+            maxLongitude = header.getInt(28);
+            int numberOfTraces = header.getInt(32);
+            long indexPosition = header.getLong(36);
+            if (numberOfTraces < 0 || indexPosition < HEADER_BYTES
+                    || indexPosition + (long) numberOfTraces * INDEX_BYTES != size) {
+                throw new StreamCorruptedException("Invalid index in trace file " + file);
+            }
+            offsets = new long[numberOfTraces];
+            counts = new int[numberOfTraces];
+            for (int i = 0; i < numberOfTraces; i++) {
+                long entry = indexPosition + (long) i * INDEX_BYTES;
+                offsets[i] = region(entry).getLong(local(entry));
+                counts[i] = region(entry).getInt(local(entry) + 8);
+                if (counts[i] <= 0 || offsets[i] < HEADER_BYTES
+                        || offsets[i] + (long) counts[i] * POINT_BYTES > indexPosition) {
+                    throw new StreamCorruptedException("Invalid trace " + i + " in trace file " + file);
+                }
+            }
+        }
+    }
+
+    /**
+     * Opens a trace file, which is converted to the binary format first if it is a CSV file.
+     * @param file The binary or CSV trace file.
+     * @return The traces of the file.
+     * @throws IOException If the file cannot be read or is not a valid trace file.
+     */
+    public static GpsTraces open(File file) throws IOException {
+        if (isBinary(file)) {
+            return new GpsTraces(file, file);
+        }
+        File binary = File.createTempFile("traces", ".bin");
+        try {
+            convert(file, binary);
+            return new GpsTraces(file, binary);
+        } finally {
+            // The mapping outlives the file where the platform allows to delete a mapped file.
+            if (!binary.delete()) {
+                binary.deleteOnExit();
+            }
+        }
+    }
+
+    /**
+     * Opens a binary trace file within a directory, for a path of an untrusted source such as an HTTP client: the
+     * file cannot be outside the directory, also not through a symbolic link, and CSV files are not converted.
+     * @param directory The directory of the trace files, or null if no trace file can be opened.
+     * @param path The path of the trace file, relative to the directory or absolute.
+     * @return The traces of the file.
+     * @throws AccessDeniedException If there is no directory or the file is not within it.
+     * @throws IOException If the file cannot be read or is not a valid binary trace file.
+     */
+    public static GpsTraces openWithin(File directory, String path) throws IOException {
+        if (directory == null) {
+            throw new AccessDeniedException(path, null, "No trace directory is configured.");
+        }
+        Path root = directory.toPath().toRealPath();
+        Path file = root.resolve(path).normalize();
+        if (!file.startsWith(root) || !file.toRealPath().startsWith(root)) {
+            throw new AccessDeniedException(path, null, "Not within the trace directory.");
+        }
+        if (!isBinary(file.toFile())) {
+            throw new StreamCorruptedException("Not a binary trace file: " + path);
+        }
+        return new GpsTraces(file.toFile(), file.toFile());
+    }
+
+    private static boolean isBinary(File file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+            return file.length() >= 4 && in.readInt() == MAGIC;
+        }
+    }
+
+    /**
+     * Converts a CSV trace file to the binary format, in two buffered passes which hold a row and the number
+     * of points of every trace rather than the points.
+     * @param csv The CSV trace file.
+     * @param binary The binary trace file to write.
+     * @throws IOException If a file cannot be read or written, or the CSV file is not a valid trace file.
+     */
+    public static void convert(File csv, File binary) throws IOException {
+        // The first pass validates the rows and finds the earliest point, the bounding box and the number of points.
+        Summary summary = new Summary();
+        readRows(csv, summary);
+        if (summary.traces == 0) {
+            throw new StreamCorruptedException("No points in trace file " + csv);
+        }
+        long epochMillis = summary.minMillis;
+        if (summary.maxMillis - epochMillis > Integer.MAX_VALUE) {
+            throw new StreamCorruptedException("The points of trace file " + csv + " span more than "
+                    + Integer.MAX_VALUE / 86400000 + " days");
+        }
+        long indexPosition = HEADER_BYTES + summary.points * POINT_BYTES;
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(binary), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(epochMillis);
+            out.writeInt(summary.minLatitude);
+            out.writeInt(summary.minLongitude);
+            out.writeInt(summary.maxLatitude);
+            out.writeInt(summary.maxLongitude);
+            out.writeInt(summary.traces);
+            out.writeLong(indexPosition);
+            readRows(csv, (trace, millis, latitude, longitude) -> {
+                out.writeInt((int) (millis - epochMillis));
+                out.writeInt(latitude);
+                out.writeInt(longitude);
+            });
+            long offset = HEADER_BYTES;
+            for (int i = 0; i < summary.traces; i++) {
+                out.writeLong(offset);
+                out.writeInt(summary.counts[i]);
+                offset += (long) summary.counts[i] * POINT_BYTES;
+            }
+        }
+    }
+
+    /**
+     * Receives the points of a CSV trace file in the order of its rows.
+     */
+    private interface RowConsumer {
+        void accept(int trace, long millis, int latitude, int longitude) throws IOException;
+    }
+
+    /**
+     * The summary of the first pass over a CSV trace file.
+     */
+    private static final class Summary implements RowConsumer {
+        private int traces = 0;
+        private long points = 0;
+        private int[] counts = new int[16];
+        private long minMillis = Long.MAX_VALUE;
+        private long maxMillis = Long.MIN_VALUE;
+        private int minLatitude = Integer.MAX_VALUE;
+        private int minLongitude = Integer.MAX_VALUE;
+        private int maxLatitude = Integer.MIN_VALUE;
+        private int maxLongitude = Integer.MIN_VALUE;
+
+        @Override
+        public void accept(int trace, long millis, int latitude, int longitude) {
+            if (trace == traces) {
+                if (traces == counts.length) {
+                    counts = Arrays.copyOf(counts, 2 * traces);
+                }
+                traces++;
+            }
+            counts[trace]++;
+            points++;
+            minMillis = Math.min(minMillis, millis);
+            maxMillis = Math.max(maxMillis, millis);
+            minLatitude = Math.min(minLatitude, latitude);
+            minLongitude = Math.min(minLongitude, longitude);
+            maxLatitude = Math.max(maxLatitude, latitude);
+            maxLongitude = Math.max(maxLongitude, longitude);
+        }
+    }
+
+    /**
+     * Reads the rows of a CSV trace file, numbering the traces in the order of their first row.
+     * @throws StreamCorruptedException If a row is invalid, the rows of a trace do not follow each other or their
+     *                                  times decrease.
+     */
+    private static void readRows(File csv, RowConsumer consumer) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(csv.toPath(), StandardCharsets.UTF_8)) {
+            Set<String> finished = new HashSet<>();
+            String label = null;
+            int trace = -1;
+            long lastMillis = Long.MIN_VALUE;
+            int lineNumber = 0;
+            boolean first = true;
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.split(",");
+                if (fields.length != 4) {
+                    throw new StreamCorruptedException("Expected trace,time,latitude,longitude at line " + lineNumber + " of " + csv);
+                }
+                double seconds;
+                double latitude;
+                double longitude;
+                try {
+                    seconds = Double.parseDouble(fields[1].trim());
+                    latitude = Double.parseDouble(fields[2].trim());
+                    longitude = Double.parseDouble(fields[3].trim());
+                } catch (NumberFormatException e) {
+                    if (first) {
+                        first = false;
+                        continue;
+                    }
+                    throw new StreamCorruptedException("Invalid number at line " + lineNumber + " of " + csv);
+                }
+                first = false;
+                if (!Double.isFinite(seconds) || Math.abs(seconds) > 1e12 || !(Math.abs(latitude) <= 90) || !(Math.abs(longitude) <= 180)) {
+                    throw new StreamCorruptedException("Invalid point at line " + lineNumber + " of " + csv);
+                }
+                String rowLabel = fields[0].trim();
+                long millis = Math.round(seconds * 1000);
+                if (!rowLabel.equals(label)) {
+                    if (label != null) {
+                        finished.add(label);
+                    }
+                    if (finished.contains(rowLabel)) {
+                        throw new StreamCorruptedException("The rows of trace " + rowLabel + " do not follow each other at line " + lineNumber + " of " + csv);
+                    }
+                    label = rowLabel;
+                    trace++;
+                } else if (millis < lastMillis) {
+                    throw new StreamCorruptedException("The time of trace " + rowLabel + " decreases at line " + lineNumber + " of " + csv);
+                }
+                lastMillis = millis;
+                consumer.accept(trace, millis, (int) Math.round(latitude / DEGREES_PER_UNIT), (int) Math.round(longitude / DEGREES_PER_UNIT));
+            }
+        }
+    }
+
+    private MappedByteBuffer region(long position) {
+        return regions[(int) (position / REGION_BYTES)];
+    }
+
+    private static int local(long position) {
+        return (int) (position % REGION_BYTES);
+    }
+
+    /**
+     * Returns the file the traces were opened from.
+     * @return The binary or CSV trace file.
+     */
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Returns the number of traces.
+     * @return The number of traces.
+     */
+    public int getNumberOfTraces() {
+        return counts.length;
+    }
+
+    /**
+     * Returns the number of points of a trace.
+     * @param trace The number of the trace.
+     * @return The number of points of the trace.
+     */
+    public int getNumberOfPoints(int trace) {
+        return counts[trace];
+    }
+
+    /**
+     * Returns the south west corner of the bounding box of all points, which makes a map origin with every trace on
+     * the map.
+     * @return The lowest latitude and longitude of the points.
+     */
+    public GeoPosition getSouthWest() {
+        return new GeoPosition(minLatitude * DEGREES_PER_UNIT, minLongitude * DEGREES_PER_UNIT);
+    }
+
+    /**
+     * Returns the north east corner of the bounding box of all points.
+     * @return The highest latitude and longitude of the points.
+     */
+    public GeoPosition getNorthEast() {
+        return new GeoPosition(maxLatitude * DEGREES_PER_UNIT, maxLongitude * DEGREES_PER_UNIT);
+    }
+
+    /**
+     * Returns the time of the earliest point, which is the start of the simulation.
+     * @return The time of the earliest point in milliseconds, in the unit of the times of the trace file.
+     */
+    public long getEpochMillis() {
+        return epochMillis;
+    }
+
+    /**
+     * Returns a cursor at the start of a trace.
+     * @param trace The number of the trace.
+     * @return A new cursor over the trace.
+     */
+    public Cursor cursor(int trace) {
+        return new Cursor(trace);
+    }
+
+    /**
+     * A cursor over a trace, which holds the segment in between two points the simulation is in and reads the next
+     * points of the trace from the mapped file as the simulation time passes them. A cursor is used by a single thread.
+     */
+    public final class Cursor {
+        private final int trace;
+
+        /**
+         * The point the segment of the cursor starts at. The segment ends at the next point, or the start point if it
+         * is the last one.
+         */
+        private int point = -1;
+        private int startMillis;
+        private int startLatitude;
+        private int startLongitude;
+        private int endMillis;
+        private int endLatitude;
+        private int endLongitude;
+
+        private Cursor(int trace) {
+            this.trace = trace;
+            seek(0);
+        }
+
+        /**
+         * Returns a copy of the cursor, which moves independently of it.
+         * @return The copy of the cursor.
+         */
+        public Cursor copy() {
+            Cursor copy = new Cursor(trace);
+            copy.seek(point);
+            return copy;
+        }
+
+        /**
+         * Returns the point the segment of the cursor starts at, which a snapshot keeps.
+         * @return The index of the point in the trace.
+         */
+        public int getPoint() {
+            return point;
+        }
+
+        /**
+         * Moves the cursor to the segment starting at a point.
+         * @param point The index of the point in the trace.
+         * @throws IndexOutOfBoundsException If the trace has no such point.
+         */
+        public void seek(int point) {
+            if (point < 0 || point >= counts[trace]) {
+                throw new IndexOutOfBoundsException("Trace " + trace + " has no point " + point);
+            }
+            if (point == this.point) {
+                return;
+            }
+            this.point = point;
+            long start = offsets[trace] + (long) point * POINT_BYTES;
+            MappedByteBuffer region = region(start);
+            startMillis = region.getInt(local(start));
+            startLatitude = region.getInt(local(start) + 4);
+            startLongitude = region.getInt(local(start) + 8);
+            if (point + 1 < counts[trace]) {
+                long end = start + POINT_BYTES;
+                region = region(end);
+                endMillis = region.getInt(local(end));
+                endLatitude = region.getInt(local(end) + 4);
+                endLongitude = region.getInt(local(end) + 8);
+            } else {
+                endMillis = startMillis;
+                endLatitude = startLatitude;
+                endLongitude = startLongitude;
+            }
+        }
+
+        /**
+         * Returns the position of the trace at a time, interpolated linearly in between the points before and after
+         * it. Before its first point a trace stays at its first position and after its last point at its last one.
+         * Moving to a later time reads the points in between, so a cursor is cheapest when the time only increases.
+         * @param timeMillis The time in milliseconds since the start of the simulation.
+         * @return The position of the trace at the time.
+         */
+        public GeoPosition getPosition(long timeMillis) {
+            while (timeMillis >= endMillis && point + 1 < counts[trace]) {
+                seek(point + 1);
+            }
+            while (timeMillis < startMillis && point > 0) {
+                seek(point - 1);
+            }
+            if (timeMillis <= startMillis || endMillis == startMillis) {
+                return new GeoPosition(startLatitude * DEGREES_PER_UNIT, startLongitude * DEGREES_PER_UNIT);
+            }
+            double fraction = Math.min(1, (timeMillis - startMillis) / (double) (endMillis - startMillis));
+            return new GeoPosition((startLatitude + fraction * (endLatitude - startLatitude)) * DEGREES_PER_UNIT,
+                    (startLongitude + fraction * (endLongitude - startLongitude)) * DEGREES_PER_UNIT);
+        }
+    }
+}
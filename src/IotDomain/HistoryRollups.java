@@ -0,0 +1,103 @@
+package IotDomain;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.Serializable;
+
+/**
+ * The rollups of the histories an entity evicted during a single run.
+ */
+public class HistoryRollups implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final RollupSeries powerSettings = new RollupSeries();
+    private final RollupSeries spreadingFactors = new RollupSeries();
+    private final RollupSeries usedEnergy = new RollupSeries();
+    private final RollupSeries timesOnAir = new RollupSeries();
+    private final RollupSeries receivedPowers = new RollupSeries();
+
+    /**
+     * Writes the rollups of every history to a snapshot.
+     * @param out The output of the snapshot.
+     * @throws IOException If the output cannot be written.
+     */
+    void writeState(DataOutput out) throws IOException {
+        powerSettings.writeState(out);
+        spreadingFactors.writeState(out);
+        usedEnergy.writeState(out);
+        timesOnAir.writeState(out);
+        receivedPowers.writeState(out);
+    }
+
+    /**
+     * Reads rollups written by {@link #writeState(DataOutput)}.
+     * @param in The input of the snapshot.
+     * @return The rollups.
+     * @throws IOException If the input cannot be read.
+     */
+    static HistoryRollups readState(DataInput in) throws IOException {
+        HistoryRollups rollups = new HistoryRollups();
+        rollups.powerSettings.readState(in);
+        rollups.spreadingFactors.readState(in);
+        rollups.usedEnergy.readState(in);
+        rollups.timesOnAir.readState(in);
+        rollups.receivedPowers.readState(in);
+        return rollups;
+    }
+
+    /**
+     * Returns a copy of the rollups, for a fork of the environment.
+     * @return Rollups of the same evicted samples.
+     */
+    HistoryRollups copy() {
+        HistoryRollups rollups = new HistoryRollups();
+        rollups.powerSettings.copyFrom(powerSettings);
+        rollups.spreadingFactors.copyFrom(spreadingFactors);
+        rollups.usedEnergy.copyFrom(usedEnergy);
+        rollups.timesOnAir.copyFrom(timesOnAir);
+        rollups.receivedPowers.copyFrom(receivedPowers);
+        return rollups;
+    }
+
+    /**
+     * Returns the rollups of the transmission power settings.
+     * @return The rollups of the power setting history.
+     */
+    public RollupSeries getPowerSettings() {
+        return powerSettings;
+    }
+
+    /**
+     * Returns the rollups of the spreading factors.
+     * @return The rollups of the spreading factor history.
+     */
+    public RollupSeries getSpreadingFactors() {
+        return spreadingFactors;
+    }
+
+    /**
+     * Returns the rollups of the energy used per transmission.
+     * @return The rollups of the energy history.
+     */
+    public RollupSeries getUsedEnergy() {
+        return usedEnergy;
+    }
+
+    /**
+     * Returns the rollups of the time on air of the sent transmissions.
+     * @return The rollups of the sent transmissions.
+     */
+    public RollupSeries getTimesOnAir() {
+        return timesOnAir;
+    }
+
+    /**
+     * Returns the rollups of the power the transmissions were received with.
+     * @return The rollups of the received transmissions.
+     */
+    public RollupSeries getReceivedPowers() {
+        return receivedPowers;
+    }
+}
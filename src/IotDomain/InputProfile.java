@@ -8,6 +8,7 @@ import SelfAdaptation.AdaptationGoals.ThresholdAdaptationGoal;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
@@ -33,6 +34,18 @@ public class InputProfile {
      */
     private Integer numberOfRuns;
 
+    /**
+     * The number of threads running the runs in parallel copies of the environment, or 0 to run them one after
+     * another in the environment itself, see {@link Simulation#setRunThreads(int)}.
+     */
+    private int runThreads;
+
+    /**
+     * The seed the runs in parallel copies of the environment are derived from, or null to draw one for every
+     * simulation.
+     */
+    private Long baseSeed;
+
     /**
      * The probabilities for the motes to run a certain path.
      */
@@ -57,7 +70,8 @@ public class InputProfile {
 
     /**
      * Generates InputProfile with a given qualityOfServiceProfile, numberOfRuns, probabilitiesForMotes, probabilitiesForGateways,
-     * regionProbabilities, xmlSource and gui.
+     * regionProbabilities, xmlSource and gui. The optional elements {@code runThreads} and {@code baseSeed} of the
+     * source set the number of threads running the runs in parallel and the seed of those runs.
      * @param qualityOfServiceProfile The quality of service profile.
      * @param numberOfRuns The number of runs.
      * @param probabilitiesForMotes The probabilities for the motes.
@@ -77,6 +91,10 @@ public class InputProfile {
         this.probabilitiesForMotes = probabilitiesForMotes;
         this.regionProbabilities = regionProbabilities;
         this.probabilitiesForGateways = probabilitiesForGateways;
+        NodeList runThreadsNodes = xmlSource.getElementsByTagName("runThreads");
+        this.runThreads = runThreadsNodes.getLength() == 0 ? 0 : Math.max(0, Integer.parseInt(runThreadsNodes.item(0).getTextContent().trim()));
+        NodeList baseSeedNodes = xmlSource.getElementsByTagName("baseSeed");
+        this.baseSeed = baseSeedNodes.getLength() == 0 ? null : Long.valueOf(baseSeedNodes.item(0).getTextContent().trim());
         Node node = xmlSource;
         DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
         factory.setNamespaceAware(true);
@@ -221,6 +239,22 @@ public class InputProfile {
         updateFile();
     }
 
+    /**
+     * Returns the number of threads running the runs in parallel copies of the environment.
+     * @return The number of threads, or 0 to run the runs one after another in the environment itself.
+     */
+    public int getRunThreads() {
+        return runThreads;
+    }
+
+    /**
+     * Returns the seed the runs in parallel copies of the environment are derived from.
+     * @return The base seed, or null to draw one for every simulation.
+     */
+    public Long getBaseSeed() {
+        return baseSeed;
+    }
+
     /**
      * returns the xml source.
      * @return The xml source.
@@ -256,6 +290,17 @@ public class InputProfile {
         numberOfRuns.appendChild(doc.createTextNode(getNumberOfRuns().toString()));
         inputProfileElement.appendChild(numberOfRuns);
 
+        if(runThreads > 0){
+            Element runThreadsElement = doc.createElement("runThreads");
+            runThreadsElement.appendChild(doc.createTextNode(Integer.toString(runThreads)));
+            inputProfileElement.appendChild(runThreadsElement);
+        }
+        if(baseSeed != null){
+            Element baseSeedElement = doc.createElement("baseSeed");
+            baseSeedElement.appendChild(doc.createTextNode(baseSeed.toString()));
+            inputProfileElement.appendChild(baseSeedElement);
+        }
+
         Element Qos = doc.createElement("QoS");
 
         for(String goalName : getQualityOfServiceProfile().getNames()) {
@@ -2,10 +2,13 @@ package IotDomain;
 
 
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.io.Serializable;
 import java.time.LocalTime;
 import java.util.LinkedList;
-import java.util.Random;
+import java.util.Objects;
 
 /**
  * A class representing a packet in the LoraWan simulation.
@@ -27,26 +30,26 @@ public class LoraTransmission implements Serializable{
     /**
      * A double representing the transmission power.
      */
-    private Double transmissionPower = 0.0;
+    private double transmissionPower = 0.0;
 
     /**
      * An integer representing the bandwidth.
      */
-    private final Integer bandwidth;
+    private final int bandwidth;
 
     /**
      * An integer representing the spreading factor.
      */
-    private final Integer spreadingFactor;
+    private final int spreadingFactor;
     /**
      * An integer representing the x-coordinate of the packet.
      */
-    private Integer xPos = 0;
+    private int xPos = 0;
 
     /**
      * An integer representing the y-coordinate of the packet.
      */
-    private Integer yPos = 0;
+    private int yPos = 0;
 
 
     /**
@@ -60,20 +63,23 @@ public class LoraTransmission implements Serializable{
     private final LoraWanPacket content;
 
     /**
-     * A Random necessary for the gaussian in the model.
+     * The departure time of the message, in nanoseconds since the start of the simulation.
      */
-    private final Random random = new Random();
+    private final long departureTime;
 
     /**
-     * The departure time of the message
+     * Returns the departure time of day of the transmission.
+     * @return  The departure time of day of the transmission.
      */
-    private final LocalTime departureTime;
+    public LocalTime getDepartureTime() {
+        return LocalTime.ofNanoOfDay(departureTime % Environment.NANOS_PER_DAY);
+    }
 
     /**
      * Returns the departure time of the transmission.
-     * @return  The departure time of the transmission.
+     * @return  The number of nanoseconds between the start of the simulation and the departure of the transmission.
      */
-    public LocalTime getDepartureTime() {
+    public long getDepartureTimeNanos() {
         return departureTime;
     }
 
@@ -88,12 +94,22 @@ public class LoraTransmission implements Serializable{
     /**
      * The time on air of a transmission.
      */
-    private final Double timeOnAir;
+    private final double timeOnAir;
     /**
-     * The path travelled by the transmission.
+     * The path travelled by the transmission, created when it is first used.
      */
     private LinkedList<Pair<Integer,Integer>> usedPath;
 
+    /**
+     * The row of the message in the {@link SentLog} of the sender, -1 if the transmission was not sent yet.
+     */
+    private int sequenceNumber = -1;
+
+    /**
+     * The row of the transmission in the {@link ReceptionLog} of the receiver, -1 if it was not received.
+     */
+    private int receptionRow = -1;
+
     /**
      * A constructor generating a transmission with a given sender, receiver, transmission power, bandwidth, spreading factor,
      * environment and content.
@@ -120,7 +136,7 @@ public class LoraTransmission implements Serializable{
      * @Post    If the given sender and receiver have a different environment the receiver is set to null.
      * @Post    If the given sender and receiver have a different environment the xPos is set to 0.
      * @Post    If the given sender and receiver have a different environment the yPos is set to 0.
-     * @Effect   The departure time is set to LocalTime.now().
+     * @Effect   The departure time is set to the current time of the environment.
      */
     public LoraTransmission(NetworkEntity sender, NetworkEntity receiver, Integer transmissionPower, Integer bandwidth,
                             Integer spreadingFactor, LoraWanPacket content) {
@@ -141,7 +157,7 @@ public class LoraTransmission implements Serializable{
         this.content = content;
 
         if(isValidTransmissionPower(transmissionPower)) {
-            this.transmissionPower = Double.valueOf(transmissionPower);
+            this.transmissionPower = transmissionPower;
 
         }
         if(isValidBandwidth(bandwidth)){
@@ -155,17 +171,107 @@ public class LoraTransmission implements Serializable{
         else
             this.spreadingFactor = 0;
 
-        departureTime = getEnvironment().getTime();
+        departureTime = getEnvironment().getTimeNanos();
+        timeOnAir = getTimeOnAir(getSpreadingFactor(), getBandwidth(), getContent());
+    }
+
+    /**
+     * Returns the time on air of a message.
+     * @param spreadingFactor The spreading factor of the message.
+     * @param bandwidth The bandwidth of the message.
+     * @param content The message.
+     * @return The time on air in milliseconds.
+     */
+    public static double getTimeOnAir(int spreadingFactor, int bandwidth, LoraWanPacket content) {
         /**
          * https://docs.google.com/spreadsheets/d/1voGAtQAjC1qBmaVuP1ApNKs1ekgUjavHuVQIXyYSvNc/edit#gid=0
          */
-        timeOnAir = ((Math.pow(2,getSpreadingFactor())/getBandwidth())*(
+        return ((Math.pow(2,spreadingFactor)/bandwidth)*(
                 (8+Math.max(Math.ceil(
-                        (8*getContent().getPayload().length-4*getSpreadingFactor()+28+16 - 20*(getContent().hasHeader()? 1: 0))
-                                /4*(getSpreadingFactor() -2*(getContent().hasLowDataRateOptimization()?0:1)))
-                        *getContent().getCodingRate(),0))
-                        +getContent().getAmountOfPreambleSymbols()*4.25))/10;
-        usedPath = new LinkedList<>();
+                        (8*content.getPayload().length-4*spreadingFactor+28+16 - 20*(content.hasHeader()? 1: 0))
+                                /4*(spreadingFactor -2*(content.hasLowDataRateOptimization()?0:1)))
+                        *content.getCodingRate(),0))
+                        +content.getAmountOfPreambleSymbols()*4.25))/10;
+    }
+
+    /**
+     * Writes the transmission after its departure, to let another process of a partitioned simulation receive it,
+     * see {@link Partition}.
+     * @param out The output.
+     * @throws IOException If the output cannot be written.
+     */
+    public void writeState(DataOutput out) throws IOException {
+        out.writeInt(ChunkedLog.reference(sender));
+        out.writeInt(ChunkedLog.reference(receiver));
+        out.writeDouble(transmissionPower);
+        out.writeInt(bandwidth);
+        out.writeByte(spreadingFactor);
+        SnapshotIO.writePacket(out, content);
+        out.writeLong(departureTime);
+        out.writeDouble(timeOnAir);
+        out.writeInt(xPos);
+        out.writeInt(yPos);
+        out.writeInt(sequenceNumber);
+    }
+
+    /**
+     * Reads a transmission written by {@link #writeState(DataOutput)} in an environment with the same motes and
+     * gateways.
+     * @param in The input.
+     * @param environment The environment of the sender and the receiver.
+     * @return The transmission.
+     * @throws IOException If the input cannot be read or refers to an entity the environment does not have.
+     */
+    public static LoraTransmission readState(DataInput in, Environment environment) throws IOException {
+        int sender = in.readInt();
+        int receiver = in.readInt();
+        SnapshotIO.check(ChunkedLog.isValidReference(environment, sender)
+                && ChunkedLog.isValidReference(environment, receiver), "Unknown entity in transmission.");
+        double transmissionPower = in.readDouble();
+        int bandwidth = in.readInt();
+        int spreadingFactor = in.readByte();
+        SnapshotIO.check(spreadingFactor >= 7 && spreadingFactor <= 12,
+                "Invalid spreading factor in transmission: " + spreadingFactor);
+        LoraWanPacket content = SnapshotIO.readPacket(in);
+        long departureTime = in.readLong();
+        double timeOnAir = in.readDouble();
+        int xPos = in.readInt();
+        int yPos = in.readInt();
+        int sequenceNumber = in.readInt();
+        return new LoraTransmission(ChunkedLog.resolve(environment, sender), ChunkedLog.resolve(environment, receiver),
+                transmissionPower, bandwidth, spreadingFactor, content, departureTime, timeOnAir, xPos, yPos,
+                sequenceNumber);
+    }
+
+    /**
+     * A constructor restoring a transmission from the transmission logs of its sender and receiver.
+     * @param sender    The sender of the transmission.
+     * @param receiver The receiver of the transmission.
+     * @param transmissionPower The transmission power of the transmission when it was logged.
+     * @param bandwidth The bandwidth of the transmission.
+     * @param spreadingFactor   The spreading factor of the transmission.
+     * @param content The content of the transmission.
+     * @param departureTime The departure time in nanoseconds since the start of the simulation.
+     * @param timeOnAir The time on air of the transmission.
+     * @param xPos The x-coordinate the transmission was sent from.
+     * @param yPos The y-coordinate the transmission was sent from.
+     * @param sequenceNumber The row of the message in the sent log of the sender.
+     */
+    LoraTransmission(NetworkEntity sender, NetworkEntity receiver, double transmissionPower, int bandwidth,
+                     int spreadingFactor, LoraWanPacket content, long departureTime, double timeOnAir,
+                     int xPos, int yPos, int sequenceNumber) {
+        this.sender = sender;
+        this.receiver = receiver;
+        this.environment = sender.getEnvironment();
+        this.transmissionPower = transmissionPower;
+        this.bandwidth = bandwidth;
+        this.spreadingFactor = spreadingFactor;
+        this.content = content;
+        this.departureTime = departureTime;
+        this.timeOnAir = timeOnAir;
+        this.xPos = xPos;
+        this.yPos = yPos;
+        this.sequenceNumber = sequenceNumber;
     }
 
 
@@ -267,19 +373,34 @@ public class LoraTransmission implements Serializable{
 
     /**
      * A function to make this transmission depart to its destination.
+     * @Effect  Adds the transmission to the sent log of the sender if it was not sent by the sender itself.
      * @Effect  Moves the transmission to the receiver.
-     * @Effect  Tells the receiver to receiveTransmission this transmission.
+     * @Effect  Tells the receiver to receiveTransmission this transmission, or hands it to the partition of the
+     *          environment if it is partitioned.
      */
     public void depart(){
         if(getReceiver() != null){
+            if(sequenceNumber < 0){
+                sequenceNumber = getSender().logSentTransmission(this);
+            }
             moveTo(getReceiver().getXPos(),getReceiver().getYPos());
-            getReceiver().receiveTransmission(this);
+            Partition partition = getEnvironment().getPartition();
+            if(partition != null){
+                partition.deliver(this);
+            }
+            else{
+                getReceiver().receiveTransmission(this);
+            }
         }
 
     }
 
     /**
      * Moves a transmission to a given position, while adapting the transmission power.
+     * The deterministic path loss is looked up in the coverage raster of the receiver if it has one, and otherwise
+     * computed in closed form by {@link PathLoss} and cached by the environment. The stepping reference model is used
+     * instead if the environment asks for it or if the transmission power would drop below the cutoff of that model
+     * on the way. The shadow fading is drawn for every transmission.
      * @param xPos  The x-coordinate of the destination.
      * @param yPos  The y-coordinate of the destination.
      * @Effect  If the destination is more than 0 moves away from the current position, decrease the transmissionPower
@@ -287,6 +408,31 @@ public class LoraTransmission implements Serializable{
      *          in the direction of the longest difference or in the x direction if the difference is equal.
      */
     private void moveTo(Integer xPos, Integer yPos){
+        if(getEnvironment().usesSteppedPathLoss()){
+            stepTo(xPos, yPos);
+            return;
+        }
+        CoverageRaster coverageRaster = getEnvironment().getCoverageRaster(getReceiver());
+        double pathLoss = coverageRaster != null ? coverageRaster.getPathLoss(getXPos(), getYPos())
+                : getEnvironment().getPathLossCache().getPathLoss(getEnvironment(), getXPos(), getYPos(), xPos, yPos);
+        double power = getTransmissionPower() - pathLoss;
+        if(power <= -300 + PathLoss.TOLERANCE){
+            stepTo(xPos, yPos);
+            return;
+        }
+        setTransmissionPower(power - getEnvironment().getRandom().nextGaussian() * getEnvironment().getCharacteristic(xPos, yPos).getShadowFading());
+    }
+
+    /**
+     * Moves a transmission to a given position by stepping over every position in between, while adapting the
+     * transmission power. This is the reference model for the closed form path loss.
+     * @param xPos  The x-coordinate of the destination.
+     * @param yPos  The y-coordinate of the destination.
+     * @Effect  If the destination is more than 0 moves away from the current position, decrease the transmissionPower
+     *          according to the model and the characteristics of the next position. Which is the position 1 move
+     *          in the direction of the longest difference or in the x direction if the difference is equal.
+     */
+    private void stepTo(Integer xPos, Integer yPos){
         Integer xDist;
         Integer yDist;
         Integer xDir;
@@ -332,7 +478,7 @@ public class LoraTransmission implements Serializable{
             }
 
         }
-        setTransmissionPower(getTransmissionPower() - random.nextGaussian() * characteristic.getShadowFading());
+        setTransmissionPower(getTransmissionPower() - getEnvironment().getRandom().nextGaussian() * characteristic.getShadowFading());
 
         /*
         xDist = Math.abs(xPos - getXPos());
@@ -366,7 +512,7 @@ public class LoraTransmission implements Serializable{
                 }
                 }
             else {
-                setTransmissionPower(getTransmissionPower() - random.nextGaussian() * characteristic.getShadowFading());
+                setTransmissionPower(getTransmissionPower() - getEnvironment().getRandom().nextGaussian() * characteristic.getShadowFading());
             }
 
         }
@@ -423,7 +569,7 @@ public class LoraTransmission implements Serializable{
      * @param pair The Pair to add.
      */
     private void addToUsedPath(Pair<Integer,Integer> pair){
-        usedPath.add(pair);
+        getUsedPath().add(pair);
     }
 
     /**
@@ -431,7 +577,69 @@ public class LoraTransmission implements Serializable{
      * @return The used path.
      */
     public LinkedList<Pair<Integer,Integer>> getUsedPath(){
+        if(usedPath == null){
+            usedPath = new LinkedList<>();
+        }
         return usedPath;
     }
 
+    /**
+     * Returns the row of the message of this transmission in the sent log of the sender.
+     * @return The row of the message, -1 if the transmission was not sent yet.
+     */
+    public int getSequenceNumber() {
+        return sequenceNumber;
+    }
+
+    /**
+     * Sets the row of the message of this transmission in the sent log of the sender.
+     * @param sequenceNumber The row of the message.
+     */
+    void setSequenceNumber(int sequenceNumber) {
+        this.sequenceNumber = sequenceNumber;
+    }
+
+    /**
+     * Returns the row of this transmission in the reception log of the receiver.
+     * @return The row of the transmission, -1 if it was not received.
+     */
+    int getReceptionRow() {
+        return receptionRow;
+    }
+
+    /**
+     * Sets the row of this transmission in the reception log of the receiver.
+     * @param receptionRow The row of the transmission.
+     */
+    void setReceptionRow(int receptionRow) {
+        this.receptionRow = receptionRow;
+    }
+
+    /**
+     * Checks if an object is the same transmission. Transmissions restored from the transmission logs are equal to
+     * the transmission of the same message to the same receiver, other transmissions are only equal to themselves.
+     * @param o The object to compare with.
+     * @return True if the object is the same transmission.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof LoraTransmission)) {
+            return false;
+        }
+        LoraTransmission other = (LoraTransmission) o;
+        return sequenceNumber >= 0 && sequenceNumber == other.sequenceNumber && sender == other.sender
+                && receiver == other.receiver && departureTime == other.departureTime;
+    }
+
+    @Override
+    public int hashCode() {
+        if (sequenceNumber < 0) {
+            return System.identityHashCode(this);
+        }
+        return Objects.hash(System.identityHashCode(sender), System.identityHashCode(receiver), sequenceNumber, departureTime);
+    }
+
 }
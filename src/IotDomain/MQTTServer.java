@@ -1,8 +1,12 @@
 package IotDomain;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.HashMap;
 import java.util.LinkedList;
+import java.util.Map;
 
 /**
  * A class represting th MQTT Server
@@ -17,6 +21,10 @@ public class MQTTServer implements Serializable{
      * The list with subscriptions.
      */
     private HashMap<Long, HashMap<Long,Integer>> subscriptions;
+    /**
+     * If the buffer only keeps the last message of devices without subscribers.
+     */
+    private boolean bounded = false;
 
     /**
      * A constructor generating a new MQTT server.
@@ -43,6 +51,12 @@ public class MQTTServer implements Serializable{
             else{
                 buffer.get(deviceEUI).add(new BufferPair<>(message,gatewayEUI));
             }
+            if(bounded && subscriptions.get(deviceEUI).isEmpty()){
+                // No application can read the earlier messages, the last one is kept to drop its duplicates.
+                while(buffer.get(deviceEUI).size() > 1){
+                    buffer.get(deviceEUI).removeFirst();
+                }
+            }
         }
         else {
             LinkedList<BufferPair<LinkedList<Byte>,Long>> list = new LinkedList<>();
@@ -52,6 +66,93 @@ public class MQTTServer implements Serializable{
         }
     }
 
+    /**
+     * Sets if the buffer is bounded, which is the case when the entities of the environment have a bounded
+     * {@link RetentionPolicy}. A bounded buffer only keeps the last message of a device without subscribers.
+     * @param bounded If the buffer is bounded.
+     */
+    public void setBounded(boolean bounded) {
+        this.bounded = bounded;
+    }
+
+    /**
+     * Publishes the messages in the buffer of another server, device by device in the order they were published.
+     * @param server The server with the messages to publish.
+     */
+    public void merge(MQTTServer server){
+        for(Long deviceEUI : server.buffer.keySet()){
+            for(BufferPair<LinkedList<Byte>,Long> pair : server.buffer.get(deviceEUI)){
+                publish(pair.getLeft(), deviceEUI, null, pair.getRight());
+            }
+        }
+    }
+
+    /**
+     * Writes the buffer and the subscriptions of the server to a snapshot.
+     * @param out The output of the snapshot.
+     * @throws IOException If the output cannot be written.
+     */
+    void writeState(DataOutput out) throws IOException {
+        out.writeBoolean(bounded);
+        out.writeInt(buffer.size());
+        for (Map.Entry<Long, LinkedList<BufferPair<LinkedList<Byte>,Long>>> device : buffer.entrySet()) {
+            SnapshotIO.writeNullableLong(out, device.getKey());
+            out.writeInt(device.getValue().size());
+            for (BufferPair<LinkedList<Byte>,Long> pair : device.getValue()) {
+                SnapshotIO.writeBytes(out, pair.getLeft());
+                SnapshotIO.writeNullableLong(out, pair.getRight());
+            }
+        }
+        out.writeInt(subscriptions.size());
+        for (Map.Entry<Long, HashMap<Long,Integer>> device : subscriptions.entrySet()) {
+            SnapshotIO.writeNullableLong(out, device.getKey());
+            out.writeInt(device.getValue().size());
+            for (Map.Entry<Long,Integer> subscription : device.getValue().entrySet()) {
+                SnapshotIO.writeNullableLong(out, subscription.getKey());
+                SnapshotIO.writeNullableInt(out, subscription.getValue());
+            }
+        }
+    }
+
+    /**
+     * Replaces the buffer and the subscriptions of the server with the ones written by
+     * {@link #writeState(DataOutput)}. The gateway EUIs in the buffer are replaced by the instances of the gateways
+     * of the environment, because {@link #publish(LinkedList, Long, Long, Long)} compares them by reference.
+     * @param in The input of the snapshot.
+     * @param euis The EUIs of the gateways of the environment, by themselves.
+     * @throws IOException If the input cannot be read.
+     */
+    void readState(DataInput in, Map<Long,Long> euis) throws IOException {
+        bounded = in.readBoolean();
+        HashMap<Long,LinkedList<BufferPair<LinkedList<Byte>,Long>>> newBuffer = new HashMap<>();
+        int devices = SnapshotIO.readCount(in);
+        for (int i = 0; i < devices; i++) {
+            Long deviceEUI = SnapshotIO.readNullableLong(in);
+            LinkedList<BufferPair<LinkedList<Byte>,Long>> messages = new LinkedList<>();
+            int count = SnapshotIO.readCount(in);
+            for (int j = 0; j < count; j++) {
+                LinkedList<Byte> message = SnapshotIO.readBytes(in);
+                Long gatewayEUI = SnapshotIO.readNullableLong(in);
+                messages.add(new BufferPair<>(message, euis.getOrDefault(gatewayEUI, gatewayEUI)));
+            }
+            newBuffer.put(deviceEUI, messages);
+        }
+        HashMap<Long, HashMap<Long,Integer>> newSubscriptions = new HashMap<>();
+        devices = SnapshotIO.readCount(in);
+        for (int i = 0; i < devices; i++) {
+            Long deviceEUI = SnapshotIO.readNullableLong(in);
+            HashMap<Long,Integer> applications = new HashMap<>();
+            int count = SnapshotIO.readCount(in);
+            for (int j = 0; j < count; j++) {
+                Long applicationEUI = SnapshotIO.readNullableLong(in);
+                applications.put(applicationEUI, SnapshotIO.readNullableInt(in));
+            }
+            newSubscriptions.put(deviceEUI, applications);
+        }
+        buffer = newBuffer;
+        subscriptions = newSubscriptions;
+    }
+
     /**
      * A method for an application to subscribe to a device.
      * @param applicationEUI The EUI of the application.
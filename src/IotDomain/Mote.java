@@ -5,12 +5,14 @@ import lombok.Getter;
 import lombok.Setter;
 import org.jxmapviewer.viewer.GeoPosition;
 
-import java.util.ArrayList;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
 import java.util.Random;
+import java.util.function.Consumer;
 
 
 /**
@@ -57,11 +59,21 @@ public class Mote extends NetworkEntity {
      */
 
     private Integer numberOfRequests;
+    /**
+     * The action taken after the sampling rate of the mote changed, or null.
+     */
+
+    private transient Consumer<Mote> samplingRateListener;
     /**
      * A Double representing the movement speed of the mote.
      */
 
     private Double movementSpeed;
+    /**
+     * The action taken after the movement speed of the mote changed, or null.
+     */
+
+    private transient Consumer<Mote> movementSpeedListener;
     /**
      * An integer representing the start offset of the mote.
      */
@@ -121,6 +133,108 @@ public class Mote extends NetworkEntity {
         this(DevEUI,xPos,yPos, environment,transmissionPower,SF,moteSensors,energyLevel,path,samplingRate, movementSpeed,Math.abs((new Random()).nextInt(5)));
     }
 
+    /**
+     * Creates a copy of the mote in another environment, without its histories.
+     * @param environment The environment of the copy.
+     * @return The copy of the mote, which continues sampling and consuming energy where the mote is.
+     */
+    Mote copyTo(Environment environment) {
+        Mote copy = new Mote(getEUI(), getXPos(), getYPos(), environment, getTransmissionPower(), getSF(),
+                new LinkedList<>(moteSensors), energyLevel, new LinkedList<>(path), samplingRate, movementSpeed, startOffset);
+        copy.numberOfRequests = numberOfRequests;
+        copy.energyConsumptionBuffer = energyConsumptionBuffer;
+        copy.enable(isEnabled());
+        return copy;
+    }
+
+    /**
+     * Copies the state of the mote and its histories of the current run to a fork of it, see
+     * {@link NetworkEntity#forkStateTo(NetworkEntity)}. The settings, the path and the sensors were copied by
+     * {@link #copyTo(Environment)} already.
+     * @param fork The fork of the mote.
+     */
+    @Override
+    void forkStateTo(NetworkEntity fork) {
+        super.forkStateTo(fork);
+        Mote mote = (Mote) fork;
+        mote.shortestDistanceToGateway = shortestDistanceToGateway;
+        mote.highestReceivedSignal = highestReceivedSignal;
+        mote.packetLoss = packetLoss;
+    }
+
+    /**
+     * Writes the settings of the mote, its path, its sensors and its histories of every run to a snapshot.
+     * @param out The output of the snapshot.
+     * @throws IOException If the output cannot be written.
+     */
+    @Override
+    void writeState(DataOutput out) throws IOException {
+        super.writeState(out);
+        SnapshotIO.writeNullableInt(out, energyLevel);
+        out.writeDouble(energyConsumptionBuffer);
+        SnapshotIO.writeNullableInt(out, samplingRate);
+        SnapshotIO.writeNullableInt(out, numberOfRequests);
+        SnapshotIO.writeNullableDouble(out, movementSpeed);
+        SnapshotIO.writeNullableInt(out, startOffset);
+        List<GeoPosition> waypoints = path == null ? new LinkedList<>() : path;
+        out.writeInt(waypoints.size());
+        for (GeoPosition waypoint : waypoints) {
+            out.writeDouble(waypoint.getLatitude());
+            out.writeDouble(waypoint.getLongitude());
+        }
+        List<MoteSensor> sensors = moteSensors == null ? new LinkedList<>() : moteSensors;
+        out.writeInt(sensors.size());
+        for (MoteSensor sensor : sensors) {
+            out.writeByte(sensor.ordinal());
+        }
+        SnapshotIO.writeNullableDouble(out, shortestDistanceToGateway);
+        SnapshotIO.writeNullableDouble(out, highestReceivedSignal);
+        SnapshotIO.writeNullableDouble(out, packetLoss);
+    }
+
+    /**
+     * Replaces the settings, the path, the sensors and the histories of the mote with the ones written by
+     * {@link #writeState(DataOutput)}. The path and the sensors are replaced in the lists the mote has, which a
+     * scenario can hold on to. The sampling rate listener is not called.
+     * @param in The input of the snapshot.
+     * @throws IOException If the input cannot be read or was written for another mote.
+     */
+    @Override
+    void readState(DataInput in) throws IOException {
+        super.readState(in);
+        energyLevel = SnapshotIO.readNullableInt(in);
+        energyConsumptionBuffer = in.readDouble();
+        samplingRate = SnapshotIO.readNullableInt(in);
+        numberOfRequests = SnapshotIO.readNullableInt(in);
+        movementSpeed = SnapshotIO.readNullableDouble(in);
+        startOffset = SnapshotIO.readNullableInt(in);
+        LinkedList<GeoPosition> waypoints = new LinkedList<>();
+        int count = SnapshotIO.readCount(in);
+        for (int i = 0; i < count; i++) {
+            waypoints.add(new GeoPosition(in.readDouble(), in.readDouble()));
+        }
+        if (path == null) {
+            path = new LinkedList<>();
+        }
+        path.clear();
+        path.addAll(waypoints);
+        LinkedList<MoteSensor> sensors = new LinkedList<>();
+        count = SnapshotIO.readCount(in);
+        for (int i = 0; i < count; i++) {
+            int ordinal = in.readUnsignedByte();
+            SnapshotIO.check(ordinal < MoteSensor.values().length, "Unknown sensor in snapshot: " + ordinal);
+            sensors.add(MoteSensor.values()[ordinal]);
+        }
+        if (moteSensors == null) {
+            moteSensors = new LinkedList<>();
+        }
+        moteSensors.clear();
+        moteSensors.addAll(sensors);
+        shortestDistanceToGateway = SnapshotIO.readNullableDouble(in);
+        highestReceivedSignal = SnapshotIO.readNullableDouble(in);
+        packetLoss = SnapshotIO.readNullableDouble(in);
+    }
+
     /**
      * A method describing what the mote should do after successfully receiving a packet.
      * @param packet The received packet.
@@ -156,6 +270,19 @@ public class Mote extends NetworkEntity {
         this.path = path;
     }
 
+    /**
+     * Sends the current values of the sensors of the mote at its position to the gateways.
+     */
+    public void sendSensorData() {
+        LinkedList<Byte> data = new LinkedList<>();
+        for (MoteSensor sensor : getSensors()) {
+            data.add(sensor.getValue(getXPos(), getYPos(), getEnvironment().getTime()));
+        }
+        Byte[] dataByte = new Byte[data.size()];
+        data.toArray(dataByte);
+        sendToGateWay(dataByte, new HashMap<>());
+    }
+
     /**
      * A function for sending a message with MAC commands to the gateways.
      * @param data The data to send in the message
@@ -186,29 +313,30 @@ public class Mote extends NetworkEntity {
             runIndex = getEnvironment().getNumberOfRuns() - 1;
         }
 
-        int transmissionsBeforeSend = getSentTransmissions(runIndex).size();
+        int transmissionsBeforeSend = getSentLog(runIndex).getEndRow();
 
         super.loraSend(message);
 
         applyEnergyConsumptionForNewTransmissions(runIndex, transmissionsBeforeSend);
     }
 
+    /**
+     * Records the energy used by the transmissions added to the sent log of a run since a given row.
+     * The rows are numbered from the start of the run, so evicted transmissions do not shift them.
+     * @param runIndex The run of the transmissions.
+     * @param transmissionsBeforeSend The end row of the sent log before the transmissions were sent.
+     */
     private void applyEnergyConsumptionForNewTransmissions(int runIndex, int transmissionsBeforeSend) {
-        LinkedList<LoraTransmission> sentTransmissionsForRun = getSentTransmissions(runIndex);
-        if (sentTransmissionsForRun.size() <= transmissionsBeforeSend) {
+        SentLog sentLog = getSentLog(runIndex);
+        List<Pair<Integer, Integer>> powerHistory = getPowerSettingHistory(runIndex);
+        if (sentLog.getEndRow() <= transmissionsBeforeSend || powerHistory.isEmpty()) {
             return;
         }
 
-        List<Pair<Integer, Integer>> powerHistory = getPowerSettingHistory(runIndex);
-
-        for (int index = transmissionsBeforeSend; index < sentTransmissionsForRun.size(); index++) {
-            if (index >= powerHistory.size()) {
-                break;
-            }
+        Integer transmissionPower = powerHistory.get(powerHistory.size() - 1).getRight();
 
-            LoraTransmission transmission = sentTransmissionsForRun.get(index);
-            Pair<Integer, Integer> powerEntry = powerHistory.get(index);
-            double consumedEnergy = calculateEnergyUsage(powerEntry.getRight(), transmission.getTimeOnAir());
+        for (int row = Math.max(transmissionsBeforeSend, sentLog.getFirstRow()); row < sentLog.getEndRow(); row++) {
+            double consumedEnergy = calculateEnergyUsage(transmissionPower, sentLog.getTimeOnAir(row));
             recordEnergyUsage(runIndex, consumedEnergy);
             if (getEnergyLevel() != null) {
                 decreaseEnergyLevel(consumedEnergy);
@@ -285,6 +413,18 @@ public class Mote extends NetworkEntity {
     public void setSamplingRate(Integer samplingRate){
         this.samplingRate = samplingRate;
         setNumberOfRequests(getSamplingRate());
+        if (samplingRateListener != null)
+            samplingRateListener.accept(this);
+    }
+
+    /**
+     * Sets the action taken after the sampling rate of the mote changed, which lets a simulation loop reschedule the
+     * next transmission of the mote.
+     * @param samplingRateListener The action, or null to take no action.
+     */
+
+    public void setSamplingRateListener(Consumer<Mote> samplingRateListener) {
+        this.samplingRateListener = samplingRateListener;
     }
 
     /**
@@ -328,6 +468,18 @@ public class Mote extends NetworkEntity {
 
     public void setMovementSpeed(Double movementSpeed) {
         this.movementSpeed = movementSpeed;
+        if (movementSpeedListener != null)
+            movementSpeedListener.accept(this);
+    }
+
+    /**
+     * Sets the action taken after the movement speed of the mote changed, which lets a simulation loop reschedule the
+     * next step of the mote.
+     * @param movementSpeedListener The action, or null to take no action.
+     */
+
+    public void setMovementSpeedListener(Consumer<Mote> movementSpeedListener) {
+        this.movementSpeedListener = movementSpeedListener;
     }
 
     /**
@@ -357,114 +509,32 @@ public class Mote extends NetworkEntity {
         energyConsumptionBuffer = 0.0;
     }
 
+    /**
+     * Calculates the packet loss of the mote in the given run from its packet counters, which are updated by the
+     * receivers of its transmissions, see {@link PacketCounters}.
+     * @param run the run index to inspect.
+     * @return packet loss ratio of the run.
+     */
     public Double calculatePacketLoss(Integer run) {
-        int receivedPackets = 0;
-
-        if (numberOfSentPackets == 0) {
-            return 0D;
-        }
-
-        for (Gateway gateway : getEnvironment().getGateways()) {
-            for (LoraTransmission receivedTransmission : gateway.getReceivedTransmissions(run)) {
-                if (receivedTransmission.getSender() == this ) {
-                    receivedPackets++;
-                }
-            }
-        }
-
-        for (Mote mote : getEnvironment().getMotes()) {
-            for (LoraTransmission receivedTransmission : mote.getReceivedTransmissions(run)) {
-                if (receivedTransmission.getSender() == this ) {
-                    receivedPackets++;
-                }
-            }
-        }
-
-        this.numberOfLostPackets = numberOfSentPackets - receivedPackets;
-
-        return (numberOfSentPackets - receivedPackets) / (double) numberOfSentPackets;
+        PacketCounters counters = getPacketCounters(run);
+        this.numberOfLostPackets = counters.getLost();
+        return counters.getPacketLoss();
     }
 
     /**
      * Calculates the packet loss for the most recent transmissions of the mote in the given run.
+     * A transmission is lost unless its first receiver received it without collision, see {@link RecentOutcomes}.
      *
      * @param run        the run index to inspect.
-     * @param windowSize number of recent transmissions to include in the calculation.
+     * @param windowSize number of recent transmissions to include in the calculation, at most
+     *                   {@link RecentOutcomes#MAX_WINDOW}.
      * @return packet loss ratio for the selected window, or 0 when insufficient data is available.
      */
     public Double calculateRecentPacketLoss(Integer run, int windowSize) {
-        if (run == null || windowSize <= 0 || getEnvironment() == null) {
-            return 0D;
-        }
-
-        LinkedList<LoraTransmission> sentTransmissions = getSentTransmissions(run);
-        if (sentTransmissions == null || sentTransmissions.isEmpty()) {
-            return 0D;
-        }
-
-        int transmissionsToInspect = Math.min(windowSize, sentTransmissions.size());
-        if (transmissionsToInspect <= 0) {
+        if (run == null || windowSize <= 0) {
             return 0D;
         }
 
-        List<Map<LoraTransmission, Boolean>> receivedTransmissionMaps = collectReceivedTransmissionMaps(run);
-
-        int successfulPackets = 0;
-        for (int i = sentTransmissions.size() - 1, inspected = 0; i >= 0 && inspected < transmissionsToInspect; i--, inspected++) {
-            LoraTransmission transmission = sentTransmissions.get(i);
-            if (wasSuccessfullyReceived(transmission, receivedTransmissionMaps)) {
-                successfulPackets++;
-            }
-        }
-
-        return (transmissionsToInspect - successfulPackets) / (double) transmissionsToInspect;
-    }
-
-    private List<Map<LoraTransmission, Boolean>> collectReceivedTransmissionMaps(Integer run) {
-        List<Map<LoraTransmission, Boolean>> receivedTransmissionMaps = new ArrayList<>();
-
-        Environment environment = getEnvironment();
-        if (environment == null) {
-            return receivedTransmissionMaps;
-        }
-
-        if (environment.getGateways() != null) {
-            for (Gateway gateway : environment.getGateways()) {
-                Map<LoraTransmission, Boolean> transmissions = gateway.getAllReceivedTransmissions(run);
-                if (transmissions != null && !transmissions.isEmpty()) {
-                    receivedTransmissionMaps.add(transmissions);
-                }
-            }
-        }
-
-        if (environment.getMotes() != null) {
-            for (Mote mote : environment.getMotes()) {
-                if (mote == null || mote == this) {
-                    continue;
-                }
-
-                Map<LoraTransmission, Boolean> transmissions = mote.getAllReceivedTransmissions(run);
-                if (transmissions != null && !transmissions.isEmpty()) {
-                    receivedTransmissionMaps.add(transmissions);
-                }
-            }
-        }
-
-        return receivedTransmissionMaps;
-    }
-
-    private boolean wasSuccessfullyReceived(LoraTransmission transmission, List<Map<LoraTransmission, Boolean>> receivedTransmissionMaps) {
-        if (transmission == null || receivedTransmissionMaps.isEmpty()) {
-            return false;
-        }
-
-        for (Map<LoraTransmission, Boolean> transmissions : receivedTransmissionMaps) {
-            Boolean collision = transmissions.get(transmission);
-            if (collision != null && !collision) {
-                return true;
-            }
-        }
-
-        return false;
+        return getRecentOutcomes(run).getPacketLoss(windowSize);
     }
 }
@@ -0,0 +1,247 @@
+package IotDomain;
+
+import org.jxmapviewer.viewer.GeoPosition;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+/**
+ * A discrete-event engine which moves the enabled motes of an environment along their paths until they all arrived.
+ * It gives the same results as advancing the clock one millisecond at a time and checking every mote, see
+ * {@link Simulation#setTickDriven(boolean)}, but every mote schedules the millisecond of its next step and the clock
+ * jumps from one step to the next. Steps at the same time are taken in the order of the ids of the motes, which is
+ * the order in which a tick visits them.
+ */
+public final class MovementScheduler {
+
+    /**
+     * The length of a tick of the clock in nanoseconds.
+     */
+    static final long TICK_NANOS = 1_000_000L;
+
+    /**
+     * The time of a step which never happens.
+     */
+    private static final long NEVER = Long.MAX_VALUE;
+
+    private final Environment environment;
+
+    /**
+     * Called after a mote took a step, to record its position and let it send.
+     */
+    private final Consumer<Mote> onMove;
+
+    /**
+     * The progress of every mote, indexed by its id.
+     */
+    private final Progress[] progress;
+
+    /**
+     * The next step of the motes, earliest first.
+     */
+    private final PriorityQueue<Progress> steps = new PriorityQueue<>(
+            Comparator.<Progress>comparingLong(p -> p.time).thenComparingInt(p -> p.mote.getId()));
+
+    /**
+     * The motes whose movement speed was set since the last step, which an adaptation can do when a mote sends.
+     */
+    private final Queue<Mote> speedChanges = new ConcurrentLinkedQueue<>();
+
+    /**
+     * The number of enabled motes which are not at the last waypoint of their path.
+     */
+    private int motesAway = 0;
+
+    /**
+     * If the last run stopped at its end time before the next step.
+     */
+    private boolean paused = false;
+
+    /**
+     * The progress of a mote along its path.
+     */
+    private static final class Progress {
+        private final Mote mote;
+        private final int[] xPositions;
+        private final int[] yPositions;
+        private int waypoint = 0;
+        private long lastStep;
+        private long time = NEVER;
+        private double speed;
+
+        private Progress(Mote mote, Environment environment, long now) {
+            this.mote = mote;
+            List<GeoPosition> path = mote.getPath();
+            xPositions = new int[path.size()];
+            yPositions = new int[path.size()];
+            int i = 0;
+            for (GeoPosition waypoint : path) {
+                xPositions[i] = environment.toMapXCoordinate(waypoint);
+                yPositions[i] = environment.toMapYCoordinate(waypoint);
+                i++;
+            }
+            lastStep = now;
+        }
+
+        private boolean isAway() {
+            int last = xPositions.length - 1;
+            return last >= 0 && (mote.getXPos() != xPositions[last] || mote.getYPos() != yPositions[last]);
+        }
+    }
+
+    /**
+     * Constructs a scheduler for the motes of an environment, starting at the current time of the environment.
+     * @param environment The environment of the motes.
+     * @param onMove The action to take after a mote moved.
+     */
+    public MovementScheduler(Environment environment, Consumer<Mote> onMove) {
+        this.environment = environment;
+        this.onMove = onMove;
+        List<Mote> motes = environment.getMotes();
+        progress = new Progress[motes.size()];
+        long now = environment.getTimeNanos();
+        for (Mote mote : motes) {
+            if (mote.isEnabled()) {
+                Progress moteProgress = new Progress(mote, environment, now);
+                progress[mote.getId()] = moteProgress;
+                if (moteProgress.isAway()) {
+                    motesAway++;
+                }
+                schedule(moteProgress, now);
+                mote.setMovementSpeedListener(speedChanges::add);
+            }
+        }
+    }
+
+    /**
+     * Moves the motes until every enabled mote is at the last waypoint of its path, and leaves the clock one tick
+     * after the last step, like the tick engine does. Stops early if no mote can take a step anymore, where the tick
+     * engine would never finish.
+     */
+    public void run() {
+        runUntil(NEVER);
+        for (Progress moteProgress : progress) {
+            if (moteProgress != null) {
+                moteProgress.mote.setMovementSpeedListener(null);
+            }
+        }
+    }
+
+    /**
+     * Moves the motes until every enabled mote is at the last waypoint of its path, or until a given time.
+     * The steps before the given time are taken and the clock is left at the given time, after which a next call
+     * continues with the remaining steps.
+     * @param endNanos The time in nanoseconds at which to stop.
+     * @return True if every enabled mote arrived, false if the given time was reached or no mote can take a step
+     *         anymore.
+     */
+    public boolean runUntil(long endNanos) {
+        long now = environment.getTimeNanos();
+        Progress first = steps.peek();
+        if (paused && first != null && first.time > now) {
+            // The clock stopped between two steps, so it jumps to the next step rather than ticking towards it.
+            environment.advanceClockTo(Math.min(first.time, endNanos));
+            now = environment.getTimeNanos();
+        }
+        paused = false;
+        while (now < endNanos) {
+            Progress next = steps.peek();
+            while (next != null && next.time == now) {
+                steps.poll();
+                step(next, now);
+                next = steps.peek();
+            }
+            environment.tick(1);
+            if (motesAway == 0 || next == null) {
+                return motesAway == 0;
+            }
+            if (next.time >= endNanos) {
+                environment.advanceClockTo(endNanos);
+                paused = true;
+                return false;
+            }
+            environment.tick((next.time - environment.getTimeNanos()) / TICK_NANOS);
+            now = next.time;
+        }
+        paused = true;
+        return false;
+    }
+
+    /**
+     * Lets a mote take a step towards its next waypoint, or go to the next waypoint if it reached it.
+     */
+    private void step(Progress moteProgress, long now) {
+        Mote mote = moteProgress.mote;
+        moteProgress.lastStep = now;
+        moteProgress.time = NEVER;
+        int waypoint = moteProgress.waypoint;
+        if (mote.getXPos() != moteProgress.xPositions[waypoint] || mote.getYPos() != moteProgress.yPositions[waypoint]) {
+            boolean wasAway = moteProgress.isAway();
+            environment.moveMote(mote, moteProgress.xPositions[waypoint], moteProgress.yPositions[waypoint]);
+            if (wasAway != moteProgress.isAway()) {
+                motesAway += wasAway ? -1 : 1;
+            }
+            onMove.accept(mote);
+        } else {
+            moteProgress.waypoint++;
+        }
+        schedule(moteProgress, now + TICK_NANOS);
+        rescheduleChangedSpeeds(mote, now);
+    }
+
+    /**
+     * Reschedules the motes whose movement speed changed since their step was scheduled. A mote after the given mote
+     * in the current tick can still take a step in it.
+     */
+    private void rescheduleChangedSpeeds(Mote current, long now) {
+        Mote mote;
+        while ((mote = speedChanges.poll()) != null) {
+            Progress moteProgress = progress[mote.getId()];
+            if (moteProgress != null && moteProgress.mote == mote
+                    && Double.compare(mote.getMovementSpeed(), moteProgress.speed) != 0) {
+                if (moteProgress.time != NEVER) {
+                    steps.remove(moteProgress);
+                }
+                schedule(moteProgress, moteProgress.mote.getId() > current.getId() ? now : now + TICK_NANOS);
+            }
+        }
+    }
+
+    /**
+     * Schedules the next step of a mote at the first tick from a given time on at which the tick engine would let it
+     * take a step: when its movement interval passed since its last step and its start offset passed.
+     */
+    private void schedule(Progress moteProgress, long from) {
+        Mote mote = moteProgress.mote;
+        moteProgress.speed = mote.getMovementSpeed();
+        moteProgress.time = NEVER;
+        if (moteProgress.waypoint >= moteProgress.xPositions.length) {
+            return;
+        }
+        double interval = 1 / mote.getMovementSpeed() * 1000;
+        long ticks = Math.max(0, (from - moteProgress.lastStep) / TICK_NANOS);
+        if (!(interval < (ticks * TICK_NANOS) / 100000)) {
+            // Only the infinite interval of a mote that does not move never passes.
+            if (!(interval < Long.MAX_VALUE / TICK_NANOS / 100)) {
+                return;
+            }
+            ticks = Math.max(ticks, (long) Math.floor(interval / 10));
+            while (!(interval < (ticks * TICK_NANOS) / 100000)) {
+                ticks++;
+            }
+        }
+        long time = moteProgress.lastStep + ticks * TICK_NANOS;
+        // The start offset in tenths of milliseconds, overflowing like the tick engine.
+        int startOffset = Math.abs(mote.getStartOffset()) * 100000;
+        long start = ((long) startOffset + 1) * 100000;
+        if (time < start) {
+            time += (start - time + TICK_NANOS - 1) / TICK_NANOS * TICK_NANOS;
+        }
+        moteProgress.time = time;
+        steps.add(moteProgress);
+    }
+}
@@ -5,12 +5,15 @@ package IotDomain;
 
 import lombok.Getter;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.io.Serializable;
-import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 
 
 /**
@@ -40,6 +43,11 @@ public abstract class NetworkEntity implements Serializable{
      * An unsinged long representing the 64 bit unique identifier.
      */
     private final Long EUI;
+    /**
+     * The dense identifier of the entity among the motes or the gateways of its environment,
+     * which is its index in {@link Environment#getMotes()} or {@link Environment#getGateways()}.
+     */
+    private int id = -1;
     /**
      * The x-coordinate of the entity
      */
@@ -61,29 +69,59 @@ public abstract class NetworkEntity implements Serializable{
      */
     private final Double transmissionPowerThreshold;
     /**
-     *  A map with the transmissions received by the entity and if they collided with an other packet.
+     *  A log of the transmissions received by the entity in every run and if they collided with an other packet.
+     */
+    private LinkedList<ReceptionLog> receptionLogs = new LinkedList<>();
+    /**
+     *  An index over the received transmissions of every run, used to find collision candidates.
+     *  It only holds the transmissions which can still collide with a new one.
      */
-    private LinkedList<LinkedHashMap<LoraTransmission,Boolean>> receivedTransmissions = new LinkedList<>();
+    private LinkedList<CollisionIndex> collisionIndexes = new LinkedList<>();
     /**
-     *  A list with the transmissions transmitted by the entity
+     *  A log of the transmissions transmitted by the entity in every run.
      */
-    private LinkedList<LinkedList<LoraTransmission>> sentTransmissions = new LinkedList<>();
+    private LinkedList<SentLog> sentLogs = new LinkedList<>();
 
     /**
      * Stores the per-transmission energy usage history for each run.
      */
     private LinkedList<LinkedList<Double>> usedEnergyHistory;
 
+    /**
+     * Stores the time in nanoseconds of every sample of the energy usage history for each run.
+     */
+    private LinkedList<LinkedList<Long>> usedEnergyTimes;
+
     /**
      * Stores the cumulative energy usage for each run.
      */
     private LinkedList<Double> totalEnergyConsumedPerRun;
 
+    /**
+     * The outcomes of the transmissions sent by the entity in every run.
+     */
+    private LinkedList<PacketCounters> packetCounters = new LinkedList<>();
+
+    /**
+     * The outcomes of the most recent messages sent by the entity in every run.
+     */
+    private LinkedList<RecentOutcomes> recentOutcomes = new LinkedList<>();
+
     /**
      * If the mote is enabled in the current simulation.
      */
     private Boolean enabled;
 
+    /**
+     * The policy bounding the histories of the current run.
+     */
+    private RetentionPolicy retentionPolicy = RetentionPolicy.UNBOUNDED;
+
+    /**
+     * The rollups of the samples evicted from the histories of every run.
+     */
+    private LinkedList<HistoryRollups> historyRollups = new LinkedList<>();
+
     /**
      *  A constructor generating a Network with a given x-position, y-position, environment and transmission power.
      * @param xPos  The x-coordinate of the entity on the map.
@@ -125,10 +163,16 @@ public abstract class NetworkEntity implements Serializable{
         powerSettingHistory.add(new LinkedList<>());
         spreadingFactorHistory = new LinkedList<>();
         spreadingFactorHistory.add(new LinkedList<>());
-        receivedTransmissions.add(new LinkedHashMap<>());
-        sentTransmissions.add(new LinkedList<>());
+        receptionLogs.add(new ReceptionLog(this, 0));
+        collisionIndexes.add(new CollisionIndex());
+        sentLogs.add(new SentLog(this));
+        historyRollups.add(new HistoryRollups());
+        packetCounters.add(new PacketCounters());
+        recentOutcomes.add(new RecentOutcomes());
         usedEnergyHistory = new LinkedList<>();
         usedEnergyHistory.add(new LinkedList<>());
+        usedEnergyTimes = new LinkedList<>();
+        usedEnergyTimes.add(new LinkedList<>());
         totalEnergyConsumedPerRun = new LinkedList<>();
         totalEnergyConsumedPerRun.add(0.0);
         isTransmitting =false;
@@ -170,36 +214,147 @@ public abstract class NetworkEntity implements Serializable{
     }
 
     /**
-     *  Returns The transmissions sent by the entity.
+     *  Returns The transmissions sent by the entity, as a read-only view of its sent log.
      * @return The transmissions sent by the entity.
      */
     
     
-    public LinkedList<LoraTransmission> getSentTransmissions(Integer run) {
-        return sentTransmissions.get(run);
+    public List<LoraTransmission> getSentTransmissions(Integer run) {
+        return sentLogs.get(run).asList();
     }
 
     /**
-     * Returns all transmissions with collisions included
+     * Returns all transmissions with collisions included, as a read-only view of the reception log.
      * @return all transmissions with collisions included
      */
-    public LinkedHashMap<LoraTransmission,Boolean> getAllReceivedTransmissions(Integer run){
-        return receivedTransmissions.get(run);
+    public Map<LoraTransmission,Boolean> getAllReceivedTransmissions(Integer run){
+        return receptionLogs.get(run).asMap();
     }
 
     /**
      * Returns only the transmission actually received by the gateway.
      * @return only the transmission actually received by the gateway.
      */
-    public LinkedList<LoraTransmission> getReceivedTransmissions(Integer run){
-        LinkedList<LoraTransmission> transmissions = new LinkedList<>();
-        for(LoraTransmission transmission : getAllReceivedTransmissions(run).keySet()){
-            if(!getAllReceivedTransmissions(run).get(transmission))
-                transmissions.add(transmission);
+    public List<LoraTransmission> getReceivedTransmissions(Integer run){
+        ReceptionLog log = receptionLogs.get(run);
+        List<LoraTransmission> transmissions = new ArrayList<>();
+        for(int row = log.getFirstRow(); row < log.getEndRow(); row++){
+            if(!log.isCollided(row) && !log.isExpired(row))
+                transmissions.add(log.getTransmission(row));
         }
         return transmissions;
     }
 
+    /**
+     * Returns the last transmission actually received by the entity from a given sender,
+     * without creating the earlier transmissions.
+     * @param run The run of the transmission.
+     * @param sender The sender of the transmission, or null for any sender.
+     * @return The last transmission received from the sender, null if there is none.
+     */
+    public LoraTransmission getLastReceivedTransmission(Integer run, NetworkEntity sender){
+        ReceptionLog log = receptionLogs.get(run);
+        for(int row = log.getEndRow() - 1; row >= log.getFirstRow(); row--){
+            if(!log.isCollided(row) && (sender == null || log.getSender(row) == sender) && !log.isExpired(row))
+                return log.getTransmission(row);
+        }
+        return null;
+    }
+
+    /**
+     * Returns the log of the transmissions sent by the entity.
+     * @param run The run of the log.
+     * @return The sent log of the run.
+     */
+    public SentLog getSentLog(Integer run) {
+        return sentLogs.get(run);
+    }
+
+    /**
+     * Returns the log of the transmissions received by the entity.
+     * @param run The run of the log.
+     * @return The reception log of the run.
+     */
+    public ReceptionLog getReceptionLog(Integer run) {
+        return receptionLogs.get(run);
+    }
+
+    /**
+     * Returns the outcomes of the transmissions sent by the entity, which are counted as they are decided.
+     * @param run The run of the transmissions.
+     * @return The packet counters of the run.
+     */
+    public PacketCounters getPacketCounters(Integer run) {
+        return packetCounters.get(run);
+    }
+
+    /**
+     * Returns the outcomes of the most recent messages sent by the entity.
+     * @param run The run of the messages.
+     * @return The recent outcomes of the run.
+     */
+    public RecentOutcomes getRecentOutcomes(Integer run) {
+        return recentOutcomes.get(run);
+    }
+
+    /**
+     * Returns the rollups of the samples evicted from the histories of the entity.
+     * @param run The run of the histories.
+     * @return The rollups of the run.
+     */
+    public HistoryRollups getRollups(Integer run) {
+        return historyRollups.get(run);
+    }
+
+    /**
+     * Returns the policy bounding the histories of the current run.
+     * @return The retention policy of the entity.
+     */
+    public RetentionPolicy getRetentionPolicy() {
+        return retentionPolicy;
+    }
+
+    /**
+     * Sets the policy bounding the histories of the current run. Samples which are no longer retained are evicted
+     * the next time the entity sends, receives or uses energy.
+     * @param retentionPolicy The new retention policy.
+     */
+    public void setRetentionPolicy(RetentionPolicy retentionPolicy) {
+        this.retentionPolicy = retentionPolicy;
+    }
+
+    /**
+     * Evicts the samples of the current run which are no longer retained by the retention policy, folding them into
+     * the rollups of the run. The number of sent and lost packets and the total energy usage are not affected.
+     * Received transmissions which can still collide with a new transmission are kept.
+     */
+    public void applyRetention() {
+        if (retentionPolicy.isUnbounded()) {
+            return;
+        }
+        long now = getEnvironment().getTimeNanos();
+        HistoryRollups rollups = historyRollups.getLast();
+        List<Pair<Integer,Integer>> powerSettings = powerSettingHistory.getLast();
+        List<Integer> spreadingFactors = spreadingFactorHistory.getLast();
+        while (!powerSettings.isEmpty() && !retentionPolicy.retains(powerSettings.size(),
+                powerSettings.get(0).getLeft() * 1000000000L, now)) {
+            long time = powerSettings.get(0).getLeft() * 1000000000L;
+            rollups.getPowerSettings().add(retentionPolicy, time, powerSettings.remove(0).getRight());
+            if (!spreadingFactors.isEmpty()) {
+                rollups.getSpreadingFactors().add(retentionPolicy, time, spreadingFactors.remove(0));
+            }
+        }
+        ensureEnergyHistoryInitialized();
+        LinkedList<Double> usedEnergy = usedEnergyHistory.getLast();
+        LinkedList<Long> usedEnergyTime = usedEnergyTimes.getLast();
+        while (!usedEnergyTime.isEmpty() && !retentionPolicy.retains(usedEnergyTime.size(), usedEnergyTime.getFirst(), now)) {
+            rollups.getUsedEnergy().add(retentionPolicy, usedEnergyTime.removeFirst(), usedEnergy.removeFirst());
+        }
+        sentLogs.getLast().evict(retentionPolicy, now, rollups.getTimesOnAir());
+        receptionLogs.getLast().evict(retentionPolicy, now, collisionIndexes.getLast().getFirstReceptionRow(),
+                rollups.getReceivedPowers());
+    }
+
     /**
      * Checks if a transmission power is valid.
      * @param transmissionPower The transmission power to check.
@@ -226,27 +381,85 @@ public abstract class NetworkEntity implements Serializable{
 
     /**
      * A method for receiving a packet, which checks if it can detect the packet and then adds it to the reeived packets.
+     * Only the received transmissions sharing a spreading factor and an airtime slot with the packet are checked
+     * for collisions, see {@link CollisionIndex}.
      * @param transmission The transmission to receiveTransmission.
      * @Effect if the package has a high enough transmission power, it is added using packetStrengthHighEnough().
      */
     public void receiveTransmission(LoraTransmission transmission) {
         if(packetStrengthHighEnough(transmission)){
             Boolean collision = false;
-            for (LoraTransmission receivedTransmission: getAllReceivedTransmissions(getEnvironment().getNumberOfRuns()-1).keySet()) {
+            ReceptionLog log = receptionLogs.getLast();
+            CollisionIndex collisionIndex = collisionIndexes.getLast();
+            collisionIndex.removeBefore(transmission.getDepartureTimeNanos());
+            ArrayList<LoraTransmission> candidates = new ArrayList<>();
+            collisionIndex.collectCandidates(transmission, candidates);
+            for (LoraTransmission receivedTransmission: candidates) {
                 if(collision(transmission,receivedTransmission)){
-                    this.receivedTransmissions.getLast().put(receivedTransmission,true);
+                    if(!log.isCollided(receivedTransmission.getReceptionRow())){
+                        log.setCollided(receivedTransmission.getReceptionRow());
+                        receivedTransmission.getSender().countOutcome(Partition.Outcome.LATER_COLLISION,
+                                receivedTransmission.getSequenceNumber(), isFirstReceiverOf(receivedTransmission.getSender()));
+                    }
                     collision = true;
                 }
             }
-            receivedTransmissions.getLast().put(transmission,collision);
-            if(!collision){
+            transmission.setReceptionRow(log.add(transmission, collision));
+            collisionIndex.add(transmission);
+            if(collision){
+                transmission.getSender().countOutcome(Partition.Outcome.COLLIDED, transmission.getSequenceNumber(), false);
+            }
+            else{
+                transmission.getSender().countOutcome(Partition.Outcome.RECEIVED, transmission.getSequenceNumber(),
+                        isFirstReceiverOf(transmission.getSender()));
                 handleMacCommands(transmission.getContent());
                 OnReceive(transmission.getContent().getPayload(), transmission.getContent().getSenderEUI(), transmission.getContent().getDesignatedReceiverEUI());
 
             }
+            applyRetention();
         }
     }
 
+    /**
+     * Counts the outcome of a transmission of the entity at one of its receivers. In a partitioned environment, the
+     * outcome of a transmission of an entity which the partition does not own is passed to the partition instead.
+     * @param outcome The outcome of the transmission.
+     * @param sequenceNumber The row of the message in the sent log of the entity.
+     * @param firstReceiver Whether the receiver is the first receiver of the entity, which decides the recent outcome
+     *                      of the message.
+     */
+    public void countOutcome(Partition.Outcome outcome, int sequenceNumber, boolean firstReceiver) {
+        Partition partition = getEnvironment().getPartition();
+        if (partition != null && !partition.owns(this)) {
+            partition.forwardOutcome(this, outcome, sequenceNumber, firstReceiver);
+            return;
+        }
+        switch (outcome) {
+            case RECEIVED:
+                packetCounters.getLast().countReceived();
+                if (firstReceiver)
+                    recentOutcomes.getLast().setOutcome(sequenceNumber, true);
+                break;
+            case COLLIDED:
+                packetCounters.getLast().countCollided();
+                break;
+            case LATER_COLLISION:
+                packetCounters.getLast().countLaterCollision();
+                if (firstReceiver)
+                    recentOutcomes.getLast().setOutcome(sequenceNumber, false);
+                break;
+        }
+    }
+
+    /**
+     * Checks if the entity is the first receiver of the messages of a sender, which decides their recent outcome.
+     * @param sender The sender of the messages.
+     * @return True if the entity is the first receiver of the sender.
+     */
+    private boolean isFirstReceiverOf(NetworkEntity sender) {
+        return getEnvironment().getFirstReceiver(sender) == this;
+    }
+
     /**
      * A function for handling MAC commands.
      * @param packet the packets with MAC commands
@@ -322,6 +535,7 @@ public abstract class NetworkEntity implements Serializable{
     public void setXPos(Integer xPos) {
         if(environment.isValidXpos(xPos)){
             this.xPos = xPos;
+            environment.entityMoved(this);
         }
     }
 
@@ -344,6 +558,7 @@ public abstract class NetworkEntity implements Serializable{
     public void setYPos(Integer yPos) {
         if(environment.isValidYpos(yPos)){
             this.yPos = yPos;
+            environment.entityMoved(this);
         }
     }
 
@@ -393,30 +608,44 @@ public abstract class NetworkEntity implements Serializable{
     Integer numberOfLostPackets = 0;
 
     /**
-     * A method which sends a message to all gateways in the environment
+     * A method which sends a message to all gateways in the environment, and to all other motes unless the
+     * environment only lets gateways receive.
      * @param message The message to send.
      */
     protected void loraSend(LoraWanPacket message){
         if(!isTransmitting) {
             LinkedList<LoraTransmission> packetsToSend = new LinkedList<>();
-            powerSettingHistory.getLast().add(new Pair<>(getEnvironment().getTime().toSecondOfDay(),getTransmissionPower()));
+            powerSettingHistory.getLast().add(new Pair<>((int) (getEnvironment().getTimeNanos() / 1000000000L),getTransmissionPower()));
             spreadingFactorHistory.getLast().add(getSF());
-            for (Gateway gateway : getEnvironment().getGateways()) {
-                if (gateway != this)
-                    packetsToSend.add(new LoraTransmission(this, gateway, getTransmissionPower(), 125, getSF(), message));
+            for (NetworkEntity receiver : getEnvironment().getReceivers(this)) {
+                packetsToSend.add(new LoraTransmission(this, receiver, getTransmissionPower(), 125, getSF(), message));
             }
-            for (Mote mote : getEnvironment().getMotes()) {
-                if (mote != this)
-                    packetsToSend.add(new LoraTransmission(this, mote, getTransmissionPower(), 125, getSF(), message));
-            }
-            sentTransmissions.getLast().add(packetsToSend.getFirst());
+            LoraTransmission firstTransmission = packetsToSend.peekFirst();
+            int sequenceNumber = firstTransmission == null ? -1 : logSentTransmission(firstTransmission);
+            numberOfSentPackets += getEnvironment().getNumberOfReceivers(this);
+            packetCounters.getLast().countSent(getEnvironment().getNumberOfReceivers(this));
             for (LoraTransmission packet : packetsToSend) {
+                packet.setSequenceNumber(sequenceNumber);
                 packet.depart();
-                numberOfSentPackets++;
             }
+            if (firstTransmission != null) {
+                sentLogs.getLast().setPower(sequenceNumber, firstTransmission.getTransmissionPower());
+            }
+            applyRetention();
         }
     }
 
+    /**
+     * Adds a transmission to the sent log and its message to the recent outcomes.
+     * @param transmission The transmission to add.
+     * @return The row of the transmission in the sent log.
+     */
+    int logSentTransmission(LoraTransmission transmission) {
+        int row = sentLogs.getLast().add(transmission);
+        recentOutcomes.getLast().addMessage(row);
+        return row;
+    }
+
     /**
      * Checks if two packets collide according to the model
      * @param a The first packet.
@@ -428,9 +657,10 @@ public abstract class NetworkEntity implements Serializable{
 
             if(a.getTransmissionPower() - b.getTransmissionPower() < getTransmissionPowerThreshold()){
 
-                if(Math.abs(Duration.between(a.getDepartureTime().plusNanos(a.getTimeOnAir().longValue()*1000000/2),
-                        b.getDepartureTime().plusNanos(b.getTimeOnAir().longValue()*1000000/2)).toNanos())
-                        < a.getTimeOnAir().longValue()*1000000/2 + b.getTimeOnAir().longValue()*1000000/2){
+                long halfTimeOnAirA = a.getTimeOnAir().longValue()*1000000/2;
+                long halfTimeOnAirB = b.getTimeOnAir().longValue()*1000000/2;
+                if(Math.abs((b.getDepartureTimeNanos() + halfTimeOnAirB) - (a.getDepartureTimeNanos() + halfTimeOnAirA))
+                        < halfTimeOnAirA + halfTimeOnAirB){
                     return true;
                 }
             }
@@ -447,6 +677,22 @@ public abstract class NetworkEntity implements Serializable{
         return packet.getTransmissionPower() > -174 - 10 * Math.log10(packet.getBandwidth()) - (2.5 * packet.getSpreadingFactor() - 10);
     }
 
+    /**
+     * Returns the dense identifier of the entity among the motes or the gateways of its environment.
+     * @return The index of the entity in the motes or the gateways of its environment, -1 if it was not added.
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Sets the dense identifier of the entity when it is added to its environment.
+     * @param id The index of the entity in the motes or the gateways of its environment.
+     */
+    void setId(int id) {
+        this.id = id;
+    }
+
     /**
      * Returns the unique identifier.
      * @return the unique identifier.
@@ -482,7 +728,11 @@ public abstract class NetworkEntity implements Serializable{
         ensureEnergyHistoryCapacity(runIndex);
 
         usedEnergyHistory.get(runIndex).add(consumedEnergy);
+        usedEnergyTimes.get(runIndex).add(getEnvironment().getTimeNanos());
         totalEnergyConsumedPerRun.set(runIndex, totalEnergyConsumedPerRun.get(runIndex) + consumedEnergy);
+        if (runIndex == usedEnergyHistory.size() - 1) {
+            applyRetention();
+        }
     }
 
     public double getTotalUsedEnergy(int runIndex) {
@@ -502,6 +752,10 @@ public abstract class NetworkEntity implements Serializable{
             usedEnergyHistory.add(new LinkedList<>());
         }
 
+        while (runIndex >= usedEnergyTimes.size()) {
+            usedEnergyTimes.add(new LinkedList<>());
+        }
+
         while (runIndex >= totalEnergyConsumedPerRun.size()) {
             totalEnergyConsumedPerRun.add(0.0);
         }
@@ -515,6 +769,13 @@ public abstract class NetworkEntity implements Serializable{
             usedEnergyHistory.add(new LinkedList<>());
         }
 
+        if (usedEnergyTimes == null) {
+            usedEnergyTimes = new LinkedList<>();
+        }
+        while (usedEnergyTimes.size() < usedEnergyHistory.size()) {
+            usedEnergyTimes.add(new LinkedList<>());
+        }
+
         if (totalEnergyConsumedPerRun == null) {
             totalEnergyConsumedPerRun = new LinkedList<>();
         }
@@ -532,12 +793,22 @@ public abstract class NetworkEntity implements Serializable{
         powerSettingHistory.add(new LinkedList<>());
         spreadingFactorHistory.clear();
         spreadingFactorHistory.add(new LinkedList<>());
-        receivedTransmissions.clear();
-        receivedTransmissions.add(new LinkedHashMap<>());
-        sentTransmissions.clear();
-        sentTransmissions.add(new LinkedList<>());
+        receptionLogs.clear();
+        receptionLogs.add(new ReceptionLog(this, 0));
+        collisionIndexes.clear();
+        collisionIndexes.add(new CollisionIndex());
+        sentLogs.clear();
+        sentLogs.add(new SentLog(this));
+        historyRollups.clear();
+        historyRollups.add(new HistoryRollups());
+        packetCounters.clear();
+        recentOutcomes.clear();
+        packetCounters.add(new PacketCounters());
+        recentOutcomes.add(new RecentOutcomes());
         usedEnergyHistory.clear();
         usedEnergyHistory.add(new LinkedList<>());
+        usedEnergyTimes.clear();
+        usedEnergyTimes.add(new LinkedList<>());
         totalEnergyConsumedPerRun.clear();
         totalEnergyConsumedPerRun.add(0.0);
     }
@@ -549,12 +820,181 @@ public abstract class NetworkEntity implements Serializable{
         ensureEnergyHistoryInitialized();
         powerSettingHistory.add(new LinkedList<>());
         spreadingFactorHistory.add(new LinkedList<>());
-        receivedTransmissions.add(new LinkedHashMap<>());
-        sentTransmissions.add(new LinkedList<>());
+        receptionLogs.add(new ReceptionLog(this, receptionLogs.size()));
+        collisionIndexes.add(new CollisionIndex());
+        sentLogs.add(new SentLog(this));
+        historyRollups.add(new HistoryRollups());
+        packetCounters.add(new PacketCounters());
+        recentOutcomes.add(new RecentOutcomes());
         usedEnergyHistory.add(new LinkedList<>());
+        usedEnergyTimes.add(new LinkedList<>());
         totalEnergyConsumedPerRun.add(0.0);
     }
 
+    /**
+     * Replaces the histories of a run with the histories of the only run of a copy of the entity, which ran in a copy
+     * of the environment. The logs of the copy are moved to the entity and refer to the entities of its environment.
+     * The received transmissions of the run can no longer collide with later ones.
+     * @param run The run to replace.
+     * @param copy The copy of the entity.
+     */
+    void mergeRun(int run, NetworkEntity copy){
+        ensureEnergyHistoryCapacity(run);
+        powerSettingHistory.set(run, copy.powerSettingHistory.getFirst());
+        spreadingFactorHistory.set(run, copy.spreadingFactorHistory.getFirst());
+        ReceptionLog receptionLog = copy.receptionLogs.getFirst();
+        receptionLog.rebind(this, run);
+        receptionLogs.set(run, receptionLog);
+        collisionIndexes.set(run, new CollisionIndex());
+        SentLog sentLog = copy.sentLogs.getFirst();
+        sentLog.rebind(this);
+        sentLogs.set(run, sentLog);
+        historyRollups.set(run, copy.historyRollups.getFirst());
+        packetCounters.set(run, copy.packetCounters.getFirst());
+        recentOutcomes.set(run, copy.recentOutcomes.getFirst());
+        usedEnergyHistory.set(run, copy.usedEnergyHistory.getFirst());
+        usedEnergyTimes.set(run, copy.usedEnergyTimes.getFirst());
+        totalEnergyConsumedPerRun.set(run, copy.totalEnergyConsumedPerRun.getFirst());
+    }
+
+    /**
+     * Copies the state of the entity and its histories of the current run to a fork of it, the only run of the fork.
+     * The sent and reception logs of the fork share their retained rows with the logs of the entity, the other
+     * histories are copied. The fork must be in a fork of the environment which already holds the forks of all
+     * entities.
+     * @param fork The fork of the entity, with the same id in the fork of the environment.
+     */
+    void forkStateTo(NetworkEntity fork){
+        ensureEnergyHistoryInitialized();
+        fork.isTransmitting = isTransmitting;
+        fork.numberOfSentPackets = numberOfSentPackets;
+        fork.numberOfLostPackets = numberOfLostPackets;
+        fork.retentionPolicy = retentionPolicy;
+        fork.powerSettingHistory.set(0, new LinkedList<>(powerSettingHistory.getLast()));
+        fork.spreadingFactorHistory.set(0, new LinkedList<>(spreadingFactorHistory.getLast()));
+        fork.receptionLogs.set(0, receptionLogs.getLast().forkTo(fork, 0));
+        fork.collisionIndexes.set(0, collisionIndexes.getLast().forkTo(fork));
+        fork.sentLogs.set(0, sentLogs.getLast().forkTo(fork));
+        fork.historyRollups.set(0, historyRollups.getLast().copy());
+        fork.packetCounters.set(0, packetCounters.getLast().copy());
+        fork.recentOutcomes.set(0, recentOutcomes.getLast().copy());
+        fork.usedEnergyHistory.set(0, new LinkedList<>(usedEnergyHistory.getLast()));
+        fork.usedEnergyTimes.set(0, new LinkedList<>(usedEnergyTimes.getLast()));
+        fork.totalEnergyConsumedPerRun.set(0, totalEnergyConsumedPerRun.getLast());
+    }
+
+    /**
+     * Writes the settings of the entity and its histories of every run to a snapshot.
+     * @param out The output of the snapshot.
+     * @throws IOException If the output cannot be written.
+     */
+    void writeState(DataOutput out) throws IOException {
+        ensureEnergyHistoryInitialized();
+        SnapshotIO.writeNullableLong(out, EUI);
+        out.writeInt(xPos);
+        out.writeInt(yPos);
+        SnapshotIO.writeNullableInt(out, transmissionPower);
+        out.writeInt(SF);
+        out.writeBoolean(enabled);
+        out.writeBoolean(isTransmitting);
+        out.writeInt(numberOfSentPackets);
+        out.writeInt(numberOfLostPackets);
+        retentionPolicy.writeState(out);
+        out.writeInt(sentLogs.size());
+        for (int run = 0; run < sentLogs.size(); run++) {
+            List<Pair<Integer,Integer>> powerSettings = powerSettingHistory.get(run);
+            out.writeInt(powerSettings.size());
+            for (Pair<Integer,Integer> powerSetting : powerSettings) {
+                out.writeInt(powerSetting.getLeft());
+                out.writeInt(powerSetting.getRight());
+            }
+            List<Integer> spreadingFactors = spreadingFactorHistory.get(run);
+            out.writeInt(spreadingFactors.size());
+            for (Integer spreadingFactor : spreadingFactors) {
+                out.writeInt(spreadingFactor);
+            }
+            sentLogs.get(run).writeState(out);
+            receptionLogs.get(run).writeState(out);
+            collisionIndexes.get(run).writeState(out);
+            historyRollups.get(run).writeState(out);
+            packetCounters.get(run).writeState(out);
+            recentOutcomes.get(run).writeState(out);
+            List<Double> usedEnergy = run < usedEnergyHistory.size() ? usedEnergyHistory.get(run) : new LinkedList<>();
+            List<Long> usedEnergyTime = run < usedEnergyTimes.size() ? usedEnergyTimes.get(run) : new LinkedList<>();
+            out.writeInt(usedEnergy.size());
+            for (int i = 0; i < usedEnergy.size(); i++) {
+                out.writeDouble(usedEnergy.get(i));
+                out.writeLong(i < usedEnergyTime.size() ? usedEnergyTime.get(i) : 0L);
+            }
+            out.writeDouble(getTotalUsedEnergy(run));
+        }
+    }
+
+    /**
+     * Replaces the settings and the histories of the entity with the ones written by
+     * {@link #writeState(DataOutput)} for the entity with the same EUI and id, in an environment with the same
+     * entities.
+     * @param in The input of the snapshot.
+     * @throws IOException If the input cannot be read or was written for another entity.
+     */
+    void readState(DataInput in) throws IOException {
+        Long snapshotEUI = SnapshotIO.readNullableLong(in);
+        SnapshotIO.check(EUI == null ? snapshotEUI == null : EUI.equals(snapshotEUI),
+                "The snapshot holds entity " + snapshotEUI + " instead of " + EUI);
+        setXPos(in.readInt());
+        setYPos(in.readInt());
+        transmissionPower = SnapshotIO.readNullableInt(in);
+        setSF(in.readInt());
+        enabled = in.readBoolean();
+        isTransmitting = in.readBoolean();
+        numberOfSentPackets = in.readInt();
+        numberOfLostPackets = in.readInt();
+        retentionPolicy = RetentionPolicy.readState(in);
+        int runs = SnapshotIO.readCount(in);
+        SnapshotIO.check(runs == environment.getNumberOfRuns(), "The snapshot holds " + runs + " runs of entity " + EUI);
+        powerSettingHistory = new LinkedList<>();
+        spreadingFactorHistory = new LinkedList<>();
+        sentLogs = new LinkedList<>();
+        receptionLogs = new LinkedList<>();
+        collisionIndexes = new LinkedList<>();
+        historyRollups = new LinkedList<>();
+        packetCounters = new LinkedList<>();
+        recentOutcomes = new LinkedList<>();
+        usedEnergyHistory = new LinkedList<>();
+        usedEnergyTimes = new LinkedList<>();
+        totalEnergyConsumedPerRun = new LinkedList<>();
+        for (int run = 0; run < runs; run++) {
+            LinkedList<Pair<Integer,Integer>> powerSettings = new LinkedList<>();
+            int count = SnapshotIO.readCount(in);
+            for (int i = 0; i < count; i++) {
+                powerSettings.add(new Pair<>(in.readInt(), in.readInt()));
+            }
+            powerSettingHistory.add(powerSettings);
+            LinkedList<Integer> spreadingFactors = new LinkedList<>();
+            count = SnapshotIO.readCount(in);
+            for (int i = 0; i < count; i++) {
+                spreadingFactors.add(in.readInt());
+            }
+            spreadingFactorHistory.add(spreadingFactors);
+            sentLogs.add(SentLog.readState(in, this));
+            receptionLogs.add(ReceptionLog.readState(in, this, run));
+            collisionIndexes.add(CollisionIndex.readState(in, this));
+            historyRollups.add(HistoryRollups.readState(in));
+            packetCounters.add(PacketCounters.readState(in));
+            recentOutcomes.add(RecentOutcomes.readState(in));
+            LinkedList<Double> usedEnergy = new LinkedList<>();
+            LinkedList<Long> usedEnergyTime = new LinkedList<>();
+            count = SnapshotIO.readCount(in);
+            for (int i = 0; i < count; i++) {
+                usedEnergy.add(in.readDouble());
+                usedEnergyTime.add(in.readLong());
+            }
+            usedEnergyHistory.add(usedEnergy);
+            usedEnergyTimes.add(usedEnergyTime);
+            totalEnergyConsumedPerRun.add(in.readDouble());
+        }
+    }
+
     /**
      * Returns if the entity is enabled in this run.
      * @return If the entity is enabled in this run.
@@ -0,0 +1,128 @@
+package IotDomain;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.Serializable;
+
+/**
+ * The outcomes of the transmissions sent by an entity in a single run, counted per receiver.
+ * A transmission is counted as received or collided when its receiver decides the outcome, and moves from received
+ * to collided when a later transmission collides with it. Transmissions which are too weak to be detected, or which
+ * never reach a receiver in range, are only counted as sent.
+ */
+public class PacketCounters implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private int sent = 0;
+    private int received = 0;
+    private int collided = 0;
+
+    /**
+     * Counts transmissions which were sent.
+     * @param transmissions The number of sent transmissions.
+     */
+    void countSent(int transmissions) {
+        sent += transmissions;
+    }
+
+    /**
+     * Counts a transmission which was received without collision.
+     */
+    void countReceived() {
+        received++;
+    }
+
+    /**
+     * Counts a transmission which collided when it was received.
+     */
+    void countCollided() {
+        collided++;
+    }
+
+    /**
+     * Moves a received transmission to the collided ones, when a later transmission collides with it.
+     */
+    void countLaterCollision() {
+        received--;
+        collided++;
+    }
+
+    /**
+     * Writes the counters to a snapshot.
+     * @param out The output of the snapshot.
+     * @throws IOException If the output cannot be written.
+     */
+    void writeState(DataOutput out) throws IOException {
+        out.writeInt(sent);
+        out.writeInt(received);
+        out.writeInt(collided);
+    }
+
+    /**
+     * Reads counters written by {@link #writeState(DataOutput)}.
+     * @param in The input of the snapshot.
+     * @return The counters.
+     * @throws IOException If the input cannot be read.
+     */
+    static PacketCounters readState(DataInput in) throws IOException {
+        PacketCounters counters = new PacketCounters();
+        counters.sent = in.readInt();
+        counters.received = in.readInt();
+        counters.collided = in.readInt();
+        return counters;
+    }
+
+    /**
+     * Returns a copy of the counters, for a fork of the environment.
+     * @return Counters with the same counts.
+     */
+    PacketCounters copy() {
+        PacketCounters counters = new PacketCounters();
+        counters.sent = sent;
+        counters.received = received;
+        counters.collided = collided;
+        return counters;
+    }
+
+    /**
+     * Returns the number of sent transmissions.
+     * @return The number of transmissions sent to a receiver, including the receivers out of range.
+     */
+    public int getSent() {
+        return sent;
+    }
+
+    /**
+     * Returns the number of transmissions which were received without collision.
+     * @return The number of received transmissions.
+     */
+    public int getReceived() {
+        return received;
+    }
+
+    /**
+     * Returns the number of transmissions which collided.
+     * @return The number of collided transmissions.
+     */
+    public int getCollided() {
+        return collided;
+    }
+
+    /**
+     * Returns the number of transmissions which were not received.
+     * @return The number of lost transmissions.
+     */
+    public int getLost() {
+        return sent - received;
+    }
+
+    /**
+     * Returns the fraction of the sent transmissions which was not received.
+     * @return The packet loss, 0 if nothing was sent.
+     */
+    public double getPacketLoss() {
+        return sent == 0 ? 0 : getLost() / (double) sent;
+    }
+}
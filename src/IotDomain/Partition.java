@@ -0,0 +1,57 @@
+package IotDomain;
+
+/**
+ * A part of a partitioned simulation, in which every process has the same environment but only simulates the motes
+ * and gateways in its own region of the map. The other entities are copies which do not send, and whose receptions
+ * are simulated by the process owning them.
+ * An environment with a partition hands every transmission which departs to the partition instead of to its
+ * receiver, and the outcomes of the transmissions of entities it does not own to the partition instead of to their
+ * sender, so the partition can pass them to the processes owning the receivers and the senders.
+ */
+public interface Partition {
+
+    /**
+     * The outcome of a transmission at one of its receivers, as counted by its sender.
+     */
+    enum Outcome {
+        /**
+         * The transmission was received.
+         */
+        RECEIVED,
+
+        /**
+         * The transmission collided with one which was received before.
+         */
+        COLLIDED,
+
+        /**
+         * The transmission was received, but a later one collided with it.
+         */
+        LATER_COLLISION
+    }
+
+    /**
+     * Checks whether the partition simulates an entity, or only has a copy of it.
+     * @param entity A mote or a gateway of the environment.
+     * @return True if the entity is in the region of the partition.
+     */
+    boolean owns(NetworkEntity entity);
+
+    /**
+     * Receives a transmission of an entity of the partition which departed to a receiver, after its path loss was
+     * applied. The partition lets the receiver receive it, here or in the process owning the receiver.
+     * @param transmission The transmission.
+     */
+    void deliver(LoraTransmission transmission);
+
+    /**
+     * Receives the outcome of a transmission of an entity which the partition does not own, at a receiver it owns.
+     * The partition passes it to the process owning the sender, see {@link NetworkEntity#countOutcome(Outcome, int, boolean)}.
+     * @param sender The sender of the transmission.
+     * @param outcome The outcome of the transmission.
+     * @param sequenceNumber The row of the message in the sent log of the sender.
+     * @param firstReceiver Whether the receiver is the first receiver of the sender, which decides the recent outcome
+     *                      of the message.
+     */
+    void forwardOutcome(NetworkEntity sender, Outcome outcome, int sequenceNumber, boolean firstReceiver);
+}
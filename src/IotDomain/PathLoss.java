@@ -0,0 +1,256 @@
+package IotDomain;
+
+/**
+ * Computes the deterministic path loss of a transmission in closed form.
+ *
+ * The stepping model in {@link LoraTransmission} walks from the receiver back to the sender one position at a time.
+ * A step along an axis at a distance d (the sum of the x and y distance) costs 10n(log d - log(d-1)) and a diagonal
+ * step costs 10n(log d - log(d-sqrt(2))), where n is the path loss exponent of the position the step starts from.
+ * The shape of that walk only depends on the distances: first axis steps until the longest distance is twice the
+ * shortest, then diagonal steps, then a staircase of alternating diagonal and axis steps. Within each of those phases
+ * the distance decreases arithmetically, so the loss of a run of steps over positions with the same characteristic
+ * is a difference of logarithms of (shifted) factorials, which is evaluated with the log-gamma function.
+ * Runs are found with the {@link ZoneIndex} of the environment.
+ *
+ * The result matches the stepping model up to {@link #TOLERANCE} dB; the difference only comes from rounding.
+ */
+public final class PathLoss {
+
+    /**
+     * The maximal difference in dB between the closed form and the stepping model.
+     */
+    public static final double TOLERANCE = 1e-6;
+
+    /**
+     * Runs with at most this many steps are summed directly, which is both faster and more precise than log-gamma.
+     */
+    private static final int DIRECT_SUM_LIMIT = 16;
+
+    private static final double LN_10 = Math.log(10);
+
+    private static final double HALF_LN_2PI = 0.5 * Math.log(2 * Math.PI);
+
+    private static final double SQRT_2 = Math.sqrt(2);
+
+    private static final int AXIS = 0;
+    private static final int DIAGONAL = 1;
+    private static final int STAIRCASE = 2;
+
+    private final Environment environment;
+    private final ZoneIndex zoneIndex;
+    private final boolean majorIsX;
+    private final int majorStep;
+    private final int minorStep;
+    private final int maxMajor;
+    private final int maxMinor;
+
+    /**
+     * The current position of the walk, along the longest and the shortest distance.
+     */
+    private int major;
+    private int minor;
+
+    /**
+     * The current sum of the x and y distance to the sender.
+     */
+    private int distance;
+
+    /**
+     * The number of steps already taken in the staircase phase.
+     */
+    private int staircaseSteps;
+
+    /**
+     * The accumulated loss, divided by 10.
+     */
+    private double loss;
+
+    private PathLoss(Environment environment, int senderX, int senderY, int receiverX, int receiverY) {
+        this.environment = environment;
+        this.zoneIndex = environment.getZoneIndex();
+        int xDist = Math.abs(senderX - receiverX);
+        int yDist = Math.abs(senderY - receiverY);
+        majorIsX = xDist >= yDist;
+        major = majorIsX ? receiverX : receiverY;
+        minor = majorIsX ? receiverY : receiverX;
+        majorStep = majorIsX ? Integer.signum(senderX - receiverX) : Integer.signum(senderY - receiverY);
+        minorStep = majorIsX ? Integer.signum(senderY - receiverY) : Integer.signum(senderX - receiverX);
+        maxMajor = majorIsX ? environment.getMaxXpos() : environment.getMaxYpos();
+        maxMinor = majorIsX ? environment.getMaxYpos() : environment.getMaxXpos();
+        distance = xDist + yDist;
+    }
+
+    /**
+     * Returns the deterministic path loss between a sender and a receiver, without shadow fading.
+     * @param environment The environment of the sender and the receiver.
+     * @param senderX The x-coordinate of the sender.
+     * @param senderY The y-coordinate of the sender.
+     * @param receiverX The x-coordinate of the receiver.
+     * @param receiverY The y-coordinate of the receiver.
+     * @return The path loss in dB.
+     */
+    public static double getPathLoss(Environment environment, int senderX, int senderY, int receiverX, int receiverY) {
+        PathLoss pathLoss = new PathLoss(environment, senderX, senderY, receiverX, receiverY);
+        pathLoss.walk(Math.abs(senderX - receiverX), Math.abs(senderY - receiverY));
+        return 10 * pathLoss.loss;
+    }
+
+    /**
+     * Walks the phases of the path for the given distances.
+     * The final step at distance 1 is free in the stepping model and is left out.
+     */
+    private void walk(int xDist, int yDist) {
+        int longest = Math.max(xDist, yDist);
+        int shortest = Math.min(xDist, yDist);
+        if (shortest == 0) {
+            if (longest > 1) {
+                run(AXIS, longest - 1);
+            }
+        } else if (longest > 2 * shortest) {
+            run(AXIS, longest - 2 * shortest);
+            run(STAIRCASE, 2 * shortest - 1);
+        } else if (longest == shortest) {
+            run(DIAGONAL, shortest);
+        } else {
+            run(DIAGONAL, 2 * shortest - longest + 1);
+            int remaining = longest - shortest - 1;
+            if (remaining > 0) {
+                run(AXIS, 1);
+                run(STAIRCASE, 2 * remaining - 1);
+            }
+        }
+    }
+
+    /**
+     * Takes a number of steps of the given kind. The steps are advanced block by block, and the loss is evaluated
+     * once for every run of consecutive blocks with the same characteristic.
+     */
+    private void run(int kind, int steps) {
+        double runExponent = 0;
+        int runSteps = 0;
+        int runDistance = distance;
+        int runStaircaseSteps = staircaseSteps;
+        while (steps > 0) {
+            int x = majorIsX ? major : minor;
+            int y = majorIsX ? minor : major;
+            int shift = zoneIndex.getUniformBlockShift(x, y);
+            int majorInside = positionsInside(major, majorStep, shift, maxMajor);
+            int minorInside = positionsInside(minor, minorStep, shift, maxMinor);
+            int count;
+            if (kind == AXIS) {
+                count = Math.min(steps, majorInside);
+            } else if (kind == DIAGONAL) {
+                count = Math.min(steps, Math.min(majorInside, minorInside));
+            } else {
+                // The minor coordinate only moves on the diagonal steps, which are the even steps of the staircase.
+                long minorLimit = staircaseSteps % 2 == 0 ? 2L * minorInside - 1 : 2L * minorInside;
+                count = (int) Math.min(Math.min(steps, majorInside), minorLimit);
+            }
+            double exponent = environment.getCharacteristic(x, y).getPathLossExponent();
+            if (exponent != runExponent && runSteps > 0) {
+                loss += runExponent * runLoss(kind, runSteps, runDistance, runStaircaseSteps);
+                runSteps = 0;
+                runDistance = distance;
+                runStaircaseSteps = staircaseSteps;
+            }
+            runExponent = exponent;
+            runSteps += count;
+            advance(kind, count);
+            steps -= count;
+        }
+        if (runSteps > 0) {
+            loss += runExponent * runLoss(kind, runSteps, runDistance, runStaircaseSteps);
+        }
+    }
+
+    /**
+     * Moves the walk a number of steps of the given kind.
+     */
+    private void advance(int kind, int count) {
+        major += count * majorStep;
+        if (kind == AXIS) {
+            distance -= count;
+        } else if (kind == DIAGONAL) {
+            minor += count * minorStep;
+            distance -= 2 * count;
+        } else {
+            int diagonals = staircaseSteps % 2 == 0 ? (count + 1) / 2 : count / 2;
+            minor += diagonals * minorStep;
+            distance -= count + diagonals;
+            staircaseSteps += count;
+        }
+    }
+
+    /**
+     * Returns the loss of a run of steps with a path loss exponent of 1, divided by 10.
+     * @param kind The kind of the steps.
+     * @param count The number of steps.
+     * @param distance The distance at the start of the run.
+     * @param staircaseSteps The number of staircase steps taken before the run.
+     */
+    private static double runLoss(int kind, int count, int distance, int staircaseSteps) {
+        if (kind == AXIS) {
+            return Math.log10(distance) - Math.log10(distance - count);
+        }
+        if (kind == DIAGONAL) {
+            return sumLog10(distance, 2, count) - sumLog10(distance - SQRT_2, 2, count);
+        }
+        boolean diagonalFirst = staircaseSteps % 2 == 0;
+        int diagonals = diagonalFirst ? (count + 1) / 2 : count / 2;
+        int axes = count - diagonals;
+        int firstDiagonal = diagonalFirst ? distance : distance - 1;
+        int firstAxis = diagonalFirst ? distance - 2 : distance;
+        return sumLog10(firstDiagonal, 3, diagonals) - sumLog10(firstDiagonal - SQRT_2, 3, diagonals)
+                + sumLog10(firstAxis, 3, axes) - sumLog10(firstAxis - 1, 3, axes);
+    }
+
+    /**
+     * Returns the number of positions, starting with the given one, that a coordinate moving by the given step
+     * passes inside the block of the given size containing the start.
+     */
+    private static int positionsInside(int coordinate, int step, int shift, int max) {
+        if (step == 0) {
+            return Integer.MAX_VALUE;
+        }
+        int start = (coordinate >> shift) << shift;
+        int end = Math.min(start + (1 << shift) - 1, max);
+        return step > 0 ? end - coordinate + 1 : coordinate - start + 1;
+    }
+
+    /**
+     * Returns the sum of log10(first - step * i) for i from 0 up to count - 1.
+     * All terms have to be positive.
+     */
+    static double sumLog10(double first, int step, int count) {
+        if (count <= DIRECT_SUM_LIMIT) {
+            double sum = 0;
+            for (int i = 0; i < count; i++) {
+                sum += Math.log10(first - step * i);
+            }
+            return sum;
+        }
+        double start = first / step;
+        return count * Math.log10(step) + (logGamma(start + 1) - logGamma(start - count + 1)) / LN_10;
+    }
+
+    /**
+     * Returns the natural logarithm of the gamma function for a positive argument, using the Stirling series after
+     * shifting the argument to at least 15.
+     */
+    static double logGamma(double x) {
+        double shift = 0;
+        if (x < 15) {
+            double product = 1;
+            while (x < 15) {
+                product *= x;
+                x++;
+            }
+            shift = Math.log(product);
+        }
+        double inverse = 1 / x;
+        double inverseSquared = inverse * inverse;
+        double series = inverse * (1.0 / 12 - inverseSquared * (1.0 / 360 - inverseSquared * (1.0 / 1260
+                - inverseSquared / 1680)));
+        return (x - 0.5) * Math.log(x) - x + HALF_LN_2PI + series - shift;
+    }
+}
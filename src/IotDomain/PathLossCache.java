@@ -0,0 +1,157 @@
+package IotDomain;
+
+import java.io.Serializable;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded cache of the deterministic path loss between a sender and a receiver position,
+ * evicting the least recently used entry when it is full.
+ * The shadow fading is not part of the cached value, it is drawn for every transmission.
+ */
+public class PathLossCache implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The default maximal number of entries in the cache.
+     */
+    public static final int DEFAULT_CAPACITY = 16384;
+
+    /**
+     * The largest coordinate that fits in a key.
+     */
+    private static final int MAX_COORDINATE = 0xFFFF;
+
+    /**
+     * The cached path losses, in access order.
+     */
+    private final LinkedHashMap<Long, Double> entries;
+
+    /**
+     * The maximal number of entries in the cache.
+     */
+    private int capacity;
+
+    /**
+     * The number of lookups that were answered from the cache.
+     */
+    private long hits = 0;
+
+    /**
+     * The number of lookups that had to compute the path loss.
+     */
+    private long misses = 0;
+
+    /**
+     * Constructs an empty cache with a given capacity.
+     * @param capacity The maximal number of entries in the cache.
+     */
+    public PathLossCache(int capacity) {
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<Long, Double>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Double> eldest) {
+                return size() > PathLossCache.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * Returns a copy of the cache with the same entries and capacity and no hits or misses yet, e.g. for a copy of an
+     * environment running on another thread, which then neither waits for the lookups of this cache nor changes it.
+     * @return A new cache.
+     */
+    public synchronized PathLossCache copy() {
+        PathLossCache copy = new PathLossCache(capacity);
+        copy.entries.putAll(entries);
+        return copy;
+    }
+
+    /**
+     * Returns the deterministic path loss between a sender and a receiver, from the cache if possible.
+     * @param environment The environment of the sender and the receiver.
+     * @param senderX The x-coordinate of the sender.
+     * @param senderY The y-coordinate of the sender.
+     * @param receiverX The x-coordinate of the receiver.
+     * @param receiverY The y-coordinate of the receiver.
+     * @return The path loss in dB.
+     */
+    public synchronized double getPathLoss(Environment environment, int senderX, int senderY, int receiverX, int receiverY) {
+        if (capacity <= 0 || senderX > MAX_COORDINATE || senderY > MAX_COORDINATE
+                || receiverX > MAX_COORDINATE || receiverY > MAX_COORDINATE) {
+            misses++;
+            return PathLoss.getPathLoss(environment, senderX, senderY, receiverX, receiverY);
+        }
+        long key = ((long) senderX << 48) | ((long) senderY << 32) | ((long) receiverX << 16) | receiverY;
+        Double pathLoss = entries.get(key);
+        if (pathLoss != null) {
+            hits++;
+            return pathLoss;
+        }
+        misses++;
+        pathLoss = PathLoss.getPathLoss(environment, senderX, senderY, receiverX, receiverY);
+        entries.put(key, pathLoss);
+        return pathLoss;
+    }
+
+    /**
+     * Removes all entries from the cache. The hit and miss counters are kept.
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Returns the number of lookups that were answered from the cache.
+     * @return The number of lookups that were answered from the cache.
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Returns the number of lookups that had to compute the path loss.
+     * @return The number of lookups that had to compute the path loss.
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Returns the number of entries in the cache.
+     * @return The number of entries in the cache.
+     */
+    public synchronized int getSize() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the maximal number of entries in the cache.
+     * @return The maximal number of entries in the cache.
+     */
+    public synchronized int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Sets the maximal number of entries in the cache, evicting the least recently used entries if needed.
+     * A capacity of 0 disables the cache.
+     * @param capacity The maximal number of entries in the cache.
+     */
+    public synchronized void setCapacity(int capacity) {
+        this.capacity = Math.max(0, capacity);
+        while (entries.size() > this.capacity) {
+            Long eldest = entries.keySet().iterator().next();
+            entries.remove(eldest);
+        }
+    }
+
+    /**
+     * Resets the hit and miss counters.
+     */
+    public synchronized void resetCounters() {
+        hits = 0;
+        misses = 0;
+    }
+}
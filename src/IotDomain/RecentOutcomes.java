@@ -0,0 +1,156 @@
+package IotDomain;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.Serializable;
+
+/**
+ * The outcomes of the most recent messages sent by an entity in a single run, kept in a ring of bits indexed by the
+ * row of the message in the {@link SentLog}. A message succeeds when its first receiver receives it without collision,
+ * and fails again when a later transmission collides with it. The successes in the default window are also kept in
+ * a running counter, so the recent packet loss over that window is read in constant time.
+ */
+public class RecentOutcomes implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The largest number of recent messages of which the outcome is kept, a multiple of 64.
+     */
+    public static final int MAX_WINDOW = 1024;
+
+    /**
+     * The number of recent messages of the running counter.
+     */
+    public static final int DEFAULT_WINDOW = 30;
+
+    /**
+     * A bit per recent message, set if the message succeeded.
+     */
+    private final long[] successes = new long[MAX_WINDOW / Long.SIZE];
+
+    /**
+     * The row of the message which is sent next.
+     */
+    private int endRow = 0;
+
+    /**
+     * The number of successful messages among the last {@link #DEFAULT_WINDOW} messages.
+     */
+    private int windowSuccesses = 0;
+
+    /**
+     * Adds a message which did not succeed yet, moving the oldest message out of the window.
+     * @param row The row of the message in the sent log.
+     */
+    void addMessage(int row) {
+        while (endRow <= row) {
+            if (endRow >= DEFAULT_WINDOW && isSuccess(endRow - DEFAULT_WINDOW)) {
+                windowSuccesses--;
+            }
+            setBit(endRow, false);
+            endRow++;
+        }
+    }
+
+    /**
+     * Sets the outcome of a recent message. The outcome of a message which is no longer recent is ignored.
+     * @param row The row of the message in the sent log.
+     * @param success If the message succeeded.
+     */
+    void setOutcome(int row, boolean success) {
+        if (row >= endRow || row < endRow - MAX_WINDOW || isSuccess(row) == success) {
+            return;
+        }
+        setBit(row, success);
+        if (row >= endRow - DEFAULT_WINDOW) {
+            windowSuccesses += success ? 1 : -1;
+        }
+    }
+
+    /**
+     * Writes the outcomes to a snapshot.
+     * @param out The output of the snapshot.
+     * @throws IOException If the output cannot be written.
+     */
+    void writeState(DataOutput out) throws IOException {
+        out.writeInt(endRow);
+        out.writeInt(windowSuccesses);
+        for (long word : successes) {
+            out.writeLong(word);
+        }
+    }
+
+    /**
+     * Reads outcomes written by {@link #writeState(DataOutput)}.
+     * @param in The input of the snapshot.
+     * @return The outcomes.
+     * @throws IOException If the input cannot be read.
+     */
+    static RecentOutcomes readState(DataInput in) throws IOException {
+        RecentOutcomes outcomes = new RecentOutcomes();
+        outcomes.endRow = SnapshotIO.readCount(in);
+        outcomes.windowSuccesses = in.readInt();
+        for (int i = 0; i < outcomes.successes.length; i++) {
+            outcomes.successes[i] = in.readLong();
+        }
+        return outcomes;
+    }
+
+    /**
+     * Returns a copy of the outcomes, for a fork of the environment.
+     * @return Outcomes of the same messages.
+     */
+    RecentOutcomes copy() {
+        RecentOutcomes outcomes = new RecentOutcomes();
+        outcomes.endRow = endRow;
+        outcomes.windowSuccesses = windowSuccesses;
+        System.arraycopy(successes, 0, outcomes.successes, 0, successes.length);
+        return outcomes;
+    }
+
+    /**
+     * Returns the fraction of the most recent messages which did not succeed.
+     * @param window The number of recent messages, at most {@link #MAX_WINDOW}.
+     * @return The recent packet loss, 0 if no message was sent.
+     */
+    public double getPacketLoss(int window) {
+        int messages = Math.min(Math.min(window, MAX_WINDOW), endRow);
+        if (messages <= 0) {
+            return 0;
+        }
+        int recentSuccesses = window == DEFAULT_WINDOW ? windowSuccesses : countSuccesses(endRow - messages, endRow);
+        return (messages - recentSuccesses) / (double) messages;
+    }
+
+    /**
+     * Counts the successful messages in a range of recent rows, a word of the ring at a time.
+     */
+    private int countSuccesses(int fromRow, int toRow) {
+        int count = 0;
+        int row = fromRow;
+        while (row < toRow) {
+            int bit = row & (MAX_WINDOW - 1);
+            int length = Math.min(Long.SIZE - (bit & 63), toRow - row);
+            long mask = (length == Long.SIZE ? -1L : (1L << length) - 1) << (bit & 63);
+            count += Long.bitCount(successes[bit >> 6] & mask);
+            row += length;
+        }
+        return count;
+    }
+
+    private boolean isSuccess(int row) {
+        int bit = row & (MAX_WINDOW - 1);
+        return (successes[bit >> 6] & 1L << bit) != 0;
+    }
+
+    private void setBit(int row, boolean success) {
+        int bit = row & (MAX_WINDOW - 1);
+        if (success) {
+            successes[bit >> 6] |= 1L << bit;
+        } else {
+            successes[bit >> 6] &= ~(1L << bit);
+        }
+    }
+}
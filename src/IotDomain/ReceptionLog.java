@@ -0,0 +1,380 @@
+package IotDomain;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * The transmissions received by an entity in a single run, in the order they were received.
+ * A row holds the sender, the row of the message in the {@link SentLog} of the sender, the received power and
+ * whether the transmission collided. Everything else about the transmission is shared with the other receivers of
+ * the message and read from the log of the sender.
+ * A row whose message was already evicted by the sender is expired and left out of the views of the log.
+ */
+public class ReceptionLog extends ChunkedLog {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The entity which received the transmissions.
+     */
+    private NetworkEntity receiver;
+
+    /**
+     * The run of the log, which is also the run of the sent logs of the senders.
+     */
+    private int run;
+
+    private int[][] senders = new int[INITIAL_CHUNKS][];
+    private int[][] sentRows = new int[INITIAL_CHUNKS][];
+    private float[][] powers = new float[INITIAL_CHUNKS][];
+    private long[][] collided = new long[INITIAL_CHUNKS][];
+
+    /**
+     * Constructs an empty log.
+     * @param receiver The entity which receives the transmissions.
+     * @param run The run of the log.
+     */
+    public ReceptionLog(NetworkEntity receiver, int run) {
+        this.receiver = receiver;
+        this.run = run;
+    }
+
+    /**
+     * Moves the log to another receiver and run, whose senders have the same ids as the senders of the log.
+     * @param receiver The new receiver of the transmissions.
+     * @param run The new run of the log.
+     */
+    void rebind(NetworkEntity receiver, int run) {
+        this.receiver = receiver;
+        this.run = run;
+    }
+
+    @Override
+    protected void addChunk(int slot) {
+        senders[slot] = new int[CHUNK_SIZE];
+        sentRows[slot] = new int[CHUNK_SIZE];
+        powers[slot] = new float[CHUNK_SIZE];
+        collided[slot] = new long[CHUNK_SIZE / Long.SIZE];
+    }
+
+    @Override
+    protected void freeChunk(int slot) {
+        senders[slot] = null;
+        sentRows[slot] = null;
+        powers[slot] = null;
+        collided[slot] = null;
+    }
+
+    @Override
+    protected void copyChunk(int slot) {
+        senders[slot] = senders[slot].clone();
+        sentRows[slot] = sentRows[slot].clone();
+        powers[slot] = powers[slot].clone();
+        collided[slot] = collided[slot].clone();
+    }
+
+    @Override
+    protected void resizeChunks(int capacity) {
+        senders = resized(senders, capacity);
+        sentRows = resized(sentRows, capacity);
+        powers = resized(powers, capacity);
+        collided = resized(collided, capacity);
+    }
+
+    @Override
+    public int getBytesPerRow() {
+        return 2 * Integer.BYTES + Float.BYTES;
+    }
+
+    /**
+     * Adds a received transmission to the log.
+     * @param transmission The received transmission.
+     * @param collision If the transmission collided.
+     * @return The number of the row of the transmission.
+     */
+    int add(LoraTransmission transmission, boolean collision) {
+        int row = appendRow();
+        int slot = slot(row);
+        int offset = offset(row);
+        senders[slot][offset] = reference(transmission.getSender());
+        sentRows[slot][offset] = transmission.getSequenceNumber();
+        powers[slot][offset] = (float) transmission.getTransmissionPower();
+        if (collision) {
+            setCollided(row);
+        }
+        return row;
+    }
+
+    /**
+     * Marks a transmission as collided.
+     * @param row The row of the transmission, which cannot be evicted.
+     */
+    void setCollided(int row) {
+        own(row);
+        int offset = offset(row);
+        collided[slot(row)][offset >> 6] |= 1L << offset;
+    }
+
+    /**
+     * Returns a fork of the log for a fork of its receiver, which shares the retained transmissions with the log
+     * without copying them. The transmissions added to either log afterwards, and the collisions marked in it, are
+     * private to it.
+     * @param receiver The fork of the receiver, in an environment with the senders of the log.
+     * @param run The run of the fork of the log.
+     * @return The fork of the log.
+     */
+    ReceptionLog forkTo(NetworkEntity receiver, int run) {
+        ReceptionLog fork = new ReceptionLog(receiver, run);
+        shareWith(fork);
+        fork.senders = senders.clone();
+        fork.sentRows = sentRows.clone();
+        fork.powers = powers.clone();
+        fork.collided = collided.clone();
+        return fork;
+    }
+
+    /**
+     * Evicts the oldest transmissions which are not retained by a policy, folding their received power into rollups.
+     * Transmissions from the given row on are kept because they can still collide.
+     * @param policy The retention policy of the receiver.
+     * @param nowNanos The current time.
+     * @param firstCollisionCandidate The row of the oldest transmission that can still collide.
+     * @param receivedPowers The rollups of the received power of the evicted transmissions.
+     */
+    void evict(RetentionPolicy policy, long nowNanos, int firstCollisionCandidate, RollupSeries receivedPowers) {
+        int row = getFirstRow();
+        int end = Math.min(getEndRow(), firstCollisionCandidate);
+        while (row < end) {
+            // The departure time of an expired transmission is unknown, but older than its sender retains.
+            boolean expired = isExpired(row);
+            long departureTime = expired ? 0 : getDepartureTimeNanos(row);
+            if (policy.retains(getEndRow() - row, expired ? Long.MIN_VALUE : departureTime, nowNanos)) {
+                break;
+            }
+            receivedPowers.add(policy, departureTime, getPower(row));
+            row++;
+        }
+        evictBefore(row);
+    }
+
+    /**
+     * Writes the retained transmissions of the log to a snapshot, with the numbers of their rows.
+     * @param out The output of the snapshot.
+     * @throws IOException If the output cannot be written.
+     */
+    void writeState(DataOutput out) throws IOException {
+        out.writeInt(getFirstRow());
+        out.writeInt(getEndRow());
+        for (int row = getFirstRow(); row < getEndRow(); row++) {
+            int slot = slot(row);
+            int offset = offset(row);
+            out.writeInt(senders[slot][offset]);
+            out.writeInt(sentRows[slot][offset]);
+            out.writeFloat(powers[slot][offset]);
+            out.writeBoolean(isCollided(row));
+        }
+    }
+
+    /**
+     * Reads a log written by {@link #writeState(DataOutput)}, whose rows keep their numbers.
+     * @param in The input of the snapshot.
+     * @param receiver The entity which received the transmissions, in an environment with the senders of the log.
+     * @param run The run of the log.
+     * @return The log.
+     * @throws IOException If the input cannot be read or refers to senders which do not exist.
+     */
+    static ReceptionLog readState(DataInput in, NetworkEntity receiver, int run) throws IOException {
+        ReceptionLog log = new ReceptionLog(receiver, run);
+        int firstRow = SnapshotIO.readCount(in);
+        int endRow = SnapshotIO.readCount(in);
+        SnapshotIO.check(firstRow <= endRow, "Invalid rows in snapshot: " + firstRow + " to " + endRow);
+        log.startAt(firstRow);
+        for (int i = firstRow; i < endRow; i++) {
+            int row = log.appendRow();
+            int slot = log.slot(row);
+            int offset = offset(row);
+            int sender = in.readInt();
+            SnapshotIO.check(isValidReference(receiver.getEnvironment(), sender), "Unknown sender in snapshot: " + sender);
+            log.senders[slot][offset] = sender;
+            log.sentRows[slot][offset] = in.readInt();
+            log.powers[slot][offset] = in.readFloat();
+            if (in.readBoolean()) {
+                log.setCollided(row);
+            }
+        }
+        return log;
+    }
+
+    /**
+     * Returns if a transmission collided.
+     * @param row The row of the transmission.
+     * @return True if the transmission collided with another transmission.
+     */
+    public boolean isCollided(int row) {
+        int offset = offset(row);
+        return (collided[slot(row)][offset >> 6] & 1L << offset) != 0;
+    }
+
+    /**
+     * Returns if the message of a transmission was evicted by its sender.
+     * @param row The row of the transmission.
+     * @return True if the transmission is left out of the views of the log.
+     */
+    public boolean isExpired(int row) {
+        return !getSender(row).getSentLog(run).isRetained(sentRows[slot(row)][offset(row)]);
+    }
+
+    /**
+     * Returns the sender of a transmission.
+     * @param row The row of the transmission.
+     * @return The sender of the transmission.
+     */
+    public NetworkEntity getSender(int row) {
+        return resolve(receiver.getEnvironment(), senders[slot(row)][offset(row)]);
+    }
+
+    /**
+     * Returns the power a transmission was received with.
+     * @param row The row of the transmission.
+     * @return The received power.
+     */
+    public double getPower(int row) {
+        return powers[slot(row)][offset(row)];
+    }
+
+    /**
+     * Returns the departure time of a transmission which is not expired.
+     * @param row The row of the transmission.
+     * @return The number of nanoseconds between the start of the simulation and the departure of the transmission.
+     */
+    public long getDepartureTimeNanos(int row) {
+        return getSender(row).getSentLog(run).getDepartureTimeNanos(sentRows[slot(row)][offset(row)]);
+    }
+
+    /**
+     * Returns the transmission in a row which is not expired.
+     * @param row The row of the transmission.
+     * @return A new transmission equal to the one that was received.
+     */
+    LoraTransmission getTransmission(int row) {
+        return getSender(row).getSentLog(run).getTransmission(receiver, sentRows[slot(row)][offset(row)], getPower(row));
+    }
+
+    /**
+     * Returns the row of a transmission, using that the rows are ordered by departure time.
+     * @param transmission The transmission to find.
+     * @return The row of the transmission, or -1 if it is not in the views of the log.
+     */
+    int find(LoraTransmission transmission) {
+        if (transmission.getReceiver() != receiver || transmission.getSender() == null
+                || transmission.getSequenceNumber() < 0) {
+            return -1;
+        }
+        long departureTime = transmission.getDepartureTimeNanos();
+        int low = getFirstRow();
+        int high = getEndRow();
+        while (low < high) {
+            int middle = nextUnexpired((low + high) >>> 1, high);
+            if (middle == high) {
+                high = (low + high) >>> 1;
+            } else if (getDepartureTimeNanos(middle) < departureTime) {
+                low = middle + 1;
+            } else {
+                high = (low + high) >>> 1;
+            }
+        }
+        int sender = reference(transmission.getSender());
+        for (int row = nextUnexpired(low, getEndRow()); row < getEndRow() && getDepartureTimeNanos(row) == departureTime;
+             row = nextUnexpired(row + 1, getEndRow())) {
+            if (senders[slot(row)][offset(row)] == sender && sentRows[slot(row)][offset(row)] == transmission.getSequenceNumber()) {
+                return row;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the first row from a given row on which is not expired, or the end if there is none before it.
+     */
+    int nextUnexpired(int row, int end) {
+        while (row < end && isExpired(row)) {
+            row++;
+        }
+        return row;
+    }
+
+    /**
+     * Returns a read-only map from the transmissions in the log which are not expired to whether they collided,
+     * in the order they were received. The transmissions are created when they are accessed.
+     * @return A view of the transmissions in the log.
+     */
+    Map<LoraTransmission, Boolean> asMap() {
+        return new ReceptionMap();
+    }
+
+    private class ReceptionMap extends AbstractMap<LoraTransmission, Boolean> {
+
+        @Override
+        public Boolean get(Object key) {
+            if (!(key instanceof LoraTransmission)) {
+                return null;
+            }
+            int row = find((LoraTransmission) key);
+            return row < 0 ? null : isCollided(row);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return nextUnexpired(getFirstRow(), getEndRow()) == getEndRow();
+        }
+
+        @Override
+        public Set<Entry<LoraTransmission, Boolean>> entrySet() {
+            return new AbstractSet<Entry<LoraTransmission, Boolean>>() {
+                @Override
+                public Iterator<Entry<LoraTransmission, Boolean>> iterator() {
+                    return new Iterator<Entry<LoraTransmission, Boolean>>() {
+                        private int row = nextUnexpired(getFirstRow(), getEndRow());
+
+                        @Override
+                        public boolean hasNext() {
+                            return row < getEndRow();
+                        }
+
+                        @Override
+                        public Entry<LoraTransmission, Boolean> next() {
+                            if (!hasNext()) {
+                                throw new NoSuchElementException();
+                            }
+                            Entry<LoraTransmission, Boolean> entry = new SimpleImmutableEntry<>(getTransmission(row), isCollided(row));
+                            row = nextUnexpired(row + 1, getEndRow());
+                            return entry;
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    int size = 0;
+                    for (int row = nextUnexpired(getFirstRow(), getEndRow()); row < getEndRow();
+                         row = nextUnexpired(row + 1, getEndRow())) {
+                        size++;
+                    }
+                    return size;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package IotDomain;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * A random generator giving the same numbers as {@link java.util.Random}, whose state can be written to a snapshot
+ * and read back, so a restored simulation continues with the numbers the original one would have drawn.
+ * It implements the linear congruential generator and the Gaussian pairs documented for {@link java.util.Random}
+ * itself, because the state of that class cannot be read.
+ */
+public class RestorableRandom extends java.util.Random {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final long MULTIPLIER = 0x5DEECE66DL;
+    private static final long ADDEND = 0xBL;
+    private static final long MASK = (1L << 48) - 1;
+
+    /**
+     * The state of the generator, which is set by {@link #setSeed(long)} while the superclass is constructed.
+     */
+    private long seed;
+
+    private double nextNextGaussian;
+    private boolean haveNextNextGaussian;
+
+    /**
+     * Constructs a generator with a seed which is very likely to differ from any other.
+     */
+    public RestorableRandom() {
+        super();
+    }
+
+    /**
+     * Constructs a generator with a given seed.
+     * @param seed The initial seed.
+     */
+    public RestorableRandom(long seed) {
+        super(seed);
+    }
+
+    @Override
+    public synchronized void setSeed(long seed) {
+        this.seed = (seed ^ MULTIPLIER) & MASK;
+        haveNextNextGaussian = false;
+    }
+
+    @Override
+    protected synchronized int next(int bits) {
+        seed = (seed * MULTIPLIER + ADDEND) & MASK;
+        return (int) (seed >>> (48 - bits));
+    }
+
+    @Override
+    public synchronized double nextGaussian() {
+        if (haveNextNextGaussian) {
+            haveNextNextGaussian = false;
+            return nextNextGaussian;
+        }
+        double v1, v2, s;
+        do {
+            v1 = 2 * nextDouble() - 1;
+            v2 = 2 * nextDouble() - 1;
+            s = v1 * v1 + v2 * v2;
+        } while (s >= 1 || s == 0);
+        double multiplier = StrictMath.sqrt(-2 * StrictMath.log(s) / s);
+        nextNextGaussian = v2 * multiplier;
+        haveNextNextGaussian = true;
+        return v1 * multiplier;
+    }
+
+    /**
+     * Sets the state of the generator to the state of another one, after which both draw the same numbers.
+     * @param source The generator to copy the state of.
+     */
+    public void copyFrom(RestorableRandom source) {
+        long sourceSeed;
+        boolean sourceHaveNextNextGaussian;
+        double sourceNextNextGaussian;
+        synchronized (source) {
+            sourceSeed = source.seed;
+            sourceHaveNextNextGaussian = source.haveNextNextGaussian;
+            sourceNextNextGaussian = source.nextNextGaussian;
+        }
+        synchronized (this) {
+            seed = sourceSeed;
+            haveNextNextGaussian = sourceHaveNextNextGaussian;
+            nextNextGaussian = sourceNextNextGaussian;
+        }
+    }
+
+    /**
+     * Writes the state of the generator.
+     * @param out The output of the snapshot.
+     * @throws IOException If the output cannot be written.
+     */
+    public synchronized void writeState(DataOutput out) throws IOException {
+        out.writeLong(seed);
+        out.writeBoolean(haveNextNextGaussian);
+        out.writeDouble(nextNextGaussian);
+    }
+
+    /**
+     * Reads a state written by {@link #writeState(DataOutput)}, from which the generator continues.
+     * @param in The input of the snapshot.
+     * @throws IOException If the input cannot be read.
+     */
+    public synchronized void readState(DataInput in) throws IOException {
+        seed = in.readLong() & MASK;
+        haveNextNextGaussian = in.readBoolean();
+        nextNextGaussian = in.readDouble();
+    }
+}
@@ -0,0 +1,147 @@
+package IotDomain;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.Serializable;
+
+/**
+ * A policy bounding the histories an entity keeps of the current run, either to the samples of a recent time window,
+ * to a number of most recent samples, or both. Samples which are no longer retained are folded into {@link Rollup}s
+ * before they are evicted.
+ */
+public final class RetentionPolicy implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The policy retaining every sample, which is the default.
+     */
+    public static final RetentionPolicy UNBOUNDED = new RetentionPolicy(0, 0);
+
+    /**
+     * The largest number of samples of a history which are retained, 0 if the number is not bounded.
+     */
+    private final int maxSamples;
+
+    /**
+     * The length of the time window of retained samples in nanoseconds, 0 if the window is not bounded.
+     */
+    private final long windowNanos;
+
+    private RetentionPolicy(int maxSamples, long windowNanos) {
+        this.maxSamples = maxSamples;
+        this.windowNanos = windowNanos;
+    }
+
+    /**
+     * Returns a policy retaining at most a given number of samples of every history.
+     * @param maxSamples The number of retained samples.
+     * @return A policy bounding the number of samples.
+     * @throws IllegalArgumentException If the number of samples is not positive.
+     */
+    public static RetentionPolicy ofCount(int maxSamples) {
+        if (maxSamples <= 0) {
+            throw new IllegalArgumentException("The number of retained samples has to be positive.");
+        }
+        return of(maxSamples, 0);
+    }
+
+    /**
+     * Returns a policy retaining the samples of a recent time window.
+     * @param windowNanos The length of the window in nanoseconds.
+     * @return A policy bounding the age of samples.
+     * @throws IllegalArgumentException If the window is not positive.
+     */
+    public static RetentionPolicy ofWindow(long windowNanos) {
+        if (windowNanos <= 0) {
+            throw new IllegalArgumentException("The retention window has to be positive.");
+        }
+        return of(0, windowNanos);
+    }
+
+    /**
+     * Returns a policy bounding both the number and the age of samples, where 0 leaves a bound out.
+     * @param maxSamples The number of retained samples, 0 if it is not bounded.
+     * @param windowNanos The length of the window in nanoseconds, 0 if it is not bounded.
+     * @return The policy with the given bounds.
+     * @throws IllegalArgumentException If a bound is negative.
+     */
+    public static RetentionPolicy of(int maxSamples, long windowNanos) {
+        if (maxSamples < 0 || windowNanos < 0) {
+            throw new IllegalArgumentException("Retention bounds cannot be negative.");
+        }
+        if (maxSamples == 0 && windowNanos == 0) {
+            return UNBOUNDED;
+        }
+        return new RetentionPolicy(maxSamples, windowNanos);
+    }
+
+    /**
+     * Writes the bounds of the policy to a snapshot.
+     * @param out The output of the snapshot.
+     * @throws IOException If the output cannot be written.
+     */
+    void writeState(DataOutput out) throws IOException {
+        out.writeInt(maxSamples);
+        out.writeLong(windowNanos);
+    }
+
+    /**
+     * Reads a policy written by {@link #writeState(DataOutput)}.
+     * @param in The input of the snapshot.
+     * @return The policy with the bounds which were written.
+     * @throws IOException If the input cannot be read or the bounds are negative.
+     */
+    static RetentionPolicy readState(DataInput in) throws IOException {
+        int maxSamples = in.readInt();
+        long windowNanos = in.readLong();
+        SnapshotIO.check(maxSamples >= 0 && windowNanos >= 0, "Negative retention bounds in snapshot.");
+        return of(maxSamples, windowNanos);
+    }
+
+    /**
+     * Returns if the policy retains every sample.
+     * @return True if neither the number nor the age of samples is bounded.
+     */
+    public boolean isUnbounded() {
+        return maxSamples == 0 && windowNanos == 0;
+    }
+
+    /**
+     * Returns the largest number of samples of a history which are retained.
+     * @return The number of samples, 0 if it is not bounded.
+     */
+    public int getMaxSamples() {
+        return maxSamples;
+    }
+
+    /**
+     * Returns the length of the time window of retained samples.
+     * @return The length of the window in nanoseconds, 0 if it is not bounded.
+     */
+    public long getWindowNanos() {
+        return windowNanos;
+    }
+
+    /**
+     * Checks if the oldest sample of a history is retained.
+     * @param samples The number of samples in the history.
+     * @param sampleTimeNanos The time of the oldest sample.
+     * @param nowNanos The current time.
+     * @return True if the sample is retained.
+     */
+    public boolean retains(int samples, long sampleTimeNanos, long nowNanos) {
+        return (maxSamples == 0 || samples <= maxSamples) && (windowNanos == 0 || sampleTimeNanos >= nowNanos - windowNanos);
+    }
+
+    /**
+     * Checks if a rollup covers a full window of the policy, so evicted samples go to a new rollup.
+     * @param rollup The rollup to check.
+     * @return True if the rollup holds as many samples as are retained or spans the time window.
+     */
+    boolean isFull(Rollup rollup) {
+        return (maxSamples > 0 && rollup.getCount() >= maxSamples)
+                || (windowNanos > 0 && rollup.getEndNanos() - rollup.getStartNanos() >= windowNanos);
+    }
+}
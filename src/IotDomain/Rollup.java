@@ -0,0 +1,147 @@
+package IotDomain;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.Serializable;
+
+/**
+ * The aggregate of the samples of a history which were evicted by a {@link RetentionPolicy}:
+ * their number, minimum, maximum and mean, and the times of the first and the last sample.
+ */
+public class Rollup implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private long startNanos;
+    private long endNanos;
+    private long count = 0;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+    private double sum = 0;
+
+    /**
+     * Adds a sample to the rollup.
+     * @param timeNanos The time of the sample, which is moved to the last sample if it is earlier.
+     * @param value The value of the sample.
+     */
+    void add(long timeNanos, double value) {
+        if (count == 0) {
+            startNanos = timeNanos;
+        }
+        endNanos = count == 0 ? timeNanos : Math.max(endNanos, timeNanos);
+        count++;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+        sum += value;
+    }
+
+    /**
+     * Adds the samples of a later rollup to this one.
+     * @param later The rollup whose samples follow the samples of this one.
+     */
+    void merge(Rollup later) {
+        if (count == 0) {
+            startNanos = later.startNanos;
+        }
+        endNanos = later.endNanos;
+        count += later.count;
+        min = Math.min(min, later.min);
+        max = Math.max(max, later.max);
+        sum += later.sum;
+    }
+
+    /**
+     * Writes the rollup to a snapshot.
+     * @param out The output of the snapshot.
+     * @throws IOException If the output cannot be written.
+     */
+    void writeState(DataOutput out) throws IOException {
+        out.writeLong(startNanos);
+        out.writeLong(endNanos);
+        out.writeLong(count);
+        out.writeDouble(min);
+        out.writeDouble(max);
+        out.writeDouble(sum);
+    }
+
+    /**
+     * Reads a rollup written by {@link #writeState(DataOutput)}.
+     * @param in The input of the snapshot.
+     * @return The rollup.
+     * @throws IOException If the input cannot be read.
+     */
+    static Rollup readState(DataInput in) throws IOException {
+        Rollup rollup = new Rollup();
+        rollup.startNanos = in.readLong();
+        rollup.endNanos = in.readLong();
+        rollup.count = in.readLong();
+        rollup.min = in.readDouble();
+        rollup.max = in.readDouble();
+        rollup.sum = in.readDouble();
+        return rollup;
+    }
+
+    /**
+     * Returns a copy of the rollup, for a fork of the environment.
+     * @return A rollup of the same samples.
+     */
+    Rollup copy() {
+        Rollup rollup = new Rollup();
+        rollup.startNanos = startNanos;
+        rollup.endNanos = endNanos;
+        rollup.count = count;
+        rollup.min = min;
+        rollup.max = max;
+        rollup.sum = sum;
+        return rollup;
+    }
+
+    /**
+     * Returns the time of the first sample.
+     * @return The time of the first sample in nanoseconds since the start of the simulation.
+     */
+    public long getStartNanos() {
+        return startNanos;
+    }
+
+    /**
+     * Returns the time of the last sample.
+     * @return The time of the last sample in nanoseconds since the start of the simulation.
+     */
+    public long getEndNanos() {
+        return endNanos;
+    }
+
+    /**
+     * Returns the number of samples.
+     * @return The number of samples.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the smallest sample.
+     * @return The smallest sample, NaN if the rollup is empty.
+     */
+    public double getMin() {
+        return count == 0 ? Double.NaN : min;
+    }
+
+    /**
+     * Returns the largest sample.
+     * @return The largest sample, NaN if the rollup is empty.
+     */
+    public double getMax() {
+        return count == 0 ? Double.NaN : max;
+    }
+
+    /**
+     * Returns the mean of the samples.
+     * @return The mean of the samples, NaN if the rollup is empty.
+     */
+    public double getMean() {
+        return count == 0 ? Double.NaN : sum / count;
+    }
+}
@@ -0,0 +1,95 @@
+package IotDomain;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The rollups of the evicted samples of one history, in time order. A new rollup is started whenever the last one
+ * covers a full window of the retention policy. The number of rollups is bounded by merging the two oldest ones,
+ * so the first rollup grows to cover everything before the others.
+ */
+public class RollupSeries implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The largest number of rollups in a series.
+     */
+    public static final int MAX_ROLLUPS = 64;
+
+    private final ArrayList<Rollup> rollups = new ArrayList<>();
+
+    /**
+     * Folds an evicted sample into the series.
+     * @param policy The retention policy which evicted the sample.
+     * @param timeNanos The time of the sample.
+     * @param value The value of the sample.
+     */
+    void add(RetentionPolicy policy, long timeNanos, double value) {
+        if (rollups.isEmpty() || policy.isFull(rollups.get(rollups.size() - 1))) {
+            if (rollups.size() == MAX_ROLLUPS) {
+                rollups.get(0).merge(rollups.remove(1));
+            }
+            rollups.add(new Rollup());
+        }
+        rollups.get(rollups.size() - 1).add(timeNanos, value);
+    }
+
+    /**
+     * Writes the rollups of the series to a snapshot.
+     * @param out The output of the snapshot.
+     * @throws IOException If the output cannot be written.
+     */
+    void writeState(DataOutput out) throws IOException {
+        out.writeInt(rollups.size());
+        for (Rollup rollup : rollups) {
+            rollup.writeState(out);
+        }
+    }
+
+    /**
+     * Replaces the rollups of the series with the ones written by {@link #writeState(DataOutput)}.
+     * @param in The input of the snapshot.
+     * @throws IOException If the input cannot be read.
+     */
+    void readState(DataInput in) throws IOException {
+        int count = SnapshotIO.readCount(in);
+        SnapshotIO.check(count <= MAX_ROLLUPS, "Too many rollups in snapshot: " + count);
+        rollups.clear();
+        for (int i = 0; i < count; i++) {
+            rollups.add(Rollup.readState(in));
+        }
+    }
+
+    /**
+     * Replaces the rollups of the series with copies of the rollups of another series.
+     * @param source The series to copy.
+     */
+    void copyFrom(RollupSeries source) {
+        rollups.clear();
+        for (Rollup rollup : source.rollups) {
+            rollups.add(rollup.copy());
+        }
+    }
+
+    /**
+     * Returns the rollups of the series.
+     * @return A read-only list of the rollups, oldest first.
+     */
+    public List<Rollup> getRollups() {
+        return Collections.unmodifiableList(rollups);
+    }
+
+    /**
+     * Returns if no sample was evicted.
+     * @return True if the series has no rollups.
+     */
+    public boolean isEmpty() {
+        return rollups.isEmpty();
+    }
+}
@@ -0,0 +1,316 @@
+package IotDomain;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * The transmissions sent by an entity in a single run, one row per message.
+ * A row holds everything the receivers of the message share: the departure time, the spreading factor, the bandwidth,
+ * the time on air, the position of the sender and the content. It also holds the first receiver and the power the
+ * message arrived with at that receiver, which make up the transmission returned by
+ * {@link NetworkEntity#getSentTransmissions(Integer)}.
+ */
+public class SentLog extends ChunkedLog {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The entity which sent the transmissions.
+     */
+    private NetworkEntity sender;
+
+    private long[][] departureTimes = new long[INITIAL_CHUNKS][];
+    private float[][] powers = new float[INITIAL_CHUNKS][];
+    private double[][] timesOnAir = new double[INITIAL_CHUNKS][];
+    private int[][] xPositions = new int[INITIAL_CHUNKS][];
+    private int[][] yPositions = new int[INITIAL_CHUNKS][];
+    private int[][] receivers = new int[INITIAL_CHUNKS][];
+    private byte[][] spreadingFactors = new byte[INITIAL_CHUNKS][];
+    private short[][] bandwidths = new short[INITIAL_CHUNKS][];
+    private LoraWanPacket[][] contents = new LoraWanPacket[INITIAL_CHUNKS][];
+
+    /**
+     * Constructs an empty log.
+     * @param sender The entity which sends the transmissions.
+     */
+    public SentLog(NetworkEntity sender) {
+        this.sender = sender;
+    }
+
+    /**
+     * Moves the log to another sender, whose environment has receivers with the same ids as the receivers of the log.
+     * @param sender The new sender of the transmissions.
+     */
+    void rebind(NetworkEntity sender) {
+        this.sender = sender;
+    }
+
+    @Override
+    protected void addChunk(int slot) {
+        departureTimes[slot] = new long[CHUNK_SIZE];
+        powers[slot] = new float[CHUNK_SIZE];
+        timesOnAir[slot] = new double[CHUNK_SIZE];
+        xPositions[slot] = new int[CHUNK_SIZE];
+        yPositions[slot] = new int[CHUNK_SIZE];
+        receivers[slot] = new int[CHUNK_SIZE];
+        spreadingFactors[slot] = new byte[CHUNK_SIZE];
+        bandwidths[slot] = new short[CHUNK_SIZE];
+        contents[slot] = new LoraWanPacket[CHUNK_SIZE];
+    }
+
+    @Override
+    protected void freeChunk(int slot) {
+        departureTimes[slot] = null;
+        powers[slot] = null;
+        timesOnAir[slot] = null;
+        xPositions[slot] = null;
+        yPositions[slot] = null;
+        receivers[slot] = null;
+        spreadingFactors[slot] = null;
+        bandwidths[slot] = null;
+        contents[slot] = null;
+    }
+
+    @Override
+    protected void copyChunk(int slot) {
+        departureTimes[slot] = departureTimes[slot].clone();
+        powers[slot] = powers[slot].clone();
+        timesOnAir[slot] = timesOnAir[slot].clone();
+        xPositions[slot] = xPositions[slot].clone();
+        yPositions[slot] = yPositions[slot].clone();
+        receivers[slot] = receivers[slot].clone();
+        spreadingFactors[slot] = spreadingFactors[slot].clone();
+        bandwidths[slot] = bandwidths[slot].clone();
+        contents[slot] = contents[slot].clone();
+    }
+
+    @Override
+    protected void resizeChunks(int capacity) {
+        departureTimes = resized(departureTimes, capacity);
+        powers = resized(powers, capacity);
+        timesOnAir = resized(timesOnAir, capacity);
+        xPositions = resized(xPositions, capacity);
+        yPositions = resized(yPositions, capacity);
+        receivers = resized(receivers, capacity);
+        spreadingFactors = resized(spreadingFactors, capacity);
+        bandwidths = resized(bandwidths, capacity);
+        contents = resized(contents, capacity);
+    }
+
+    @Override
+    public int getBytesPerRow() {
+        return Long.BYTES + Float.BYTES + Double.BYTES + 3 * Integer.BYTES + Byte.BYTES + Short.BYTES + Integer.BYTES;
+    }
+
+    /**
+     * Adds a transmission to the log.
+     * @param transmission The transmission to the first receiver of the message.
+     * @return The number of the row of the message.
+     */
+    int add(LoraTransmission transmission) {
+        int row = appendRow();
+        int slot = slot(row);
+        int offset = offset(row);
+        departureTimes[slot][offset] = transmission.getDepartureTimeNanos();
+        powers[slot][offset] = (float) transmission.getTransmissionPower();
+        timesOnAir[slot][offset] = transmission.getTimeOnAir();
+        xPositions[slot][offset] = transmission.getXPos();
+        yPositions[slot][offset] = transmission.getYPos();
+        receivers[slot][offset] = reference(transmission.getReceiver());
+        spreadingFactors[slot][offset] = transmission.getSpreadingFactor().byteValue();
+        bandwidths[slot][offset] = transmission.getBandwidth().shortValue();
+        contents[slot][offset] = transmission.getContent();
+        return row;
+    }
+
+    /**
+     * Sets the power a message arrived with at its first receiver.
+     * @param row The row of the message.
+     * @param power The received power.
+     */
+    void setPower(int row, double power) {
+        own(row);
+        powers[slot(row)][offset(row)] = (float) power;
+    }
+
+    /**
+     * Returns a fork of the log for a fork of its sender, which shares the retained messages with the log without
+     * copying them. The messages added to either log afterwards are private to it.
+     * @param sender The fork of the sender, in an environment with the receivers of the log.
+     * @return The fork of the log.
+     */
+    SentLog forkTo(NetworkEntity sender) {
+        SentLog fork = new SentLog(sender);
+        shareWith(fork);
+        fork.departureTimes = departureTimes.clone();
+        fork.powers = powers.clone();
+        fork.timesOnAir = timesOnAir.clone();
+        fork.xPositions = xPositions.clone();
+        fork.yPositions = yPositions.clone();
+        fork.receivers = receivers.clone();
+        fork.spreadingFactors = spreadingFactors.clone();
+        fork.bandwidths = bandwidths.clone();
+        fork.contents = contents.clone();
+        return fork;
+    }
+
+    /**
+     * Evicts the oldest messages which are not retained by a policy, folding their time on air into rollups.
+     * @param policy The retention policy of the sender.
+     * @param nowNanos The current time.
+     * @param timesOnAir The rollups of the time on air of the evicted messages.
+     */
+    void evict(RetentionPolicy policy, long nowNanos, RollupSeries timesOnAir) {
+        int row = getFirstRow();
+        while (row < getEndRow() && !policy.retains(getEndRow() - row, getDepartureTimeNanos(row), nowNanos)) {
+            timesOnAir.add(policy, getDepartureTimeNanos(row), getTimeOnAir(row));
+            row++;
+        }
+        evictBefore(row);
+    }
+
+    /**
+     * Writes the retained messages of the log to a snapshot, with the numbers of their rows.
+     * @param out The output of the snapshot.
+     * @throws IOException If the output cannot be written.
+     */
+    void writeState(DataOutput out) throws IOException {
+        out.writeInt(getFirstRow());
+        out.writeInt(getEndRow());
+        for (int row = getFirstRow(); row < getEndRow(); row++) {
+            int slot = slot(row);
+            int offset = offset(row);
+            out.writeLong(departureTimes[slot][offset]);
+            out.writeFloat(powers[slot][offset]);
+            out.writeDouble(timesOnAir[slot][offset]);
+            out.writeInt(xPositions[slot][offset]);
+            out.writeInt(yPositions[slot][offset]);
+            out.writeInt(receivers[slot][offset]);
+            out.writeByte(spreadingFactors[slot][offset]);
+            out.writeShort(bandwidths[slot][offset]);
+            SnapshotIO.writePacket(out, contents[slot][offset]);
+        }
+    }
+
+    /**
+     * Reads a log written by {@link #writeState(DataOutput)}, whose rows keep their numbers.
+     * @param in The input of the snapshot.
+     * @param sender The entity which sent the transmissions, in an environment with the receivers of the log.
+     * @return The log.
+     * @throws IOException If the input cannot be read or refers to receivers which do not exist.
+     */
+    static SentLog readState(DataInput in, NetworkEntity sender) throws IOException {
+        SentLog log = new SentLog(sender);
+        int firstRow = SnapshotIO.readCount(in);
+        int endRow = SnapshotIO.readCount(in);
+        SnapshotIO.check(firstRow <= endRow, "Invalid rows in snapshot: " + firstRow + " to " + endRow);
+        log.startAt(firstRow);
+        for (int i = firstRow; i < endRow; i++) {
+            int row = log.appendRow();
+            int slot = log.slot(row);
+            int offset = offset(row);
+            log.departureTimes[slot][offset] = in.readLong();
+            log.powers[slot][offset] = in.readFloat();
+            log.timesOnAir[slot][offset] = in.readDouble();
+            log.xPositions[slot][offset] = in.readInt();
+            log.yPositions[slot][offset] = in.readInt();
+            int receiver = in.readInt();
+            SnapshotIO.check(isValidReference(sender.getEnvironment(), receiver), "Unknown receiver in snapshot: " + receiver);
+            log.receivers[slot][offset] = receiver;
+            log.spreadingFactors[slot][offset] = in.readByte();
+            log.bandwidths[slot][offset] = in.readShort();
+            log.contents[slot][offset] = SnapshotIO.readPacket(in);
+        }
+        return log;
+    }
+
+    /**
+     * Returns if a message is still in the log.
+     * @param row The row of the message.
+     * @return True if the row was added and not evicted.
+     */
+    public boolean isRetained(int row) {
+        return row >= getFirstRow() && row < getEndRow();
+    }
+
+    /**
+     * Returns the departure time of a message.
+     * @param row The row of the message.
+     * @return The number of nanoseconds between the start of the simulation and the departure of the message.
+     */
+    public long getDepartureTimeNanos(int row) {
+        return departureTimes[slot(row)][offset(row)];
+    }
+
+    /**
+     * Returns the spreading factor of a message.
+     * @param row The row of the message.
+     * @return The spreading factor of the message.
+     */
+    public int getSpreadingFactor(int row) {
+        return spreadingFactors[slot(row)][offset(row)];
+    }
+
+    /**
+     * Returns the time on air of a message.
+     * @param row The row of the message.
+     * @return The time on air of the message.
+     */
+    public double getTimeOnAir(int row) {
+        return timesOnAir[slot(row)][offset(row)];
+    }
+
+    /**
+     * Returns a transmission with the properties of a message, received with the given power by the given receiver.
+     * @param receiver The receiver of the transmission.
+     * @param row The row of the message.
+     * @param power The received power.
+     * @return A new transmission equal to the one that was sent.
+     */
+    LoraTransmission getTransmission(NetworkEntity receiver, int row, double power) {
+        int slot = slot(row);
+        int offset = offset(row);
+        return new LoraTransmission(sender, receiver, power, bandwidths[slot][offset], spreadingFactors[slot][offset],
+                contents[slot][offset], departureTimes[slot][offset], timesOnAir[slot][offset],
+                xPositions[slot][offset], yPositions[slot][offset], row);
+    }
+
+    /**
+     * Returns a transmission with the properties of a message and its first receiver.
+     * @param row The row of the message.
+     * @return A new transmission equal to the one that was sent to the first receiver.
+     */
+    LoraTransmission getTransmission(int row) {
+        int slot = slot(row);
+        int offset = offset(row);
+        return getTransmission(resolve(sender.getEnvironment(), receivers[slot][offset]), row, powers[slot][offset]);
+    }
+
+    /**
+     * Returns a read-only list of the retained transmissions in the log, which are created when they are accessed.
+     * @return A view of the transmissions in the log.
+     */
+    List<LoraTransmission> asList() {
+        return new TransmissionList();
+    }
+
+    private class TransmissionList extends AbstractList<LoraTransmission> implements RandomAccess {
+
+        @Override
+        public LoraTransmission get(int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+            }
+            return getTransmission(getFirstRow() + index);
+        }
+
+        @Override
+        public int size() {
+            return SentLog.this.size();
+        }
+    }
+}
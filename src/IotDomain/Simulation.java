@@ -4,11 +4,18 @@ import GUI.MainGUI;
 import SelfAdaptation.FeedbackLoop.GenericFeedbackLoop;
 // 
 
-import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
 import java.util.Timer;
 import java.util.TimerTask;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 
 /**
  * A class representing a simulation.
@@ -30,6 +37,20 @@ public class Simulation implements Runnable {
      * The GUI on which the simulation is running.
      */
     private MainGUI gui;
+    /**
+     * Whether the motes are moved by the tick engine instead of the {@link MovementScheduler}.
+     */
+    private boolean tickDriven = false;
+    /**
+     * The number of threads running the runs in copies of the environment, or 0 to run them in the environment itself,
+     * or null to take the number of the input profile.
+     */
+    private Integer runThreads = null;
+    /**
+     * The seed from which the seeds of the runs in copies of the environment are derived, or null to take the seed of
+     * the input profile.
+     */
+    private Long baseSeed = null;
 
     /**
      * Constructs a simulation  with a given InputProfile, Environment, GenericFeedbackLoop and GUI.
@@ -98,6 +119,39 @@ public class Simulation implements Runnable {
         return approach;
     }
 
+    /**
+     * Sets whether the motes are moved by advancing the clock one millisecond at a time and checking every mote,
+     * instead of by the {@link MovementScheduler}. Both give the same results; the tick engine is kept as reference.
+     * @param tickDriven True to use the tick engine.
+     */
+    public void setTickDriven(boolean tickDriven) {
+        this.tickDriven = tickDriven;
+    }
+
+    /**
+     * Sets the number of threads running the runs of the input profile. With one thread or more, every run starts
+     * from the state of the environment before the first run, in a copy of the environment seeded with a seed derived
+     * from the base seed and the number of the run. The results are merged back in the order of the runs, so they only
+     * depend on the base seed and not on the number of threads. Without threads, the runs run one after another in the
+     * environment itself, each starting where the previous one stopped.
+     * The runs run in the environment itself while a feedback loop is active, since it adapts the motes of the
+     * environment. The number set overrides the {@code runThreads} of the input profile.
+     * @param runThreads The number of threads, or 0 to run the runs in the environment itself.
+     */
+    public void setRunThreads(int runThreads) {
+        this.runThreads = runThreads;
+    }
+
+    /**
+     * Sets the seed from which the seeds of the runs in copies of the environment and the motes which are enabled
+     * are derived, overriding the {@code baseSeed} of the input profile. Without either, a seed is drawn for every
+     * simulation.
+     * @param baseSeed The base seed.
+     */
+    public void setBaseSeed(long baseSeed) {
+        this.baseSeed = baseSeed;
+    }
+
     /**
      * A method for running a single run with visualisation.
      * @param speed
@@ -106,8 +160,8 @@ public class Simulation implements Runnable {
         //Check if a mote can participate in this run.
         for(Mote mote: getEnvironment().getMotes()){
             Double activityProbability;
-            if(getInputProfile().getProbabilitiesForMotesKeys().contains(getEnvironment().getMotes().indexOf(mote)))
-                activityProbability = getInputProfile().getProbabilityForMote(getEnvironment().getMotes().indexOf(mote));
+            if(getInputProfile().getProbabilitiesForMotesKeys().contains(mote.getId()))
+                activityProbability = getInputProfile().getProbabilityForMote(mote.getId());
             else
                 activityProbability = 1.0;
             mote.enable(Math.random() >= 1.0 - activityProbability);
@@ -116,12 +170,9 @@ public class Simulation implements Runnable {
         getEnvironment().reset();
 
         Boolean arrived = true;
-        HashMap<Mote,Integer> waypoinMap = new HashMap<>();
-        HashMap<Mote,LocalTime> timemap = new HashMap<>();
         HashMap<Mote,Pair<Integer,Integer>> locationmap = new HashMap<>();
         HashMap<Mote,LinkedList<Pair<Integer,Integer>>> locationhistorymap = new HashMap<>();
         for(Mote mote : getEnvironment().getMotes()){
-            timemap.put(mote, getEnvironment().getTime());
             locationmap.put(mote,new Pair<>(mote.getXPos(),mote.getYPos()));
             locationhistorymap.put(mote, new LinkedList<>());
             LinkedList historyMap = locationhistorymap.get(mote);
@@ -133,52 +184,10 @@ public class Simulation implements Runnable {
                     arrived = arrived && false;
                 }
             }
-            waypoinMap.put(mote,0);
         }
 
-        while (!arrived) {
-
-            for(Mote mote : getEnvironment().getMotes()){
-                if(mote.isEnabled()) {
-                    if (Integer.signum(mote.getPath().size() - waypoinMap.get(mote)) > 0) {
-
-                        if (1 / mote.getMovementSpeed() * 1000 < (getEnvironment().getTime().toNanoOfDay() - timemap.get(mote).toNanoOfDay()) / 100000 &&
-                                Long.signum(getEnvironment().getTime().toNanoOfDay() / 100000 - Math.abs(mote.getStartOffset()) * 100000) > 0) {
-                            timemap.put(mote, getEnvironment().getTime());
-                            if (Integer.signum(mote.getXPos() - getEnvironment().toMapXCoordinate(mote.getPath().get(waypoinMap.get(mote)))) != 0 ||
-                                    Integer.signum(mote.getYPos() - getEnvironment().toMapYCoordinate(mote.getPath().get(waypoinMap.get(mote)))) != 0) {
-                                getEnvironment().moveMote(mote, mote.getPath().get(waypoinMap.get(mote)));
-                                LinkedList historymap = locationhistorymap.get(mote);
-                                historymap.add(new Pair<>(mote.getXPos(), mote.getYPos()));
-                                locationhistorymap.put(mote, historymap);
-                                if (mote.shouldSend()) {
-                                    LinkedList<Byte> data = new LinkedList<>();
-                                    for (MoteSensor sensor : mote.getSensors()) {
-                                        data.add(sensor.getValue(mote.getXPos(), mote.getYPos(), getEnvironment().getTime()));
-                                    }
-                                    Byte[] dataByte = new Byte[data.toArray().length];
-                                    data.toArray(dataByte);
-                                    mote.sendToGateWay(dataByte, new HashMap<>());
-                                }
-                            } else waypoinMap.put(mote, waypoinMap.get(mote) + 1);
-                        }
-                    }
-                }
-
-            }
-
-            arrived = true;
-            for(Mote mote : environment.getMotes()){
-                if(mote.isEnabled()) {
-                    if (mote.getPath().size() != 0) {
-                        if (Integer.signum(mote.getXPos() - environment.toMapXCoordinate(mote.getPath().getLast())) != 0 ||
-                                Integer.signum(mote.getYPos() - environment.toMapYCoordinate(mote.getPath().getLast())) != 0) {
-                            arrived = arrived && false;
-                        }
-                    }
-                }
-            }
-            environment.tick(1);
+        if (!arrived) {
+            moveMotesUntilArrived(locationhistorymap);
         }
 
         for(Mote mote : environment.getMotes()){
@@ -202,12 +211,19 @@ public class Simulation implements Runnable {
      */
     public void run(){
 
+        int threads = runThreads != null ? runThreads : getInputProfile().getRunThreads();
+        if (threads > 0 && (getApproach() == null || !getApproach().isActive())) {
+            Long seed = baseSeed != null ? baseSeed : getInputProfile().getBaseSeed();
+            runInCopies(threads, seed != null ? seed : new Random().nextLong());
+            return;
+        }
+
         getEnvironment().reset();
 
         for(Mote mote: getEnvironment().getMotes()){
             Double activityProbability;
-            if(getInputProfile().getProbabilitiesForMotesKeys().contains(getEnvironment().getMotes().indexOf(mote)))
-                activityProbability = getInputProfile().getProbabilityForMote(getEnvironment().getMotes().indexOf(mote));
+            if(getInputProfile().getProbabilitiesForMotesKeys().contains(mote.getId()))
+                activityProbability = getInputProfile().getProbabilityForMote(mote.getId());
             else
                 activityProbability = 1.0;
             mote.enable(Math.random() >= 1.0 - activityProbability);
@@ -216,16 +232,14 @@ public class Simulation implements Runnable {
 
         for(int i =0; i< getInputProfile().getNumberOfRuns();i++) {
 
-            gui.setProgress(i,getInputProfile().getNumberOfRuns());
+            if (gui != null)
+                gui.setProgress(i,getInputProfile().getNumberOfRuns());
             if(i != 0)
                 getEnvironment().addRun();
 
             Boolean arrived = true;
-            HashMap<Mote, Integer> waypoinMap = new HashMap<>();
-            HashMap<Mote, LocalTime> timemap = new HashMap<>();
             HashMap<Mote, Pair<Integer, Integer>> locationmap = new HashMap<>();
             for (Mote mote : getEnvironment().getMotes()) {
-                timemap.put(mote, getEnvironment().getTime());
                 locationmap.put(mote, new Pair<>(mote.getXPos(), mote.getYPos()));
                 if (mote.getPath().size() != 0) {
                     if (Integer.signum(mote.getXPos() - getEnvironment().toMapXCoordinate(mote.getPath().getLast())) != 0 ||
@@ -233,59 +247,190 @@ public class Simulation implements Runnable {
                         arrived = arrived && false;
                     }
                 }
-                waypoinMap.put(mote, 0);
             }
 
-            while (!arrived) {
-
-                for (Mote mote : getEnvironment().getMotes()) {
-                    if(mote.isEnabled()) {
-                        if (Integer.signum(mote.getPath().size() - waypoinMap.get(mote)) > 0) {
-
-                            if (1 / mote.getMovementSpeed() * 1000 < (getEnvironment().getTime().toNanoOfDay() - timemap.get(mote).toNanoOfDay()) / 100000 &&
-                                    Long.signum(getEnvironment().getTime().toNanoOfDay() / 100000 - Math.abs(mote.getStartOffset()) * 100000) > 0) {
-                                timemap.put(mote, getEnvironment().getTime());
-                                if (Integer.signum(mote.getXPos() - getEnvironment().toMapXCoordinate(mote.getPath().get(waypoinMap.get(mote)))) != 0 ||
-                                        Integer.signum(mote.getYPos() - getEnvironment().toMapYCoordinate(mote.getPath().get(waypoinMap.get(mote)))) != 0) {
-                                    getEnvironment().moveMote(mote, mote.getPath().get(waypoinMap.get(mote)));
-                                    if (mote.shouldSend()) {
-                                        LinkedList<Byte> data = new LinkedList<>();
-                                        for (MoteSensor sensor : mote.getSensors()) {
-                                            data.add(sensor.getValue(mote.getXPos(), mote.getYPos(), getEnvironment().getTime()));
-                                        }
-                                        Byte[] dataByte = new Byte[data.toArray().length];
-                                        data.toArray(dataByte);
-                                        mote.sendToGateWay(dataByte, new HashMap<>());
-                                    }
-                                } else waypoinMap.put(mote, waypoinMap.get(mote) + 1);
-                            }
-                        }
-                    }
+            if (!arrived) {
+                moveMotesUntilArrived(null);
+            }
 
-                }
+            if (gui != null)
+                gui.setProgress(getInputProfile().getNumberOfRuns(),getInputProfile().getNumberOfRuns());
+            for (Mote mote : environment.getMotes()) {
+                Pair<Integer, Integer> location = locationmap.get(mote);
+                mote.setXPos(location.getLeft());
+                mote.setYPos(location.getRight());
+            }
+        }
+
+    }
 
-                arrived = true;
-                for (Mote mote : environment.getMotes()) {
-                    if(mote.isEnabled()) {
-                        if (mote.getPath().getLast() != null) {
-                            if (Integer.signum(mote.getXPos() - environment.toMapXCoordinate(mote.getPath().getLast())) != 0 ||
-                                    Integer.signum(mote.getYPos() - environment.toMapYCoordinate(mote.getPath().getLast())) != 0) {
-                                arrived = arrived && false;
-                            }
+    /**
+     * Runs the runs of the input profile in copies of the environment on a pool of threads and merges their results
+     * into the environment in the order of the runs.
+     * @param runThreads The number of threads.
+     * @param baseSeed The seed from which the seeds of the runs and the motes which are enabled are derived.
+     */
+    private void runInCopies(int runThreads, long baseSeed) {
+        Environment environment = getEnvironment();
+        int numberOfRuns = getInputProfile().getNumberOfRuns();
+        environment.reset();
+
+        Random random = new Random(baseSeed);
+        for(Mote mote: environment.getMotes()){
+            Double activityProbability;
+            if(getInputProfile().getProbabilitiesForMotesKeys().contains(mote.getId()))
+                activityProbability = getInputProfile().getProbabilityForMote(mote.getId());
+            else
+                activityProbability = 1.0;
+            mote.enable(random.nextDouble() >= 1.0 - activityProbability);
+        }
+        for (int i = 1; i < numberOfRuns; i++) {
+            environment.addRun();
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(runThreads, numberOfRuns)));
+        try {
+            List<Future<Environment>> copies = new ArrayList<>();
+            for (int i = 0; i < numberOfRuns; i++) {
+                long seed = runSeed(baseSeed, i);
+                copies.add(executor.submit(() -> runCopy(environment, seed)));
+            }
+            // The clock only moves once all copies are made, so every run starts at the same time.
+            long endNanos = environment.getTimeNanos();
+            for (int i = 0; i < numberOfRuns; i++) {
+                if (gui != null)
+                    gui.setProgress(i, numberOfRuns);
+                Environment copy = copies.get(i).get();
+                environment.mergeRun(i, copy);
+                endNanos = Math.max(endNanos, copy.getTimeNanos());
+                // Lets the copy be collected while the later runs are running.
+                copies.set(i, null);
+            }
+            environment.advanceClockTo(endNanos);
+            if (gui != null)
+                gui.setProgress(numberOfRuns, numberOfRuns);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Runs a single run in a copy of an environment.
+     * @param environment The environment to copy.
+     * @param seed The seed of the random generator of the copy.
+     * @return The copy, with the results of the run.
+     */
+    private Environment runCopy(Environment environment, long seed) {
+        Environment copy = environment.copyForRun();
+        copy.getRandom().setSeed(seed);
+        for (Mote mote : copy.getMotes()) {
+            if (mote.isEnabled() && mote.getPath().size() != 0 &&
+                    (Integer.signum(mote.getXPos() - copy.toMapXCoordinate(mote.getPath().getLast())) != 0 ||
+                    Integer.signum(mote.getYPos() - copy.toMapYCoordinate(mote.getPath().getLast())) != 0)) {
+                moveMotesUntilArrived(copy, null);
+                break;
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * Returns the seed of a run, which mixes the bits of the base seed and the number of the run so the seeds of
+     * consecutive runs do not correlate.
+     * @param baseSeed The base seed.
+     * @param run The number of the run.
+     * @return The seed of the run.
+     */
+    public static long runSeed(long baseSeed, int run) {
+        long seed = baseSeed + (run + 1) * 0x9E3779B97F4A7C15L;
+        seed = (seed ^ (seed >>> 30)) * 0xBF58476D1CE4E5B9L;
+        seed = (seed ^ (seed >>> 27)) * 0x94D049BB133111EBL;
+        return seed ^ (seed >>> 31);
+    }
+
+    /**
+     * Moves the enabled motes along their paths until all of them arrived at their last waypoint, letting them send
+     * their sensor data at the rate of their sampling rate.
+     * @param locationHistoryMap The positions of every mote, to which every new position is added, or null.
+     */
+    private void moveMotesUntilArrived(HashMap<Mote,LinkedList<Pair<Integer,Integer>>> locationHistoryMap) {
+        moveMotesUntilArrived(getEnvironment(), locationHistoryMap);
+    }
+
+    /**
+     * Moves the enabled motes of an environment along their paths until all of them arrived at their last waypoint,
+     * letting them send their sensor data at the rate of their sampling rate.
+     * @param environment The environment of the motes.
+     * @param locationHistoryMap The positions of every mote, to which every new position is added, or null.
+     */
+    private void moveMotesUntilArrived(Environment environment, HashMap<Mote,LinkedList<Pair<Integer,Integer>>> locationHistoryMap) {
+        Consumer<Mote> onMove = mote -> {
+            if (locationHistoryMap != null) {
+                locationHistoryMap.get(mote).add(new Pair<>(mote.getXPos(), mote.getYPos()));
+            }
+            if (mote.shouldSend()) {
+                mote.sendSensorData();
+            }
+        };
+        if (tickDriven) {
+            tickUntilArrived(environment, onMove);
+        } else {
+            new MovementScheduler(environment, onMove).run();
+        }
+    }
+
+    /**
+     * Advances the clock one millisecond at a time, letting every enabled mote take a step towards its next waypoint
+     * once its movement interval and its start offset passed, until all of them arrived at their last waypoint.
+     * @param environment The environment of the motes.
+     * @param onMove The action to take after a mote moved.
+     */
+    private void tickUntilArrived(Environment environment, Consumer<Mote> onMove) {
+        Boolean arrived = false;
+        HashMap<Mote, Integer> waypoinMap = new HashMap<>();
+        HashMap<Mote, Long> timemap = new HashMap<>();
+        for (Mote mote : environment.getMotes()) {
+            timemap.put(mote, environment.getTimeNanos());
+            waypoinMap.put(mote, 0);
+        }
+
+        while (!arrived) {
+
+            for (Mote mote : environment.getMotes()) {
+                if(mote.isEnabled()) {
+                    if (Integer.signum(mote.getPath().size() - waypoinMap.get(mote)) > 0) {
+
+                        if (1 / mote.getMovementSpeed() * 1000 < (environment.getTimeNanos() - timemap.get(mote)) / 100000 &&
+                                Long.signum(environment.getTimeNanos() / 100000 - Math.abs(mote.getStartOffset()) * 100000) > 0) {
+                            timemap.put(mote, environment.getTimeNanos());
+                            if (Integer.signum(mote.getXPos() - environment.toMapXCoordinate(mote.getPath().get(waypoinMap.get(mote)))) != 0 ||
+                                    Integer.signum(mote.getYPos() - environment.toMapYCoordinate(mote.getPath().get(waypoinMap.get(mote)))) != 0) {
+                                environment.moveMote(mote, mote.getPath().get(waypoinMap.get(mote)));
+                                onMove.accept(mote);
+                            } else waypoinMap.put(mote, waypoinMap.get(mote) + 1);
                         }
                     }
                 }
-                environment.tick(1);
+
             }
 
-            gui.setProgress(getInputProfile().getNumberOfRuns(),getInputProfile().getNumberOfRuns());
+            arrived = true;
             for (Mote mote : environment.getMotes()) {
-                Pair<Integer, Integer> location = locationmap.get(mote);
-                mote.setXPos(location.getLeft());
-                mote.setYPos(location.getRight());
+                if(mote.isEnabled()) {
+                    if (mote.getPath().size() != 0) {
+                        if (Integer.signum(mote.getXPos() - environment.toMapXCoordinate(mote.getPath().getLast())) != 0 ||
+                                Integer.signum(mote.getYPos() - environment.toMapYCoordinate(mote.getPath().getLast())) != 0) {
+                            arrived = arrived && false;
+                        }
+                    }
+                }
             }
+            environment.tick(1);
         }
-
     }
 
     public GenericFeedbackLoop getApproach() {
@@ -0,0 +1,143 @@
+package IotDomain;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Helpers for the binary snapshots of an environment, which every class writes and reads its own part of, see
+ * {@link Environment#writeState(DataOutput)}. Nullable values are preceded by a flag, lists by their length.
+ */
+final class SnapshotIO {
+
+    /**
+     * The longest payload of a message which is read, far beyond the 255 bytes of a LoRaWAN frame.
+     */
+    private static final int MAX_PAYLOAD = 1 << 16;
+
+    private SnapshotIO() {
+    }
+
+    /**
+     * Reads a number of elements and checks that it is not negative.
+     */
+    static int readCount(DataInput in) throws IOException {
+        int count = in.readInt();
+        if (count < 0) {
+            throw new StreamCorruptedException("Negative count in snapshot: " + count);
+        }
+        return count;
+    }
+
+    /**
+     * Checks a value read from a snapshot.
+     * @param valid The condition the value satisfies.
+     * @param message The description of the value if it does not.
+     * @throws StreamCorruptedException If the condition is false.
+     */
+    static void check(boolean valid, String message) throws StreamCorruptedException {
+        if (!valid) {
+            throw new StreamCorruptedException(message);
+        }
+    }
+
+    static void writeNullableInt(DataOutput out, Integer value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeInt(value);
+        }
+    }
+
+    static Integer readNullableInt(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readInt() : null;
+    }
+
+    static void writeNullableLong(DataOutput out, Long value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value);
+        }
+    }
+
+    static Long readNullableLong(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readLong() : null;
+    }
+
+    static void writeNullableDouble(DataOutput out, Double value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeDouble(value);
+        }
+    }
+
+    static Double readNullableDouble(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readDouble() : null;
+    }
+
+    static void writeBytes(DataOutput out, List<Byte> bytes) throws IOException {
+        out.writeInt(bytes.size());
+        for (Byte value : bytes) {
+            out.writeByte(value);
+        }
+    }
+
+    static LinkedList<Byte> readBytes(DataInput in) throws IOException {
+        int count = readCount(in);
+        LinkedList<Byte> bytes = new LinkedList<>();
+        for (int i = 0; i < count; i++) {
+            bytes.add(in.readByte());
+        }
+        return bytes;
+    }
+
+    /**
+     * Writes the content of a message.
+     */
+    static void writePacket(DataOutput out, LoraWanPacket packet) throws IOException {
+        writeNullableLong(out, packet.getSenderEUI());
+        writeNullableLong(out, packet.getDesignatedReceiverEUI());
+        Byte[] payload = packet.getPayload();
+        out.writeInt(payload.length);
+        for (Byte value : payload) {
+            out.writeByte(value);
+        }
+        out.writeBoolean(packet.hasHeader());
+        out.writeBoolean(packet.hasLowDataRateOptimization());
+        out.writeInt(packet.getAmountOfPreambleSymbols());
+        out.writeDouble(packet.getCodingRate());
+        out.writeInt(packet.getMacCommands().size());
+        for (MacCommand command : packet.getMacCommands()) {
+            out.writeByte(command.ordinal());
+        }
+    }
+
+    /**
+     * Reads the content of a message written by {@link #writePacket(DataOutput, LoraWanPacket)}.
+     */
+    static LoraWanPacket readPacket(DataInput in) throws IOException {
+        Long senderEUI = readNullableLong(in);
+        Long designatedReceiverEUI = readNullableLong(in);
+        int length = readCount(in);
+        check(length <= MAX_PAYLOAD, "Payload too long in snapshot: " + length);
+        Byte[] payload = new Byte[length];
+        for (int i = 0; i < payload.length; i++) {
+            payload[i] = in.readByte();
+        }
+        boolean header = in.readBoolean();
+        boolean lowDataRateOptimization = in.readBoolean();
+        int amountOfPreambleSymbols = in.readInt();
+        double codingRate = in.readDouble();
+        int commands = readCount(in);
+        LinkedList<MacCommand> macCommands = new LinkedList<>();
+        for (int i = 0; i < commands; i++) {
+            int ordinal = in.readUnsignedByte();
+            check(ordinal < MacCommand.values().length, "Unknown MAC command in snapshot: " + ordinal);
+            macCommands.add(MacCommand.values()[ordinal]);
+        }
+        return new LoraWanPacket(senderEUI, designatedReceiverEUI, payload, header, lowDataRateOptimization,
+                amountOfPreambleSymbols, codingRate, macCommands);
+    }
+}
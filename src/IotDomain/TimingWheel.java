@@ -0,0 +1,270 @@
+package IotDomain;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * A hierarchical timing wheel holding the deadline of a timer for every entity id, in ticks of a simulation loop.
+ * Every level is a ring of {@code SLOTS} slots, a slot of a level spanning a full rotation of the level below it.
+ * A timer is kept on the lowest level on which its deadline falls within the current rotation, and moves down a level
+ * when the wheel reaches its slot. Scheduling and cancelling a timer take constant time and a tick only touches the
+ * timers which are due, or which move down a level, regardless of the number of timers.
+ */
+public class TimingWheel {
+
+    /**
+     * The base 2 logarithm of the number of slots on a level.
+     */
+    private static final int SLOT_BITS = 6;
+
+    /**
+     * The number of slots on a level.
+     */
+    private static final int SLOTS = 1 << SLOT_BITS;
+
+    /**
+     * The number of levels, which lets the wheel hold deadlines up to {@code SLOTS^LEVELS} ticks ahead without
+     * moving them. Later deadlines stay on the top level until they come within reach.
+     */
+    private static final int LEVELS = 4;
+
+    private static final int NONE = -1;
+
+    /**
+     * The tick which is handled next.
+     */
+    private long now;
+
+    /**
+     * The first timer in every slot of every level, or {@code NONE} for an empty slot.
+     */
+    private final int[][] heads = new int[LEVELS][SLOTS];
+
+    /**
+     * The deadline, the next and the previous timer in the slot of every id.
+     */
+    private long[] deadlines = new long[0];
+    private int[] next = new int[0];
+    private int[] previous = new int[0];
+
+    /**
+     * The level and slot of every scheduled id, or {@code NONE} for an id without timer.
+     */
+    private int[] slots = new int[0];
+
+    private int[] due = new int[16];
+
+    /**
+     * Constructs an empty wheel.
+     * @param now The tick which is handled first.
+     */
+    public TimingWheel(long now) {
+        this.now = now;
+        for (int[] level : heads) {
+            Arrays.fill(level, NONE);
+        }
+    }
+
+    /**
+     * Returns the tick which is handled next.
+     * @return The current tick of the wheel.
+     */
+    public long getNow() {
+        return now;
+    }
+
+    /**
+     * Returns if an id has a timer.
+     * @param id The id.
+     * @return True if the id has a timer which is not yet due.
+     */
+    public boolean isScheduled(int id) {
+        return id < slots.length && slots[id] != NONE;
+    }
+
+    /**
+     * Returns the deadline of the timer of an id.
+     * @param id The id, which has a timer.
+     * @return The tick on which the timer is due.
+     */
+    public long getDeadline(int id) {
+        return deadlines[id];
+    }
+
+    /**
+     * Sets the timer of an id, replacing its current timer.
+     * @param id The id.
+     * @param deadline The tick on which the timer is due, which is the current tick if it already passed.
+     */
+    public void schedule(int id, long deadline) {
+        if (id >= slots.length) {
+            grow(id + 1);
+        }
+        cancel(id);
+        deadlines[id] = Math.max(deadline, now);
+        insert(id);
+    }
+
+    /**
+     * Postpones the timer of an id.
+     * @param id The id, which has a timer.
+     * @param ticks The number of ticks to postpone the timer with.
+     */
+    public void postpone(int id, long ticks) {
+        schedule(id, deadlines[id] + ticks);
+    }
+
+    /**
+     * Removes the timer of an id, if it has one.
+     * @param id The id.
+     */
+    public void cancel(int id) {
+        if (!isScheduled(id)) {
+            return;
+        }
+        int level = slots[id] / SLOTS;
+        int slot = slots[id] % SLOTS;
+        if (previous[id] == NONE) {
+            heads[level][slot] = next[id];
+        } else {
+            next[previous[id]] = next[id];
+        }
+        if (next[id] != NONE) {
+            previous[next[id]] = previous[id];
+        }
+        slots[id] = NONE;
+    }
+
+    /**
+     * Handles the current tick: removes the timers which are due and passes their ids to an action in ascending order,
+     * after which the wheel moves to the next tick. The action can schedule new timers.
+     * @param action The action to take for every id with a timer which is due.
+     */
+    public void advance(IntConsumer action) {
+        for (int level = LEVELS - 1; level > 0; level--) {
+            if ((now & ((1L << SLOT_BITS * level) - 1)) == 0) {
+                cascade(level, (int) (now >>> SLOT_BITS * level) & (SLOTS - 1));
+            }
+        }
+        int count = 0;
+        int slot = (int) now & (SLOTS - 1);
+        for (int id = heads[0][slot]; id != NONE; id = next[id]) {
+            if (count == due.length) {
+                due = Arrays.copyOf(due, count * 2);
+            }
+            due[count++] = id;
+            slots[id] = NONE;
+        }
+        heads[0][slot] = NONE;
+        Arrays.sort(due, 0, count);
+        now++;
+        for (int i = 0; i < count; i++) {
+            action.accept(due[i]);
+        }
+    }
+
+    /**
+     * Writes the current tick and the deadline of every timer to a snapshot.
+     * @param out The output of the snapshot.
+     * @throws IOException If the output cannot be written.
+     */
+    public void writeState(DataOutput out) throws IOException {
+        out.writeLong(now);
+        int timers = 0;
+        for (int id = 0; id < slots.length; id++) {
+            if (isScheduled(id)) {
+                timers++;
+            }
+        }
+        out.writeInt(timers);
+        for (int id = 0; id < slots.length; id++) {
+            if (isScheduled(id)) {
+                out.writeInt(id);
+                out.writeLong(deadlines[id]);
+            }
+        }
+    }
+
+    /**
+     * Replaces the timers of the wheel with the ones written by {@link #writeState(DataOutput)}. Ids due in the same
+     * tick are still passed to the action in ascending order.
+     * @param in The input of the snapshot.
+     * @param maxId The largest id which can have a timer.
+     * @throws IOException If the input cannot be read or holds an id beyond the largest one.
+     */
+    public void readState(DataInput in, int maxId) throws IOException {
+        long snapshotNow = in.readLong();
+        int timers = SnapshotIO.readCount(in);
+        for (int[] level : heads) {
+            Arrays.fill(level, NONE);
+        }
+        Arrays.fill(slots, NONE);
+        now = snapshotNow;
+        for (int i = 0; i < timers; i++) {
+            int id = in.readInt();
+            SnapshotIO.check(id >= 0 && id <= maxId, "Unknown timer in snapshot: " + id);
+            schedule(id, in.readLong());
+        }
+    }
+
+    /**
+     * Replaces the timers of the wheel with copies of the timers of another wheel.
+     * @param source The wheel to copy.
+     */
+    public void copyFrom(TimingWheel source) {
+        now = source.now;
+        for (int level = 0; level < LEVELS; level++) {
+            System.arraycopy(source.heads[level], 0, heads[level], 0, SLOTS);
+        }
+        deadlines = source.deadlines.clone();
+        next = source.next.clone();
+        previous = source.previous.clone();
+        slots = source.slots.clone();
+    }
+
+    /**
+     * Moves the timers in a slot of a level to the level on which their deadline falls within the current rotation.
+     */
+    private void cascade(int level, int slot) {
+        int id = heads[level][slot];
+        heads[level][slot] = NONE;
+        while (id != NONE) {
+            int following = next[id];
+            slots[id] = NONE;
+            insert(id);
+            id = following;
+        }
+    }
+
+    /**
+     * Adds a timer to its slot, on the lowest level whose current rotation holds its deadline.
+     */
+    private void insert(int id) {
+        long deadline = deadlines[id];
+        int level = 0;
+        while (level < LEVELS - 1 && deadline >>> SLOT_BITS * (level + 1) != now >>> SLOT_BITS * (level + 1)) {
+            level++;
+        }
+        int slot = (int) (deadline >>> SLOT_BITS * level) & (SLOTS - 1);
+        next[id] = heads[level][slot];
+        previous[id] = NONE;
+        if (next[id] != NONE) {
+            previous[next[id]] = id;
+        }
+        heads[level][slot] = id;
+        slots[id] = level * SLOTS + slot;
+    }
+
+    private void grow(int size) {
+        int capacity = Math.max(size, slots.length * 2);
+        int oldLength = slots.length;
+        deadlines = Arrays.copyOf(deadlines, capacity);
+        next = Arrays.copyOf(next, capacity);
+        previous = Arrays.copyOf(previous, capacity);
+        slots = Arrays.copyOf(slots, capacity);
+        Arrays.fill(slots, oldLength, capacity, NONE);
+    }
+}
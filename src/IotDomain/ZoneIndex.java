@@ -0,0 +1,141 @@
+package IotDomain;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * A hierarchical index over the characteristics map of an environment, which records for square blocks of
+ * increasing size whether every position in the block has the same characteristic.
+ * The index is used to walk a transmission path in runs of the same characteristic instead of position by position.
+ * Blocks are evaluated lazily and invalidated when a characteristic on the map changes.
+ */
+public class ZoneIndex implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The base 2 logarithms of the block sizes of the levels, from the smallest to the largest blocks.
+     */
+    private static final int[] LEVEL_SHIFTS = {2, 4, 6, 8};
+
+    /**
+     * The value of a block which has not been evaluated since the last change of the map.
+     */
+    private static final byte UNKNOWN = -2;
+
+    /**
+     * The value of a block which contains more than one characteristic.
+     */
+    private static final byte MIXED = -1;
+
+    /**
+     * The map with characteristics of the environment.
+     */
+    private final Characteristic[][] characteristics;
+
+    /**
+     * The number of blocks in the y direction for every level.
+     */
+    private final int[] blocksY;
+
+    /**
+     * The blocks of every level, holding the ordinal of their characteristic, MIXED or UNKNOWN.
+     */
+    private final byte[][] blocks;
+
+    /**
+     * Constructs an index over a given map of characteristics.
+     * @param characteristics The map of characteristics, which has to be rectangular.
+     */
+    public ZoneIndex(Characteristic[][] characteristics) {
+        this.characteristics = characteristics;
+        int sizeX = characteristics.length;
+        int sizeY = sizeX == 0 ? 0 : characteristics[0].length;
+        blocksY = new int[LEVEL_SHIFTS.length];
+        blocks = new byte[LEVEL_SHIFTS.length][];
+        for (int level = 0; level < LEVEL_SHIFTS.length; level++) {
+            int blockSize = 1 << LEVEL_SHIFTS[level];
+            int blocksX = (sizeX + blockSize - 1) / blockSize;
+            blocksY[level] = (sizeY + blockSize - 1) / blockSize;
+            blocks[level] = new byte[blocksX * blocksY[level]];
+            Arrays.fill(blocks[level], UNKNOWN);
+        }
+    }
+
+    /**
+     * Returns the size of the largest block containing a given position in which every position has the same
+     * characteristic. The block starts at the coordinates of the position rounded down to a multiple of the size.
+     * @param xPos The x-coordinate of the position.
+     * @param yPos The y-coordinate of the position.
+     * @return The base 2 logarithm of the size of the block, 0 if no block around the position is uniform.
+     */
+    public int getUniformBlockShift(int xPos, int yPos) {
+        for (int level = LEVEL_SHIFTS.length - 1; level >= 0; level--) {
+            if (getBlock(level, xPos >> LEVEL_SHIFTS[level], yPos >> LEVEL_SHIFTS[level]) != MIXED) {
+                return LEVEL_SHIFTS[level];
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Marks the blocks containing a given position as changed.
+     * @param xPos The x-coordinate of the changed position.
+     * @param yPos The y-coordinate of the changed position.
+     */
+    public void invalidate(int xPos, int yPos) {
+        for (int level = 0; level < LEVEL_SHIFTS.length; level++) {
+            blocks[level][(xPos >> LEVEL_SHIFTS[level]) * blocksY[level] + (yPos >> LEVEL_SHIFTS[level])] = UNKNOWN;
+        }
+    }
+
+    /**
+     * Returns the value of a block, evaluating it from the level below or from the map if needed.
+     * @param level The level of the block.
+     * @param blockX The x index of the block on its level.
+     * @param blockY The y index of the block on its level.
+     * @return The ordinal of the characteristic of the block or MIXED.
+     */
+    private byte getBlock(int level, int blockX, int blockY) {
+        int index = blockX * blocksY[level] + blockY;
+        byte value = blocks[level][index];
+        if (value == UNKNOWN) {
+            value = level == 0 ? evaluateFromMap(blockX, blockY) : evaluateFromLevel(level, blockX, blockY);
+            blocks[level][index] = value;
+        }
+        return value;
+    }
+
+    private byte evaluateFromMap(int blockX, int blockY) {
+        int shift = LEVEL_SHIFTS[0];
+        int endX = Math.min((blockX + 1) << shift, characteristics.length);
+        int endY = Math.min((blockY + 1) << shift, characteristics[0].length);
+        Characteristic characteristic = characteristics[blockX << shift][blockY << shift];
+        for (int x = blockX << shift; x < endX; x++) {
+            for (int y = blockY << shift; y < endY; y++) {
+                if (characteristics[x][y] != characteristic) {
+                    return MIXED;
+                }
+            }
+        }
+        return characteristic == null ? MIXED : (byte) characteristic.ordinal();
+    }
+
+    private byte evaluateFromLevel(int level, int blockX, int blockY) {
+        int ratio = LEVEL_SHIFTS[level] - LEVEL_SHIFTS[level - 1];
+        int blocksX = blocks[level - 1].length / blocksY[level - 1];
+        int endX = Math.min((blockX + 1) << ratio, blocksX);
+        int endY = Math.min((blockY + 1) << ratio, blocksY[level - 1]);
+        byte value = UNKNOWN;
+        for (int x = blockX << ratio; x < endX; x++) {
+            for (int y = blockY << ratio; y < endY; y++) {
+                byte child = getBlock(level - 1, x, y);
+                if (child == MIXED || (value != UNKNOWN && child != value)) {
+                    return MIXED;
+                }
+                value = child;
+            }
+        }
+        return value;
+    }
+}
@@ -26,11 +26,11 @@ public class FeedbackLoopGatewayBuffer {
             if(contains){
                 gatewayBuffer.get(mote).add(new LinkedList<>());
             }
-            gatewayBuffer.get(mote).getLast().add(new Pair<>(gateway, gateway.getReceivedTransmissions(gateway.getEnvironment().getNumberOfRuns()-1).getLast()));
+            gatewayBuffer.get(mote).getLast().add(new Pair<>(gateway, gateway.getLastReceivedTransmission(gateway.getEnvironment().getNumberOfRuns()-1, null)));
         }
         else {
             LinkedList<Pair<Gateway,LoraTransmission>> buffer = new LinkedList<>();
-            buffer.add(new Pair<>(gateway, gateway.getReceivedTransmissions(gateway.getEnvironment().getNumberOfRuns()-1).getLast()));
+            buffer.add(new Pair<>(gateway, gateway.getLastReceivedTransmission(gateway.getEnvironment().getNumberOfRuns()-1, null)));
             LinkedList<LinkedList<Pair<Gateway,LoraTransmission>>> buffers = new LinkedList<>();
             buffers.add(buffer);
             gatewayBuffer.put(mote,buffers);
@@ -53,11 +53,9 @@ public class MoteProbe {
 
         LinkedList<LoraTransmission> lastTransmissions = new LinkedList<>();
         for (Gateway gateway : mote.getEnvironment().getGateways()) {
-            for (int i = gateway.getReceivedTransmissions(mote.getEnvironment().getNumberOfRuns()-1).size() - 1; i >= 0; i--) {
-                if (gateway.getReceivedTransmissions(mote.getEnvironment().getNumberOfRuns()-1).get(i).getSender() == mote) {
-                    lastTransmissions.add(gateway.getReceivedTransmissions(mote.getEnvironment().getNumberOfRuns()-1).get(i));
-                    break;
-                }
+            LoraTransmission lastTransmission = gateway.getLastReceivedTransmission(mote.getEnvironment().getNumberOfRuns()-1, mote);
+            if (lastTransmission != null) {
+                lastTransmissions.add(lastTransmission);
             }
         }
 
@@ -97,11 +95,9 @@ public class MoteProbe {
 
         LinkedList<LoraTransmission> lastTransmissions = new LinkedList<>();
         for(Gateway gateway : mote.getEnvironment().getGateways()){
-            for(int i = gateway.getReceivedTransmissions(mote.getEnvironment().getNumberOfRuns()-1).size()-1; i>=0; i--) {
-                if(gateway.getReceivedTransmissions(mote.getEnvironment().getNumberOfRuns()-1).get(i).getSender() == mote) {
-                    lastTransmissions.add(gateway.getReceivedTransmissions(mote.getEnvironment().getNumberOfRuns()-1).get(i));
-                    break;
-                }
+            LoraTransmission lastTransmission = gateway.getLastReceivedTransmission(mote.getEnvironment().getNumberOfRuns()-1, mote);
+            if (lastTransmission != null) {
+                lastTransmissions.add(lastTransmission);
             }
         }
 
@@ -140,15 +136,8 @@ public class MoteProbe {
      * @param devEUI
      */
     public void trigger(Gateway gateway, Long devEUI){
-        Boolean found = false;
-        Mote sender = null;
-        for (Mote mote :gateway.getEnvironment().getMotes()){
-            if(mote.getEUI() == devEUI){
-                sender = mote;
-                found = true;
-            }
-        }
-        if(found) {
+        Mote sender = gateway.getEnvironment().getMoteByEUI(devEUI);
+        if(sender != null) {
             if(getGenericFeedbackLoop().isActive()) {
                 getGenericFeedbackLoop().adapt(sender, gateway);
             }
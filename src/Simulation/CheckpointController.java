@@ -0,0 +1,221 @@
+package Simulation;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Takes binary snapshots of the scenario of a running simulation loop and restores them, in between two iterations
+ * of the loop. The loop holds the lock of the controller while it runs an iteration, and a snapshot or a restore
+ * takes it in between. The lock is fair, so a loop running as fast as it can does not keep other threads waiting.
+ * A snapshot starts with a magic number, the version of the format and the kind of scenario, followed by
+ * {@link SteppedScenario#writeState(java.io.DataOutput)}. In between two iterations, the controller also forks the
+ * scenario to simulate ahead of the loop.
+ */
+public class CheckpointController {
+
+    /**
+     * The first bytes of every snapshot, "DNSP".
+     */
+    private static final int MAGIC = 0x444E5350;
+
+    /**
+     * The version of the format of the snapshots.
+     */
+    private static final int VERSION = 3;
+
+    /**
+     * The kinds of scenario of a snapshot.
+     */
+    private static final byte MAIN_SCENARIO = 0;
+    private static final byte FLEET_SCENARIO = 1;
+
+    /**
+     * A snapshot which was taken or restored, with the time it took.
+     */
+    public static final class Checkpoint {
+        private final byte[] data;
+        private final long durationNanos;
+        private final long timeNanos;
+
+        private Checkpoint(byte[] data, long durationNanos, long timeNanos) {
+            this.data = data;
+            this.durationNanos = durationNanos;
+            this.timeNanos = timeNanos;
+        }
+
+        /**
+         * Returns the snapshot.
+         * @return The bytes of the snapshot.
+         */
+        public byte[] getData() {
+            return data;
+        }
+
+        /**
+         * Returns the wall clock time it took to write or read the snapshot, without waiting for the loop.
+         * @return The duration in nanoseconds.
+         */
+        public long getDurationNanos() {
+            return durationNanos;
+        }
+
+        /**
+         * Returns the time of the environment of the snapshot.
+         * @return The time in nanoseconds since the start of the simulation.
+         */
+        public long getTimeNanos() {
+            return timeNanos;
+        }
+    }
+
+    private final ReentrantLock lock = new ReentrantLock(true);
+
+    /**
+     * The scenario of the running loop, or null if no loop runs. Guarded by the lock.
+     */
+    private SteppedScenario scenario;
+
+    /**
+     * Lets the controller take snapshots of the scenario of a loop which starts on the current thread.
+     * @param scenario The scenario of the loop.
+     */
+    public void attach(SteppedScenario scenario) {
+        lock.lock();
+        try {
+            this.scenario = scenario;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops taking snapshots when the loop ends.
+     * @return The scenario the loop ended with, which is another one than it started with if a snapshot was
+     *         restored.
+     */
+    public SteppedScenario detach() {
+        lock.lock();
+        try {
+            SteppedScenario last = scenario;
+            scenario = null;
+            return last;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Takes the lock before an iteration of the loop, which must call {@link #unlock()} after it.
+     * @return The scenario to run the iteration of.
+     */
+    public SteppedScenario lock() {
+        lock.lock();
+        return scenario;
+    }
+
+    /**
+     * Releases the lock after an iteration of the loop.
+     */
+    public void unlock() {
+        lock.unlock();
+    }
+
+    /**
+     * Writes a snapshot of the scenario of the loop in between two of its iterations.
+     * @return The snapshot, or null if no loop runs.
+     * @throws IOException If the snapshot cannot be written.
+     */
+    public Checkpoint snapshot() throws IOException {
+        lock.lock();
+        try {
+            if (scenario == null) {
+                return null;
+            }
+            long start = System.nanoTime();
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(1 << 16);
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(bytes, 1 << 16));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeByte(scenario instanceof FleetScenario ? FLEET_SCENARIO : MAIN_SCENARIO);
+            scenario.writeState(out);
+            out.flush();
+            return new Checkpoint(bytes.toByteArray(), System.nanoTime() - start,
+                    scenario.getEnvironment().getTimeNanos());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Forks the scenario of the loop in between two of its iterations, see {@link SteppedScenario#fork()}. The fork
+     * can be stepped on any thread while the loop continues.
+     * @return The fork, or null if no loop runs.
+     */
+    public SteppedScenario fork() {
+        lock.lock();
+        try {
+            return scenario == null ? null : scenario.fork();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reads a snapshot into a new scenario and lets the loop continue with it from its next iteration on.
+     * The snapshot is read before the loop is interrupted, so a snapshot which cannot be read leaves it alone.
+     * @param data The bytes of the snapshot.
+     * @param traceDirectory The directory of the trace files a fleet of the snapshot may replay, or null.
+     * @param onRestore The action to take with the new scenario before the loop continues, e.g. publishing its
+     *                  environment.
+     * @return The restored snapshot, or null if no loop runs.
+     * @throws IOException If the data is not a snapshot which can be read.
+     */
+    public Checkpoint restore(byte[] data, File traceDirectory, Consumer<SteppedScenario> onRestore) throws IOException {
+        long start = System.nanoTime();
+        SteppedScenario restored;
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+            if (in.readInt() != MAGIC) {
+                throw new StreamCorruptedException("Not a snapshot.");
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new StreamCorruptedException("Unsupported snapshot version: " + version);
+            }
+            byte kind = in.readByte();
+            if (kind == MAIN_SCENARIO) {
+                restored = MainScenario.readState(in);
+            } else if (kind == FLEET_SCENARIO) {
+                restored = FleetScenario.readState(in, traceDirectory);
+            } else {
+                throw new StreamCorruptedException("Unknown scenario in snapshot: " + kind);
+            }
+            if (in.read() != -1) {
+                throw new StreamCorruptedException("Unexpected data after the snapshot.");
+            }
+        } catch (RuntimeException e) {
+            throw new StreamCorruptedException("Invalid snapshot: " + e);
+        }
+        long duration = System.nanoTime() - start;
+
+        lock.lock();
+        try {
+            if (scenario == null) {
+                return null;
+            }
+            scenario = restored;
+            onRestore.accept(restored);
+            return new Checkpoint(data, duration, restored.getEnvironment().getTimeNanos());
+        } finally {
+            lock.unlock();
+        }
+    }
+}
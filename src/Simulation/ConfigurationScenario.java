@@ -0,0 +1,96 @@
+package Simulation;
+
+import IotDomain.ConfigurationLoader;
+import IotDomain.Environment;
+import IotDomain.Mote;
+import IotDomain.MovementScheduler;
+import org.xml.sax.SAXException;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The scenario of a configuration file: every mote moves along its path and sends its sensor data at the rate of its
+ * sampling rate, like a run of an input profile. When every mote arrived, the motes return to their start positions
+ * and a new run starts.
+ */
+public class ConfigurationScenario implements Scenario {
+
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+
+    private final Environment environment;
+
+    /**
+     * The start position of every mote, indexed by its id.
+     */
+    private final int[] startXPositions;
+    private final int[] startYPositions;
+
+    /**
+     * The movement of the motes in the current run.
+     */
+    private MovementScheduler scheduler;
+
+    /**
+     * If a mote moved in the current run.
+     */
+    private boolean moved = false;
+
+    /**
+     * Constructs the scenario with the environment of a configuration file, of which every mote is enabled.
+     * @param file The configuration file.
+     * @param seed The seed of the environment and the start offsets of the motes.
+     * @throws ParserConfigurationException If no XML parser can be created.
+     * @throws SAXException If the file is not valid XML.
+     * @throws IOException If the file cannot be read.
+     */
+    public ConfigurationScenario(File file, long seed) throws ParserConfigurationException, SAXException, IOException {
+        environment = ConfigurationLoader.load(file, new Random(seed));
+        environment.getRandom().setSeed(seed);
+        List<Mote> motes = environment.getMotes();
+        startXPositions = new int[motes.size()];
+        startYPositions = new int[motes.size()];
+        for (Mote mote : motes) {
+            mote.enable(true);
+            startXPositions[mote.getId()] = mote.getXPos();
+            startYPositions[mote.getId()] = mote.getYPos();
+        }
+        scheduler = newScheduler();
+    }
+
+    @Override
+    public Environment getEnvironment() {
+        return environment;
+    }
+
+    @Override
+    public void runUntil(long timeNanos) {
+        while (environment.getTimeNanos() < timeNanos) {
+            boolean arrived = scheduler.runUntil(timeNanos);
+            if (arrived && moved) {
+                for (Mote mote : environment.getMotes()) {
+                    mote.setXPos(startXPositions[mote.getId()]);
+                    mote.setYPos(startYPositions[mote.getId()]);
+                }
+                environment.addRun();
+                scheduler = newScheduler();
+            } else if (environment.getTimeNanos() < timeNanos) {
+                // No mote moves anymore, so nothing happens until the given time.
+                environment.tick((timeNanos - environment.getTimeNanos() + NANOS_PER_MILLI - 1) / NANOS_PER_MILLI);
+            }
+        }
+    }
+
+    private MovementScheduler newScheduler() {
+        moved = false;
+        return new MovementScheduler(environment, mote -> {
+            moved = true;
+            if (mote.shouldSend()) {
+                mote.sendSensorData();
+            }
+        });
+    }
+}
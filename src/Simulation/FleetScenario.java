@@ -0,0 +1,677 @@
+package Simulation;
+
+import IotDomain.*;
+import org.jxmapviewer.viewer.GeoPosition;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.File;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * A generated scenario of a large fleet for scale and stress testing: a square map with a number of gateways on a grid,
+ * at random or in clusters, and a number of randomly scattered motes with a mix of spreading factors and sampling
+ * rates, a share of which roam around their start position or replay GPS traces. The fleet is the same for the same
+ * parameters and seed. Every iteration moves the roaming and the traced motes and lets the motes which are due send at
+ * random moments within the 10 seconds of the iteration.
+ */
+public class FleetScenario implements SteppedScenario {
+
+    /**
+     * The length of an iteration in milliseconds.
+     */
+    private static final long ITERATION_MILLIS = 10000;
+
+    /**
+     * The number of waypoints a roaming mote moves along in a loop.
+     */
+    private static final int WAYPOINTS = 4;
+
+    /**
+     * The largest distance in meters in between a waypoint of a roaming mote and its start position, along each axis.
+     */
+    private static final int ROAMING_DISTANCE = 250;
+
+    /**
+     * The movement speed of every mote in meters per second.
+     */
+    private static final double MOVEMENT_SPEED = 0.5;
+
+    /**
+     * The largest number of spreading factors or sampling rates the motes of a fleet draw from.
+     */
+    private static final int MAX_MIX = 1 << 16;
+
+    /**
+     * The memory of a square meter of the map, and about the memory of a mote or a gateway at the start of a run.
+     */
+    private static final int BYTES_PER_SQUARE_METER = 4;
+    private static final int BYTES_PER_ENTITY = 4096;
+
+    /**
+     * The ways to place the gateways of a fleet on the map.
+     */
+    public enum GatewayLayout {
+        /**
+         * Every gateway in the middle of a cell of an evenly spaced grid.
+         */
+        GRID,
+        /**
+         * Every gateway at a random position.
+         */
+        RANDOM,
+        /**
+         * The gateways spread around a few random centers, about the square root of the number of gateways halved.
+         */
+        CLUSTERED
+    }
+
+    /**
+     * The parameters a fleet is generated from.
+     */
+    public static final class Fleet {
+        private final int mapSize;
+        private final int numberOfMotes;
+        private final int numberOfGateways;
+        private final GatewayLayout gatewayLayout;
+        private final int[] spreadingFactors;
+        private final int[] samplingRates;
+        private final double mobileShare;
+        private final boolean gatewayOnlyReception;
+        private final GpsTraces traces;
+
+        /**
+         * Constructs the parameters of a fleet without traces.
+         * @param mapSize The width and the height of the map in meters. The map takes 4 bytes per square meter.
+         * @param numberOfMotes The number of motes.
+         * @param numberOfGateways The number of gateways.
+         * @param gatewayLayout The way to place the gateways.
+         * @param spreadingFactors The spreading factors the motes draw from with equal chance, so a spreading factor
+         *                         which occurs more than once is drawn more often.
+         * @param samplingRates The sampling rates the motes draw from with equal chance, each the number of iterations
+         *                      in between the messages of a mote on average.
+         * @param mobileShare The share of the motes which roam, between 0 and 1.
+         * @param gatewayOnlyReception Whether only the gateways receive the transmissions of the motes.
+         * @throws IllegalArgumentException If a parameter is out of its range.
+         */
+        public Fleet(int mapSize, int numberOfMotes, int numberOfGateways, GatewayLayout gatewayLayout,
+                     int[] spreadingFactors, int[] samplingRates, double mobileShare, boolean gatewayOnlyReception) {
+            this(mapSize, numberOfMotes, numberOfGateways, gatewayLayout, spreadingFactors, samplingRates, mobileShare,
+                    gatewayOnlyReception, null);
+        }
+
+        /**
+         * Constructs the parameters of a fleet.
+         * @param mapSize The width and the height of the map in meters. The map takes 4 bytes per square meter.
+         * @param numberOfMotes The number of motes.
+         * @param numberOfGateways The number of gateways.
+         * @param gatewayLayout The way to place the gateways.
+         * @param spreadingFactors The spreading factors the motes draw from with equal chance, so a spreading factor
+         *                         which occurs more than once is drawn more often.
+         * @param samplingRates The sampling rates the motes draw from with equal chance, each the number of iterations
+         *                      in between the messages of a mote on average.
+         * @param mobileShare The share of the motes which roam, between 0 and 1, which is 0 if the fleet has traces.
+         * @param gatewayOnlyReception Whether only the gateways receive the transmissions of the motes.
+         * @param traces The traces the motes with the lowest ids replay, a trace each, or null. The map origin is
+         *               the south west corner of the traces, and positions beyond the map are kept on its edge.
+         * @throws IllegalArgumentException If a parameter is out of its range, or the fleet would take more than
+         *                                  half of the maximum heap of the JVM, see {@link #getEstimatedBytes()}.
+         */
+        public Fleet(int mapSize, int numberOfMotes, int numberOfGateways, GatewayLayout gatewayLayout,
+                     int[] spreadingFactors, int[] samplingRates, double mobileShare, boolean gatewayOnlyReception,
+                     GpsTraces traces) {
+            if (mapSize <= 1 || numberOfMotes < 0 || numberOfGateways < 0 || gatewayLayout == null) {
+                throw new IllegalArgumentException("Invalid fleet: map size " + mapSize + ", " + numberOfMotes
+                        + " motes, " + numberOfGateways + " gateways, layout " + gatewayLayout);
+            }
+            if (spreadingFactors.length == 0 || Arrays.stream(spreadingFactors).anyMatch(sf -> sf < 7 || sf > 12)) {
+                throw new IllegalArgumentException("Invalid spreading factors " + Arrays.toString(spreadingFactors));
+            }
+            if (spreadingFactors.length > MAX_MIX || samplingRates.length > MAX_MIX) {
+                throw new IllegalArgumentException("Invalid fleet: more than " + MAX_MIX + " values to draw from");
+            }
+            if (samplingRates.length == 0 || Arrays.stream(samplingRates).anyMatch(rate -> rate < 1)) {
+                throw new IllegalArgumentException("Invalid sampling rates " + Arrays.toString(samplingRates));
+            }
+            if (!(mobileShare >= 0 && mobileShare <= 1)) {
+                throw new IllegalArgumentException("Invalid mobile share " + mobileShare);
+            }
+            if (traces != null && mobileShare > 0) {
+                throw new IllegalArgumentException("A fleet replaying traces has no roaming motes, mobile share " + mobileShare);
+            }
+            this.mapSize = mapSize;
+            this.numberOfMotes = numberOfMotes;
+            this.numberOfGateways = numberOfGateways;
+            this.gatewayLayout = gatewayLayout;
+            this.spreadingFactors = spreadingFactors.clone();
+            this.samplingRates = samplingRates.clone();
+            this.mobileShare = mobileShare;
+            this.gatewayOnlyReception = gatewayOnlyReception;
+            this.traces = traces;
+            long maxBytes = Runtime.getRuntime().maxMemory() / 2;
+            if (getEstimatedBytes() > maxBytes) {
+                throw new IllegalArgumentException("The fleet needs about " + getEstimatedBytes() / 1000000
+                        + " MB, more than half of the " + 2 * maxBytes / 1000000 + " MB of maximum heap");
+            }
+        }
+
+        /**
+         * Returns an estimate of the memory the fleet takes at the start of a run: 4 bytes per square meter of the
+         * map and 4 kB per mote or gateway. The histories of the entities grow during the run.
+         * @return The estimated memory in bytes, at most {@link Long#MAX_VALUE}.
+         */
+        public long getEstimatedBytes() {
+            double bytes = BYTES_PER_SQUARE_METER * (double) mapSize * mapSize
+                    + BYTES_PER_ENTITY * ((double) numberOfMotes + numberOfGateways);
+            return (long) Math.min(bytes, Long.MAX_VALUE);
+        }
+
+        public int getMapSize() {
+            return mapSize;
+        }
+
+        public int getNumberOfMotes() {
+            return numberOfMotes;
+        }
+
+        public int getNumberOfGateways() {
+            return numberOfGateways;
+        }
+
+        public GatewayLayout getGatewayLayout() {
+            return gatewayLayout;
+        }
+
+        public int[] getSpreadingFactors() {
+            return spreadingFactors.clone();
+        }
+
+        public int[] getSamplingRates() {
+            return samplingRates.clone();
+        }
+
+        public double getMobileShare() {
+            return mobileShare;
+        }
+
+        public boolean isGatewayOnlyReception() {
+            return gatewayOnlyReception;
+        }
+
+        public GpsTraces getTraces() {
+            return traces;
+        }
+
+        /**
+         * Returns the number of roaming motes, which are the motes with the lowest ids.
+         * @return The number of roaming motes.
+         */
+        public int getNumberOfMobileMotes() {
+            return (int) Math.round(mobileShare * numberOfMotes);
+        }
+
+        /**
+         * Returns the number of motes which replay a trace, which are the motes with the lowest ids.
+         * @return The number of traced motes.
+         */
+        public int getNumberOfTracedMotes() {
+            return traces == null ? 0 : Math.min(numberOfMotes, traces.getNumberOfTraces());
+        }
+
+        void writeState(DataOutput out) throws IOException {
+            out.writeInt(mapSize);
+            out.writeInt(numberOfMotes);
+            out.writeInt(numberOfGateways);
+            out.writeByte(gatewayLayout.ordinal());
+            writeInts(out, spreadingFactors);
+            writeInts(out, samplingRates);
+            out.writeDouble(mobileShare);
+            out.writeBoolean(gatewayOnlyReception);
+            out.writeUTF(traces == null ? "" : traces.getFile().getPath());
+        }
+
+        /**
+         * Reads the parameters of a fleet written by {@link #writeState(DataOutput)}, opening its trace file within
+         * a trace directory, since a snapshot may come from an HTTP client.
+         */
+        static Fleet readState(DataInput in, File traceDirectory) throws IOException {
+            int mapSize = in.readInt();
+            int numberOfMotes = in.readInt();
+            int numberOfGateways = in.readInt();
+            int layout = in.readUnsignedByte();
+            if (layout >= GatewayLayout.values().length) {
+                throw new StreamCorruptedException("Unknown gateway layout in snapshot: " + layout);
+            }
+            int[] spreadingFactors = readInts(in);
+            int[] samplingRates = readInts(in);
+            double mobileShare = in.readDouble();
+            boolean gatewayOnlyReception = in.readBoolean();
+            String traceFile = in.readUTF();
+            GpsTraces traces = traceFile.isEmpty() ? null : GpsTraces.openWithin(traceDirectory, traceFile);
+            try {
+                return new Fleet(mapSize, numberOfMotes, numberOfGateways, GatewayLayout.values()[layout],
+                        spreadingFactors, samplingRates, mobileShare, gatewayOnlyReception, traces);
+            } catch (IllegalArgumentException e) {
+                throw new StreamCorruptedException(e.getMessage());
+            }
+        }
+
+        private static void writeInts(DataOutput out, int[] values) throws IOException {
+            out.writeInt(values.length);
+            for (int value : values) {
+                out.writeInt(value);
+            }
+        }
+
+        private static int[] readInts(DataInput in) throws IOException {
+            int count = in.readInt();
+            if (count < 0 || count > MAX_MIX) {
+                throw new StreamCorruptedException("Invalid count in snapshot: " + count);
+            }
+            int[] values = new int[count];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = in.readInt();
+            }
+            return values;
+        }
+
+        @Override
+        public String toString() {
+            return numberOfMotes + " motes, " + numberOfGateways + " gateways (" + gatewayLayout.name().toLowerCase()
+                    + "), SF " + Arrays.toString(spreadingFactors) + ", sampling rates " + Arrays.toString(samplingRates)
+                    + ", mobile share " + mobileShare
+                    + (traces == null ? "" : ", " + traces.getNumberOfTraces() + " traces of " + traces.getFile());
+        }
+    }
+
+    private final Fleet fleet;
+
+    /**
+     * The seed the scenario was constructed with, which determines its map and entities.
+     */
+    private final long seed;
+
+    private final Environment environment;
+
+    private final RestorableRandom random;
+
+    /**
+     * The motes send at random intervals averaging their sampling rate. Only the motes which are due are touched in
+     * an iteration.
+     */
+    private final TimingWheel sendTimers = new TimingWheel(0);
+
+    /**
+     * Sampling rates changed through the effector reschedule the timers at the start of the next iteration.
+     */
+    private final Queue<Mote> samplingRateChanges = new ConcurrentLinkedQueue<>();
+
+    /**
+     * The map coordinates of the waypoints of every roaming mote, indexed by its id, which forks share.
+     */
+    private final int[][] xWaypoints;
+    private final int[][] yWaypoints;
+
+    /**
+     * The waypoint every roaming mote moves towards, and the meters it moved less than its speed in the last
+     * iterations, indexed by its id.
+     */
+    private final int[] nextWaypoints;
+    private final double[] remainders;
+
+    /**
+     * The cursor over the trace of every traced mote, indexed by its id.
+     */
+    private final GpsTraces.Cursor[] cursors;
+
+    private long iteration = 0;
+
+    /**
+     * Constructs the scenario with a new environment.
+     * @param fleet The parameters of the fleet.
+     * @param seed The seed of the environment and the intervals of the motes.
+     */
+    public FleetScenario(Fleet fleet, long seed) {
+        this.fleet = fleet;
+        this.seed = seed;
+        random = new RestorableRandom(seed);
+        environment = createEnvironment(fleet, random);
+        environment.getRandom().setSeed(seed);
+        environment.setGatewayOnlyReception(fleet.gatewayOnlyReception);
+
+        int numberOfMobileMotes = fleet.getNumberOfMobileMotes();
+        xWaypoints = new int[numberOfMobileMotes][];
+        yWaypoints = new int[numberOfMobileMotes][];
+        nextWaypoints = new int[numberOfMobileMotes];
+        remainders = new double[numberOfMobileMotes];
+        for (int id = 0; id < numberOfMobileMotes; id++) {
+            List<GeoPosition> path = environment.getMotes().get(id).getPath();
+            xWaypoints[id] = path.stream().mapToInt(environment::toMapXCoordinate).toArray();
+            yWaypoints[id] = path.stream().mapToInt(environment::toMapYCoordinate).toArray();
+        }
+        cursors = new GpsTraces.Cursor[fleet.getNumberOfTracedMotes()];
+        for (int id = 0; id < cursors.length; id++) {
+            cursors[id] = fleet.traces.cursor(id);
+        }
+
+        for (Mote mote : environment.getMotes()) {
+            sendTimers.schedule(mote.getId(), nextSend(mote, -1));
+            mote.setSamplingRateListener(samplingRateChanges::add);
+        }
+    }
+
+    /**
+     * Constructs a fork of a scenario, see {@link #fork()}.
+     * @param source The scenario to fork.
+     */
+    private FleetScenario(FleetScenario source) {
+        fleet = source.fleet;
+        seed = source.seed;
+        random = new RestorableRandom();
+        random.copyFrom(source.random);
+        environment = source.environment.fork();
+        sendTimers.copyFrom(source.sendTimers);
+        for (Mote mote : source.samplingRateChanges) {
+            samplingRateChanges.add(environment.getMotes().get(mote.getId()));
+        }
+        xWaypoints = source.xWaypoints;
+        yWaypoints = source.yWaypoints;
+        nextWaypoints = source.nextWaypoints.clone();
+        remainders = source.remainders.clone();
+        cursors = Arrays.stream(source.cursors).map(GpsTraces.Cursor::copy).toArray(GpsTraces.Cursor[]::new);
+        iteration = source.iteration;
+        for (Mote mote : environment.getMotes()) {
+            mote.setSamplingRateListener(samplingRateChanges::add);
+        }
+    }
+
+    @Override
+    public FleetScenario fork() {
+        return new FleetScenario(this);
+    }
+
+    /**
+     * Creates the environment of a fleet.
+     * @param fleet The parameters of the fleet.
+     * @param random The random generator drawing the seeds and the positions of the gateways and the motes, and the
+     *               spreading factors, sampling rates and waypoints of the motes. A traced mote starts at the start of
+     *               its trace rather than its drawn position.
+     * @return The environment of the fleet.
+     */
+    public static Environment createEnvironment(Fleet fleet, Random random) {
+        Characteristic[][] map = new Characteristic[fleet.mapSize][fleet.mapSize];
+        Arrays.stream(map).forEach(row -> Arrays.fill(row, Characteristic.Forest));
+        GeoPosition origin = fleet.traces == null ? new GeoPosition(50.853718, 4.673155) : fleet.traces.getSouthWest();
+        Environment environment = new Environment(map, origin, new LinkedHashSet<>());
+        int maxX = environment.getMaxXpos();
+        int maxY = environment.getMaxYpos();
+
+        int columns = (int) Math.ceil(Math.sqrt(fleet.numberOfGateways));
+        int rows = columns == 0 ? 0 : (fleet.numberOfGateways + columns - 1) / columns;
+        int[][] clusters = new int[Math.max(1, (int) Math.round(Math.sqrt(fleet.numberOfGateways) / 2))][];
+        if (fleet.gatewayLayout == GatewayLayout.CLUSTERED) {
+            for (int i = 0; i < clusters.length; i++) {
+                clusters[i] = new int[]{maxX / 10 + random.nextInt(maxX * 4 / 5 + 1), maxY / 10 + random.nextInt(maxY * 4 / 5 + 1)};
+            }
+        }
+        for (int i = 0; i < fleet.numberOfGateways; i++) {
+            int x;
+            int y;
+            switch (fleet.gatewayLayout) {
+                case GRID:
+                    x = (int) ((2L * (i % columns) + 1) * maxX / (2L * columns));
+                    y = (int) ((2L * (i / columns) + 1) * maxY / (2L * rows));
+                    break;
+                case RANDOM:
+                    x = random.nextInt(maxX + 1);
+                    y = random.nextInt(maxY + 1);
+                    break;
+                default:
+                    int[] center = clusters[i % clusters.length];
+                    x = clamp((int) Math.round(center[0] + random.nextGaussian() * maxX / 20), maxX);
+                    y = clamp((int) Math.round(center[1] + random.nextGaussian() * maxY / 20), maxY);
+            }
+            new Gateway(random.nextLong(), x, y, environment, 14, 12);
+        }
+
+        int numberOfMobileMotes = fleet.getNumberOfMobileMotes();
+        int numberOfTracedMotes = fleet.getNumberOfTracedMotes();
+        for (int j = 0; j < fleet.numberOfMotes; j++) {
+            long eui = random.nextLong();
+            int x = random.nextInt(maxX);
+            int y = random.nextInt(maxY);
+            if (j < numberOfTracedMotes) {
+                GeoPosition start = fleet.traces.cursor(j).getPosition(0);
+                x = clamp(environment.toMapXCoordinate(start), maxX);
+                y = clamp(environment.toMapYCoordinate(start), maxY);
+            }
+            LinkedList<GeoPosition> path = new LinkedList<>();
+            if (j < numberOfMobileMotes) {
+                for (int k = 0; k < WAYPOINTS; k++) {
+                    int waypointX = clamp(x + random.nextInt(2 * ROAMING_DISTANCE + 1) - ROAMING_DISTANCE, maxX);
+                    int waypointY = clamp(y + random.nextInt(2 * ROAMING_DISTANCE + 1) - ROAMING_DISTANCE, maxY);
+                    path.add(new GeoPosition(environment.toLatitude(waypointY), environment.toLongitude(waypointX)));
+                }
+            }
+            new Mote(eui, x, y, environment, 14,
+                    fleet.spreadingFactors[random.nextInt(fleet.spreadingFactors.length)], new LinkedList<>(), 0,
+                    path, fleet.samplingRates[random.nextInt(fleet.samplingRates.length)], MOVEMENT_SPEED,
+                    random.nextInt(5));
+        }
+        return environment;
+    }
+
+    private static int clamp(int position, int max) {
+        return Math.max(0, Math.min(max, position));
+    }
+
+    @Override
+    public Environment getEnvironment() {
+        return environment;
+    }
+
+    /**
+     * Returns the parameters of the fleet.
+     * @return The parameters of the fleet.
+     */
+    public Fleet getFleet() {
+        return fleet;
+    }
+
+    /**
+     * Writes the state of the scenario to a snapshot: the parameters of its fleet, its seed, the state of its
+     * environment, its random generator, the send timers, the progress of the roaming and the traced motes and the
+     * sampling rate changes which were not handled yet. The traces themselves are opened again from their file.
+     * @param out The output of the snapshot.
+     * @throws IOException If the output cannot be written.
+     */
+    @Override
+    public void writeState(DataOutput out) throws IOException {
+        fleet.writeState(out);
+        out.writeLong(seed);
+        environment.writeState(out);
+        random.writeState(out);
+        sendTimers.writeState(out);
+        out.writeLong(iteration);
+        for (int i = 0; i < nextWaypoints.length; i++) {
+            out.writeInt(nextWaypoints[i]);
+            out.writeDouble(remainders[i]);
+        }
+        for (GpsTraces.Cursor cursor : cursors) {
+            out.writeInt(cursor.getPoint());
+        }
+        List<Mote> changes = new ArrayList<>(samplingRateChanges);
+        out.writeInt(changes.size());
+        for (Mote mote : changes) {
+            out.writeInt(mote.getId());
+        }
+    }
+
+    /**
+     * Reads a scenario written by {@link #writeState(DataOutput)}. The scenario is generated again from the parameters
+     * and the seed of the snapshot, which gives it the same map and entities, after which the state of the snapshot
+     * replaces its own.
+     * @param in The input of the snapshot.
+     * @param traceDirectory The directory the trace file of the fleet must be a binary trace file in, see
+     *                       {@link GpsTraces#openWithin(File, String)}, or null if the fleet cannot have traces.
+     * @return A new scenario which continues where the one of the snapshot was.
+     * @throws IOException If the input cannot be read or is not a snapshot of this scenario, or the trace file
+     *                     cannot be opened.
+     */
+    public static FleetScenario readState(DataInput in, File traceDirectory) throws IOException {
+        Fleet fleet = Fleet.readState(in, traceDirectory);
+        FleetScenario scenario = new FleetScenario(fleet, in.readLong());
+        List<Mote> motes = scenario.environment.getMotes();
+        scenario.environment.readState(in);
+        scenario.random.readState(in);
+        scenario.sendTimers.readState(in, motes.size() - 1);
+        scenario.iteration = in.readLong();
+        for (int i = 0; i < scenario.nextWaypoints.length; i++) {
+            scenario.nextWaypoints[i] = in.readInt();
+            scenario.remainders[i] = in.readDouble();
+            if (scenario.nextWaypoints[i] < 0 || scenario.nextWaypoints[i] >= WAYPOINTS) {
+                throw new StreamCorruptedException("Invalid waypoint in snapshot.");
+            }
+        }
+        for (GpsTraces.Cursor cursor : scenario.cursors) {
+            try {
+                cursor.seek(in.readInt());
+            } catch (IndexOutOfBoundsException e) {
+                throw new StreamCorruptedException("Invalid trace point in snapshot: " + e.getMessage());
+            }
+        }
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            int id = in.readInt();
+            if (id < 0 || id >= motes.size()) {
+                throw new StreamCorruptedException("Unknown mote in snapshot: " + id);
+            }
+            scenario.samplingRateChanges.add(motes.get(id));
+        }
+        return scenario;
+    }
+
+    @Override
+    public void runUntil(long timeNanos) {
+        while (environment.getTimeNanos() < timeNanos) {
+            step();
+        }
+    }
+
+    /**
+     * Simulates an iteration of the scenario.
+     */
+    @Override
+    public void step() {
+        for (Mote mote = samplingRateChanges.poll(); mote != null; mote = samplingRateChanges.poll()) {
+            sendTimers.schedule(mote.getId(), nextSend(mote, iteration - 1));
+        }
+
+        for (int id = 0; id < nextWaypoints.length; id++) {
+            move(environment.getMotes().get(id));
+        }
+        for (int id = 0; id < cursors.length; id++) {
+            follow(environment.getMotes().get(id));
+        }
+
+        // The motes which are due send at random moments within the iteration, in the order of their moments and
+        // ids, rather than all at its start, where every message with the same spreading factor would collide.
+        List<Long> sends = new ArrayList<>();
+        sendTimers.advance(id -> sends.add((long) random.nextInt((int) ITERATION_MILLIS) << 32 | id));
+        Collections.sort(sends);
+        long elapsedMillis = 0;
+        for (long send : sends) {
+            long offsetMillis = send >>> 32;
+            environment.tick(offsetMillis - elapsedMillis);
+            elapsedMillis = offsetMillis;
+            Mote mote = environment.getMotes().get((int) send);
+            if (mote.getId() < cursors.length) {
+                follow(mote);
+            }
+            mote.sendToGateWay(new Byte[0], new HashMap<>());
+            updateMoteStatistics(mote);
+            sendTimers.schedule(mote.getId(), nextSend(mote, iteration));
+        }
+
+        environment.tick(ITERATION_MILLIS - elapsedMillis);
+        iteration++;
+    }
+
+    /**
+     * Updates the highest received signal and the shortest distance to a gateway of a mote which just sent, from the
+     * gateways which received its message without collision, and its packet loss. The message is the last one in the
+     * reception log of every gateway, so unlike the mote probe, which searches the log for the last message a gateway
+     * received of the mote, this does not take longer as the logs grow. The values are left as they were if no gateway
+     * received the message.
+     */
+    private void updateMoteStatistics(Mote mote) {
+        int run = environment.getNumberOfRuns() - 1;
+        Double highestReceivedSignal = null;
+        Double shortestDistance = null;
+        for (Gateway gateway : environment.getGateways()) {
+            ReceptionLog log = gateway.getReceptionLog(run);
+            int row = log.getEndRow() - 1;
+            if (row >= log.getFirstRow() && log.getSender(row) == mote && !log.isCollided(row)) {
+                double distance = Math.hypot(gateway.getXPos() - mote.getXPos(), gateway.getYPos() - mote.getYPos());
+                if (highestReceivedSignal == null || log.getPower(row) > highestReceivedSignal) {
+                    highestReceivedSignal = log.getPower(row);
+                }
+                if (shortestDistance == null || distance < shortestDistance) {
+                    shortestDistance = distance;
+                }
+            }
+        }
+        if (highestReceivedSignal != null) {
+            mote.setHighestReceivedSignal(highestReceivedSignal);
+            mote.setShortestDistanceToGateway(shortestDistance);
+        }
+        mote.setPacketLoss(mote.calculatePacketLoss(run));
+    }
+
+    /**
+     * Moves a roaming mote as far as its movement speed takes it in an iteration, a meter at a time, along its
+     * waypoints. Reaching a waypoint takes a step, after which the mote turns to the next one.
+     */
+    private void move(Mote mote) {
+        int id = mote.getId();
+        double distance = remainders[id] + mote.getMovementSpeed() * ITERATION_MILLIS / 1000;
+        int steps = (int) distance;
+        remainders[id] = distance - steps;
+        for (int i = 0; i < steps; i++) {
+            int waypoint = nextWaypoints[id];
+            if (!environment.moveMote(mote, xWaypoints[id][waypoint], yWaypoints[id][waypoint])) {
+                nextWaypoints[id] = (waypoint + 1) % WAYPOINTS;
+            }
+        }
+    }
+
+    /**
+     * Moves a traced mote to the position of its trace at the current time, which a traced mote also takes right
+     * before it sends. Unlike a roaming mote, a traced mote jumps to its position rather than walking a meter at a time.
+     */
+    private void follow(Mote mote) {
+        GeoPosition position = cursors[mote.getId()].getPosition(environment.getTimeNanos() / 1000000);
+        int x = clamp(environment.toMapXCoordinate(position), environment.getMaxXpos());
+        int y = clamp(environment.toMapYCoordinate(position), environment.getMaxYpos());
+        if (x != mote.getXPos()) {
+            mote.setXPos(x);
+        }
+        if (y != mote.getYPos()) {
+            mote.setYPos(y);
+        }
+    }
+
+    /**
+     * Returns the iteration in which a mote sends its next packet: the first of the iterations with a chance of one in
+     * the sampling rate to send.
+     */
+    private long nextSend(Mote mote, long lastIteration) {
+        if (mote.getSamplingRate() <= 1)
+            return lastIteration + 1;
+        double probability = 1.0 / mote.getSamplingRate();
+        return lastIteration + 1 + (long) Math.floor(Math.log(1 - random.nextDouble()) / Math.log(1 - probability));
+    }
+}
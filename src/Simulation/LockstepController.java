@@ -0,0 +1,181 @@
+package Simulation;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Lets other threads step a simulation loop which runs in lockstep: the loop only runs the iterations it is asked
+ * for, on its own thread, and the thread asking for them waits until they are done. Observations made between two
+ * requests therefore never race with the simulation.
+ */
+public class LockstepController {
+
+    /**
+     * A request for a number of iterations of the loop, with actions to take on the thread of the loop right before
+     * and after them.
+     */
+    public static final class Advance {
+        private final int iterations;
+        private final Runnable before;
+        private final Runnable after;
+        private final CompletableFuture<Advance> done = new CompletableFuture<>();
+        private int completedIterations = 0;
+        private long timeNanos;
+
+        private Advance(int iterations, Runnable before, Runnable after) {
+            this.iterations = iterations;
+            this.before = before;
+            this.after = after;
+        }
+
+        /**
+         * Returns the number of iterations which were asked for.
+         * @return The number of requested iterations.
+         */
+        public int getIterations() {
+            return iterations;
+        }
+
+        /**
+         * Returns the number of iterations the loop ran, which is smaller than the number asked for if the
+         * simulation stopped first.
+         * @return The number of completed iterations.
+         */
+        public int getCompletedIterations() {
+            return completedIterations;
+        }
+
+        /**
+         * Returns the time of the environment after the iterations.
+         * @return The time in nanoseconds since the start of the simulation.
+         */
+        public long getTimeNanos() {
+            return timeNanos;
+        }
+
+        /**
+         * Takes the action of the request before its iterations, on the thread of the loop.
+         */
+        public void runBefore() {
+            before.run();
+        }
+
+        /**
+         * Takes the action of the request after its iterations, on the thread of the loop.
+         */
+        public void runAfter() {
+            after.run();
+        }
+
+        /**
+         * Marks the request as failed, which lets the thread waiting for it continue with the failure.
+         * @param failure The failure of an action of the request.
+         */
+        public void fail(Throwable failure) {
+            done.completeExceptionally(failure);
+        }
+
+        /**
+         * Marks the request as done, which lets the thread waiting for it continue.
+         * @param completedIterations The number of iterations the loop ran.
+         * @param timeNanos The time of the environment after the iterations.
+         */
+        public void complete(int completedIterations, long timeNanos) {
+            this.completedIterations = completedIterations;
+            this.timeNanos = timeNanos;
+            done.complete(this);
+        }
+    }
+
+    /**
+     * The request which tells the loop to stop waiting for requests.
+     */
+    private static final Advance CLOSED = new Advance(0, () -> {}, () -> {});
+
+    private final BlockingQueue<Advance> requests = new LinkedBlockingQueue<>();
+
+    /**
+     * Whether a loop accepts requests.
+     */
+    private boolean open = false;
+
+    /**
+     * Lets the controller accept requests for a loop which is about to start.
+     */
+    public synchronized void open() {
+        requests.clear();
+        open = true;
+    }
+
+    /**
+     * Stops accepting requests and tells the loop to stop waiting for them. The requests which were not taken yet
+     * are dropped, and the threads waiting for them continue as if no loop accepted requests.
+     */
+    public synchronized void close() {
+        if (!open) {
+            return;
+        }
+        open = false;
+        for (Advance request = requests.poll(); request != null; request = requests.poll()) {
+            request.done.complete(null);
+        }
+        requests.add(CLOSED);
+    }
+
+    /**
+     * Returns if a loop accepts requests.
+     * @return True if the controller is open.
+     */
+    public synchronized boolean isOpen() {
+        return open;
+    }
+
+    /**
+     * Asks the loop for a number of iterations and waits until it ran them.
+     * @param iterations The number of iterations, which is positive.
+     * @return The request after it is done, or null if no loop accepts requests or the loop stopped before it took
+     *         the request.
+     * @throws InterruptedException If the thread was interrupted while it waited.
+     */
+    public Advance advance(int iterations) throws InterruptedException {
+        return advance(iterations, () -> {}, () -> {});
+    }
+
+    /**
+     * Asks the loop for a number of iterations with actions right before and after them, and waits until it ran
+     * them. Nothing else changes the simulation between the actions and the iterations.
+     * @param iterations The number of iterations, which is not negative.
+     * @param before The action to take before the iterations.
+     * @param after The action to take after the iterations.
+     * @return The request after it is done, or null if no loop accepts requests or the loop stopped before it took
+     *         the request.
+     * @throws InterruptedException If the thread was interrupted while it waited.
+     * @throws IllegalStateException If an action failed, with the failure as its cause.
+     */
+    public Advance advance(int iterations, Runnable before, Runnable after) throws InterruptedException {
+        Advance request = new Advance(iterations, before, after);
+        synchronized (this) {
+            if (!open) {
+                return null;
+            }
+            requests.add(request);
+        }
+        try {
+            return request.done.get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Waits for the next request, on the thread of the loop.
+     * @return The next request, or null if the controller was closed.
+     * @throws InterruptedException If the thread was interrupted while it waited.
+     */
+    public Advance next() throws InterruptedException {
+        Advance request = requests.take();
+        return request == CLOSED ? null : request;
+    }
+}
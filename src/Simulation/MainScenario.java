@@ -0,0 +1,443 @@
+package Simulation;
+
+import IotDomain.*;
+import SelfAdaptation.Instrumentation.MoteProbe;
+import org.jxmapviewer.viewer.GeoPosition;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * The scenario of the main simulation: three motes and four gateways, of which two motes are moved along different
+ * paths. Every iteration moves the motes a step, lets the motes which are due send and advances the clock by 1.5
+ * seconds.
+ */
+public class MainScenario implements SteppedScenario {
+    private static final MoteProbe moteProbe = new MoteProbe();
+
+    /**
+     * The length of an iteration in milliseconds.
+     */
+    private static final long ITERATION_MILLIS = 1500;
+
+    /*
+    Set to enable or disable adaptation of node 0 (D1).
+     */
+    private final boolean adaption = false;
+
+    private final Environment environment;
+
+    /**
+     * The seed the scenario was constructed with, which determines its map and the EUIs of its entities.
+     */
+    private final long seed;
+
+    private final RestorableRandom random;
+
+    private final Mote mote0;
+    private final Mote mote2;
+    private final LinkedList<GeoPosition> track0;
+    private final LinkedList<GeoPosition> track2;
+    private final GeoPosition mapzero;
+
+    private final LinkedList<Integer> powerSetting0 = new LinkedList<>();
+    private final LinkedList<LoraTransmission> highestPower0 = new LinkedList<>();
+
+    /**
+     * The motes are due to send in the iteration of their timer. A moving mote only counts the iterations it moves.
+     */
+    private final TimingWheel sendTimers = new TimingWheel(0);
+
+    /**
+     * The iterations in which mote 2 sent, or null if they are not kept.
+     */
+    private final LinkedList<Integer> indexesMote2;
+
+    /**
+     * Sampling rates changed through the effector reschedule the timers at the start of the next iteration.
+     */
+    private final Queue<Mote> samplingRateChanges = new ConcurrentLinkedQueue<>();
+
+    private int trackPosition0 = 0;
+    private int trackPosition2 = 0;
+
+    private LinkedList<Double> algorithmBuffer = new LinkedList<>();
+
+    /**
+     * Constructs the scenario with a new environment.
+     * @param seed The seed of the motes, the gateways, the environment and the intervals of mote 2.
+     * @param keepIndexes Whether to keep the iterations in which mote 2 sent, which only the charts use.
+     */
+    public MainScenario(long seed, boolean keepIndexes) {
+        this.seed = seed;
+        random = new RestorableRandom(seed);
+        environment = createEnvironment(random);
+        environment.getRandom().setSeed(seed);
+
+        mote0 = environment.getMotes().get(0);
+        Mote mote1 = environment.getMotes().get(1);
+        mote2 = environment.getMotes().get(2);
+        track0 = mote0.getPath();
+        track2 = mote2.getPath();
+        mapzero = environment.getMapCenter();
+
+        sendTimers.schedule(mote0.getId(), mote0.getSamplingRate() - 1);
+        sendTimers.schedule(mote1.getId(), mote1.getSamplingRate() - 1);
+        int mote2counter = random.nextInt(15) + 1;
+        sendTimers.schedule(mote2.getId(), mote2counter);
+        indexesMote2 = keepIndexes ? new LinkedList<>(Collections.singletonList(mote2counter)) : null;
+        mote0.setSamplingRateListener(samplingRateChanges::add);
+        mote1.setSamplingRateListener(samplingRateChanges::add);
+    }
+
+    /**
+     * Constructs a fork of a scenario, see {@link #fork()}.
+     * @param source The scenario to fork.
+     */
+    private MainScenario(MainScenario source) {
+        seed = source.seed;
+        random = new RestorableRandom();
+        random.copyFrom(source.random);
+        environment = source.environment.fork();
+
+        mote0 = environment.getMotes().get(0);
+        Mote mote1 = environment.getMotes().get(1);
+        mote2 = environment.getMotes().get(2);
+        track0 = mote0.getPath();
+        track2 = mote2.getPath();
+        mapzero = source.mapzero;
+
+        sendTimers.copyFrom(source.sendTimers);
+        indexesMote2 = null;
+        for (Mote mote : source.samplingRateChanges) {
+            samplingRateChanges.add(environment.getMotes().get(mote.getId()));
+        }
+        trackPosition0 = source.trackPosition0;
+        trackPosition2 = source.trackPosition2;
+        algorithmBuffer = new LinkedList<>(source.algorithmBuffer);
+        mote0.setSamplingRateListener(samplingRateChanges::add);
+        mote1.setSamplingRateListener(samplingRateChanges::add);
+    }
+
+    /**
+     * Returns a fork of the scenario in a fork of its environment, see {@link Environment#fork()}. Stepping the fork
+     * does not change the scenario, and a fork which is not adapted continues exactly as the scenario does.
+     * The scenario must not be stepped while it is forked.
+     * @return The fork of the scenario, which does not keep the iterations in which mote 2 sent.
+     */
+    @Override
+    public MainScenario fork() {
+        return new MainScenario(this);
+    }
+
+    /**
+     * Creates the environment of the scenario, with three motes and four gateways.
+     * @param random The random generator drawing the seeds of the motes and the gateways.
+     * @return The environment of the scenario.
+     */
+    public static Environment createEnvironment(Random random) {
+        /*
+         * Generate all the points
+         */
+        GeoPosition mapzero = new GeoPosition(50.853718, 4.673155);
+        Integer mapsize = (int) Math.ceil(1000 *Math.max(Environment.distance(50.853718, 4.673155, 50.878697,   4.673155), Environment.distance(50.853718, 4.673155, 50.853718,   4.701200)));
+        GeoPosition leuven = new GeoPosition(50,51,46,4,41,2);
+        GeoPosition gw1 = new GeoPosition(50.859722, 4.681944);
+        GeoPosition gw2 = new GeoPosition(50.863780, 4.677992);
+        GeoPosition gw3 = new GeoPosition(50.867222, 4.678056);
+        GeoPosition gw4 = new GeoPosition(50.856667, 4.676389);
+
+        GeoPosition wp1 = new GeoPosition(50.856020, 4.675844);
+        GeoPosition wp2 = new GeoPosition(50.856545, 4.676743);
+        GeoPosition wp3 = new GeoPosition(50.857852, 4.679702);
+        GeoPosition wp4 = new GeoPosition(50.860061, 4.683473);
+        GeoPosition wp5 = new GeoPosition(50.861985, 4.680993);
+        GeoPosition wp6 = new GeoPosition(50.862263, 4.680672);
+        GeoPosition wp7 = new GeoPosition(50.862696, 4.680416);
+        GeoPosition wp8 = new GeoPosition(50.863049, 4.680321);
+        GeoPosition wp9 = new GeoPosition(50.863455, 4.680385);
+        GeoPosition wp10 = new GeoPosition(50.863977, 4.680610);
+        GeoPosition wp11 = new GeoPosition(50.864770, 4.680898);
+        GeoPosition wp12 = new GeoPosition(50.865176, 4.680973);
+        GeoPosition wp13 = new GeoPosition(50.865583, 4.680976);
+        GeoPosition wp14 = new GeoPosition(50.867980, 4.680381);
+        GeoPosition wp15 = new GeoPosition(50.867881, 4.678226);
+        GeoPosition wp16 = new GeoPosition(50.868028, 4.678175);
+        GeoPosition wp17 = new GeoPosition(50.869650, 4.676740);
+
+        GeoPosition wp21 = new GeoPosition(50.868551, 4.698337);
+        GeoPosition wp22 = new GeoPosition(50.866713, 4.695153);
+        GeoPosition wp23 = new GeoPosition(50.861330, 4.685687);
+        GeoPosition wp24 = new GeoPosition(50.857910, 4.679724);
+        GeoPosition wp25 = new GeoPosition(50.856486, 4.676650);
+
+        /*
+         * Create tracks.
+         */
+        LinkedList<GeoPosition> track0 = new LinkedList<>(Arrays.asList(wp1,wp2,wp3,wp4,wp5,wp6,wp7,wp8,wp9,wp10,wp11,wp12,wp13,wp14,wp15,wp16,wp17));
+        LinkedList<GeoPosition> track2 = new LinkedList<>(Arrays.asList(wp21,wp22,wp23,wp24,wp25,wp1));
+
+        GeoPosition positionMote2 = new GeoPosition(50.862752, 4.688886);
+
+        /*
+         * Prepare simulation environment.
+         */
+        Characteristic[][] map = new Characteristic[mapsize][mapsize];
+        for(int i =0; i < mapsize; i++){
+            for(int j =0; j < mapsize / 3 ; j++){
+                map[j][i] = Characteristic.Forest;
+            }
+            for(int j = mapsize / 3; j < 2 * mapsize / 3 ; j++){
+                map[j][i] = Characteristic.Plain;
+            }
+
+            for(int j = 2 * mapsize / 3; j < mapsize ; j++){
+                map[j][i] = Characteristic.City;
+            }
+        }
+
+        Environment environment = new Environment(map,mapzero,new LinkedHashSet<>());
+
+        /*
+        Add motes and gateways.
+         */
+        new Gateway(random.nextLong(),(int)Math.round(1000* Environment.distance(mapzero.getLatitude(),mapzero.getLongitude(),mapzero.getLatitude(), gw1.getLongitude())),
+                (int)Math.round(1000* Environment.distance(mapzero.getLatitude(),mapzero.getLongitude(),gw1.getLatitude(), mapzero.getLongitude())),
+                environment, 14,12);
+        new Gateway(random.nextLong(),(int)Math.round(1000* Environment.distance(mapzero.getLatitude(),mapzero.getLongitude(),mapzero.getLatitude(), gw2.getLongitude())),
+                (int)Math.round(1000* Environment.distance(mapzero.getLatitude(),mapzero.getLongitude(),gw2.getLatitude(), mapzero.getLongitude())),
+                environment, 14,12);
+        new Gateway(random.nextLong(),(int)Math.round(1000* Environment.distance(mapzero.getLatitude(),mapzero.getLongitude(),mapzero.getLatitude(), gw3.getLongitude())),
+                (int)Math.round(1000* Environment.distance(mapzero.getLatitude(),mapzero.getLongitude(),gw3.getLatitude(), mapzero.getLongitude())),
+                environment, 14,12);
+        new Gateway(random.nextLong(),(int)Math.round(1000* Environment.distance(mapzero.getLatitude(),mapzero.getLongitude(),mapzero.getLatitude(), gw4.getLongitude())),
+                (int)Math.round(1000* Environment.distance(mapzero.getLatitude(),mapzero.getLongitude(),gw4.getLatitude(), mapzero.getLongitude())),
+                environment, 14,12);
+
+
+        /*
+         * Mote 0
+         */
+        new Mote(random.nextLong(),
+                (int)Math.round(1000* Environment.distance(mapzero.getLatitude(),mapzero.getLongitude(),mapzero.getLatitude(), wp1.getLongitude())),
+                (int)Math.round(1000* Environment.distance(mapzero.getLatitude(),mapzero.getLongitude(),wp1.getLatitude(), mapzero.getLongitude())),
+                environment, 14,12, new LinkedList<>(),0, track0,10,0.5);
+
+        /*
+         * Mote 1
+         */
+        new Mote(random.nextLong(),toMapXCoordinate(wp21,mapzero),
+                toMapYCoordinate(wp21,mapzero),
+                environment, 14,12, new LinkedList<>(),0, new LinkedList<>(),10,0.5);
+
+        /*
+         * Mote 2
+         */
+        new Mote(random.nextLong(),
+                (int)Math.round(1000* Environment.distance(mapzero.getLatitude(),mapzero.getLongitude(),mapzero.getLatitude(), positionMote2.getLongitude())),
+                (int)Math.round(1000* Environment.distance(mapzero.getLatitude(),mapzero.getLongitude(),positionMote2.getLatitude(), mapzero.getLongitude())),
+                environment, 14,12, new LinkedList<>(),0, track2,10,0.5);
+
+        return environment;
+    }
+
+    @Override
+    public Environment getEnvironment() {
+        return environment;
+    }
+
+    /**
+     * Returns the iterations in which mote 2 sent.
+     * @return The iterations in which mote 2 sent, or null if they are not kept.
+     */
+    public List<Integer> getIndexesMote2() {
+        return indexesMote2;
+    }
+
+    /**
+     * Writes the state of the scenario to a snapshot: its seed, the state of its environment, its random generator,
+     * the send timers, the progress of the motes along their tracks and the sampling rate changes which were not
+     * handled yet. The iterations in which mote 2 sent are not written.
+     * @param out The output of the snapshot.
+     * @throws IOException If the output cannot be written.
+     */
+    @Override
+    public void writeState(DataOutput out) throws IOException {
+        out.writeLong(seed);
+        environment.writeState(out);
+        random.writeState(out);
+        sendTimers.writeState(out);
+        out.writeInt(trackPosition0);
+        out.writeInt(trackPosition2);
+        out.writeInt(algorithmBuffer.size());
+        for (Double power : algorithmBuffer) {
+            out.writeDouble(power);
+        }
+        List<Mote> changes = new ArrayList<>(samplingRateChanges);
+        out.writeInt(changes.size());
+        for (Mote mote : changes) {
+            out.writeInt(mote.getId());
+        }
+    }
+
+    /**
+     * Reads a scenario written by {@link #writeState(DataOutput)}. The scenario is constructed with the seed of the
+     * snapshot, which gives it the same map and entities, after which the state of the snapshot replaces its own.
+     * @param in The input of the snapshot.
+     * @return A new scenario which continues where the one of the snapshot was.
+     * @throws IOException If the input cannot be read or is not a snapshot of this scenario.
+     */
+    public static MainScenario readState(DataInput in) throws IOException {
+        MainScenario scenario = new MainScenario(in.readLong(), false);
+        List<Mote> motes = scenario.environment.getMotes();
+        scenario.environment.readState(in);
+        scenario.random.readState(in);
+        scenario.sendTimers.readState(in, motes.size() - 1);
+        scenario.trackPosition0 = in.readInt();
+        scenario.trackPosition2 = in.readInt();
+        if (scenario.trackPosition0 < 0 || scenario.trackPosition2 < 0) {
+            throw new StreamCorruptedException("Negative track position in snapshot.");
+        }
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            scenario.algorithmBuffer.add(in.readDouble());
+        }
+        count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            int id = in.readInt();
+            if (id < 0 || id >= motes.size()) {
+                throw new StreamCorruptedException("Unknown mote in snapshot: " + id);
+            }
+            scenario.samplingRateChanges.add(motes.get(id));
+        }
+        return scenario;
+    }
+
+    @Override
+    public void runUntil(long timeNanos) {
+        while (environment.getTimeNanos() < timeNanos) {
+            step();
+        }
+    }
+
+    /**
+     * Simulates an iteration of the scenario.
+     */
+    @Override
+    public void step() {
+        for (Mote mote = samplingRateChanges.poll(); mote != null; mote = samplingRateChanges.poll()) {
+            sendTimers.schedule(mote.getId(), sendTimers.getNow() - 1 + mote.getSamplingRate());
+        }
+
+        // Update the position of mote0
+        if (!moveMote(track0.get(trackPosition0 % track0.size()), mote0, mapzero)) {
+            // Mote didn't move, reached a waypoint
+            trackPosition0++;
+            sendTimers.postpone(mote0.getId(), 1);
+        }
+
+        // Update the position of mote2
+        if (!moveMote(track2.get(trackPosition2 % track2.size()), mote2, mapzero)) {
+            // Mote didn't move, reached a waypoint
+            trackPosition2++;
+            sendTimers.postpone(mote2.getId(), 1);
+        }
+
+        sendTimers.advance(id -> {
+            Mote mote = environment.getMotes().get(id);
+            mote.sendToGateWay(new Byte[0], new HashMap<>());
+            if (mote == mote0 && adaption) {
+                powerSetting0.add(mote0.getTransmissionPower());
+                highestPower0.add(naiveAdaptionAlgorithm(mote0));
+            }
+
+            updateMoteStatistics(mote);
+
+            if (mote == mote2) {
+                int interval = random.nextInt(15) + 1;
+                sendTimers.schedule(id, sendTimers.getNow() + interval);
+                if (indexesMote2 != null)
+                    indexesMote2.add(indexesMote2.getLast() + interval);
+            } else {
+                sendTimers.schedule(id, sendTimers.getNow() - 1 + mote.getSamplingRate());
+            }
+        });
+
+        environment.tick(ITERATION_MILLIS);
+    }
+
+    private void updateMoteStatistics(Mote mote) {
+        mote.setHighestReceivedSignal(moteProbe.getHighestReceivedSignal(mote));
+        mote.setShortestDistanceToGateway(moteProbe.getShortestDistanceToGateway(mote));
+        mote.setPacketLoss(mote.calculatePacketLoss(environment.getNumberOfRuns() - 1));
+    }
+
+    /*
+    The naïve adaptation for our paper
+     */
+    private LoraTransmission naiveAdaptionAlgorithm(Mote mote){
+        LinkedList<LoraTransmission> lastTransmissions = new LinkedList<>();
+        for(Gateway gateway :mote.getEnvironment().getGateways()){
+            LoraTransmission lastTransmission = gateway.getLastReceivedTransmission(gateway.getEnvironment().getNumberOfRuns()-1, mote);
+            if(lastTransmission != null) {
+                lastTransmissions.add(lastTransmission);
+            }
+        }
+        LoraTransmission bestTransmission = lastTransmissions.getFirst();
+        for (LoraTransmission transmission : lastTransmissions){
+            if(transmission.getTransmissionPower() > bestTransmission.getTransmissionPower())
+                bestTransmission = transmission;
+        }
+        algorithmBuffer.add(bestTransmission.getTransmissionPower());
+        if(algorithmBuffer.size() ==5){
+            double average = 0;
+            for (Double power : algorithmBuffer){
+                average+= power;
+            }
+            average = average /5;
+            if(average > -42) {
+                if (mote.getTransmissionPower() > -3)
+                    mote.setTransmissionPower(mote.getTransmissionPower() - 1);
+            }
+            if(average < -48){
+                if(mote.getTransmissionPower() < 14)
+                    mote.setTransmissionPower(mote.getTransmissionPower() +1);
+            }
+            algorithmBuffer = new LinkedList<>();
+        }
+        return bestTransmission;
+    }
+
+    /**
+     * A function that moves a mote to a geoposition 1 step and returns if the note has moved.
+     * @param position
+     * @param mote
+     * @param mapzero
+     * @return If the node has moved
+     */
+    private static Boolean moveMote(GeoPosition position, Mote mote, GeoPosition mapzero){
+        Integer xPos = toMapXCoordinate(position, mapzero);
+        Integer yPos = toMapYCoordinate(position, mapzero);
+        if(Integer.signum(xPos - mote.getXPos()) != 0 || Integer.signum(yPos - mote.getYPos()) != 0){
+            if(Math.abs(mote.getXPos() - xPos) >= Math.abs(mote.getYPos() - yPos)){
+                mote.setXPos(mote.getXPos() + Integer.signum(xPos - mote.getXPos()));
+            }  else {
+                mote.setYPos(mote.getYPos() + Integer.signum(yPos - mote.getYPos()));
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private static Integer toMapXCoordinate(GeoPosition geoPosition, GeoPosition mapzero){
+        return (int)Math.round(1000* Environment.distance(mapzero.getLatitude(),mapzero.getLongitude(),mapzero.getLatitude(), geoPosition.getLongitude()));
+    }
+
+    private static Integer toMapYCoordinate(GeoPosition geoPosition, GeoPosition mapzero){
+        return (int)Math.round(1000* Environment.distance(mapzero.getLatitude(),mapzero.getLongitude(),geoPosition.getLatitude(), mapzero.getLongitude()));
+    }
+}
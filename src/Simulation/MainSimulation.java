@@ -1,7 +1,6 @@
 package Simulation;
 
 import IotDomain.*;
-import SelfAdaptation.Instrumentation.MoteProbe;
 import models.SimulationState;
 import org.jfree.chart.ChartFactory;
 import org.jfree.chart.ChartPanel;
@@ -12,7 +11,6 @@ import org.jfree.chart.plot.PlotOrientation;
 import org.jfree.chart.plot.XYPlot;
 import org.jfree.data.xy.XYSeries;
 import org.jfree.data.xy.XYSeriesCollection;
-import org.jxmapviewer.viewer.GeoPosition;
 
 import javax.swing.*;
 import java.awt.*;
@@ -24,8 +22,6 @@ import java.util.*;
  * @version 1.0
  */
 public class MainSimulation extends Thread {
-    private static final MoteProbe moteProbe = new MoteProbe();
-
     /**
      * The current environment of the simulation.
      * @since 1.0
@@ -33,219 +29,191 @@ public class MainSimulation extends Thread {
     SimulationState simulationState;
 
     /**
-     * Constructs a {@code MainSimulation} object with the Environment {@code environment}.
-     * @param simulationState The environment of the {@code MainSimulation} object.
+     * Whether the path loss to the gateways is precomputed for every position on the map.
      * @since 1.0
      */
-    public MainSimulation(SimulationState simulationState) {
-        this.simulationState = simulationState;
-    }
+    private boolean coverageRasters = false;
 
-    public static IotDomain.Environment createEnvironment() {
-        /*
-         * Generate all the points
-         */
-        GeoPosition mapzero = new GeoPosition(50.853718, 4.673155);
-        Integer mapsize = (int) Math.ceil(1000 *Math.max(IotDomain.Environment.distance(50.853718, 4.673155, 50.878697,   4.673155), IotDomain.Environment.distance(50.853718, 4.673155, 50.853718,   4.701200)));
-        GeoPosition leuven = new GeoPosition(50,51,46,4,41,2);
-        GeoPosition gw1 = new GeoPosition(50.859722, 4.681944);
-        GeoPosition gw2 = new GeoPosition(50.863780, 4.677992);
-        GeoPosition gw3 = new GeoPosition(50.867222, 4.678056);
-        GeoPosition gw4 = new GeoPosition(50.856667, 4.676389);
-
-        GeoPosition wp1 = new GeoPosition(50.856020, 4.675844);
-        GeoPosition wp2 = new GeoPosition(50.856545, 4.676743);
-        GeoPosition wp3 = new GeoPosition(50.857852, 4.679702);
-        GeoPosition wp4 = new GeoPosition(50.860061, 4.683473);
-        GeoPosition wp5 = new GeoPosition(50.861985, 4.680993);
-        GeoPosition wp6 = new GeoPosition(50.862263, 4.680672);
-        GeoPosition wp7 = new GeoPosition(50.862696, 4.680416);
-        GeoPosition wp8 = new GeoPosition(50.863049, 4.680321);
-        GeoPosition wp9 = new GeoPosition(50.863455, 4.680385);
-        GeoPosition wp10 = new GeoPosition(50.863977, 4.680610);
-        GeoPosition wp11 = new GeoPosition(50.864770, 4.680898);
-        GeoPosition wp12 = new GeoPosition(50.865176, 4.680973);
-        GeoPosition wp13 = new GeoPosition(50.865583, 4.680976);
-        GeoPosition wp14 = new GeoPosition(50.867980, 4.680381);
-        GeoPosition wp15 = new GeoPosition(50.867881, 4.678226);
-        GeoPosition wp16 = new GeoPosition(50.868028, 4.678175);
-        GeoPosition wp17 = new GeoPosition(50.869650, 4.676740);
-
-        GeoPosition wp21 = new GeoPosition(50.868551, 4.698337);
-        GeoPosition wp22 = new GeoPosition(50.866713, 4.695153);
-        GeoPosition wp23 = new GeoPosition(50.861330, 4.685687);
-        GeoPosition wp24 = new GeoPosition(50.857910, 4.679724);
-        GeoPosition wp25 = new GeoPosition(50.856486, 4.676650);
+    /**
+     * Whether only the gateways receive the transmissions of the motes.
+     * @since 1.0
+     */
+    private boolean gatewayOnlyReception = false;
 
-        /*
-         * Create tracks.
-         */
-        LinkedList<GeoPosition> track0 = new LinkedList<>(Arrays.asList(wp1,wp2,wp3,wp4,wp5,wp6,wp7,wp8,wp9,wp10,wp11,wp12,wp13,wp14,wp15,wp16,wp17));
-        LinkedList<GeoPosition> track2 = new LinkedList<>(Arrays.asList(wp21,wp22,wp23,wp24,wp25,wp1));
+    /**
+     * The policy bounding the histories of the motes and the gateways.
+     * @since 1.0
+     */
+    private RetentionPolicy retentionPolicy = RetentionPolicy.UNBOUNDED;
 
-        GeoPosition positionMote2 = new GeoPosition(50.862752, 4.688886);
+    /**
+     * Whether the loop only runs the iterations asked for through the lockstep controller of the simulation state.
+     * @since 1.0
+     */
+    private boolean lockstep = false;
 
-        /*
-         * Prepare simulation environment.
-         */
-        Characteristic[][] map = new Characteristic[mapsize][mapsize];
-        for(int i =0; i < mapsize; i++){
-            for(int j =0; j < mapsize / 3 ; j++){
-                map[j][i] = Characteristic.Forest;
-            }
-            for(int j = mapsize / 3; j < 2 * mapsize / 3 ; j++){
-                map[j][i] = Characteristic.Plain;
-            }
+    /**
+     * The fleet to generate, or null to run the main scenario.
+     * @since 1.0
+     */
+    private FleetScenario.Fleet fleet = null;
 
-            for(int j = 2 * mapsize / 3; j < mapsize ; j++){
-                map[j][i] = Characteristic.City;
-            }
-        }
+    /**
+     * The seed of the scenario, or null to draw one.
+     * @since 1.0
+     */
+    private Long seed = null;
 
-        IotDomain.Environment environment = new IotDomain.Environment(map,mapzero,new LinkedHashSet<>());
+    /**
+     * Constructs a {@code MainSimulation} object with the Environment {@code environment}.
+     * @param simulationState The environment of the {@code MainSimulation} object.
+     * @since 1.0
+     */
+    public MainSimulation(SimulationState simulationState) {
+        this.simulationState = simulationState;
+    }
 
-        /*
-        Add motes and gateways.
-         */
-        Random random = new Random();
-        new Gateway(random.nextLong(),(int)Math.round(1000* IotDomain.Environment.distance(mapzero.getLatitude(),mapzero.getLongitude(),mapzero.getLatitude(), gw1.getLongitude())),
-                (int)Math.round(1000* IotDomain.Environment.distance(mapzero.getLatitude(),mapzero.getLongitude(),gw1.getLatitude(), mapzero.getLongitude())),
-                environment, 14,12);
-        new Gateway(random.nextLong(),(int)Math.round(1000* IotDomain.Environment.distance(mapzero.getLatitude(),mapzero.getLongitude(),mapzero.getLatitude(), gw2.getLongitude())),
-                (int)Math.round(1000* IotDomain.Environment.distance(mapzero.getLatitude(),mapzero.getLongitude(),gw2.getLatitude(), mapzero.getLongitude())),
-                environment, 14,12);
-        new Gateway(random.nextLong(),(int)Math.round(1000* IotDomain.Environment.distance(mapzero.getLatitude(),mapzero.getLongitude(),mapzero.getLatitude(), gw3.getLongitude())),
-                (int)Math.round(1000* IotDomain.Environment.distance(mapzero.getLatitude(),mapzero.getLongitude(),gw3.getLatitude(), mapzero.getLongitude())),
-                environment, 14,12);
-        new Gateway(random.nextLong(),(int)Math.round(1000* IotDomain.Environment.distance(mapzero.getLatitude(),mapzero.getLongitude(),mapzero.getLatitude(), gw4.getLongitude())),
-                (int)Math.round(1000* IotDomain.Environment.distance(mapzero.getLatitude(),mapzero.getLongitude(),gw4.getLatitude(), mapzero.getLongitude())),
-                environment, 14,12);
+    /**
+     * Sets whether the path loss to the gateways is precomputed for every position on the map.
+     * @param coverageRasters True to build a coverage raster for every gateway when the environment is created.
+     * @since 1.0
+     */
+    public void setCoverageRasters(boolean coverageRasters) {
+        this.coverageRasters = coverageRasters;
+    }
 
+    /**
+     * Sets whether only the gateways receive the transmissions of the motes.
+     * @param gatewayOnlyReception True to drop the reception of transmissions by other motes.
+     * @since 1.0
+     */
+    public void setGatewayOnlyReception(boolean gatewayOnlyReception) {
+        this.gatewayOnlyReception = gatewayOnlyReception;
+    }
 
-        /*
-         * Mote 0
-         */
-        new Mote(random.nextLong(),
-                (int)Math.round(1000* IotDomain.Environment.distance(mapzero.getLatitude(),mapzero.getLongitude(),mapzero.getLatitude(), wp1.getLongitude())),
-                (int)Math.round(1000* IotDomain.Environment.distance(mapzero.getLatitude(),mapzero.getLongitude(),wp1.getLatitude(), mapzero.getLongitude())),
-                environment, 14,12, new LinkedList<>(),0, track0,10,0.5);
+    /**
+     * Sets the policy bounding the histories of the motes and the gateways, which keeps the memory of a simulation
+     * running until it is stopped bounded.
+     * @param retentionPolicy The retention policy of the environment.
+     * @since 1.0
+     */
+    public void setRetentionPolicy(RetentionPolicy retentionPolicy) {
+        this.retentionPolicy = retentionPolicy;
+    }
 
-        /*
-         * Mote 1
-         */
-        new Mote(random.nextLong(),toMapXCoordinate(wp21,mapzero),
-                toMapYCoordinate(wp21,mapzero),
-                environment, 14,12, new LinkedList<>(),0, new LinkedList<>(),10,0.5);
+    /**
+     * Sets whether the loop runs in lockstep, only running the iterations asked for through the lockstep controller
+     * of the simulation state instead of running freely. The controller must be opened before the simulation starts.
+     * @param lockstep True to run in lockstep.
+     * @since 1.0
+     */
+    public void setLockstep(boolean lockstep) {
+        this.lockstep = lockstep;
+    }
 
-        /*
-         * Mote 2
-         */
-        new Mote(random.nextLong(),
-                (int)Math.round(1000* IotDomain.Environment.distance(mapzero.getLatitude(),mapzero.getLongitude(),mapzero.getLatitude(), positionMote2.getLongitude())),
-                (int)Math.round(1000* IotDomain.Environment.distance(mapzero.getLatitude(),mapzero.getLongitude(),positionMote2.getLatitude(), mapzero.getLongitude())),
-                environment, 14,12, new LinkedList<>(),0, track2,10,0.5);
+    /**
+     * Sets the fleet the simulation generates instead of running the main scenario.
+     * @param fleet The parameters of the fleet, or null to run the main scenario.
+     * @since 1.0
+     */
+    public void setFleet(FleetScenario.Fleet fleet) {
+        this.fleet = fleet;
+    }
+
+    /**
+     * Sets the seed of the scenario, which makes the run reproducible.
+     * @param seed The seed, or null to draw one.
+     * @since 1.0
+     */
+    public void setSeed(Long seed) {
+        this.seed = seed;
+    }
 
-        return environment;
+    public static IotDomain.Environment createEnvironment() {
+        return MainScenario.createEnvironment(new Random());
     }
 
     /**
-     * Starts a DingNet simulation with three motes and four gateways. Two motes are moved along different paths.
-     * The simulation state is updated regularly.
+     * Starts a DingNet simulation with three motes and four gateways, of which two motes are moved along different
+     * paths, or of the fleet which was set. The simulation state is updated regularly, and the pacing controller of the simulation state keeps the
+     * simulated time to the target ratio to the wall clock time. In lockstep the loop only runs the iterations asked
+     * for through the lockstep controller of the simulation state. Snapshots of the scenario are taken and restored
+     * through the checkpoint controller of the simulation state in between the iterations.
      * @exception InterruptedException can occur in {@link Thread#sleep(long)}
      * @since 1.0
      */
     public void runSimulation(boolean visualizeResults) throws InterruptedException {
-        /*
-        Set to enable or disable adaptation of node 0 (D1).
-         */
-        Boolean adaption = false;
-
-        Environment environment = createEnvironment();
-
-        /*
-         Get the motes.
-         */
-        Mote mote0 = environment.getMotes().get(0);
-        Mote mote1 = environment.getMotes().get(1);
-        Mote mote2 = environment.getMotes().get(2);
-
-        LinkedList<GeoPosition> track0 = mote0.getPath();
-        LinkedList<GeoPosition> track2 = mote2.getPath();
+        long scenarioSeed = seed != null ? seed : new Random().nextLong();
+        SteppedScenario scenario = fleet == null
+                ? new MainScenario(scenarioSeed, visualizeResults)
+                : new FleetScenario(fleet, scenarioSeed);
+        Environment environment = scenario.getEnvironment();
+        environment.setCoverageRastersEnabled(coverageRasters);
+        // A fleet can drop the reception by motes itself.
+        environment.setGatewayOnlyReception(gatewayOnlyReception || environment.isGatewayOnlyReception());
+        environment.setRetentionPolicy(retentionPolicy);
 
         this.simulationState.setEnvironment(environment);
 
-        /*
-         Actual simulation
-         */
-        Random random = new Random();
-        LinkedList<Integer> powerSetting0 = new LinkedList<>();
-        LinkedList<LoraTransmission> highestPower0 = new LinkedList<>();
-        int mote0Counter = mote0.getSamplingRate() - 1;
-        int mote1Counter = mote1.getSamplingRate() - 1;
-        Integer mote2counter = random.nextInt(15)+1;
-        LinkedList<Integer> indexesMote2 = new LinkedList<>();
-        indexesMote2.add(mote2counter);
-        int trackPosition0 = 0;
-        int trackPosition2 = 0;
-        GeoPosition mapzero = environment.getMapCenter();
-
-        while(!simulationState.getShouldStop()) {
-            // Update the position of mote0
-            if(moveMote(track0.get(trackPosition0 % track0.size()), mote0, mapzero)){
-                if(mote0Counter == 0) {
-                    mote0.sendToGateWay(new Byte[0], new HashMap<>());
-                    if(adaption){
-                        powerSetting0.add(mote0.getTransmissionPower());
-                        highestPower0.add(naiveAdaptionAlgorithm(mote0));
+        CheckpointController checkpoints = simulationState.getCheckpointController();
+        checkpoints.attach(scenario);
+        try {
+            if (lockstep) {
+                runInLockstep(checkpoints);
+            } else {
+                PacingController pacing = simulationState.getPacingController();
+                pacing.start(environment.getTimeNanos());
+                while(!simulationState.getShouldStop()) {
+                    long time;
+                    SteppedScenario current = checkpoints.lock();
+                    try {
+                        current.step();
+                        time = current.getEnvironment().getTimeNanos();
+                    } finally {
+                        checkpoints.unlock();
                     }
-
-                    updateMoteStatistics(mote0, environment);
-                    mote0Counter = mote0.getSamplingRate() - 1;
+                    pacing.pace(time);
                 }
-                else
-                    mote0Counter --;
-                // Mote didn't move, reached a waypoint
-            } else {
-                trackPosition0++;
-            }
-
-            if (mote1Counter == 0) {
-                mote1.sendToGateWay(new Byte[0], new HashMap<>());
-
-                updateMoteStatistics(mote1, environment);
-
-                mote1Counter = mote1.getSamplingRate() - 1;
-            } else {
-                mote1Counter--;
-            }
-
-            // Update the position of mote2
-            if (moveMote(track2.get(trackPosition2 % track2.size()), mote2, mapzero)) {
-                if (mote2counter == 0) {
-                    mote2.sendToGateWay(new Byte[0], new HashMap<>());
-
-                    updateMoteStatistics(mote2, environment);
-
-                    mote2counter = random.nextInt(15) + 1;
-                    indexesMote2.add(indexesMote2.getLast() + mote2counter);
-                } else
-                    mote2counter--;
-                // Mote didn't move, reached a waypoint
-            } else {
-                trackPosition2++;
+                pacing.stop();
             }
-
-            environment.tick(1500);
+        } finally {
+            scenario = checkpoints.detach();
         }
 
-        if (visualizeResults)
-            showCharts(environment, indexesMote2);
+        if (visualizeResults && scenario instanceof MainScenario)
+            showCharts(scenario.getEnvironment(), ((MainScenario) scenario).getIndexesMote2());
     }
 
-    private void updateMoteStatistics(Mote mote, Environment environment) {
-        mote.setHighestReceivedSignal(moteProbe.getHighestReceivedSignal(mote));
-        mote.setShortestDistanceToGateway(moteProbe.getShortestDistanceToGateway(mote));
-        mote.setPacketLoss(mote.calculatePacketLoss(environment.getNumberOfRuns() - 1));
+    /**
+     * Runs the iterations asked for through the lockstep controller until the simulation is stopped.
+     * Snapshots are taken and restored in between the requests.
+     * @param checkpoints The checkpoint controller the scenario to step is attached to.
+     * @exception InterruptedException can occur while waiting for the next request
+     */
+    private void runInLockstep(CheckpointController checkpoints) throws InterruptedException {
+        LockstepController lockstepController = simulationState.getLockstepController();
+        try {
+            for (LockstepController.Advance request = lockstepController.next(); request != null;
+                 request = lockstepController.next()) {
+                int iterations = 0;
+                SteppedScenario scenario = checkpoints.lock();
+                try {
+                    request.runBefore();
+                    while (iterations < request.getIterations() && !simulationState.getShouldStop()) {
+                        scenario.step();
+                        iterations++;
+                    }
+                    request.runAfter();
+                } catch (RuntimeException e) {
+                    request.fail(e);
+                } finally {
+                    request.complete(iterations, scenario.getEnvironment().getTimeNanos());
+                    checkpoints.unlock();
+                }
+            }
+        } finally {
+            lockstepController.close();
+        }
     }
 
     private static void showCharts(Environment environment, List<Integer> indexesMote2) {
@@ -257,10 +225,11 @@ public class MainSimulation extends Thread {
         int lostPacketsMote0 = 0;
         for(Gateway gateway : environment.getGateways()){
             transmissionsMote0.add(new LinkedList<>());
-            for(LoraTransmission transmission :gateway.getAllReceivedTransmissions(gateway.getEnvironment().getNumberOfRuns()-1).keySet()){
+            for(Map.Entry<LoraTransmission, Boolean> reception :gateway.getAllReceivedTransmissions(gateway.getEnvironment().getNumberOfRuns()-1).entrySet()){
+                LoraTransmission transmission = reception.getKey();
                 if(transmission.getSender() == environment.getMotes().get(0)) {
                     transmittedPacketsMote0++;
-                    if (!gateway.getAllReceivedTransmissions(gateway.getEnvironment().getNumberOfRuns()-1).get(transmission))
+                    if (!reception.getValue())
                         transmissionsMote0.getLast().add(transmission);
                     else {
                         transmissionsMote0.getLast().add(new LoraTransmission(transmission.getSender(),
@@ -281,10 +250,11 @@ public class MainSimulation extends Thread {
         int lostPacketsMote2 = 0;
         for(Gateway gateway : environment.getGateways()){
             transmissionsMote2.add(new LinkedList<>());
-            for(LoraTransmission transmission :gateway.getAllReceivedTransmissions(gateway.getEnvironment().getNumberOfRuns()-1).keySet()){
+            for(Map.Entry<LoraTransmission, Boolean> reception :gateway.getAllReceivedTransmissions(gateway.getEnvironment().getNumberOfRuns()-1).entrySet()){
+                LoraTransmission transmission = reception.getKey();
                 if(transmission.getSender() == environment.getMotes().get(2)) {
                     transmittedPacketsMote2 ++;
-                    if (!gateway.getAllReceivedTransmissions(gateway.getEnvironment().getNumberOfRuns()-1).get(transmission))
+                    if (!reception.getValue())
                         transmissionsMote2.getLast().add(transmission);
                     else {
                         lostPacketsMote2 ++;
@@ -381,87 +351,26 @@ public class MainSimulation extends Thread {
 
     /**
      * Runs the simulation and sets the {@code isRunning} flag of the simulation state to {@code false} again.
+     * The resources the thread uses are accounted in the resource account of the simulation state.
      * @exception RuntimeException can occur in {@link MainSimulation#runSimulation(boolean)}
      * @since 1.0
      */
     public void run() {
+        ResourceAccount resourceAccount = this.simulationState.getResourceAccount();
+        resourceAccount.start();
         try {
             this.runSimulation(false);
-            this.simulationState.setIsRunning(false);
         } catch (InterruptedException e) {
             throw new RuntimeException(e.getMessage());
+        } finally {
+            // A scenario which failed to build or run must not leave the simulation running, or waiting for
+            // lockstep requests, for good.
+            this.simulationState.getLockstepController().close();
+            this.simulationState.setIsRunning(false);
+            resourceAccount.finish();
         }
     }
 
-    /*
-    The naïve adaptation for our paper
-     */
-    private static LinkedList<Double> algorithmBuffer = new LinkedList<>();
-    private static LoraTransmission naiveAdaptionAlgorithm(Mote mote){
-        LinkedList<LoraTransmission> lastTransmissions = new LinkedList<>();
-        for(Gateway gateway :mote.getEnvironment().getGateways()){
-            Boolean placed = false;
-            for(int i = gateway.getReceivedTransmissions(gateway.getEnvironment().getNumberOfRuns()-1).size()-1; i>=0 && !placed; i--) {
-                if(gateway.getReceivedTransmissions(gateway.getEnvironment().getNumberOfRuns()-1).get(i).getSender() == mote) {
-                    lastTransmissions.add(gateway.getReceivedTransmissions(gateway.getEnvironment().getNumberOfRuns()-1).get(i));
-                    placed = true;
-                }
-            }
-        }
-        LoraTransmission bestTransmission = lastTransmissions.getFirst();
-        for (LoraTransmission transmission : lastTransmissions){
-            if(transmission.getTransmissionPower() > bestTransmission.getTransmissionPower())
-                bestTransmission = transmission;
-        }
-        algorithmBuffer.add(bestTransmission.getTransmissionPower());
-        if(algorithmBuffer.size() ==5){
-            double average = 0;
-            for (Double power : algorithmBuffer){
-                average+= power;
-            }
-            average = average /5;
-            if(average > -42) {
-                if (mote.getTransmissionPower() > -3)
-                    mote.setTransmissionPower(mote.getTransmissionPower() - 1);
-            }
-            if(average < -48){
-                if(mote.getTransmissionPower() < 14)
-                    mote.setTransmissionPower(mote.getTransmissionPower() +1);
-            }
-            algorithmBuffer = new LinkedList<>();
-        }
-        return bestTransmission;
-    }
-
-    /**
-     * A function that moves a mote to a geoposition 1 step and returns if the note has moved.
-     * @param position
-     * @param mote
-     * @param mapzero
-     * @return If the node has moved
-     */
-    private static Boolean moveMote(GeoPosition position, Mote mote, GeoPosition mapzero){
-        Integer xPos = toMapXCoordinate(position, mapzero);
-        Integer yPos = toMapYCoordinate(position, mapzero);
-        if(Integer.signum(xPos - mote.getXPos()) != 0 || Integer.signum(yPos - mote.getYPos()) != 0){
-            if(Math.abs(mote.getXPos() - xPos) >= Math.abs(mote.getYPos() - yPos)){
-                mote.setXPos(mote.getXPos() + Integer.signum(xPos - mote.getXPos()));
-            }  else {
-                mote.setYPos(mote.getYPos() + Integer.signum(yPos - mote.getYPos()));
-            }
-            return true;
-        }
-        return false;
-    }
-
-    private static Integer toMapXCoordinate(GeoPosition geoPosition, GeoPosition mapzero){
-        return (int)Math.round(1000* IotDomain.Environment.distance(mapzero.getLatitude(),mapzero.getLongitude(),mapzero.getLatitude(), geoPosition.getLongitude()));
-    }
-
-    private static Integer toMapYCoordinate(GeoPosition geoPosition, GeoPosition mapzero){
-        return (int)Math.round(1000* IotDomain.Environment.distance(mapzero.getLatitude(),mapzero.getLongitude(),geoPosition.getLatitude(), mapzero.getLongitude()));
-    }
-
     public static void main(String[] args) throws InterruptedException {
         new MainSimulation(new SimulationState()).runSimulation(true);
     }
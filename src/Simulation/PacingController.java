@@ -0,0 +1,163 @@
+package Simulation;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Paces a simulation loop to a target ratio of simulated time to wall clock time.
+ * After every step the loop reports the time of its environment, and the thread running it is parked until the wall
+ * clock catches up with the target ratio, rather than spinning. The target can change while the loop runs, from any
+ * thread, and the ratio which is actually achieved is measured over windows of a second of wall clock time.
+ */
+public class PacingController {
+
+    /**
+     * The target ratio which lets the loop run as fast as it can.
+     */
+    public static final double MAXIMUM = Double.POSITIVE_INFINITY;
+
+    /**
+     * The length of the windows over which the achieved ratio is measured, in nanoseconds of wall clock time.
+     */
+    private static final long MEASUREMENT_WINDOW_NANOS = 1_000_000_000L;
+
+    /**
+     * How far the loop can fall behind the target before it stops trying to catch up, in nanoseconds of wall clock
+     * time. A loop which is slower than the target for a while, e.g. because the host is busy, continues at the
+     * target ratio afterwards instead of running at full speed until it made up for the lost time.
+     */
+    private static final long MAXIMUM_LAG_NANOS = 1_000_000_000L;
+
+    private volatile double targetRatio = MAXIMUM;
+
+    /**
+     * The ratio achieved in the last measurement window, or NaN if no window of the running loop ended yet.
+     */
+    private volatile double achievedRatio = Double.NaN;
+
+    /**
+     * The thread running the paced loop, or null if no loop runs.
+     */
+    private volatile Thread pacedThread;
+
+    /**
+     * Set to let the paced thread stop waiting and measure the target from its current position again.
+     */
+    private volatile boolean reanchor = true;
+
+    /**
+     * The simulated and wall clock time from which the target is measured.
+     */
+    private long anchorSimulatedNanos;
+    private long anchorWallNanos;
+
+    /**
+     * The simulated and wall clock time at which the current measurement window started.
+     */
+    private long windowSimulatedNanos;
+    private long windowWallNanos;
+
+    /**
+     * Returns the target ratio of simulated time to wall clock time.
+     * @return The target ratio, {@link #MAXIMUM} to run as fast as possible.
+     */
+    public double getTargetRatio() {
+        return targetRatio;
+    }
+
+    /**
+     * Sets the target ratio of simulated time to wall clock time, which takes effect at once if a loop runs.
+     * @param targetRatio The target ratio, {@link #MAXIMUM} to run as fast as possible.
+     * @throws IllegalArgumentException If the ratio is not positive.
+     */
+    public void setTargetRatio(double targetRatio) {
+        if (!(targetRatio > 0)) {
+            throw new IllegalArgumentException("The target ratio must be positive: " + targetRatio);
+        }
+        this.targetRatio = targetRatio;
+        release();
+    }
+
+    /**
+     * Returns if the target is to run as fast as possible.
+     * @return True if the target ratio is {@link #MAXIMUM}.
+     */
+    public boolean isMaximum() {
+        return targetRatio == MAXIMUM;
+    }
+
+    /**
+     * Returns the ratio of simulated time to wall clock time which the loop achieved in the last second.
+     * @return The achieved ratio, or NaN if no loop runs or it did not run for a second yet.
+     */
+    public double getAchievedRatio() {
+        return achievedRatio;
+    }
+
+    /**
+     * Starts pacing a loop on the current thread.
+     * @param simulatedNanos The current time of the environment of the loop in nanoseconds.
+     */
+    public void start(long simulatedNanos) {
+        long now = System.nanoTime();
+        windowSimulatedNanos = simulatedNanos;
+        windowWallNanos = now;
+        achievedRatio = Double.NaN;
+        reanchor = true;
+        pacedThread = Thread.currentThread();
+    }
+
+    /**
+     * Stops pacing the loop of the current thread.
+     */
+    public void stop() {
+        pacedThread = null;
+        achievedRatio = Double.NaN;
+    }
+
+    /**
+     * Lets the paced thread continue at once instead of waiting for the rest of its step, e.g. when the simulation
+     * is stopped.
+     */
+    public void release() {
+        reanchor = true;
+        Thread thread = pacedThread;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    /**
+     * Waits after a step of the loop until the wall clock caught up with the target ratio.
+     * @param simulatedNanos The time of the environment of the loop after the step, in nanoseconds.
+     */
+    public void pace(long simulatedNanos) {
+        long now = System.nanoTime();
+        if (now - windowWallNanos >= MEASUREMENT_WINDOW_NANOS) {
+            achievedRatio = (double) (simulatedNanos - windowSimulatedNanos) / (now - windowWallNanos);
+            windowSimulatedNanos = simulatedNanos;
+            windowWallNanos = now;
+        }
+
+        double ratio = targetRatio;
+        if (reanchor) {
+            reanchor = false;
+            anchorSimulatedNanos = simulatedNanos;
+            anchorWallNanos = now;
+            return;
+        }
+        if (ratio == MAXIMUM) {
+            return;
+        }
+
+        long deadline = anchorWallNanos + (long) ((simulatedNanos - anchorSimulatedNanos) / ratio);
+        if (now - deadline > MAXIMUM_LAG_NANOS) {
+            anchorSimulatedNanos = simulatedNanos;
+            anchorWallNanos = now;
+            return;
+        }
+        while (deadline - now > 0 && !reanchor) {
+            LockSupport.parkNanos(this, deadline - now);
+            now = System.nanoTime();
+        }
+    }
+}
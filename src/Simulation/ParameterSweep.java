@@ -0,0 +1,379 @@
+package Simulation;
+
+import IotDomain.Environment;
+import IotDomain.Mote;
+import IotDomain.PacketCounters;
+import IotDomain.Simulation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs the scattered scenario for every combination of a number of motes and a distribution of spreading factors,
+ * each with the same seeds, on a work-stealing pool, and aggregates the packet loss and the energy of the runs of every
+ * combination as they finish. All runs are placed on a single terrain, whose map and, if enabled, coverage rasters are
+ * computed once and shared.
+ * The seed of the n-th run of a combination is derived from the base seed and n, so a seed gives the same run
+ * whatever the number of threads. The seeds can be split over shards, which run in separate processes, each running
+ * the seeds whose number modulo the number of shards is the number of the shard.
+ */
+public class ParameterSweep {
+
+    /**
+     * The lowest and highest spreading factor of a mote.
+     */
+    private static final int MIN_SPREADING_FACTOR = 7;
+    private static final int MAX_SPREADING_FACTOR = 12;
+
+    /**
+     * A combination of parameters of the sweep.
+     */
+    public static final class Configuration {
+        private final int numberOfMotes;
+        private final int[] spreadingFactors;
+
+        private Configuration(int numberOfMotes, int[] spreadingFactors) {
+            this.numberOfMotes = numberOfMotes;
+            this.spreadingFactors = spreadingFactors;
+        }
+
+        /**
+         * Returns the number of randomly scattered motes, next to the main mote.
+         * @return The number of scattered motes.
+         */
+        public int getNumberOfMotes() {
+            return numberOfMotes;
+        }
+
+        /**
+         * Returns the spreading factors the scattered motes draw from with equal chance.
+         * @return The spreading factors.
+         */
+        public int[] getSpreadingFactors() {
+            return spreadingFactors.clone();
+        }
+
+        @Override
+        public String toString() {
+            return numberOfMotes + " motes, SF " + Arrays.toString(spreadingFactors);
+        }
+    }
+
+    /**
+     * A finished run of a combination.
+     */
+    public static final class Run {
+        private final Configuration configuration;
+        private final int number;
+        private final long seed;
+        private final double packetLoss;
+        private final double energyPerMote;
+        private final long wallNanos;
+
+        private Run(Configuration configuration, int number, long seed, double packetLoss, double energyPerMote,
+                    long wallNanos) {
+            this.configuration = configuration;
+            this.number = number;
+            this.seed = seed;
+            this.packetLoss = packetLoss;
+            this.energyPerMote = energyPerMote;
+            this.wallNanos = wallNanos;
+        }
+
+        public Configuration getConfiguration() {
+            return configuration;
+        }
+
+        /**
+         * Returns the number of the run among the runs of its combination, from which its seed is derived.
+         * @return The number of the run.
+         */
+        public int getNumber() {
+            return number;
+        }
+
+        public long getSeed() {
+            return seed;
+        }
+
+        /**
+         * Returns the fraction of the transmissions of all motes which were lost, counted per receiver.
+         * @return The packet loss of the run.
+         */
+        public double getPacketLoss() {
+            return packetLoss;
+        }
+
+        /**
+         * Returns the energy the motes used on average, in the unit of {@link Mote#getTotalUsedEnergy(int)}.
+         * @return The energy per mote of the run.
+         */
+        public double getEnergyPerMote() {
+            return energyPerMote;
+        }
+
+        public long getWallNanos() {
+            return wallNanos;
+        }
+    }
+
+    /**
+     * The mean of a number of samples and the 95% confidence interval around it, based on the Student t
+     * distribution. The mean and the variance are updated with Welford's method as samples are added.
+     */
+    public static final class Statistic {
+
+        /**
+         * The 97.5% quantiles of the Student t distribution with 1 to 30 degrees of freedom.
+         */
+        private static final double[] T_QUANTILES = {
+                12.706, 4.303, 3.182, 2.776, 2.571, 2.447, 2.365, 2.306, 2.262, 2.228,
+                2.201, 2.179, 2.160, 2.145, 2.131, 2.120, 2.110, 2.101, 2.093, 2.086,
+                2.080, 2.074, 2.069, 2.064, 2.060, 2.056, 2.052, 2.048, 2.045, 2.042
+        };
+
+        /**
+         * The 97.5% quantile of the normal distribution.
+         */
+        private static final double Z_QUANTILE = 1.959964;
+
+        private int count = 0;
+        private double mean = 0;
+        private double sumOfSquares = 0;
+
+        /**
+         * Adds a sample.
+         * @param value The value of the sample.
+         */
+        public void add(double value) {
+            count++;
+            double delta = value - mean;
+            mean += delta / count;
+            sumOfSquares += delta * (value - mean);
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public double getMean() {
+            return mean;
+        }
+
+        /**
+         * Returns the half width of the 95% confidence interval of the mean.
+         * @return The half width, or NaN with fewer than two samples.
+         */
+        public double getHalfWidth() {
+            if (count < 2) {
+                return Double.NaN;
+            }
+            return quantile(count - 1) * Math.sqrt(sumOfSquares / (count - 1) / count);
+        }
+
+        /**
+         * Returns the 97.5% quantile of the Student t distribution, with the Cornish-Fisher expansion beyond the
+         * table, which is within 0.001 of it there.
+         */
+        private static double quantile(int degreesOfFreedom) {
+            if (degreesOfFreedom <= T_QUANTILES.length) {
+                return T_QUANTILES[degreesOfFreedom - 1];
+            }
+            double z = Z_QUANTILE;
+            double z3 = z * z * z;
+            return z + (z3 + z) / (4.0 * degreesOfFreedom)
+                    + (5 * z3 * z * z + 16 * z3 + 3 * z) / (96.0 * degreesOfFreedom * degreesOfFreedom);
+        }
+    }
+
+    /**
+     * Receives the runs of a sweep as they finish, on the thread running the sweep.
+     */
+    public interface Listener {
+        /**
+         * Receives a finished run with the aggregates of all finished runs of its combination, including this one.
+         * @param run The finished run.
+         * @param packetLoss The packet loss of the finished runs of the combination.
+         * @param energyPerMote The energy per mote of the finished runs of the combination.
+         */
+        void runFinished(Run run, Statistic packetLoss, Statistic energyPerMote);
+    }
+
+    private final List<Configuration> configurations = new ArrayList<>();
+    private final long baseSeed;
+    private final int numberOfSeeds;
+    private final long durationNanos;
+    private boolean coverageRasters = false;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private int shard = 0;
+    private int numberOfShards = 1;
+
+    /**
+     * Constructs a sweep over every combination of the given numbers of motes and distributions of spreading factors.
+     * @param numbersOfMotes The numbers of randomly scattered motes, next to the main mote.
+     * @param spreadingFactors The distributions of spreading factors, each a list the scattered motes draw their
+     *                         spreading factor from with equal chance.
+     * @param baseSeed The seed the seeds of the runs are derived from.
+     * @param numberOfSeeds The number of runs of every combination.
+     * @param durationNanos The simulated duration of a run in nanoseconds.
+     * @throws IllegalArgumentException If a parameter is out of range.
+     */
+    public ParameterSweep(List<Integer> numbersOfMotes, List<int[]> spreadingFactors, long baseSeed, int numberOfSeeds,
+                          long durationNanos) {
+        if (numbersOfMotes.isEmpty() || spreadingFactors.isEmpty()) {
+            throw new IllegalArgumentException("The sweep needs at least one number of motes and one distribution of spreading factors.");
+        }
+        if (numberOfSeeds <= 0 || durationNanos <= 0) {
+            throw new IllegalArgumentException("The number of seeds and the duration must be positive.");
+        }
+        for (int[] distribution : spreadingFactors) {
+            if (distribution.length == 0) {
+                throw new IllegalArgumentException("A distribution of spreading factors is empty.");
+            }
+            for (int spreadingFactor : distribution) {
+                if (spreadingFactor < MIN_SPREADING_FACTOR || spreadingFactor > MAX_SPREADING_FACTOR) {
+                    throw new IllegalArgumentException("Invalid spreading factor: " + spreadingFactor);
+                }
+            }
+        }
+        for (int numberOfMotes : numbersOfMotes) {
+            if (numberOfMotes < 0) {
+                throw new IllegalArgumentException("Invalid number of motes: " + numberOfMotes);
+            }
+            for (int[] distribution : spreadingFactors) {
+                configurations.add(new Configuration(numberOfMotes, distribution.clone()));
+            }
+        }
+        this.baseSeed = baseSeed;
+        this.numberOfSeeds = numberOfSeeds;
+        this.durationNanos = durationNanos;
+    }
+
+    /**
+     * Sets whether the coverage rasters of the gateways are computed once and shared by all runs. The motes of the
+     * scenario do not move, so the path loss cache of a run holds their path losses after the first messages, and
+     * the rasters of the whole map only pay off over many long runs.
+     * @param coverageRasters True to share coverage rasters between the runs, false to cache path losses per run.
+     */
+    public void setCoverageRasters(boolean coverageRasters) {
+        this.coverageRasters = coverageRasters;
+    }
+
+    /**
+     * Sets the number of threads running the runs, by default the number of processors.
+     * @param threads The number of threads.
+     * @throws IllegalArgumentException If the number is not positive.
+     */
+    public void setThreads(int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Invalid number of threads: " + threads);
+        }
+        this.threads = threads;
+    }
+
+    /**
+     * Lets the sweep run only a shard of the seeds, to split it over processes.
+     * @param shard The number of the shard, from 0.
+     * @param numberOfShards The number of shards.
+     * @throws IllegalArgumentException If the shard is out of range.
+     */
+    public void setShard(int shard, int numberOfShards) {
+        if (numberOfShards <= 0 || shard < 0 || shard >= numberOfShards) {
+            throw new IllegalArgumentException("Invalid shard " + shard + " of " + numberOfShards);
+        }
+        this.shard = shard;
+        this.numberOfShards = numberOfShards;
+    }
+
+    /**
+     * Returns the combinations of parameters of the sweep.
+     * @return The combinations, in the order of the numbers of motes and then of the distributions.
+     */
+    public List<Configuration> getConfigurations() {
+        return configurations;
+    }
+
+    /**
+     * Returns the number of runs of every combination in the shard of the sweep.
+     * @return The number of runs per combination.
+     */
+    public int getRunsPerConfiguration() {
+        return (numberOfSeeds - shard + numberOfShards - 1) / numberOfShards;
+    }
+
+    /**
+     * Runs the runs of the shard and passes each to the listener as soon as it finishes. The runs are submitted one
+     * seed at a time over all combinations, so the aggregates of the combinations grow evenly.
+     * @param listener The listener receiving the finished runs.
+     * @return The aggregates of the packet loss and the energy per mote, by combination in the order of
+     *         {@link #getConfigurations()}.
+     * @throws InterruptedException If the thread is interrupted while it waits for a run.
+     * @throws ExecutionException If a run fails.
+     */
+    public Map<Configuration, Statistic[]> run(Listener listener) throws InterruptedException, ExecutionException {
+        Environment terrain = ScatteredScenario.createTerrain(new Random(baseSeed));
+        terrain.setCoverageRastersEnabled(coverageRasters);
+
+        Map<Configuration, Statistic[]> statistics = new LinkedHashMap<>();
+        for (Configuration configuration : configurations) {
+            statistics.put(configuration, new Statistic[]{new Statistic(), new Statistic()});
+        }
+
+        ExecutorService pool = Executors.newWorkStealingPool(threads);
+        try {
+            CompletionService<Run> completion = new ExecutorCompletionService<>(pool);
+            int submitted = 0;
+            for (int number = shard; number < numberOfSeeds; number += numberOfShards) {
+                long seed = Simulation.runSeed(baseSeed, number);
+                int runNumber = number;
+                for (Configuration configuration : configurations) {
+                    completion.submit(() -> run(configuration, runNumber, seed, terrain));
+                    submitted++;
+                }
+            }
+            for (int finished = 0; finished < submitted; finished++) {
+                Run run = completion.take().get();
+                Statistic[] aggregate = statistics.get(run.getConfiguration());
+                aggregate[0].add(run.getPacketLoss());
+                aggregate[1].add(run.getEnergyPerMote());
+                listener.runFinished(run, aggregate[0], aggregate[1]);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        return statistics;
+    }
+
+    /**
+     * Runs a combination with a seed on the terrain.
+     */
+    private Run run(Configuration configuration, int number, long seed, Environment terrain) {
+        long start = System.nanoTime();
+        ScatteredScenario scenario = new ScatteredScenario(seed, configuration.numberOfMotes,
+                configuration.spreadingFactors, terrain);
+        scenario.runUntil(durationNanos);
+        long wallNanos = System.nanoTime() - start;
+
+        Environment environment = scenario.getEnvironment();
+        long sent = 0;
+        long received = 0;
+        double energy = 0;
+        for (Mote mote : environment.getMotes()) {
+            PacketCounters counters = mote.getPacketCounters(0);
+            sent += counters.getSent();
+            received += counters.getReceived();
+            energy += mote.getTotalUsedEnergy(0);
+        }
+        return new Run(configuration, number, seed, sent == 0 ? 0 : (sent - received) / (double) sent,
+                energy / environment.getMotes().size(), wallNanos);
+    }
+}
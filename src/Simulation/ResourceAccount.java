@@ -0,0 +1,107 @@
+package Simulation;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Accounts the CPU time and the memory allocated by the threads running the simulations of one simulation state,
+ * so that simulations sharing a JVM can be told apart. The thread of a running simulation is measured live, the
+ * threads of earlier runs were added when they finished. The work of requests on the simulation state, which run on
+ * threads of the HTTP server, is added by {@link #measure(Measured)} once a request is handled.
+ */
+public class ResourceAccount {
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    /**
+     * The CPU time and the allocated bytes of the finished threads.
+     */
+    private long finishedCpuNanos = 0;
+    private long finishedAllocatedBytes = 0;
+
+    /**
+     * The thread of the running simulation, or null if none runs.
+     */
+    private Thread thread;
+
+    /**
+     * Work which is measured on the current thread.
+     * @param <E> The exception the work can throw.
+     */
+    public interface Measured<E extends Exception> {
+        void run() throws E;
+    }
+
+    /**
+     * Starts accounting the current thread, which runs a simulation.
+     */
+    public synchronized void start() {
+        thread = Thread.currentThread();
+    }
+
+    /**
+     * Stops accounting the current thread and adds its usage to the finished ones.
+     */
+    public synchronized void finish() {
+        if (thread != Thread.currentThread()) {
+            return;
+        }
+        finishedCpuNanos += Math.max(0, cpuNanos(thread));
+        finishedAllocatedBytes += Math.max(0, allocatedBytes(thread));
+        thread = null;
+    }
+
+    /**
+     * Runs work for the simulation state on the current thread, which does not run a simulation, and adds the CPU time
+     * and the memory it used, also if it fails.
+     * @param work The work, like handling a request.
+     * @param <E> The exception the work can throw.
+     * @throws E If the work throws it.
+     */
+    public <E extends Exception> void measure(Measured<E> work) throws E {
+        Thread current = Thread.currentThread();
+        long cpuNanos = cpuNanos(current);
+        long allocatedBytes = allocatedBytes(current);
+        try {
+            work.run();
+        } finally {
+            long usedCpuNanos = cpuNanos(current) - cpuNanos;
+            long usedAllocatedBytes = allocatedBytes(current) - allocatedBytes;
+            synchronized (this) {
+                finishedCpuNanos += Math.max(0, usedCpuNanos);
+                finishedAllocatedBytes += Math.max(0, usedAllocatedBytes);
+            }
+        }
+    }
+
+    /**
+     * Returns the CPU time used by the simulations and the requests on them.
+     * @return The CPU time in nanoseconds, or the time of the finished threads if the JVM cannot measure a running
+     *         one.
+     */
+    public synchronized long getCpuNanos() {
+        return finishedCpuNanos + (thread == null ? 0 : Math.max(0, cpuNanos(thread)));
+    }
+
+    /**
+     * Returns the memory allocated by the simulations and the requests on them, which includes the memory which was
+     * freed again.
+     * @return The allocated memory in bytes, or 0 for the threads the JVM cannot measure.
+     */
+    public synchronized long getAllocatedBytes() {
+        return finishedAllocatedBytes + (thread == null ? 0 : Math.max(0, allocatedBytes(thread)));
+    }
+
+    @SuppressWarnings("deprecation")
+    private static long cpuNanos(Thread thread) {
+        return THREADS.isThreadCpuTimeSupported() ? THREADS.getThreadCpuTime(thread.getId()) : 0;
+    }
+
+    @SuppressWarnings("deprecation")
+    private static long allocatedBytes(Thread thread) {
+        if (THREADS instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) THREADS).getThreadAllocatedBytes(thread.getId());
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,228 @@
+package Simulation;
+
+import IotDomain.*;
+import SelfAdaptation.Instrumentation.MoteProbe;
+import org.jxmapviewer.viewer.GeoPosition;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * The scenario of the scattered simulation: a main mote surrounded by four gateways and randomly scattered motes
+ * which do not move. Every iteration lets the motes which are due send and advances the clock by 10 seconds.
+ */
+public class ScatteredScenario implements Scenario {
+
+    private static final MoteProbe moteProbe = new MoteProbe();
+
+    /**
+     * The length of an iteration in milliseconds.
+     */
+    private static final long ITERATION_MILLIS = 10000;
+
+    private final Environment environment;
+
+    private final Random random;
+
+    private final Mote mainMote;
+
+    /**
+     * The main mote sends once every sampling rate iterations, the other motes at random intervals averaging their
+     * sampling rate. Only the motes which are due are touched in an iteration.
+     */
+    private final TimingWheel sendTimers = new TimingWheel(0);
+
+    /**
+     * Sampling rates changed through the effector reschedule the timers at the start of the next iteration.
+     */
+    private final Queue<Mote> samplingRateChanges = new ConcurrentLinkedQueue<>();
+
+    private int iteration = 0;
+
+    /**
+     * The number of randomly scattered motes, next to the main mote.
+     */
+    public static final int DEFAULT_NUMBER_OF_MOTES = 20;
+
+    /**
+     * The spreading factors the scattered motes draw from with equal chance.
+     */
+    public static final int[] DEFAULT_SPREADING_FACTORS = {7, 8, 9, 10, 11, 12};
+
+    /**
+     * Constructs the scenario with a new environment.
+     * @param seed The seed of the environment and the intervals of the motes.
+     */
+    public ScatteredScenario(long seed) {
+        this(seed, DEFAULT_NUMBER_OF_MOTES, DEFAULT_SPREADING_FACTORS, null);
+    }
+
+    /**
+     * Constructs the scenario with a given number of scattered motes and distribution of their spreading factors.
+     * @param seed The seed of the environment and the intervals of the motes.
+     * @param numberOfMotes The number of randomly scattered motes, next to the main mote.
+     * @param spreadingFactors The spreading factors the scattered motes draw from with equal chance, so a spreading
+     *                         factor which occurs more than once is drawn more often.
+     * @param terrain The terrain made by {@link #createTerrain(Random)} to place the motes on, shared with other
+     *                scenarios, or null to create a new one.
+     */
+    public ScatteredScenario(long seed, int numberOfMotes, int[] spreadingFactors, Environment terrain) {
+        environment = createEnvironment(new Random(seed), numberOfMotes, spreadingFactors, terrain);
+        environment.getRandom().setSeed(seed);
+        random = new Random(seed);
+        mainMote = environment.getMotes().get(0);
+        for (Mote mote : environment.getMotes()) {
+            sendTimers.schedule(mote.getId(), nextSend(mote, mainMote, -1, random));
+            mote.setSamplingRateListener(samplingRateChanges::add);
+        }
+    }
+
+    /**
+     * Creates the environment of the scenario, with a main mote in the center of the map, a gateway near every corner
+     * and randomly scattered motes.
+     * @param random The random generator drawing the seeds, positions and spreading factors of the motes.
+     * @return The environment of the scenario.
+     */
+    public static Environment createEnvironment(Random random) {
+        return createEnvironment(random, DEFAULT_NUMBER_OF_MOTES, DEFAULT_SPREADING_FACTORS, null);
+    }
+
+    /**
+     * Creates the terrain of the scenario: the map with a gateway near every corner, without motes.
+     * @param random The random generator drawing the EUIs of the gateways.
+     * @return The terrain of the scenario.
+     */
+    public static Environment createTerrain(Random random) {
+        final int mapSize = 2000;
+        GeoPosition mapZero = new GeoPosition(50.853718, 4.673155);
+
+        /*
+         * Prepare simulation environment.
+         */
+        Characteristic[][] map = new Characteristic[mapSize][mapSize];
+        Arrays.stream(map).forEach(row -> Arrays.fill(row, Characteristic.Forest));
+
+        Environment environment = new Environment(map, mapZero, new LinkedHashSet<>());
+
+        /*
+         *  Create gateways, M represent our main mote, numbers represent gateways
+         *  +-------------+
+         *  |  1       2  |
+         *  |      M      |
+         *  |  3       4  |
+         *  +-------------+
+         */
+        final int distanceFromBorder = 100;
+
+        // Gateway 1
+        new Gateway(random.nextLong(), distanceFromBorder, environment.getMaxYpos() - distanceFromBorder, environment, 14, 12);
+
+        // Gateway 2
+        new Gateway(random.nextLong(), environment.getMaxXpos() - distanceFromBorder, environment.getMaxYpos() - distanceFromBorder, environment, 14, 12);
+
+        // Gateway 3
+        new Gateway(random.nextLong(), distanceFromBorder, distanceFromBorder, environment, 14, 12);
+
+        // Gateway 4
+        new Gateway(random.nextLong(), environment.getMaxXpos() - distanceFromBorder, distanceFromBorder, environment, 14, 12);
+
+        return environment;
+    }
+
+    /**
+     * Creates the environment of the scenario on a new or a given terrain, with a main mote in the center of the map
+     * and randomly scattered motes.
+     * @param random The random generator drawing the seeds, positions and spreading factors of the motes.
+     * @param numberOfMotes The number of randomly scattered motes, next to the main mote.
+     * @param spreadingFactors The spreading factors the scattered motes draw from with equal chance.
+     * @param terrain The terrain to copy, or null to create a new one.
+     * @return The environment of the scenario.
+     */
+    private static Environment createEnvironment(Random random, int numberOfMotes, int[] spreadingFactors,
+                                                 Environment terrain) {
+        Environment environment;
+        if (terrain == null) {
+            environment = createTerrain(random);
+        } else {
+            environment = terrain.copyTerrain();
+            // The EUIs of the gateways are drawn all the same, so the motes do not depend on the terrain.
+            for (int i = 0; i < terrain.getGateways().size(); i++) {
+                random.nextLong();
+            }
+        }
+
+        // Main mote
+        new Mote(random.nextLong(), environment.getMaxXpos() / 2, environment.getMaxYpos() / 2, environment, 14,11, new LinkedList<>(),0, new LinkedList<>(),10,0.5);
+
+        /*
+         * Add 'numberOfMotes' motes randomly scattered on the map
+         */
+        for (int j = 0; j < numberOfMotes; j++) {
+            new Mote(random.nextLong(),
+                    random.nextInt(environment.getMaxXpos()),
+                    random.nextInt(environment.getMaxYpos()),
+                    environment, 14, spreadingFactors[random.nextInt(spreadingFactors.length)], new LinkedList<>(), 0, new LinkedList<>(), 10, 0.5);
+        }
+
+        return environment;
+    }
+
+    @Override
+    public Environment getEnvironment() {
+        return environment;
+    }
+
+    /**
+     * Returns the main mote of the scenario.
+     * @return The main mote.
+     */
+    public Mote getMainMote() {
+        return mainMote;
+    }
+
+    @Override
+    public void runUntil(long timeNanos) {
+        while (environment.getTimeNanos() < timeNanos) {
+            step();
+        }
+    }
+
+    /**
+     * Simulates an iteration of the scenario.
+     */
+    public void step() {
+        for (Mote mote = samplingRateChanges.poll(); mote != null; mote = samplingRateChanges.poll()) {
+            sendTimers.schedule(mote.getId(), nextSend(mote, mainMote, iteration - 1, random));
+        }
+
+        sendTimers.advance(id -> {
+            Mote mote = environment.getMotes().get(id);
+            mote.sendToGateWay(new Byte[0], new HashMap<>());
+            if (mote == mainMote) {
+                mainMote.setHighestReceivedSignal(moteProbe.getHighestReceivedSignal(mainMote));
+                mainMote.setShortestDistanceToGateway(moteProbe.getShortestDistanceToGateway(mainMote));
+                mainMote.setPacketLoss(mainMote.calculatePacketLoss(environment.getNumberOfRuns() - 1));
+            }
+            sendTimers.schedule(id, nextSend(mote, mainMote, iteration, random));
+        });
+
+        environment.tick(ITERATION_MILLIS);
+        iteration++;
+    }
+
+    /**
+     * Returns the iteration in which a mote sends its next packet.
+     * @param mote The mote.
+     * @param mainMote The main mote, which sends once every sampling rate iterations.
+     * @param lastIteration The iteration in which the mote last sent a packet.
+     * @param random The random generator drawing the intervals of the other motes.
+     * @return The iteration of the next packet of the mote.
+     */
+    private static long nextSend(Mote mote, Mote mainMote, long lastIteration, Random random) {
+        if (mote == mainMote || mote.getSamplingRate() <= 1)
+            return lastIteration + Math.max(1, mote.getSamplingRate());
+        // The number of iterations until the first of the draws with a chance of one in the sampling rate succeeds.
+        double probability = 1.0 / mote.getSamplingRate();
+        return lastIteration + 1 + (long) Math.floor(Math.log(1 - random.nextDouble()) / Math.log(1 - probability));
+    }
+}
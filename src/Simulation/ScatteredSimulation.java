@@ -59,56 +59,13 @@ public class ScatteredSimulation extends Thread {
     }
 
     public static Environment createEnvironment(long randomSeed) {
-        Random random = new Random(randomSeed);
-        final int mapSize = 2000;
-        GeoPosition mapZero = new GeoPosition(50.853718, 4.673155);
-
-        /*
-         * Prepare simulation environment.
-         */
-        Characteristic[][] map = new Characteristic[mapSize][mapSize];
-        Arrays.stream(map).forEach(row -> Arrays.fill(row, Characteristic.Forest));
-
-        Environment environment = new Environment(map, mapZero, new LinkedHashSet<>());
-
-        /*
-         *  Create main mote and gateways, M represent our main mote, numbers represent gateways
-         *  +-------------+
-         *  |  1       2  |
-         *  |      M      |
-         *  |  3       4  |
-         *  +-------------+
-         */
-        final int distanceFromBorder = 100;
-
-        // Gateway 1
-        new Gateway(random.nextLong(), distanceFromBorder, environment.getMaxYpos() - distanceFromBorder, environment, 14, 12);
-
-        // Gateway 2
-        new Gateway(random.nextLong(), environment.getMaxXpos() - distanceFromBorder, environment.getMaxYpos() - distanceFromBorder, environment, 14, 12);
-
-        // Gateway 3
-        new Gateway(random.nextLong(), distanceFromBorder, distanceFromBorder, environment, 14, 12);
-
-        // Gateway 4
-        new Gateway(random.nextLong(), environment.getMaxXpos() - distanceFromBorder, distanceFromBorder, environment, 14, 12);
-
-        // Main mote
-        Mote mainMote = new Mote(random.nextLong(), environment.getMaxXpos() / 2, environment.getMaxYpos() / 2, environment, 14,11, new LinkedList<>(),0, new LinkedList<>(),10,0.5);
-
-
-        final int numMotes = 20;
-
-        /*
-         * Add 'numMotes' motes randomly scattered on the map
-         */
-        for (int j = 0; j < numMotes; j++) {
-            new Mote(random.nextLong(),
-                    random.nextInt(environment.getMaxXpos()),
-                    random.nextInt(environment.getMaxYpos()),
-                    environment, 14, random.nextInt(6) + 7, new LinkedList<>(), 0, new LinkedList<>(), 10, 0.5);
-        }
+        Environment environment = ScatteredScenario.createEnvironment(new Random(randomSeed));
+        printSpreadingFactors(environment);
+        return environment;
+    }
 
+    private static void printSpreadingFactors(Environment environment) {
+        Mote mainMote = environment.getMotes().get(0);
         Map<Integer, Integer> spreadingFactorDistribution = new HashMap<>();
         for (Mote mote : environment.getMotes()) {
             if (mote == mainMote) {
@@ -121,69 +78,39 @@ public class ScatteredSimulation extends Thread {
         // Least common spreading factor should be the best to get the lowest packet loss
         System.out.println("Least common spreading factor: " + spreadingFactorDistribution.entrySet().stream().min(Comparator.comparingInt(Map.Entry::getValue)).get().getKey());
         System.out.println(spreadingFactorDistribution);
-
-        return environment;
     }
 
     /**
-     * Starts a DingNet simulation with three motes and four gateways. Two motes are moved along different paths.
+     * Starts a DingNet simulation with a main mote, four gateways and randomly scattered motes.
      * The simulation state is updated regularly.
      * @exception InterruptedException can occur in {@link Thread#sleep(long)}
      * @since 1.0
      */
     public void runSimulation(boolean visualizeResults) throws InterruptedException {
-        /*
-        Set to enable or disable adaptation of node 0 (D1).
-         */
-        Boolean adaption = false;
-
-        Environment environment = createEnvironment(this.randomSeed);
+        ScatteredScenario scenario = new ScatteredScenario(this.randomSeed);
+        Environment environment = scenario.getEnvironment();
+        printSpreadingFactors(environment);
         JFrame frame = createMap(environment);
 
-        /*
-         Get the motes.
-         */
-        Mote mainMote = environment.getMotes().get(0);
+        Mote mainMote = scenario.getMainMote();
         this.simulationState.setEnvironment(environment);
 
-        /*
-         Actual simulation
-         */
-        int mainMoteIterationsSincePacket = 0;
-        Random random = new Random(this.randomSeed);
-
         System.out.printf("Simulation started with seed %d%n", this.randomSeed);
 
+        PacingController pacing = simulationState.getPacingController();
+        pacing.start(environment.getTimeNanos());
         for(int simulationIteration = 0; !simulationState.getShouldStop(); simulationIteration++) {
-            if(mainMoteIterationsSincePacket == 9) {
-                mainMote.sendToGateWay(new Byte[0], new HashMap<>());
-                mainMote.setHighestReceivedSignal(moteProbe.getHighestReceivedSignal(mainMote));
-                mainMote.setShortestDistanceToGateway(moteProbe.getShortestDistanceToGateway(mainMote));
-                mainMote.setPacketLoss(mainMote.calculatePacketLoss(environment.getNumberOfRuns() - 1));
-                mainMoteIterationsSincePacket = 0;
-            } else {
-                mainMoteIterationsSincePacket++;
-            }
-
-            for (Mote mote : environment.getMotes()) {
-                if (mote == mainMote)
-                    continue;
-
-                // Motes send a packet at random intervals, on average once every 10 iterations
-                if (random.nextInt(10) == 0) {
-                    mote.sendToGateWay(new Byte[0], new HashMap<>());
-                }
-            }
+            scenario.step();
+            pacing.pace(environment.getTimeNanos());
 
             // Render map updates every 100 iterations
             if (simulationIteration % 100 == 0) {
                 updateMap(frame, environment, mainMote);
                 System.out.println(simulationIteration);
             }
-
-            environment.tick(10000);
         }
 
+        pacing.stop();
         simulationState.setIsRunning(false);
 
         frame.dispose();
@@ -293,10 +220,11 @@ public class ScatteredSimulation extends Thread {
         int lostPacketsMote0 = 0;
         for(Gateway gateway : environment.getGateways()){
             transmissionsMote0.add(new LinkedList<>());
-            for(LoraTransmission transmission :gateway.getAllReceivedTransmissions(gateway.getEnvironment().getNumberOfRuns()-1).keySet()){
+            for(Map.Entry<LoraTransmission, Boolean> reception :gateway.getAllReceivedTransmissions(gateway.getEnvironment().getNumberOfRuns()-1).entrySet()){
+                LoraTransmission transmission = reception.getKey();
                 if(transmission.getSender() == environment.getMotes().get(0)) {
                     transmittedPacketsMote0++;
-                    if (!gateway.getAllReceivedTransmissions(gateway.getEnvironment().getNumberOfRuns()-1).get(transmission))
+                    if (!reception.getValue())
                         transmissionsMote0.getLast().add(transmission);
                     else {
                         transmissionsMote0.getLast().add(new LoraTransmission(transmission.getSender(),
@@ -365,75 +293,6 @@ public class ScatteredSimulation extends Thread {
         }
     }
 
-    /*
-    The naïve adaptation for our paper
-     */
-    private static LinkedList<Double> algorithmBuffer = new LinkedList<>();
-    private static LoraTransmission naiveAdaptionAlgorithm(Mote mote){
-        LinkedList<LoraTransmission> lastTransmissions = new LinkedList<>();
-        for(Gateway gateway :mote.getEnvironment().getGateways()){
-            Boolean placed = false;
-            for(int i = gateway.getReceivedTransmissions(gateway.getEnvironment().getNumberOfRuns()-1).size()-1; i>=0 && !placed; i--) {
-                if(gateway.getReceivedTransmissions(gateway.getEnvironment().getNumberOfRuns()-1).get(i).getSender() == mote) {
-                    lastTransmissions.add(gateway.getReceivedTransmissions(gateway.getEnvironment().getNumberOfRuns()-1).get(i));
-                    placed = true;
-                }
-            }
-        }
-        LoraTransmission bestTransmission = lastTransmissions.getFirst();
-        for (LoraTransmission transmission : lastTransmissions){
-            if(transmission.getTransmissionPower() > bestTransmission.getTransmissionPower())
-                bestTransmission = transmission;
-        }
-        algorithmBuffer.add(bestTransmission.getTransmissionPower());
-        if(algorithmBuffer.size() ==5){
-            double average = 0;
-            for (Double power : algorithmBuffer){
-                average+= power;
-            }
-            average = average /5;
-            if(average > -42) {
-                if (mote.getTransmissionPower() > -3)
-                    mote.setTransmissionPower(mote.getTransmissionPower() - 1);
-            }
-            if(average < -48){
-                if(mote.getTransmissionPower() < 14)
-                    mote.setTransmissionPower(mote.getTransmissionPower() +1);
-            }
-            algorithmBuffer = new LinkedList<>();
-        }
-        return bestTransmission;
-    }
-
-    /**
-     * A function that moves a mote to a geoposition 1 step and returns if the note has moved.
-     * @param position
-     * @param mote
-     * @param mapzero
-     * @return If the node has moved
-     */
-    private static Boolean moveMote(GeoPosition position, Mote mote, GeoPosition mapzero){
-        Integer xPos = toMapXCoordinate(position, mapzero);
-        Integer yPos = toMapYCoordinate(position, mapzero);
-        if(Integer.signum(xPos - mote.getXPos()) != 0 || Integer.signum(yPos - mote.getYPos()) != 0){
-            if(Math.abs(mote.getXPos() - xPos) >= Math.abs(mote.getYPos() - yPos)){
-                mote.setXPos(mote.getXPos() + Integer.signum(xPos - mote.getXPos()));
-            }  else {
-                mote.setYPos(mote.getYPos() + Integer.signum(yPos - mote.getYPos()));
-            }
-            return true;
-        }
-        return false;
-    }
-
-    private static Integer toMapXCoordinate(GeoPosition geoPosition, GeoPosition mapzero){
-        return (int)Math.round(1000* Environment.distance(mapzero.getLatitude(),mapzero.getLongitude(),mapzero.getLatitude(), geoPosition.getLongitude()));
-    }
-
-    private static Integer toMapYCoordinate(GeoPosition geoPosition, GeoPosition mapzero){
-        return (int)Math.round(1000* Environment.distance(mapzero.getLatitude(),mapzero.getLongitude(),geoPosition.getLatitude(), mapzero.getLongitude()));
-    }
-
     public static void main(String[] args) throws InterruptedException {
         new ScatteredSimulation(new SimulationState(), LocalTime.now().toNanoOfDay()).runSimulation(true);
     }
@@ -0,0 +1,20 @@
+package Simulation;
+
+import IotDomain.Environment;
+
+/**
+ * A scenario which can be simulated without a user interface: an environment and the way its motes behave over time.
+ */
+public interface Scenario {
+    /**
+     * Returns the environment of the scenario.
+     * @return The environment of the scenario.
+     */
+    Environment getEnvironment();
+
+    /**
+     * Simulates the scenario until the clock of its environment reaches a given time.
+     * @param timeNanos The time in nanoseconds since the start of the simulation.
+     */
+    void runUntil(long timeNanos);
+}
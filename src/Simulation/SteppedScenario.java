@@ -0,0 +1,30 @@
+package Simulation;
+
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * A scenario the simulation loop of {@link MainSimulation} runs an iteration at a time, and which the checkpoint
+ * controller can snapshot and fork in between two iterations.
+ */
+public interface SteppedScenario extends Scenario {
+    /**
+     * Simulates an iteration of the scenario.
+     */
+    void step();
+
+    /**
+     * Returns a fork of the scenario in a fork of its environment, see {@link IotDomain.Environment#fork()}.
+     * Stepping the fork does not change the scenario, and a fork which is not adapted continues exactly as the
+     * scenario does. The scenario must not be stepped while it is forked.
+     * @return The fork of the scenario.
+     */
+    SteppedScenario fork();
+
+    /**
+     * Writes the state of the scenario to a snapshot, from which the scenario can be constructed again.
+     * @param out The output of the snapshot.
+     * @throws IOException If the output cannot be written.
+     */
+    void writeState(DataOutput out) throws IOException;
+}
@@ -0,0 +1,111 @@
+import Simulation.ParameterSweep;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import mappers.SweepResultMapper;
+import models.SweepModel;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * The class that runs a parameter sweep over the scattered scenario, described in a JSON file, and streams a line of
+ * JSON to the results file for every run as soon as it finishes, with the aggregates of its combination so far.
+ * Usage: {@code SweepRunner <sweep.json> <results file> [<shard>/<shards>]}.
+ */
+public class SweepRunner {
+
+    /**
+     * Reads the sweep, and the shard if given.
+     * @param args The command line arguments.
+     * @return The sweep.
+     * @throws IOException If the sweep cannot be read.
+     */
+    private static ParameterSweep createSweep(String[] args) throws IOException {
+        SweepModel model = new ObjectMapper().readValue(new File(args[0]), SweepModel.class);
+        if (model.getSeeds() == null || model.getDurationSeconds() == null || model.getNumbersOfMotes() == null
+                || model.getSpreadingFactors() == null) {
+            throw new IllegalArgumentException("The sweep needs seeds, durationSeconds, numbersOfMotes and spreadingFactors.");
+        }
+        List<int[]> spreadingFactors = new ArrayList<>();
+        for (List<Integer> distribution : model.getSpreadingFactors()) {
+            spreadingFactors.add(distribution.stream().mapToInt(Integer::intValue).toArray());
+        }
+        ParameterSweep sweep = new ParameterSweep(model.getNumbersOfMotes(), spreadingFactors,
+                model.getBaseSeed() == null ? 0 : model.getBaseSeed(), model.getSeeds(),
+                Math.round(model.getDurationSeconds() * 1e9));
+        if (model.getCoverageRasters() != null) {
+            sweep.setCoverageRasters(model.getCoverageRasters());
+        }
+        if (model.getThreads() != null) {
+            sweep.setThreads(model.getThreads());
+        }
+        if (args.length == 3) {
+            String[] shard = args[2].split("/");
+            if (shard.length != 2) {
+                throw new IllegalArgumentException("Invalid shard " + args[2]);
+            }
+            sweep.setShard(Integer.parseInt(shard[0]), Integer.parseInt(shard[1]));
+        }
+        return sweep;
+    }
+
+    /**
+     * Runs the sweep and writes the results file.
+     * @param args contains command line arguments.
+     * @throws Exception If the sweep cannot be read, the results cannot be written or a run fails.
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length != 2 && args.length != 3) {
+            System.err.println("Usage: SweepRunner <sweep.json> <results file> [<shard>/<shards>]");
+            System.exit(2);
+        }
+        ParameterSweep sweep;
+        try {
+            sweep = createSweep(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+            return;
+        }
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        int totalRuns = sweep.getRunsPerConfiguration();
+        long start = System.nanoTime();
+        Map<ParameterSweep.Configuration, ParameterSweep.Statistic[]> statistics;
+        try (Writer results = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(args[1]),
+                StandardCharsets.UTF_8))) {
+            statistics = sweep.run((run, packetLoss, energyPerMote) -> {
+                try {
+                    results.write(objectMapper.writeValueAsString(SweepResultMapper.mapRunToSweepResultModel(
+                            run, totalRuns, packetLoss, energyPerMote)));
+                    results.write('\n');
+                    results.flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (ExecutionException e) {
+            throw new IOException("A run of the sweep failed.", e.getCause());
+        }
+
+        System.out.println(String.format(Locale.ROOT, "%d runs of %d combinations in %.3f wall seconds",
+                totalRuns * statistics.size(), statistics.size(), (System.nanoTime() - start) / 1e9));
+        for (Map.Entry<ParameterSweep.Configuration, ParameterSweep.Statistic[]> entry : statistics.entrySet()) {
+            ParameterSweep.Statistic packetLoss = entry.getValue()[0];
+            ParameterSweep.Statistic energyPerMote = entry.getValue()[1];
+            System.out.println(String.format(Locale.ROOT, "%s: packet loss %.4f +/- %.4f, energy per mote %.4f +/- %.4f",
+                    entry.getKey(), packetLoss.getMean(), packetLoss.getHalfWidth(), energyPerMote.getMean(),
+                    energyPerMote.getHalfWidth()));
+        }
+    }
+}
@@ -0,0 +1,34 @@
+import IotDomain.GpsTraces;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * The class that converts a CSV file of GPS traces to the compact binary format ahead of a run, so that a fleet
+ * replaying the traces maps the binary file rather than converting the CSV file every time it is opened.
+ * Usage: {@code TraceConverter <traces.csv> <traces.bin>}.
+ */
+public class TraceConverter {
+
+    /**
+     * Converts the trace file and prints a summary of its traces.
+     * @param args contains command line arguments.
+     * @throws IOException If a file cannot be read or written.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: TraceConverter <traces.csv> <traces.bin>");
+            System.exit(2);
+        }
+        File binary = new File(args[1]);
+        GpsTraces.convert(new File(args[0]), binary);
+        GpsTraces traces = GpsTraces.open(binary);
+        long points = 0;
+        for (int i = 0; i < traces.getNumberOfTraces(); i++) {
+            points += traces.getNumberOfPoints(i);
+        }
+        System.out.println(String.format(Locale.ROOT, "%d traces, %d points, %d bytes, from %s to %s",
+                traces.getNumberOfTraces(), points, binary.length(), traces.getSouthWest(), traces.getNorthEast()));
+    }
+}
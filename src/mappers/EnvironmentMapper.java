@@ -5,12 +5,17 @@ import models.MonitorModel;
 
 public class EnvironmentMapper {
     public static MonitorModel mapEnvironmentToMonitorModel(Environment environment) {
+        return mapEnvironmentToMonitorModel(environment, MoteStateMapper.RECENT_PACKET_WINDOW_SIZE);
+    }
+
+    public static MonitorModel mapEnvironmentToMonitorModel(Environment environment, int recentPacketWindowSize) {
         if (environment == null)
             return new MonitorModel();
 
         return MonitorModel.builder()
                 .gatewayStates(GatewayStateMapper.mapGatewayListToGatewayStateList(environment.getGateways()))
-                .moteStates(MoteStateMapper.mapMoteListToMoteStateList(environment.getMotes()))
+                .moteStates(MoteStateMapper.mapMoteListToMoteStateList(environment.getMotes(), recentPacketWindowSize))
+                .pathLossCache(PathLossCacheStateMapper.mapPathLossCacheToPathLossCacheState(environment.getPathLossCache()))
                 .build();
     }
 }
@@ -0,0 +1,80 @@
+package mappers;
+
+import IotDomain.GpsTraces;
+import Simulation.FleetScenario;
+import models.FleetModel;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+
+public class FleetMapper {
+    /**
+     * The defaults of the parameters a fleet model leaves out.
+     */
+    private static final int DEFAULT_MAP_SIZE = 2000;
+    private static final int[] DEFAULT_SPREADING_FACTORS = {7, 8, 9, 10, 11, 12};
+    private static final int[] DEFAULT_SAMPLING_RATES = {10};
+
+    /**
+     * Maps a fleet model of a trusted source, such as the command line, to the parameters of a fleet, opening its
+     * binary or CSV trace file at any path if it has one.
+     * @param model The fleet model.
+     * @return The parameters of the fleet.
+     * @throws IllegalArgumentException If the number of motes or gateways is missing or a parameter is invalid.
+     * @throws IOException If the trace file cannot be read or is not a valid trace file.
+     */
+    public static FleetScenario.Fleet mapFleetModelToFleet(FleetModel model) throws IOException {
+        return mapFleetModelToFleet(model, model.getTraceFile() == null ? null : GpsTraces.open(new File(model.getTraceFile())));
+    }
+
+    /**
+     * Maps a fleet model of an HTTP client to the parameters of a fleet. Its trace file is a binary trace file within
+     * a trace directory, so a client cannot make the server read other files or convert CSV files on every run.
+     * @param model The fleet model.
+     * @param traceDirectory The directory of the trace files, or null if the fleet cannot have a trace file.
+     * @return The parameters of the fleet.
+     * @throws IllegalArgumentException If the number of motes or gateways is missing or a parameter is invalid.
+     * @throws IOException If the trace file is not within the trace directory, cannot be read or is not a binary
+     *                     trace file.
+     */
+    public static FleetScenario.Fleet mapFleetModelToFleet(FleetModel model, File traceDirectory) throws IOException {
+        return mapFleetModelToFleet(model,
+                model.getTraceFile() == null ? null : GpsTraces.openWithin(traceDirectory, model.getTraceFile()));
+    }
+
+    private static FleetScenario.Fleet mapFleetModelToFleet(FleetModel model, GpsTraces traces) {
+        if (model.getNumberOfMotes() == null || model.getNumberOfGateways() == null) {
+            throw new IllegalArgumentException("The fleet needs numberOfMotes and numberOfGateways.");
+        }
+        FleetScenario.GatewayLayout layout = FleetScenario.GatewayLayout.GRID;
+        if (model.getGatewayLayout() != null) {
+            try {
+                layout = FleetScenario.GatewayLayout.valueOf(model.getGatewayLayout().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown gateway layout " + model.getGatewayLayout());
+            }
+        }
+        return new FleetScenario.Fleet(
+                model.getMapSize() == null ? DEFAULT_MAP_SIZE : model.getMapSize(),
+                model.getNumberOfMotes(),
+                model.getNumberOfGateways(),
+                layout,
+                toArray(model.getSpreadingFactors(), DEFAULT_SPREADING_FACTORS),
+                toArray(model.getSamplingRates(), DEFAULT_SAMPLING_RATES),
+                model.getMobileShare() == null ? 0 : model.getMobileShare(),
+                Boolean.TRUE.equals(model.getGatewayOnlyReception()),
+                traces);
+    }
+
+    private static int[] toArray(List<Integer> values, int[] defaults) {
+        if (values == null) {
+            return defaults;
+        }
+        if (values.contains(null)) {
+            throw new IllegalArgumentException("Missing value in " + values);
+        }
+        return values.stream().mapToInt(Integer::intValue).toArray();
+    }
+}
@@ -1,13 +1,12 @@
 package mappers;
 
 import IotDomain.Mote;
+import IotDomain.RecentOutcomes;
 import SelfAdaptation.Instrumentation.MoteProbe;
 import models.MoteState;
 
-import java.util.LinkedList;
 import java.util.List;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
 public class MoteStateMapper {
     private static final MoteProbe moteProbe = new MoteProbe();
@@ -15,15 +14,19 @@ public class MoteStateMapper {
      * Number of most recent transmissions to consider when calculating recent packet loss.
      * Roughly corresponds to 5 minutes of simulated time for regularly reporting motes.
      */
-    private static final int RECENT_PACKET_WINDOW_SIZE = 30;
+    public static final int RECENT_PACKET_WINDOW_SIZE = RecentOutcomes.DEFAULT_WINDOW;
 
-    public static List<MoteState> mapMoteListToMoteStateList(LinkedList<Mote> motes) {
-        return IntStream.range(0, motes.size())
-                .mapToObj(index -> mapMoteToMoteState(motes.get(index), index))
+    public static List<MoteState> mapMoteListToMoteStateList(List<Mote> motes) {
+        return mapMoteListToMoteStateList(motes, RECENT_PACKET_WINDOW_SIZE);
+    }
+
+    public static List<MoteState> mapMoteListToMoteStateList(List<Mote> motes, int recentPacketWindowSize) {
+        return motes.stream()
+                .map(mote -> mapMoteToMoteState(mote, recentPacketWindowSize))
                 .collect(Collectors.toList());
     }
 
-    private static MoteState mapMoteToMoteState(Mote mote, int id) {
+    private static MoteState mapMoteToMoteState(Mote mote, int recentPacketWindowSize) {
         Double shortestDistanceToGateway = mote.getShortestDistanceToGateway();
         if (shortestDistanceToGateway == null) {
             shortestDistanceToGateway = moteProbe.getShortestDistanceToGateway(mote);
@@ -46,15 +49,14 @@ public class MoteStateMapper {
         }
 
         if (runIndex != null) {
-            if (packetLoss == null) {
-                packetLoss = mote.calculatePacketLoss(runIndex);
-            }
-            recentPacketLoss = mote.calculateRecentPacketLoss(runIndex, RECENT_PACKET_WINDOW_SIZE);
+            // The packet counters are kept up to date by the receivers, so reading them is cheap.
+            packetLoss = mote.calculatePacketLoss(runIndex);
+            recentPacketLoss = mote.calculateRecentPacketLoss(runIndex, recentPacketWindowSize);
         }
 
         return MoteState.builder()
                 .EUI(mote.getEUI())
-                .id(id)
+                .id(mote.getId())
                 .transmissionPower(mote.getTransmissionPower())
                 .shortestDistanceToGateway(shortestDistanceToGateway)
                 .highestReceivedSignal(highestReceivedSignal)
@@ -0,0 +1,15 @@
+package mappers;
+
+import IotDomain.PathLossCache;
+import models.PathLossCacheState;
+
+public class PathLossCacheStateMapper {
+    public static PathLossCacheState mapPathLossCacheToPathLossCacheState(PathLossCache pathLossCache) {
+        return PathLossCacheState.builder()
+                .hits(pathLossCache.getHits())
+                .misses(pathLossCache.getMisses())
+                .size(pathLossCache.getSize())
+                .capacity(pathLossCache.getCapacity())
+                .build();
+    }
+}
@@ -0,0 +1,29 @@
+package mappers;
+
+import IotDomain.Rollup;
+import IotDomain.RollupSeries;
+import models.RollupState;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class RollupStateMapper {
+    public static RollupState mapRollupToRollupState(Rollup rollup) {
+        return RollupState.builder()
+                .start(rollup.getStartNanos() / 1e9)
+                .end(rollup.getEndNanos() / 1e9)
+                .count(rollup.getCount())
+                .min(rollup.getMin())
+                .max(rollup.getMax())
+                .mean(rollup.getMean())
+                .build();
+    }
+
+    public static List<RollupState> mapRollupSeriesToRollupStates(RollupSeries rollupSeries) {
+        List<RollupState> rollupStates = new ArrayList<>();
+        for (Rollup rollup : rollupSeries.getRollups()) {
+            rollupStates.add(mapRollupToRollupState(rollup));
+        }
+        return rollupStates;
+    }
+}
@@ -0,0 +1,69 @@
+package mappers;
+
+import IotDomain.Environment;
+import IotDomain.Mote;
+import IotDomain.PacketCounters;
+import models.MoteRunSummaryModel;
+import models.RunSummaryModel;
+
+public class RunSummaryMapper {
+    public static MoteRunSummaryModel mapMoteToMoteRunSummaryModel(Mote mote) {
+        int transmissions = 0;
+        int sent = 0;
+        int received = 0;
+        int collided = 0;
+        for (int run = 0; run < mote.getEnvironment().getNumberOfRuns(); run++) {
+            transmissions += mote.getSentLog(run).getEndRow();
+            PacketCounters counters = mote.getPacketCounters(run);
+            sent += counters.getSent();
+            received += counters.getReceived();
+            collided += counters.getCollided();
+        }
+
+        return MoteRunSummaryModel.builder()
+                .EUI(mote.getEUI())
+                .transmissions(transmissions)
+                .sent(sent)
+                .received(received)
+                .collided(collided)
+                .lost(sent - received)
+                .packetLoss(sent == 0 ? 0 : (sent - received) / (double) sent)
+                .build();
+    }
+
+    public static RunSummaryModel mapEnvironmentToRunSummaryModel(String scenario, long seed, Environment environment,
+                                                                  long wallNanos) {
+        RunSummaryModel summary = RunSummaryModel.builder()
+                .scenario(scenario)
+                .seed(seed)
+                .runs(environment.getNumberOfRuns())
+                .build();
+
+        long transmissions = 0;
+        long sent = 0;
+        long received = 0;
+        long collided = 0;
+        for (Mote mote : environment.getMotes()) {
+            MoteRunSummaryModel moteSummary = mapMoteToMoteRunSummaryModel(mote);
+            summary.getMoteSummaries().add(moteSummary);
+            transmissions += moteSummary.getTransmissions();
+            sent += moteSummary.getSent();
+            received += moteSummary.getReceived();
+            collided += moteSummary.getCollided();
+        }
+
+        double simulatedSeconds = environment.getTimeNanos() / 1e9;
+        double wallSeconds = wallNanos / 1e9;
+        summary.setSimulatedSeconds(simulatedSeconds);
+        summary.setWallSeconds(wallSeconds);
+        summary.setSimulatedSecondsPerWallSecond(simulatedSeconds / wallSeconds);
+        summary.setTransmissions(transmissions);
+        summary.setTransmissionsPerSecond(transmissions / wallSeconds);
+        summary.setSent(sent);
+        summary.setReceived(received);
+        summary.setCollided(collided);
+        summary.setLost(sent - received);
+        summary.setPacketLoss(sent == 0 ? 0 : (sent - received) / (double) sent);
+        return summary;
+    }
+}
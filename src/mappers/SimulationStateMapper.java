@@ -5,7 +5,11 @@ import models.SimulationState;
 
 public class SimulationStateMapper {
     public static MonitorModel mapSimulationStateToMonitorModel(SimulationState simulationState) {
-        MonitorModel monitorModel = EnvironmentMapper.mapEnvironmentToMonitorModel(simulationState.getEnvironment());
+        return mapSimulationStateToMonitorModel(simulationState, MoteStateMapper.RECENT_PACKET_WINDOW_SIZE);
+    }
+
+    public static MonitorModel mapSimulationStateToMonitorModel(SimulationState simulationState, int recentPacketWindowSize) {
+        MonitorModel monitorModel = EnvironmentMapper.mapEnvironmentToMonitorModel(simulationState.getEnvironment(), recentPacketWindowSize);
 
         monitorModel.setIsRunning(simulationState.getIsRunning());
 
@@ -0,0 +1,35 @@
+package mappers;
+
+import Simulation.ParameterSweep;
+import models.SweepResultModel;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+public class SweepResultMapper {
+    public static SweepResultModel mapRunToSweepResultModel(ParameterSweep.Run run, int totalRuns,
+                                                            ParameterSweep.Statistic packetLoss,
+                                                            ParameterSweep.Statistic energyPerMote) {
+        return SweepResultModel.builder()
+                .numberOfMotes(run.getConfiguration().getNumberOfMotes())
+                .spreadingFactors(Arrays.stream(run.getConfiguration().getSpreadingFactors()).boxed()
+                        .collect(Collectors.toList()))
+                .run(run.getNumber())
+                .seed(run.getSeed())
+                .packetLoss(run.getPacketLoss())
+                .energyPerMote(run.getEnergyPerMote())
+                .wallSeconds(run.getWallNanos() / 1e9)
+                .finishedRuns(packetLoss.getCount())
+                .totalRuns(totalRuns)
+                .packetLossMean(packetLoss.getMean())
+                .packetLossHalfWidth(halfWidth(packetLoss))
+                .energyPerMoteMean(energyPerMote.getMean())
+                .energyPerMoteHalfWidth(halfWidth(energyPerMote))
+                .build();
+    }
+
+    private static Double halfWidth(ParameterSweep.Statistic statistic) {
+        double halfWidth = statistic.getHalfWidth();
+        return Double.isNaN(halfWidth) ? null : halfWidth;
+    }
+}
@@ -0,0 +1,30 @@
+package models;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO representing the iterations a simulation running in lockstep ran for a request.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AdvanceModel {
+    /**
+     * The number of iterations which were asked for.
+     */
+    private Integer ticks;
+
+    /**
+     * The number of iterations which ran, fewer than asked for if the simulation stopped first.
+     */
+    private Integer completedTicks;
+
+    /**
+     * The time of the simulation after the iterations in seconds.
+     */
+    private Double time;
+}
@@ -0,0 +1,30 @@
+package models;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO representing a snapshot which was restored into a running simulation.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CheckpointModel {
+    /**
+     * The size of the snapshot in bytes.
+     */
+    private Integer bytes;
+
+    /**
+     * The wall clock time it took to read the snapshot in milliseconds.
+     */
+    private Double millis;
+
+    /**
+     * The time of the simulation the snapshot was taken at in seconds.
+     */
+    private Double time;
+}
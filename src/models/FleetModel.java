@@ -0,0 +1,63 @@
+package models;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO representing the parameters of a generated fleet, read by the headless runner and {@code /start_run}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FleetModel {
+    /**
+     * The width and the height of the map in meters, 2000 if absent.
+     */
+    private Integer mapSize;
+
+    /**
+     * The number of motes.
+     */
+    private Integer numberOfMotes;
+
+    /**
+     * The number of gateways.
+     */
+    private Integer numberOfGateways;
+
+    /**
+     * The layout of the gateways: {@code grid}, {@code random} or {@code clustered}, {@code grid} if absent.
+     */
+    private String gatewayLayout;
+
+    /**
+     * The spreading factors the motes draw from with equal chance, 7 to 12 if absent.
+     */
+    private List<Integer> spreadingFactors;
+
+    /**
+     * The sampling rates the motes draw from with equal chance, 10 if absent.
+     */
+    private List<Integer> samplingRates;
+
+    /**
+     * The share of the motes which roam, 0 if absent. A fleet with a trace file has no roaming motes.
+     */
+    private Double mobileShare;
+
+    /**
+     * Whether only the gateways receive the transmissions of the motes, false if absent.
+     */
+    private Boolean gatewayOnlyReception;
+
+    /**
+     * The path of a binary or CSV file of GPS traces which the motes with the lowest ids replay, a trace each, absent
+     * if no mote replays a trace.
+     */
+    private String traceFile;
+}
@@ -1,15 +1,20 @@
 package models;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 /**
  * The Class responsible for storing the values of a gateway that is monitored.
+ * Only non-null values are included when an instance of this class is mapped to JSON.
  */
 @Data
 @Builder
+@NoArgsConstructor
 @AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class GatewayState {
     /**
      * The gateway identifier.
@@ -35,4 +40,9 @@ public class GatewayState {
      * The transmission power of the gateway.
      */
     private Integer transmissionPower;
+
+    /**
+     * The memory in bytes used by the coverage raster of the gateway, null if it has none.
+     */
+    private Long coverageRasterBytes;
 }
@@ -35,4 +35,9 @@ public class MonitorModel {
      */
     @Builder.Default
     private List<GatewayState> gatewayStates = new ArrayList<>();
+
+    /**
+     * The statistics of the path loss cache.
+     */
+    private PathLossCacheState pathLossCache;
 }
@@ -25,4 +25,9 @@ public class MoteEnergyUsageModel {
     private List<Double> transmissionEnergy = new ArrayList<>();
 
     private Double totalEnergy;
+
+    /**
+     * The rollups of the transmission energy evicted by the retention policy, absent if nothing was evicted.
+     */
+    private List<RollupState> energyRollups;
 }
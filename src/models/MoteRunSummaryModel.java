@@ -0,0 +1,31 @@
+package models;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO representing the transmissions of a mote over all runs of a headless simulation.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MoteRunSummaryModel {
+    private Long EUI;
+
+    /**
+     * The number of transmissions the mote sent.
+     */
+    private Integer transmissions;
+
+    /**
+     * The outcomes of the transmissions, counted per receiver.
+     */
+    private Integer sent;
+    private Integer received;
+    private Integer collided;
+    private Integer lost;
+    private Double packetLoss;
+}
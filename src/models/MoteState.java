@@ -2,8 +2,10 @@ package models;
 
 import IotDomain.MoteSensor;
 import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 import org.jxmapviewer.viewer.GeoPosition;
 
 import java.util.LinkedList;
@@ -15,6 +17,8 @@ import java.util.LinkedList;
  */
 @Data
 @Builder
+@NoArgsConstructor
+@AllArgsConstructor
 @JsonInclude(JsonInclude.Include.NON_NULL)
 public class MoteState {
     /**
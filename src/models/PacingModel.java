@@ -0,0 +1,38 @@
+package models;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO representing the pacing of the simulation loop.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PacingModel {
+    /**
+     * Whether the loop runs as fast as possible.
+     */
+    private Boolean maximum;
+
+    /**
+     * The target ratio of simulated time to wall clock time, absent when the loop runs as fast as possible.
+     */
+    private Double targetRatio;
+
+    /**
+     * The ratio of simulated time to wall clock time achieved in the last second, absent until the loop ran for a
+     * second.
+     */
+    private Double achievedRatio;
+
+    /**
+     * Whether the simulation is running.
+     */
+    private Boolean isRunning;
+}
@@ -0,0 +1,35 @@
+package models;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The Class responsible for storing the statistics of the path loss cache of the simulation.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PathLossCacheState {
+    /**
+     * The number of path loss lookups answered from the cache.
+     */
+    private Long hits;
+
+    /**
+     * The number of path loss lookups that had to be computed.
+     */
+    private Long misses;
+
+    /**
+     * The number of entries in the cache.
+     */
+    private Integer size;
+
+    /**
+     * The maximal number of entries in the cache.
+     */
+    private Integer capacity;
+}
@@ -0,0 +1,43 @@
+package models;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * The Class responsible for storing the aggregate of samples which were evicted from a history.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+public class RollupState {
+    /**
+     * The time of the first sample in seconds since the start of the simulation.
+     */
+    private Double start;
+
+    /**
+     * The time of the last sample in seconds since the start of the simulation.
+     */
+    private Double end;
+
+    /**
+     * The number of samples.
+     */
+    private Long count;
+
+    /**
+     * The smallest sample.
+     */
+    private Double min;
+
+    /**
+     * The largest sample.
+     */
+    private Double max;
+
+    /**
+     * The mean of the samples.
+     */
+    private Double mean;
+}
@@ -0,0 +1,48 @@
+package models;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO representing the metrics and the throughput of a headless simulation.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RunSummaryModel {
+    private String scenario;
+    private Long seed;
+    private Integer runs;
+
+    private Double simulatedSeconds;
+    private Double wallSeconds;
+
+    /**
+     * The simulated time per second of wall clock time.
+     */
+    private Double simulatedSecondsPerWallSecond;
+
+    /**
+     * The number of transmissions the motes sent, and the number they sent per second of wall clock time.
+     */
+    private Long transmissions;
+    private Double transmissionsPerSecond;
+
+    /**
+     * The outcomes of the transmissions of the motes, counted per receiver.
+     */
+    private Long sent;
+    private Long received;
+    private Long collided;
+    private Long lost;
+    private Double packetLoss;
+
+    @Builder.Default
+    private List<MoteRunSummaryModel> moteSummaries = new ArrayList<>();
+}
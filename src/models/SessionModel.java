@@ -0,0 +1,48 @@
+package models;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO representing a simulation session and the resources it used.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SessionModel {
+    private String id;
+
+    /**
+     * The time the session was created in milliseconds since the epoch.
+     */
+    private Long created;
+
+    private Boolean isRunning;
+
+    /**
+     * The number of requests the endpoints of the session handled.
+     */
+    private Long requests;
+
+    /**
+     * The simulated time of the environment in seconds, absent before the first run created one.
+     */
+    private Double simulatedTime;
+    private Integer motes;
+    private Integer gateways;
+
+    /**
+     * The CPU time used by the simulation threads of the session in seconds.
+     */
+    private Double cpuTime;
+
+    /**
+     * The memory allocated by the simulation threads of the session in bytes, including memory freed again.
+     */
+    private Long allocatedBytes;
+}
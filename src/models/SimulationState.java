@@ -1,6 +1,10 @@
 package models;
 
 import IotDomain.Environment;
+import Simulation.CheckpointController;
+import Simulation.LockstepController;
+import Simulation.PacingController;
+import Simulation.ResourceAccount;
 import lombok.*;
 
 /**
@@ -21,4 +25,24 @@ public class SimulationState {
     private Boolean isRunning = false;
 
     private Boolean shouldStop = false;
+
+    /**
+     * The pacing of the simulation loop, which is kept between runs.
+     */
+    private final PacingController pacingController = new PacingController();
+
+    /**
+     * The requests for iterations of a simulation loop running in lockstep.
+     */
+    private final LockstepController lockstepController = new LockstepController();
+
+    /**
+     * The CPU time and memory used by the simulation threads.
+     */
+    private final ResourceAccount resourceAccount = new ResourceAccount();
+
+    /**
+     * The snapshots of the scenario of a running simulation loop.
+     */
+    private final CheckpointController checkpointController = new CheckpointController();
 }
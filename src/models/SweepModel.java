@@ -0,0 +1,52 @@
+package models;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO representing a parameter sweep over the scattered scenario, read by the sweep runner.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SweepModel {
+    /**
+     * The seed the seeds of the runs are derived from, 0 if absent.
+     */
+    private Long baseSeed;
+
+    /**
+     * The number of runs of every combination of parameters.
+     */
+    private Integer seeds;
+
+    /**
+     * The simulated duration of every run.
+     */
+    private Double durationSeconds;
+
+    /**
+     * The numbers of randomly scattered motes, next to the main mote.
+     */
+    private List<Integer> numbersOfMotes;
+
+    /**
+     * The distributions of spreading factors, each a list the scattered motes draw from with equal chance.
+     */
+    private List<List<Integer>> spreadingFactors;
+
+    /**
+     * Whether the coverage rasters of the gateways are computed once for all runs, false if absent.
+     */
+    private Boolean coverageRasters;
+
+    /**
+     * The number of threads, the number of processors if absent.
+     */
+    private Integer threads;
+}
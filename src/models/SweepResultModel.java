@@ -0,0 +1,46 @@
+package models;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO representing a finished run of a parameter sweep, with the aggregates of the finished runs of its combination
+ * of parameters.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SweepResultModel {
+    private Integer numberOfMotes;
+    private List<Integer> spreadingFactors;
+
+    /**
+     * The number of the run among the runs of its combination, and its seed.
+     */
+    private Integer run;
+    private Long seed;
+
+    private Double packetLoss;
+    private Double energyPerMote;
+    private Double wallSeconds;
+
+    /**
+     * The number of finished runs of the combination, and the number of runs it has in the shard.
+     */
+    private Integer finishedRuns;
+    private Integer totalRuns;
+
+    /**
+     * The means of the finished runs of the combination and the half widths of their 95% confidence intervals, which
+     * are null with fewer than two runs.
+     */
+    private Double packetLossMean;
+    private Double packetLossHalfWidth;
+    private Double energyPerMoteMean;
+    private Double energyPerMoteHalfWidth;
+}